@@ -54,7 +54,7 @@ public class GBDaoGenerator {
 
 
     public static void main(String[] args) throws Exception {
-        final Schema schema = new Schema(85, MAIN_PACKAGE + ".entities");
+        final Schema schema = new Schema(86, MAIN_PACKAGE + ".entities");
 
         Entity userAttributes = addUserAttributes(schema);
         Entity user = addUserInfo(schema, userAttributes);
@@ -594,11 +594,12 @@ public class GBDaoGenerator {
     private static Entity addPebbleHealthActivityKindOverlay(Schema schema, Entity user, Entity device) {
         Entity activityOverlay = addEntity(schema, "PebbleHealthActivityOverlay");
 
-        activityOverlay.addIntProperty(TIMESTAMP_FROM).notNull().primaryKey();
+        Property timestampFrom = activityOverlay.addIntProperty(TIMESTAMP_FROM).notNull().primaryKey().getProperty();
         activityOverlay.addIntProperty(TIMESTAMP_TO).notNull().primaryKey();
         activityOverlay.addIntProperty(SAMPLE_RAW_KIND).notNull().primaryKey();
         Property deviceId = activityOverlay.addLongProperty("deviceId").primaryKey().notNull().getProperty();
         activityOverlay.addToOne(device, deviceId);
+        addIndex(activityOverlay, deviceId, timestampFrom);
 
         Property userId = activityOverlay.addLongProperty("userId").notNull().getProperty();
         activityOverlay.addToOne(user, userId);
@@ -639,11 +640,12 @@ public class GBDaoGenerator {
     private static Entity addHPlusHealthActivityKindOverlay(Schema schema, Entity user, Entity device) {
         Entity activityOverlay = addEntity(schema, "HPlusHealthActivityOverlay");
 
-        activityOverlay.addIntProperty(TIMESTAMP_FROM).notNull().primaryKey();
+        Property timestampFrom = activityOverlay.addIntProperty(TIMESTAMP_FROM).notNull().primaryKey().getProperty();
         activityOverlay.addIntProperty(TIMESTAMP_TO).notNull().primaryKey();
         activityOverlay.addIntProperty(SAMPLE_RAW_KIND).notNull().primaryKey();
         Property deviceId = activityOverlay.addLongProperty("deviceId").primaryKey().notNull().getProperty();
         activityOverlay.addToOne(device, deviceId);
+        addIndex(activityOverlay, deviceId, timestampFrom);
 
         Property userId = activityOverlay.addLongProperty("userId").notNull().getProperty();
         activityOverlay.addToOne(user, userId);
@@ -906,11 +908,12 @@ public class GBDaoGenerator {
     private static Entity addWatchXPlusHealthActivityKindOverlay(Schema schema, Entity user, Entity device) {
         Entity activityOverlay = addEntity(schema, "WatchXPlusHealthActivityOverlay");
 
-        activityOverlay.addIntProperty(TIMESTAMP_FROM).notNull().primaryKey();
+        Property timestampFrom = activityOverlay.addIntProperty(TIMESTAMP_FROM).notNull().primaryKey().getProperty();
         activityOverlay.addIntProperty(TIMESTAMP_TO).notNull().primaryKey();
         activityOverlay.addIntProperty(SAMPLE_RAW_KIND).notNull().primaryKey();
         Property deviceId = activityOverlay.addLongProperty("deviceId").primaryKey().notNull().getProperty();
         activityOverlay.addToOne(device, deviceId);
+        addIndex(activityOverlay, deviceId, timestampFrom);
 
         Property userId = activityOverlay.addLongProperty("userId").notNull().getProperty();
         activityOverlay.addToOne(user, userId);
@@ -966,9 +969,10 @@ public class GBDaoGenerator {
         Entity biometricSample = addEntity(schema, "LefunBiometricSample");
         biometricSample.implementsSerializable();
 
-        biometricSample.addIntProperty("timestamp").notNull().primaryKey();
+        Property timestamp = biometricSample.addIntProperty("timestamp").notNull().primaryKey().getProperty();
         Property deviceId = biometricSample.addLongProperty("deviceId").primaryKey().notNull().getProperty();
         biometricSample.addToOne(device, deviceId);
+        addIndex(biometricSample, deviceId, timestamp);
         Property userId = biometricSample.addLongProperty("userId").notNull().getProperty();
         biometricSample.addToOne(user, userId);
 
@@ -982,9 +986,10 @@ public class GBDaoGenerator {
         Entity sleepSample = addEntity(schema, "LefunSleepSample");
         sleepSample.implementsSerializable();
 
-        sleepSample.addIntProperty("timestamp").notNull().primaryKey();
+        Property timestamp = sleepSample.addIntProperty("timestamp").notNull().primaryKey().getProperty();
         Property deviceId = sleepSample.addLongProperty("deviceId").primaryKey().notNull().getProperty();
         sleepSample.addToOne(device, deviceId);
+        addIndex(sleepSample, deviceId, timestamp);
         Property userId = sleepSample.addLongProperty("userId").notNull().getProperty();
         sleepSample.addToOne(user, userId);
 
@@ -1010,11 +1015,15 @@ public class GBDaoGenerator {
                 "This class represents a sample specific to the device. Values like activity kind or\n" +
                         "intensity, are device specific. Normalized values can be retrieved through the\n" +
                         "corresponding {@link SampleProvider}.");
-        activitySample.addIntProperty("timestamp").notNull().codeBeforeGetterAndSetter(OVERRIDE).primaryKey();
+        Property timestamp = activitySample.addIntProperty("timestamp").notNull().codeBeforeGetterAndSetter(OVERRIDE).primaryKey().getProperty();
         Property deviceId = activitySample.addLongProperty("deviceId").primaryKey().notNull().codeBeforeGetterAndSetter(OVERRIDE).getProperty();
         activitySample.addToOne(device, deviceId);
         Property userId = activitySample.addLongProperty("userId").notNull().codeBeforeGetterAndSetter(OVERRIDE).getProperty();
         activitySample.addToOne(user, userId);
+        // samples are keyed by (timestamp, deviceId), but queried by device and a timestamp range, or
+        // sorted by timestamp for the first / latest sample of a device - without an index starting
+        // with the device, those go through the samples of all devices, or the whole table
+        addIndex(activitySample, deviceId, timestamp);
     }
 
     private static void addCommonTimeSampleProperties(String superClass, Entity timeSample, Entity user, Entity device) {
@@ -1023,11 +1032,21 @@ public class GBDaoGenerator {
         timeSample.setJavaDoc(
                 "This class represents a sample specific to the device. Values might be device specific, depending on the sample type.\n" +
                         "Normalized values can be retrieved through the corresponding {@link TimeSampleProvider}.");
-        timeSample.addLongProperty("timestamp").notNull().codeBeforeGetterAndSetter(OVERRIDE).primaryKey();
+        Property timestamp = timeSample.addLongProperty("timestamp").notNull().codeBeforeGetterAndSetter(OVERRIDE).primaryKey().getProperty();
         Property deviceId = timeSample.addLongProperty("deviceId").primaryKey().notNull().codeBeforeGetterAndSetter(OVERRIDE).getProperty();
         timeSample.addToOne(device, deviceId);
         Property userId = timeSample.addLongProperty("userId").notNull().codeBeforeGetterAndSetter(OVERRIDE).getProperty();
         timeSample.addToOne(user, userId);
+        // see addCommonActivitySampleProperties
+        addIndex(timeSample, deviceId, timestamp);
+    }
+
+    private static void addIndex(Entity entity, Property... properties) {
+        final Index index = new Index();
+        for (final Property property : properties) {
+            index.addProperty(property);
+        }
+        entity.addIndex(index);
     }
 
     private static void addCalendarSyncState(Schema schema, Entity device) {
@@ -1163,7 +1182,7 @@ public class GBDaoGenerator {
                 "This class represents the summary of a user's activity event. I.e. a walk, hike, a bicycle tour, etc.");
 
         summary.addStringProperty("name").codeBeforeGetter(OVERRIDE);
-        summary.addDateProperty("startTime").notNull().codeBeforeGetter(OVERRIDE);
+        Property startTime = summary.addDateProperty("startTime").notNull().codeBeforeGetter(OVERRIDE).getProperty();
         summary.addDateProperty("endTime").notNull().codeBeforeGetter(OVERRIDE);
         summary.addIntProperty("activityKind").notNull().codeBeforeGetter(OVERRIDE);
 
@@ -1180,6 +1199,10 @@ public class GBDaoGenerator {
         summary.addToOne(user, userId);
         summary.addStringProperty("summaryData");
         summary.addByteArrayProperty("rawSummaryData");
+
+        // summaries are listed per device, but also looked up by start time across all devices
+        addIndex(summary, deviceId, startTime);
+        addIndex(summary, startTime);
     }
 
     private static Property findProperty(Entity entity, String propertyName) {
@@ -1200,9 +1223,10 @@ public class GBDaoGenerator {
     private static Entity addBatteryLevel(Schema schema, Entity device) {
         Entity batteryLevel = addEntity(schema, "BatteryLevel");
         batteryLevel.implementsSerializable();
-        batteryLevel.addIntProperty("timestamp").notNull().primaryKey();
+        Property timestamp = batteryLevel.addIntProperty("timestamp").notNull().primaryKey().getProperty();
         Property deviceId = batteryLevel.addLongProperty("deviceId").primaryKey().notNull().getProperty();
         batteryLevel.addToOne(device, deviceId);
+        addIndex(batteryLevel, deviceId, timestamp);
         batteryLevel.addIntProperty("level").notNull();
         batteryLevel.addIntProperty("batteryIndex").notNull().primaryKey();
         return batteryLevel;
@@ -1355,7 +1379,7 @@ public class GBDaoGenerator {
 
         workoutSummary.addShortProperty("workoutNumber").notNull();
         workoutSummary.addByteProperty("status").notNull();
-        workoutSummary.addIntProperty("startTimestamp").notNull();
+        Property startTimestamp = workoutSummary.addIntProperty("startTimestamp").notNull().getProperty();
         workoutSummary.addIntProperty("endTimestamp").notNull();
         workoutSummary.addIntProperty("calories").notNull();
         workoutSummary.addIntProperty("distance").notNull();
@@ -1390,6 +1414,8 @@ public class GBDaoGenerator {
 
         workoutSummary.addByteProperty("swimType").notNull();
 
+        addIndex(workoutSummary, deviceId, startTimestamp);
+
         return workoutSummary;
     }
 
@@ -41,6 +41,9 @@ import android.database.sqlite.SQLiteDatabase;
 import android.net.Uri;
 import android.os.Build;
 import android.os.Build.VERSION;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Trace;
 import android.preference.PreferenceManager;
 import android.provider.ContactsContract.PhoneLookup;
 import android.util.Log;
@@ -60,6 +63,11 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
@@ -132,6 +140,12 @@ public class GBApplication extends Application {
     private static final LimitedQueue<Integer, String> mIDSenderLookup = new LimitedQueue<>(16);
     private static GBPrefs prefs;
     private static LockHandler lockHandler;
+    private static ExecutorService databaseExecutor;
+    /**
+     * Completes once the database was opened and migrated in the background, see {@link #setupDatabaseAsync()}.
+     * Null if the database was opened synchronously.
+     */
+    private static volatile Future<?> databaseReady;
     /**
      * Note: is null on Lollipop
      */
@@ -223,20 +237,30 @@ public class GBApplication extends Application {
             return;
         }
 
+        Trace.beginSection("GBApplication.onCreate");
+        final long onCreateStart = System.nanoTime();
+
         sharedPrefs = PreferenceManager.getDefaultSharedPreferences(context);
         prefs = new GBPrefs(sharedPrefs);
 
+        boolean openDatabase = false;
         if (!GBEnvironment.isEnvironmentSetup()) {
             GBEnvironment.setupEnvironment(GBEnvironment.createDeviceEnvironment());
             // setup db after the environment is set up, but don't do it in test mode
             // in test mode, it's done individually, see TestBase
-            setupDatabase();
+            openDatabase = true;
         }
 
         // don't do anything here before we set up logging, otherwise
         // slf4j may be implicitly initialized before we properly configured it.
         setupLogging(isFileLoggingEnabled());
 
+        if (openDatabase) {
+            // opening the database may run schema migrations, which can take a long time
+            // callers of acquireDB will block until it is ready
+            setupDatabaseAsync();
+        }
+
         if (getPrefsFileVersion() != CURRENT_PREFS_VERSION) {
             migratePrefs(getPrefsFileVersion());
         }
@@ -284,6 +308,9 @@ public class GBApplication extends Application {
                                 .build(), context);
             }
         }
+
+        Log.i(TAG, "Application created in " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - onCreateStart) + "ms on the main thread");
+        Trace.endSection();
     }
 
     @Override
@@ -313,6 +340,7 @@ public class GBApplication extends Application {
 
     public static void setupLogging(boolean enabled) {
         logging.setupLogging(enabled);
+        logging.setPacketTraceEnabled(enabled && isPacketTraceEnabled());
     }
 
     public static String getLogPath() {
@@ -328,6 +356,10 @@ public class GBApplication extends Application {
         return prefs.getBoolean("log_to_file", false);
     }
 
+    public static boolean isPacketTraceEnabled() {
+        return prefs.getBoolean("log_packet_trace", false);
+    }
+
     public static boolean minimizeNotification() {
         return prefs.getBoolean("minimize_priority", false);
     }
@@ -348,6 +380,72 @@ public class GBApplication extends Application {
         lockHandler.init(daoMaster, helper);
     }
 
+    /**
+     * Open the database in the background. Until it is ready, {@link #acquireDB()} blocks.
+     */
+    private void setupDatabaseAsync() {
+        if (lockHandler == null) {
+            lockHandler = new LockHandler();
+        }
+        databaseExecutor = Executors.newSingleThreadExecutor(r -> new Thread(r, "GB-database"));
+        databaseReady = databaseExecutor.submit(() -> {
+            Trace.beginSection("GBApplication.setupDatabase");
+            final long start = System.nanoTime();
+            try {
+                setupDatabase();
+                Log.i(TAG, "Database opened in " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + "ms");
+            } catch (final RuntimeException e) {
+                Log.e(TAG, "Failed to open the database", e);
+                throw e;
+            } finally {
+                Trace.endSection();
+                // the callbacks already queued still run, see runWhenDatabaseReady()
+                databaseExecutor.shutdown();
+            }
+        });
+    }
+
+    /**
+     * Run a callback on the main thread once the database is ready. If it already is, the callback
+     * runs right away, on the calling thread.
+     */
+    public static void runWhenDatabaseReady(final Runnable callback) {
+        final Future<?> ready = databaseReady;
+        if (ready == null || ready.isDone()) {
+            callback.run();
+            return;
+        }
+        try {
+            // the executor is single-threaded, so this only runs after the database was opened
+            databaseExecutor.execute(() -> new Handler(Looper.getMainLooper()).post(callback));
+        } catch (final RejectedExecutionException e) {
+            // the database was opened in the meantime, and the executor shut down
+            new Handler(Looper.getMainLooper()).post(callback);
+        }
+    }
+
+    private static void awaitDatabase() throws GBException {
+        final Future<?> ready = databaseReady;
+        if (ready == null) {
+            return;
+        }
+
+        final boolean wasReady = ready.isDone();
+        final long start = System.nanoTime();
+        try {
+            ready.get();
+        } catch (final ExecutionException e) {
+            throw new GBException("Unable to open the database.", e.getCause());
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GBException("Interrupted while waiting for the database to open", e);
+        }
+
+        if (!wasReady && Looper.getMainLooper().getThread() == Thread.currentThread()) {
+            Log.w(TAG, "Main thread waited " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + "ms for the database");
+        }
+    }
+
     public static Context getContext() {
         return context;
     }
@@ -386,6 +484,7 @@ public class GBApplication extends Application {
      * @see #releaseDB()
      */
     public static DBHandler acquireDB() throws GBException {
+        awaitDatabase();
         try {
             if (dbLock.tryLock(30, TimeUnit.SECONDS)) {
                 return lockHandler;
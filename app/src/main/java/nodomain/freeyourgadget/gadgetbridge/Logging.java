@@ -19,10 +19,19 @@ package nodomain.freeyourgadget.gadgetbridge;
 
 import android.util.Log;
 
+import androidx.annotation.Nullable;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 
 import ch.qos.logback.classic.LoggerContext;
 import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
@@ -35,13 +44,23 @@ import ch.qos.logback.core.util.FileSize;
 import ch.qos.logback.core.util.StatusPrinter;
 import nodomain.freeyourgadget.gadgetbridge.util.GB;
 import nodomain.freeyourgadget.gadgetbridge.BuildConfig;
+import nodomain.freeyourgadget.gadgetbridge.util.logging.AsyncRingBufferAppender;
+import nodomain.freeyourgadget.gadgetbridge.util.logging.PacketTrace;
 
 public abstract class Logging {
     // Only used for tests
     public static final String PROP_LOGFILES_DIR = "GB_LOGFILES_DIR";
 
+    private static final long FLUSH_TIMEOUT_MILLIS = 2000;
+    private static final String PACKET_TRACE_FILE_NAME = "gadgetbridge-packets.bin";
+    private static final String PACKET_TRACE_EXPORT_FILE_NAME = "gadgetbridge-packets.txt";
+
+    private static final char[] HEX_CHARS = "0123456789abcdef".toCharArray();
+
     private String logDirectory;
     private FileAppender<ILoggingEvent> fileLogger;
+    private AsyncRingBufferAppender asyncLogger;
+    private volatile PacketTrace packetTrace;
 
     public void setupLogging(boolean enable) {
         try {
@@ -54,6 +73,7 @@ public abstract class Logging {
                 stopFileLogger();
             }
             getLogger().info("Gadgetbridge version: {}-{}", BuildConfig.VERSION_NAME, BuildConfig.GIT_HASH_SHORT);
+            flush();
         } catch (Exception ex) {
             Log.e("GBApplication", "External files dir not available, cannot log to file", ex);
             stopFileLogger();
@@ -69,8 +89,92 @@ public abstract class Logging {
 
     public void setImmediateFlush(final boolean immediateFlush) {
         if (fileLogger != null) {
-            fileLogger.setImmediateFlush(true);
+            fileLogger.setImmediateFlush(immediateFlush);
+        }
+    }
+
+    /**
+     * Wait until all log events and recorded packets so far are written to disk.
+     */
+    public void flush() {
+        if (asyncLogger != null && !asyncLogger.flush(FLUSH_TIMEOUT_MILLIS)) {
+            Log.w("GBApplication", "Timed out flushing the log");
+        }
+        final PacketTrace trace = packetTrace;
+        if (trace != null && !trace.flush(FLUSH_TIMEOUT_MILLIS)) {
+            Log.w("GBApplication", "Timed out flushing the packet trace");
+        }
+    }
+
+    /**
+     * Start or stop recording the raw packets exchanged with devices to a binary file, next to
+     * the log files. Requires file logging to be initialized.
+     */
+    public synchronized void setPacketTraceEnabled(final boolean enabled) {
+        if (enabled == (packetTrace != null)) {
+            return;
+        }
+
+        if (!enabled) {
+            final PacketTrace trace = packetTrace;
+            packetTrace = null;
+            trace.stop();
+            return;
+        }
+
+        if (logDirectory == null) {
+            Log.e("GBApplication", "Can't start the packet trace without a log directory");
+            return;
+        }
+
+        final PacketTrace trace = new PacketTrace(new File(logDirectory, PACKET_TRACE_FILE_NAME));
+        trace.start();
+        packetTrace = trace;
+    }
+
+    /**
+     * @return the packet trace, or null if it is not enabled. When it is, callers should record the
+     * raw packets to it instead of formatting them into the log.
+     */
+    @Nullable
+    public PacketTrace getPacketTrace() {
+        return packetTrace;
+    }
+
+    /**
+     * Decode the packet trace files into a text file next to them, so that they can be shared
+     * along with the log. Call {@link #flush()} first to include the latest packets.
+     *
+     * @return the decoded file, or null if there is no packet trace
+     */
+    @Nullable
+    public File exportPacketTrace() throws IOException {
+        if (logDirectory == null) {
+            return null;
+        }
+
+        final File traceFile = new File(logDirectory, PACKET_TRACE_FILE_NAME);
+        final File[] traceFiles = {PacketTrace.getPreviousFile(traceFile), traceFile};
+        final File exportFile = new File(logDirectory, PACKET_TRACE_EXPORT_FILE_NAME);
+        boolean found = false;
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(exportFile), StandardCharsets.UTF_8)) {
+            for (final File file : traceFiles) {
+                if (!file.exists()) {
+                    continue;
+                }
+                found = true;
+                try (InputStream in = new FileInputStream(file)) {
+                    PacketTrace.decode(in, writer);
+                }
+            }
+        }
+
+        if (!found) {
+            //noinspection ResultOfMethodCallIgnored
+            exportFile.delete();
+            return null;
         }
+        return exportFile;
     }
 
     public boolean isFileLoggerInitialized() {
@@ -112,22 +216,37 @@ public abstract class Logging {
 
         final FileAppender fileAppender = createFileAppender(logDirectory);
         fileAppender.start();
-        attachLogger(fileAppender);
+
+        // write to the file in the background, so that logging does not block on disk I/O
+        final AsyncRingBufferAppender asyncAppender = new AsyncRingBufferAppender(fileAppender);
+        asyncAppender.setContext(fileAppender.getContext());
+        asyncAppender.setName("ASYNC_FILE");
+        asyncAppender.start();
+
+        attachLogger(asyncAppender);
         fileLogger = fileAppender;
+        asyncLogger = asyncAppender;
     }
 
     private void stopFileLogger() {
+        setPacketTraceEnabled(false);
+
         if (fileLogger == null) {
             return;
         }
 
+        detachLogger(asyncLogger);
+
+        // stops the file appender as well, after writing the pending events
+        if (asyncLogger.isStarted()) {
+            asyncLogger.stop();
+        }
         if (fileLogger.isStarted()) {
             fileLogger.stop();
         }
 
-        detachLogger(fileLogger);
-
         fileLogger = null;
+        asyncLogger = null;
     }
 
     private void attachLogger(Appender<ILoggingEvent> logger) {
@@ -160,12 +279,23 @@ public abstract class Logging {
         if (bytes == null) {
             return "(null)";
         }
-        StringBuilder builder = new StringBuilder(bytes.length * 5);
-        for (byte b : bytes) {
-            builder.append(String.format("0x%02x", b));
-            builder.append(" ");
+        if (bytes.length == 0) {
+            return "";
+        }
+        // "0x00 " per byte, without the trailing space
+        final char[] chars = new char[bytes.length * 5 - 1];
+        for (int i = 0; i < bytes.length; i++) {
+            final int v = bytes[i] & 0xFF;
+            final int pos = i * 5;
+            chars[pos] = '0';
+            chars[pos + 1] = 'x';
+            chars[pos + 2] = HEX_CHARS[v >>> 4];
+            chars[pos + 3] = HEX_CHARS[v & 0x0F];
+            if (i < bytes.length - 1) {
+                chars[pos + 4] = ' ';
+            }
         }
-        return builder.toString().trim();
+        return new String(chars);
     }
 
     public static void logBytes(Logger logger, byte[] value) {
@@ -174,6 +174,12 @@ public class ActivitySummariesChartFragment extends AbstractActivityChartFragmen
         chart.getLegend().setHorizontalAlignment(Legend.LegendHorizontalAlignment.CENTER);
     }
 
+    @Override
+    protected boolean isCacheable() {
+        // the data comes from the activity summaries, not the samples
+        return false;
+    }
+
     @Override
     protected ChartsData refreshInBackground(ChartsHost chartsHost, DBHandler db, GBDevice device) {
         return null;
@@ -30,14 +30,13 @@ import androidx.annotation.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.BufferedInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
-import java.util.Objects;
-import java.util.stream.Collectors;
 
 import nodomain.freeyourgadget.gadgetbridge.GBApplication;
 import nodomain.freeyourgadget.gadgetbridge.R;
@@ -46,8 +45,9 @@ import nodomain.freeyourgadget.gadgetbridge.model.GPSCoordinate;
 import nodomain.freeyourgadget.gadgetbridge.service.devices.garmin.fit.FitFile;
 import nodomain.freeyourgadget.gadgetbridge.service.devices.garmin.fit.RecordData;
 import nodomain.freeyourgadget.gadgetbridge.service.devices.garmin.fit.messages.FitRecord;
+import nodomain.freeyourgadget.gadgetbridge.util.TrackPreviewCache;
 import nodomain.freeyourgadget.gadgetbridge.util.gpx.GpxParseException;
-import nodomain.freeyourgadget.gadgetbridge.util.gpx.GpxParser;
+import nodomain.freeyourgadget.gadgetbridge.util.gpx.GpxPointReader;
 
 import static android.graphics.Bitmap.createBitmap;
 
@@ -79,41 +79,57 @@ public class ActivitySummariesGpsFragment extends AbstractGBFragment {
     private void processInBackgroundThread() {
         final Canvas canvas = createCanvas(gpsView);
         new Thread(() -> {
-            final List<GPSCoordinate> points = getActivityPoints(inputFile)
-                    .stream()
-                    .map(ActivityPoint::getLocation)
-                    .filter(Objects::nonNull)
-                    .collect(Collectors.toList());
-
-            if (!points.isEmpty()) {
-                drawTrack(canvas, points);
+            // the full track is only parsed once, the thumbnail is drawn from the simplified preview
+            final List<List<GPSCoordinate>> segments;
+            try {
+                segments = TrackPreviewCache.getPreview(inputFile);
+            } catch (final IOException e) {
+                LOG.error("Failed to read track {}", inputFile, e);
+                return;
+            }
+
+            if (!segments.isEmpty()) {
+                drawTrack(canvas, segments);
             }
         }).start();
     }
 
     public static List<ActivityPoint> getActivityPoints(final File trackFile) {
+        try {
+            return readActivityPoints(trackFile);
+        } catch (final IOException e) {
+            LOG.error("Failed to read track {}", trackFile, e);
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * Reads all points of a track file, failing if the file could not be read or parsed completely.
+     */
+    public static List<ActivityPoint> readActivityPoints(final File trackFile) throws IOException {
         final List<ActivityPoint> points = new ArrayList<>();
         if (trackFile.getName().endsWith(".gpx")) {
-            try (FileInputStream inputStream = new FileInputStream(trackFile)) {
-                final GpxParser gpxParser = new GpxParser(inputStream);
-                points.addAll(gpxParser.getGpxFile().getActivityPoints());
-            } catch (final IOException e) {
-                LOG.error("Failed to open {}", trackFile, e);
+            try (InputStream inputStream = new BufferedInputStream(new FileInputStream(trackFile))) {
+                final GpxPointReader reader = new GpxPointReader(inputStream);
+                while (reader.next()) {
+                    points.add(reader.getPoint().toTrackPoint().toActivityPoint());
+                }
             } catch (final GpxParseException e) {
-                LOG.error("Failed to parse gpx file", e);
+                throw new IOException("Failed to parse gpx file", e);
             }
         } else if (trackFile.getName().endsWith(".fit")) {
+            final FitFile fitFile;
             try {
-                FitFile fitFile = FitFile.parseIncoming(trackFile);
-                for (final RecordData record : fitFile.getRecords()) {
-                    if (record instanceof FitRecord) {
-                        points.add(((FitRecord) record).toActivityPoint());
-                    }
-                }
+                fitFile = FitFile.parseIncoming(trackFile);
             } catch (final IOException e) {
-                LOG.error("Failed to open {}", trackFile, e);
+                throw e;
             } catch (final Exception e) {
-                LOG.error("Failed to parse fit file", e);
+                throw new IOException("Failed to parse fit file", e);
+            }
+            for (final RecordData record : fitFile.getRecords()) {
+                if (record instanceof FitRecord) {
+                    points.add(((FitRecord) record).toActivityPoint());
+                }
             }
         } else {
             LOG.warn("Unknown file type {}", trackFile.getName());
@@ -122,13 +138,20 @@ public class ActivitySummariesGpsFragment extends AbstractGBFragment {
         return points;
     }
 
-    private void drawTrack(Canvas canvas, List<? extends GPSCoordinate> trackPoints) {
-        double maxLat = (Collections.max(trackPoints, new GPSCoordinate.compareLatitude())).getLatitude();
-        double minLat = (Collections.min(trackPoints, new GPSCoordinate.compareLatitude())).getLatitude();
-        double maxLon = (Collections.max(trackPoints, new GPSCoordinate.compareLongitude())).getLongitude();
-        double minLon = (Collections.min(trackPoints, new GPSCoordinate.compareLongitude())).getLongitude();
-        double maxAlt = (Collections.max(trackPoints, new GPSCoordinate.compareElevation())).getAltitude();
-        double minAlt = (Collections.min(trackPoints, new GPSCoordinate.compareElevation())).getAltitude();
+    private void drawTrack(Canvas canvas, List<List<GPSCoordinate>> segments) {
+        double maxLat = -Double.MAX_VALUE, minLat = Double.MAX_VALUE;
+        double maxLon = -Double.MAX_VALUE, minLon = Double.MAX_VALUE;
+        double maxAlt = -Double.MAX_VALUE, minAlt = Double.MAX_VALUE;
+        for (final List<GPSCoordinate> segment : segments) {
+            for (final GPSCoordinate p : segment) {
+                maxLat = Math.max(maxLat, p.getLatitude());
+                minLat = Math.min(minLat, p.getLatitude());
+                maxLon = Math.max(maxLon, p.getLongitude());
+                minLon = Math.min(minLon, p.getLongitude());
+                maxAlt = Math.max(maxAlt, p.getAltitude());
+                minAlt = Math.min(minAlt, p.getAltitude());
+            }
+        }
         float scale_factor_w = (float) ((maxLon - minLon) / (maxLat - minLat));
         float scale_factor_h = (float) ((maxLat - minLat) / (maxLon - minLon));
 
@@ -143,12 +166,26 @@ public class ActivitySummariesGpsFragment extends AbstractGBFragment {
         paint.setStrokeWidth(1);
         paint.setColor(getResources().getColor(R.color.chart_activity_light));
 
-        for (GPSCoordinate p : trackPoints) {
-            float lat = (float) ((p.getLatitude() - minLat) / (maxLat - minLat));
-            float lon = (float) ((p.getLongitude() - minLon) / (maxLon - minLon));
-            float alt = (float) ((p.getAltitude() - minAlt) / (maxAlt - minAlt));
-            paint.setStrokeWidth(1 + alt); //make thicker with higher altitude, we could do more here
-            canvas.drawPoint(CANVAS_SIZE * lon * scale_factor_w, CANVAS_SIZE * lat * scale_factor_h, paint);
+        for (final List<GPSCoordinate> segment : segments) {
+            float prevX = 0, prevY = 0;
+            for (int i = 0; i < segment.size(); i++) {
+                GPSCoordinate p = segment.get(i);
+                float lat = (float) ((p.getLatitude() - minLat) / (maxLat - minLat));
+                float lon = (float) ((p.getLongitude() - minLon) / (maxLon - minLon));
+                float alt = (float) ((p.getAltitude() - minAlt) / (maxAlt - minAlt));
+                float x = CANVAS_SIZE * lon * scale_factor_w;
+                float y = CANVAS_SIZE * lat * scale_factor_h;
+                paint.setStrokeWidth(1 + alt); //make thicker with higher altitude, we could do more here
+                if (i == 0) {
+                    // a new segment, not connected to the previous one
+                    canvas.drawPoint(x, y, paint);
+                } else {
+                    //the preview is simplified, so the points need to be joined
+                    canvas.drawLine(prevX, prevY, x, y, paint);
+                }
+                prevX = x;
+                prevY = y;
+            }
         }
     }
 
@@ -76,7 +76,6 @@ import com.google.android.material.navigation.NavigationView;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -99,6 +98,7 @@ import nodomain.freeyourgadget.gadgetbridge.util.DeviceHelper;
 import nodomain.freeyourgadget.gadgetbridge.util.GB;
 import nodomain.freeyourgadget.gadgetbridge.util.GBChangeLog;
 import nodomain.freeyourgadget.gadgetbridge.util.Prefs;
+import nodomain.freeyourgadget.gadgetbridge.util.RealtimeSampleStream;
 
 //TODO: extend AbstractGBActivity, but it requires actionbar that is not available
 public class ControlCenterv2 extends AppCompatActivity
@@ -136,10 +136,6 @@ public class ControlCenterv2 extends AppCompatActivity
                 case GBApplication.ACTION_QUIT:
                     finish();
                     break;
-                case DeviceService.ACTION_REALTIME_SAMPLES:
-                    final GBDevice device = intent.getParcelableExtra(GBDevice.EXTRA_DEVICE);
-                    handleRealtimeSample(device, intent.getSerializableExtra(DeviceService.EXTRA_REALTIME_SAMPLE));
-                    break;
                 case ACTION_REQUEST_PERMISSIONS:
                     checkAndRequestPermissions();
                     break;
@@ -168,7 +164,13 @@ public class ControlCenterv2 extends AppCompatActivity
         }
     }
 
-    private void handleRealtimeSample(final GBDevice device, Serializable extra) {
+    private final RealtimeSampleStream.Subscriber realtimeSampleSubscriber = updates -> {
+        for (final RealtimeSampleStream.Update update : updates) {
+            handleRealtimeSample(update.getDevice(), update.getLatestSample());
+        }
+    };
+
+    private void handleRealtimeSample(final GBDevice device, Object extra) {
         if (extra instanceof ActivitySample) {
             ActivitySample sample = (ActivitySample) extra;
             setCurrentHRSample(device, sample);
@@ -309,11 +311,11 @@ public class ControlCenterv2 extends AppCompatActivity
         filterLocal.addAction(GBApplication.ACTION_LANGUAGE_CHANGE);
         filterLocal.addAction(GBApplication.ACTION_THEME_CHANGE);
         filterLocal.addAction(GBApplication.ACTION_QUIT);
-        filterLocal.addAction(DeviceService.ACTION_REALTIME_SAMPLES);
         filterLocal.addAction(ACTION_REQUEST_PERMISSIONS);
         filterLocal.addAction(ACTION_REQUEST_LOCATION_PERMISSIONS);
         filterLocal.addAction(GBDevice.ACTION_DEVICE_CHANGED);
         LocalBroadcastManager.getInstance(this).registerReceiver(mReceiver, filterLocal);
+        RealtimeSampleStream.getInstance().subscribe(realtimeSampleSubscriber);
 
         /*
          * Ask for permission to intercept notifications on first run.
@@ -418,6 +420,7 @@ public class ControlCenterv2 extends AppCompatActivity
     @Override
     protected void onDestroy() {
         LocalBroadcastManager.getInstance(this).unregisterReceiver(mReceiver);
+        RealtimeSampleStream.getInstance().unsubscribe(realtimeSampleSubscriber);
         super.onDestroy();
     }
 
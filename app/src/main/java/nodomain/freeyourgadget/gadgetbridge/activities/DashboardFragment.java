@@ -78,9 +78,10 @@ import nodomain.freeyourgadget.gadgetbridge.activities.dashboard.DashboardTodayW
 import nodomain.freeyourgadget.gadgetbridge.activities.dashboard.DashboardVO2MaxCyclingWidget;
 import nodomain.freeyourgadget.gadgetbridge.activities.dashboard.DashboardVO2MaxAnyWidget;
 import nodomain.freeyourgadget.gadgetbridge.activities.dashboard.DashboardVO2MaxRunningWidget;
+import nodomain.freeyourgadget.gadgetbridge.activities.dashboard.data.DashboardActivityData;
 import nodomain.freeyourgadget.gadgetbridge.impl.GBDevice;
 import nodomain.freeyourgadget.gadgetbridge.model.ActivityKind;
-import nodomain.freeyourgadget.gadgetbridge.util.DashboardUtils;
+import nodomain.freeyourgadget.gadgetbridge.model.ActivityUser;
 import nodomain.freeyourgadget.gadgetbridge.util.DateTimeUtils;
 import nodomain.freeyourgadget.gadgetbridge.util.Prefs;
 
@@ -370,88 +371,69 @@ public class DashboardFragment extends Fragment implements MenuProvider {
         public int timeFrom;
         public int timeTo;
         public final List<GeneralizedActivity> generalizedActivities = Collections.synchronizedList(new ArrayList<>());
-        private int stepsTotal;
-        private float stepsGoalFactor;
-        private long sleepTotalMinutes;
-        private float sleepGoalFactor;
-        private float distanceTotalMeters;
-        private float distanceGoalFactor;
-        private long activeMinutesTotal;
-        private float activeMinutesGoalFactor;
+        private volatile DashboardActivityData activityData;
         private final Map<String, Serializable> genericData = new ConcurrentHashMap<>();
 
         public void clear() {
-            stepsTotal = 0;
-            stepsGoalFactor = 0;
-            sleepTotalMinutes = 0;
-            sleepGoalFactor = 0;
-            distanceTotalMeters = 0;
-            distanceGoalFactor = 0;
-            activeMinutesTotal = 0;
-            activeMinutesGoalFactor = 0;
+            activityData = null;
             generalizedActivities.clear();
             genericData.clear();
         }
 
         public boolean isEmpty() {
-            return (stepsTotal == 0 &&
-                    stepsGoalFactor == 0 &&
-                    sleepTotalMinutes == 0 &&
-                    sleepGoalFactor == 0 &&
-                    distanceTotalMeters == 0 &&
-                    distanceGoalFactor == 0 &&
-                    activeMinutesTotal == 0 &&
-                    activeMinutesGoalFactor == 0 &&
+            return (activityData == null &&
                     genericData.isEmpty() &&
                     generalizedActivities.isEmpty());
         }
 
-        public synchronized int getStepsTotal() {
-            if (stepsTotal == 0)
-                stepsTotal = DashboardUtils.getStepsTotal(this);
-            return stepsTotal;
+        /**
+         * Load the activity data shared by the widgets. The samples are loaded from the database
+         * only once for all widgets, until the data is cleared.
+         */
+        public synchronized DashboardActivityData getActivityData() {
+            if (activityData == null) {
+                activityData = DashboardActivityData.compute(this);
+                generalizedActivities.clear();
+                generalizedActivities.addAll(activityData.generalizedActivities);
+            }
+            return activityData;
+        }
+
+        public int getStepsTotal() {
+            return (int) getActivityData().steps;
+        }
+
+        public float getStepsGoalFactor() {
+            return goalFactor(getStepsTotal(), new ActivityUser().getStepsGoal());
         }
 
-        public synchronized float getStepsGoalFactor() {
-            if (stepsGoalFactor == 0)
-                stepsGoalFactor = DashboardUtils.getStepsGoalFactor(this);
-            return stepsGoalFactor;
+        public float getDistanceTotal() {
+            return getActivityData().distanceMeters;
         }
 
-        public synchronized float getDistanceTotal() {
-            if (distanceTotalMeters == 0)
-                distanceTotalMeters = DashboardUtils.getDistanceTotal(this);
-            return distanceTotalMeters;
+        public float getDistanceGoalFactor() {
+            return goalFactor(getDistanceTotal(), new ActivityUser().getDistanceGoalMeters());
         }
 
-        public synchronized float getDistanceGoalFactor() {
-            if (distanceGoalFactor == 0)
-                distanceGoalFactor = DashboardUtils.getDistanceGoalFactor(this);
-            return distanceGoalFactor;
+        public long getActiveMinutesTotal() {
+            return getActivityData().activeMinutes;
         }
 
-        public synchronized long getActiveMinutesTotal() {
-            if (activeMinutesTotal == 0)
-                activeMinutesTotal = DashboardUtils.getActiveMinutesTotal(this);
-            return activeMinutesTotal;
+        public float getActiveMinutesGoalFactor() {
+            return goalFactor(getActiveMinutesTotal(), new ActivityUser().getActiveTimeGoalMinutes());
         }
 
-        public synchronized float getActiveMinutesGoalFactor() {
-            if (activeMinutesGoalFactor == 0)
-                activeMinutesGoalFactor = DashboardUtils.getActiveMinutesGoalFactor(this);
-            return activeMinutesGoalFactor;
+        public long getSleepMinutesTotal() {
+            return getActivityData().sleepMinutes;
         }
 
-        public synchronized long getSleepMinutesTotal() {
-            if (sleepTotalMinutes == 0)
-                sleepTotalMinutes = DashboardUtils.getSleepMinutesTotal(this);
-            return sleepTotalMinutes;
+        public float getSleepMinutesGoalFactor() {
+            return goalFactor(getSleepMinutesTotal(), new ActivityUser().getSleepDurationGoal() * 60);
         }
 
-        public synchronized float getSleepMinutesGoalFactor() {
-            if (sleepGoalFactor == 0)
-                sleepGoalFactor = DashboardUtils.getSleepMinutesGoalFactor(this);
-            return sleepGoalFactor;
+        private static float goalFactor(final float value, final float goal) {
+            final float goalFactor = value / goal;
+            return Math.min(goalFactor, 1);
         }
 
         public void put(final String key, final Serializable value) {
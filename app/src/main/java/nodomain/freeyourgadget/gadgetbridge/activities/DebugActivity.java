@@ -65,6 +65,7 @@ import android.widget.TextView;
 import android.widget.Toast;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.annotation.RequiresApi;
 import androidx.appcompat.app.AlertDialog;
 import androidx.core.app.ActivityCompat;
@@ -81,7 +82,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
-import java.io.Serializable;
+import java.io.IOException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Calendar;
@@ -94,6 +95,8 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Random;
 import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import nodomain.freeyourgadget.gadgetbridge.BuildConfig;
 import nodomain.freeyourgadget.gadgetbridge.GBApplication;
@@ -114,7 +117,6 @@ import nodomain.freeyourgadget.gadgetbridge.externalevents.opentracks.OpenTracks
 import nodomain.freeyourgadget.gadgetbridge.impl.GBDevice;
 import nodomain.freeyourgadget.gadgetbridge.model.ActivitySample;
 import nodomain.freeyourgadget.gadgetbridge.model.CallSpec;
-import nodomain.freeyourgadget.gadgetbridge.model.DeviceService;
 import nodomain.freeyourgadget.gadgetbridge.model.DeviceType;
 import nodomain.freeyourgadget.gadgetbridge.model.MusicSpec;
 import nodomain.freeyourgadget.gadgetbridge.model.MusicStateSpec;
@@ -127,6 +129,7 @@ import nodomain.freeyourgadget.gadgetbridge.service.serial.GBDeviceProtocol;
 import nodomain.freeyourgadget.gadgetbridge.util.GB;
 import nodomain.freeyourgadget.gadgetbridge.util.PendingIntentUtils;
 import nodomain.freeyourgadget.gadgetbridge.util.Prefs;
+import nodomain.freeyourgadget.gadgetbridge.util.RealtimeSampleStream;
 import nodomain.freeyourgadget.gadgetbridge.util.StringUtils;
 import nodomain.freeyourgadget.gadgetbridge.util.WidgetPreferenceStorage;
 
@@ -149,9 +152,6 @@ public class DebugActivity extends AbstractGBActivity {
                     GB.toast(context, "got wearable reply: " + reply, Toast.LENGTH_SHORT, GB.INFO);
                     break;
                 }
-                case DeviceService.ACTION_REALTIME_SAMPLES:
-                    handleRealtimeSample(intent.getSerializableExtra(DeviceService.EXTRA_REALTIME_SAMPLE));
-                    break;
                 default:
                     LOG.info("ignoring intent action " + intent.getAction());
                     break;
@@ -163,10 +163,18 @@ public class DebugActivity extends AbstractGBActivity {
     public static final long SELECT_DEVICE = -1;
     private long selectedTestDeviceKey = SELECT_DEVICE;
     private String selectedTestDeviceMAC;
+    // exports the packet trace when sharing the log
+    private final ExecutorService shareLogExecutor = Executors.newSingleThreadExecutor();
 
     private static final int SELECT_DEVICE_REQUEST_CODE = 1;
 
-    private void handleRealtimeSample(Serializable extra) {
+    private final RealtimeSampleStream.Subscriber realtimeSampleSubscriber = updates -> {
+        for (final RealtimeSampleStream.Update update : updates) {
+            handleRealtimeSample(update.getLatestSample());
+        }
+    };
+
+    private void handleRealtimeSample(Object extra) {
         if (extra instanceof ActivitySample) {
             ActivitySample sample = (ActivitySample) extra;
             GB.toast(this, "Heart Rate measured: " + sample.getHeartRate(), Toast.LENGTH_LONG, GB.INFO);
@@ -180,8 +188,8 @@ public class DebugActivity extends AbstractGBActivity {
 
         IntentFilter filter = new IntentFilter();
         filter.addAction(ACTION_REPLY);
-        filter.addAction(DeviceService.ACTION_REALTIME_SAMPLES);
         LocalBroadcastManager.getInstance(this).registerReceiver(mReceiver, filter);
+        RealtimeSampleStream.getInstance().subscribe(realtimeSampleSubscriber);
         ContextCompat.registerReceiver(this, mReceiver, filter, ContextCompat.RECEIVER_EXPORTED); // for ACTION_REPLY
 
         editContent = findViewById(R.id.editContent);
@@ -949,9 +957,8 @@ public class DebugActivity extends AbstractGBActivity {
         String fileName = GBApplication.getLogPath();
         if (fileName != null && fileName.length() > 0) {
             // Flush the logs, so that we ensure latest lines are also there
-            GBApplication.getLogging().setImmediateFlush(true);
             LOG.debug("Flushing logs before sharing");
-            GBApplication.getLogging().setImmediateFlush(false);
+            GBApplication.getLogging().flush();
 
             File logFile = new File(fileName);
             if (!logFile.exists()) {
@@ -965,13 +972,47 @@ public class DebugActivity extends AbstractGBActivity {
                     logFile
             );
 
-            Intent emailIntent = new Intent(android.content.Intent.ACTION_SEND);
-            emailIntent.addFlags(Intent.FLAG_GRANT_READ_URI_PERMISSION);
-            emailIntent.setType("*/*");
-            emailIntent.putExtra(EXTRA_SUBJECT, "Gadgetbridge log file");
-            emailIntent.putExtra(Intent.EXTRA_STREAM, providerUri);
-            startActivity(Intent.createChooser(emailIntent, "Share File"));
+            // Share the decoded packet trace along with the log, if it was recorded. Decoding it
+            // may take a while, so do not block the UI thread on it.
+            shareLogExecutor.execute(() -> {
+                File packetTraceFile = null;
+                try {
+                    packetTraceFile = GBApplication.getLogging().exportPacketTrace();
+                } catch (final IOException e) {
+                    LOG.error("Failed to export the packet trace", e);
+                }
+
+                final File finalPacketTraceFile = packetTraceFile;
+                runOnUiThread(() -> {
+                    if (isFinishing() || isDestroyed()) {
+                        return;
+                    }
+                    startShareLogIntent(providerUri, finalPacketTraceFile);
+                });
+            });
+        }
+    }
+
+    private void startShareLogIntent(final Uri logUri, @Nullable final File packetTraceFile) {
+        Intent emailIntent;
+        if (packetTraceFile != null) {
+            final ArrayList<Uri> uris = new ArrayList<>();
+            uris.add(logUri);
+            uris.add(FileProvider.getUriForFile(
+                    this,
+                    getApplicationContext().getPackageName() + ".screenshot_provider",
+                    packetTraceFile
+            ));
+            emailIntent = new Intent(Intent.ACTION_SEND_MULTIPLE);
+            emailIntent.putParcelableArrayListExtra(Intent.EXTRA_STREAM, uris);
+        } else {
+            emailIntent = new Intent(android.content.Intent.ACTION_SEND);
+            emailIntent.putExtra(Intent.EXTRA_STREAM, logUri);
         }
+        emailIntent.addFlags(Intent.FLAG_GRANT_READ_URI_PERMISSION);
+        emailIntent.setType("*/*");
+        emailIntent.putExtra(EXTRA_SUBJECT, "Gadgetbridge log file");
+        startActivity(Intent.createChooser(emailIntent, "Share File"));
     }
 
     private void testNotification() {
@@ -1031,6 +1072,8 @@ public class DebugActivity extends AbstractGBActivity {
         super.onDestroy();
         LocalBroadcastManager.getInstance(this).unregisterReceiver(mReceiver);
         unregisterReceiver(mReceiver);
+        RealtimeSampleStream.getInstance().unsubscribe(realtimeSampleSubscriber);
+        shareLogExecutor.shutdown();
     }
 
     private void addListenerOnSpinnerDeviceSelection(Spinner spinner) {
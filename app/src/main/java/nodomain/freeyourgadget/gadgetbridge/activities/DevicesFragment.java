@@ -25,6 +25,8 @@ import android.content.Intent;
 import android.content.IntentFilter;
 import android.os.Build;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -37,12 +39,15 @@ import androidx.recyclerview.widget.RecyclerView;
 
 import com.google.android.material.floatingactionbutton.FloatingActionButton;
 
-import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.GregorianCalendar;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 
 import nodomain.freeyourgadget.gadgetbridge.GBApplication;
 import nodomain.freeyourgadget.gadgetbridge.R;
@@ -56,8 +61,9 @@ import nodomain.freeyourgadget.gadgetbridge.devices.DeviceManager;
 import nodomain.freeyourgadget.gadgetbridge.impl.GBDevice;
 import nodomain.freeyourgadget.gadgetbridge.model.ActivitySample;
 import nodomain.freeyourgadget.gadgetbridge.model.DailyTotals;
-import nodomain.freeyourgadget.gadgetbridge.model.DeviceService;
+import nodomain.freeyourgadget.gadgetbridge.model.DailyTotalsCache;
 import nodomain.freeyourgadget.gadgetbridge.util.GB;
+import nodomain.freeyourgadget.gadgetbridge.util.RealtimeSampleStream;
 
 public class DevicesFragment extends Fragment {
 
@@ -68,41 +74,53 @@ public class DevicesFragment extends Fragment {
     List<GBDevice> deviceList;
     private  HashMap<String, DailyTotals> deviceActivityHashMap = new HashMap();
 
+    /// Bursts of refresh requests (eg. during a sync) within this delay are handled at once
+    private static final long REFRESH_DELAY_MS = 500;
+    private final Handler refreshHandler = new Handler(Looper.getMainLooper());
+    private final Set<GBDevice> pendingDeviceRefresh = new LinkedHashSet<>();
+    private final Set<GBDevice> pendingTotalsRefresh = new LinkedHashSet<>();
+    private boolean pendingRefreshAll = false;
+    private boolean pendingTotalsRefreshAll = false;
+    private boolean refreshScheduled = false;
+    private final Runnable refreshRunnable = this::runPendingRefresh;
+
     private final BroadcastReceiver mReceiver = new BroadcastReceiver() {
         @Override
         public void onReceive(Context context, Intent intent) {
             String action = intent.getAction();
             final GBDevice device = intent.getParcelableExtra(GBDevice.EXTRA_DEVICE);
             switch (Objects.requireNonNull(action)) {
+                case GBDevice.ACTION_DEVICE_CHANGED:
+                    // otherwise, the whole list is refreshed on ACTION_DEVICES_CHANGED
+                    final Set<GBDevice.Change> changes = GBDevice.getChanges(intent);
+                    if (device != null && mGBDeviceAdapter != null && !DeviceManager.affectsDeviceList(changes)) {
+                        mGBDeviceAdapter.refreshDeviceChanges(device, changes);
+                    }
+                    break;
                 case DeviceManager.ACTION_DEVICES_CHANGED:
                 case GBApplication.ACTION_NEW_DATA:
                     if (action.equals(GBApplication.ACTION_NEW_DATA)) {
-                        createRefreshTask("get activity data", requireContext(), device).execute();
-                    }
-                    if (device != null) {
-                        // Refresh only this device
-                        refreshSingleDevice(device);
-                    } else {
-                        refreshPairedDevices();
+                        // the cached totals were already dropped by GB.signalActivityDataFinish
+                        scheduleTotalsRefresh(device);
                     }
+                    scheduleRefresh(device);
 
-                    break;
-                case DeviceService.ACTION_REALTIME_SAMPLES:
-                    handleRealtimeSample(device, intent.getSerializableExtra(DeviceService.EXTRA_REALTIME_SAMPLE));
                     break;
             }
         }
     };
 
-    private void handleRealtimeSample(GBDevice device, Serializable extra) {
+    private final RealtimeSampleStream.Subscriber realtimeSampleSubscriber = updates -> {
+        for (final RealtimeSampleStream.Update update : updates) {
+            handleRealtimeSample(update.getDevice(), update.getLatestSample());
+        }
+    };
+
+    private void handleRealtimeSample(GBDevice device, Object extra) {
         if (extra instanceof ActivitySample) {
             ActivitySample sample = (ActivitySample) extra;
             if (HeartRateUtils.getInstance().isValidHeartRateValue(sample.getHeartRate())) {
-                if (device != null) {
-                    refreshSingleDevice(device);
-                } else {
-                    refreshPairedDevices();
-                }
+                scheduleRefresh(device);
             }
         }
     }
@@ -124,7 +142,7 @@ public class DevicesFragment extends Fragment {
         deviceListView.setAdapter(this.mGBDeviceAdapter);
 
         // get activity data asynchronously, this fills the deviceActivityHashMap
-        // and calls refreshPairedDevices() → notifyDataSetChanged
+        // and refreshes the activity card of each device
         deviceListView.post(new Runnable() {
             @Override
             public void run() {
@@ -184,8 +202,9 @@ public class DevicesFragment extends Fragment {
         IntentFilter filterLocal = new IntentFilter();
         filterLocal.addAction(GBApplication.ACTION_NEW_DATA);
         filterLocal.addAction(DeviceManager.ACTION_DEVICES_CHANGED);
-        filterLocal.addAction(DeviceService.ACTION_REALTIME_SAMPLES);
+        filterLocal.addAction(GBDevice.ACTION_DEVICE_CHANGED);
         LocalBroadcastManager.getInstance(requireContext()).registerReceiver(mReceiver, filterLocal);
+        RealtimeSampleStream.getInstance().subscribe(realtimeSampleSubscriber);
 
         refreshPairedDevices();
 
@@ -214,15 +233,69 @@ public class DevicesFragment extends Fragment {
 
     @Override
     public void onDestroy() {
+        refreshHandler.removeCallbacks(refreshRunnable);
         if (deviceListView != null) unregisterForContextMenu(deviceListView);
         LocalBroadcastManager.getInstance(requireContext()).unregisterReceiver(mReceiver);
+        RealtimeSampleStream.getInstance().unsubscribe(realtimeSampleSubscriber);
         super.onDestroy();
     }
 
     private DailyTotals getSteps(GBDevice device, DBHandler db) {
         Calendar day = GregorianCalendar.getInstance();
 
-        return DailyTotals.getDailyTotalsForDevice(device, day, db);
+        return DailyTotalsCache.getDailyTotalsForDevice(device, day, db);
+    }
+
+    /**
+     * Schedule a refresh of the device list, or of a single device if not null
+     */
+    private void scheduleRefresh(@Nullable final GBDevice device) {
+        if (device != null) {
+            pendingDeviceRefresh.add(device);
+        } else {
+            pendingRefreshAll = true;
+        }
+        schedulePendingRefresh();
+    }
+
+    /**
+     * Schedule a reload of the daily totals of all devices, or of a single device if not null
+     */
+    private void scheduleTotalsRefresh(@Nullable final GBDevice device) {
+        if (device != null) {
+            pendingTotalsRefresh.add(device);
+        } else {
+            pendingTotalsRefreshAll = true;
+        }
+        schedulePendingRefresh();
+    }
+
+    private void schedulePendingRefresh() {
+        if (!refreshScheduled) {
+            refreshScheduled = true;
+            refreshHandler.postDelayed(refreshRunnable, REFRESH_DELAY_MS);
+        }
+    }
+
+    private void runPendingRefresh() {
+        refreshScheduled = false;
+
+        if (pendingRefreshAll) {
+            refreshPairedDevices();
+        } else {
+            for (final GBDevice device : pendingDeviceRefresh) {
+                refreshSingleDevice(device);
+            }
+        }
+        pendingRefreshAll = false;
+        pendingDeviceRefresh.clear();
+
+        if (getContext() != null && (pendingTotalsRefreshAll || !pendingTotalsRefresh.isEmpty())) {
+            final List<GBDevice> devices = pendingTotalsRefreshAll ? null : new ArrayList<>(pendingTotalsRefresh);
+            new RefreshTask("get activity data", getContext(), devices).execute();
+        }
+        pendingTotalsRefreshAll = false;
+        pendingTotalsRefresh.clear();
     }
 
     public void refreshPairedDevices() {
@@ -239,25 +312,30 @@ public class DevicesFragment extends Fragment {
     }
 
     public RefreshTask createRefreshTask(String task, Context context, GBDevice device) {
-        return new RefreshTask(task, context, device);
+        final List<GBDevice> devices = new ArrayList<>();
+        if (device != null) {
+            devices.add(device);
+        }
+        return new RefreshTask(task, context, device != null ? devices : null);
     }
 
     public class RefreshTask extends DBAccess {
-        private final GBDevice device;
-
-        public RefreshTask(final String task, final Context context, final GBDevice device) {
+        @Nullable
+        private final List<GBDevice> devices;
+        private final HashMap<GBDevice, DailyTotals> loadedTotals = new HashMap<>();
+
+        /**
+         * @param devices the devices to load the daily totals for, or null for all devices
+         */
+        public RefreshTask(final String task, final Context context, @Nullable final List<GBDevice> devices) {
             super(task, context);
-            this.device = device;
+            this.devices = devices;
         }
 
         @Override
         protected void doInBackground(final DBHandler db) {
-            if (device != null) {
-                updateDevice(db, device);
-            } else {
-                for (GBDevice gbDevice : deviceList) {
-                    updateDevice(db, gbDevice);
-                }
+            for (GBDevice gbDevice : devices != null ? devices : new ArrayList<>(deviceList)) {
+                updateDevice(db, gbDevice);
             }
         }
 
@@ -266,16 +344,18 @@ public class DevicesFragment extends Fragment {
             final boolean showActivityCard = GBApplication.getDevicePrefs(gbDevice).getBoolean(DeviceSettingsPreferenceConst.PREFS_ACTIVITY_IN_DEVICE_CARD, true);
             if (coordinator.supportsActivityTracking() && showActivityCard) {
                 final DailyTotals stepsAndSleepData = getSteps(gbDevice, db);
-                deviceActivityHashMap.put(gbDevice.getAddress(), stepsAndSleepData);
+                loadedTotals.put(gbDevice, stepsAndSleepData);
             }
         }
 
         @Override
         protected void onPostExecute(final Object o) {
-            if (device != null) {
-                refreshSingleDevice(device);
-            } else {
-                refreshPairedDevices();
+            for (final Map.Entry<GBDevice, DailyTotals> e : loadedTotals.entrySet()) {
+                final DailyTotals previous = deviceActivityHashMap.put(e.getKey().getAddress(), e.getValue());
+                // only rebind the activity cards that actually changed
+                if (mGBDeviceAdapter != null && !e.getValue().equals(previous)) {
+                    mGBDeviceAdapter.refreshActivityCard(e.getKey());
+                }
             }
         }
     }
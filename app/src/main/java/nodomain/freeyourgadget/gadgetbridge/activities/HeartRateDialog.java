@@ -17,10 +17,7 @@
 package nodomain.freeyourgadget.gadgetbridge.activities;
 
 import android.app.Dialog;
-import android.content.BroadcastReceiver;
 import android.content.Context;
-import android.content.Intent;
-import android.content.IntentFilter;
 import android.os.Bundle;
 import android.view.View;
 import android.widget.ImageView;
@@ -29,19 +26,15 @@ import android.widget.RelativeLayout;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
-import androidx.localbroadcastmanager.content.LocalBroadcastManager;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.Serializable;
-import java.util.Objects;
-
 import nodomain.freeyourgadget.gadgetbridge.R;
 import nodomain.freeyourgadget.gadgetbridge.impl.GBDevice;
 import nodomain.freeyourgadget.gadgetbridge.model.ActivitySample;
-import nodomain.freeyourgadget.gadgetbridge.model.DeviceService;
 import nodomain.freeyourgadget.gadgetbridge.model.HeartRateSample;
+import nodomain.freeyourgadget.gadgetbridge.util.RealtimeSampleStream;
 
 public class HeartRateDialog extends Dialog {
     private final GBDevice device;
@@ -60,19 +53,10 @@ public class HeartRateDialog extends Dialog {
 
     TextView heart_rate_dialog_label;
 
-    final BroadcastReceiver mReceiver = new BroadcastReceiver() {
-        @Override
-        public void onReceive(Context context, Intent intent) {
-            switch (Objects.requireNonNull(intent.getAction())) {
-                case DeviceService.ACTION_REALTIME_SAMPLES:
-                    final GBDevice incomingDevice = intent.getParcelableExtra(GBDevice.EXTRA_DEVICE);
-                    if (device.equals(incomingDevice)) {
-                        setMeasurementResults(intent.getSerializableExtra(DeviceService.EXTRA_REALTIME_SAMPLE));
-                    }
-                    break;
-                default:
-                    LOG.info("ignoring intent action {}", intent.getAction());
-                    break;
+    final RealtimeSampleStream.Subscriber realtimeSampleSubscriber = updates -> {
+        for (final RealtimeSampleStream.Update update : updates) {
+            if (device.equals(update.getDevice())) {
+                setMeasurementResults(update.getLatestSample());
             }
         }
     };
@@ -82,7 +66,7 @@ public class HeartRateDialog extends Dialog {
         this.device = device;
     }
 
-    private void setMeasurementResults(Serializable result) {
+    private void setMeasurementResults(Object result) {
         heart_rate_dialog_results_layout.setVisibility(View.VISIBLE);
         heart_rate_dialog_loading_layout.setVisibility(View.GONE);
         heart_rate_dialog_label.setText(getContext().getString(R.string.heart_rate_result));
@@ -106,9 +90,7 @@ public class HeartRateDialog extends Dialog {
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
 
-        IntentFilter filter = new IntentFilter();
-        filter.addAction(DeviceService.ACTION_REALTIME_SAMPLES);
-        LocalBroadcastManager.getInstance(getContext()).registerReceiver(mReceiver, filter);
+        RealtimeSampleStream.getInstance().subscribe(realtimeSampleSubscriber);
 
         setContentView(R.layout.heart_rate_dialog);
         heart_rate_dialog_results_layout = findViewById(R.id.heart_rate_dialog_results_layout);
@@ -147,7 +129,7 @@ public class HeartRateDialog extends Dialog {
         heart_rate_dialog_loading_layout.setVisibility(View.VISIBLE);
 
         setOnCancelListener(dialogInterface -> {
-            LocalBroadcastManager.getInstance(getContext()).unregisterReceiver(mReceiver);
+            RealtimeSampleStream.getInstance().unsubscribe(realtimeSampleSubscriber);
         });
     }
 }
\ No newline at end of file
@@ -162,6 +162,15 @@ public class SettingsActivity extends AbstractSettingsActivityV2 {
                 }
             }
 
+            pref = findPreference("log_packet_trace");
+            if (pref != null) {
+                pref.setOnPreferenceChangeListener((preference, newVal) -> {
+                    boolean doEnable = Boolean.TRUE.equals(newVal);
+                    GBApplication.getLogging().setPacketTraceEnabled(doEnable && GBApplication.isFileLoggingEnabled());
+                    return true;
+                });
+            }
+
             pref = findPreference("cache_weather");
             if (pref != null) {
                 pref.setOnPreferenceChangeListener((preference, newVal) -> {
@@ -26,6 +26,7 @@ import android.os.AsyncTask;
 import android.os.Bundle;
 import android.text.format.DateUtils;
 import android.view.View;
+import android.view.ViewGroup;
 
 import androidx.fragment.app.FragmentActivity;
 import androidx.localbroadcastmanager.content.LocalBroadcastManager;
@@ -39,8 +40,12 @@ import org.slf4j.LoggerFactory;
 
 import java.text.SimpleDateFormat;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
 import java.util.Set;
 
 import nodomain.freeyourgadget.gadgetbridge.R;
@@ -67,6 +72,11 @@ import nodomain.freeyourgadget.gadgetbridge.util.DateTimeUtils;
  * to set the desired date in the ChartsActivity via #setDateRange(Date,Date).
  * The default implementations #handleDatePrev(Date,Date) and #handleDateNext(Date,Date)
  * shift the date by one day.
+ * <p/>
+ * The computed data is cached for recently shown date ranges, and the previous and next day
+ * are computed in the background, so that moving between days does not need to read the
+ * database again. Fragments whose data does not only depend on the device samples and the date
+ * range should override #isCacheable().
  */
 public abstract class AbstractChartFragment<D extends ChartsData> extends AbstractGBFragment {
     protected final int ANIM_TIME = 250;
@@ -86,6 +96,12 @@ public abstract class AbstractChartFragment<D extends ChartsData> extends Abstra
     private boolean mChartDirty = true;
     private AsyncTask refreshTask;
 
+    private final ChartDataCache<D> chartDataCache = new ChartDataCache<>();
+    private final Map<String, RefreshTask> prefetchTasks = new HashMap<>();
+
+    // the date range being computed in a background task, see #getChartsHost
+    private static final ThreadLocal<ChartsHost> RANGE_HOST = new ThreadLocal<>();
+
     protected AbstractChartFragment(String... intentFilterActions) {
         mIntentFilterActions = new HashSet<>();
         if (intentFilterActions != null) {
@@ -161,6 +177,10 @@ public abstract class AbstractChartFragment<D extends ChartsData> extends Abstra
     }
 
     protected ChartsHost getChartsHost() {
+        final ChartsHost rangeHost = RANGE_HOST.get();
+        if (rangeHost != null) {
+            return rangeHost;
+        }
         return (ChartsHost) requireActivity();
     }
 
@@ -196,6 +216,21 @@ public abstract class AbstractChartFragment<D extends ChartsData> extends Abstra
         return true;
     }
 
+    /**
+     * Whether the computed data can be cached and prefetched. It must depend only on the samples
+     * of the device, the date range, the preferences and {@link #getCacheKey()}.
+     */
+    protected boolean isCacheable() {
+        return true;
+    }
+
+    /**
+     * Identifies the data computed by this fragment, apart from the device and date range.
+     */
+    protected String getCacheKey() {
+        return getClass().getName();
+    }
+
     protected int toTimestamp(Date date) {
         return (int) ((date.getTime() / 1000));
     }
@@ -329,47 +364,204 @@ public abstract class AbstractChartFragment<D extends ChartsData> extends Abstra
                 mChartDirty = false;
                 if (refreshTask != null && refreshTask.getStatus() != AsyncTask.Status.FINISHED) {
                     refreshTask.cancel(true);
+                    prefetchTasks.values().remove(refreshTask);
+                }
+                refreshTask = null;
+
+                final Date startDate = getStartDate();
+                final Date endDate = getEndDate();
+                if (!isCacheable()) {
+                    refreshTask = createRefreshTask("Visualizing data", getActivity(), startDate, endDate, true).execute();
+                    return;
+                }
+
+                final String key = getCacheKey(startDate, endDate);
+                final D cachedData = chartDataCache.get(key);
+                if (cachedData != null) {
+                    LOG.debug("Rendering cached data for {}", key);
+                    updateChartsnUIThread(cachedData);
+                    renderCharts();
+                    prefetchNeighbours(startDate, endDate);
+                    return;
+                }
+
+                final RefreshTask prefetchTask = prefetchTasks.get(key);
+                cancelPrefetchTasks(Collections.singleton(key));
+                if (prefetchTask != null) {
+                    // already being computed, render it once done
+                    prefetchTask.render = true;
+                    refreshTask = prefetchTask;
+                } else {
+                    refreshTask = createRefreshTask("Visualizing data", getActivity(), startDate, endDate, true).execute();
                 }
-                refreshTask = createRefreshTask("Visualizing data", getActivity()).execute();
             }
         }
     }
 
-    private RefreshTask createRefreshTask(final String task, final Context context) {
-        return new RefreshTask(task, context);
+    private String getCacheKey(final Date startDate, final Date endDate) {
+        return ChartDataCache.getKey(getChartsHost().getDevice(), getCacheKey(), startDate.getTime(), endDate.getTime());
+    }
+
+    /**
+     * Compute the data for the previous and next day in the background, if not cached yet.
+     */
+    private void prefetchNeighbours(final Date startDate, final Date endDate) {
+        final Date now = new Date();
+        final Map<String, Date[]> neighbours = new HashMap<>();
+        for (final int offset : new int[]{-1, 1}) {
+            final Date prefetchStart = DateTimeUtils.shiftByDays(startDate, offset);
+            final Date prefetchEnd = DateTimeUtils.shiftByDays(endDate, offset);
+            if (prefetchEnd.after(now)) {
+                // the range would be clamped to now, which will not match anymore when shown
+                continue;
+            }
+            neighbours.put(getCacheKey(prefetchStart, prefetchEnd), new Date[]{prefetchStart, prefetchEnd});
+        }
+
+        cancelPrefetchTasks(neighbours.keySet());
+
+        for (final Map.Entry<String, Date[]> neighbour : neighbours.entrySet()) {
+            final String key = neighbour.getKey();
+            if (chartDataCache.contains(key) || prefetchTasks.containsKey(key)) {
+                continue;
+            }
+            LOG.debug("Prefetching data for {}", key);
+            final RefreshTask task = createRefreshTask("Prefetching data", getActivity(), neighbour.getValue()[0], neighbour.getValue()[1], false);
+            prefetchTasks.put(key, task);
+            task.execute();
+        }
+    }
+
+    /**
+     * Cancel the pending prefetch tasks, except the ones for the given keys.
+     */
+    private void cancelPrefetchTasks(final Set<String> keepKeys) {
+        final Iterator<Map.Entry<String, RefreshTask>> it = prefetchTasks.entrySet().iterator();
+        while (it.hasNext()) {
+            final Map.Entry<String, RefreshTask> entry = it.next();
+            if (!keepKeys.contains(entry.getKey())) {
+                entry.getValue().cancel(true);
+                it.remove();
+            }
+        }
+    }
+
+    private RefreshTask createRefreshTask(final String task, final Context context, final Date startDate, final Date endDate, final boolean render) {
+        return new RefreshTask(task, context, startDate, endDate, render);
     }
 
     @SuppressLint("StaticFieldLeak")
     private final class RefreshTask extends DBAccess {
+        private final Date startDate;
+        private final Date endDate;
+        private boolean render;
         private D chartsData;
 
-        public RefreshTask(final String task, final Context context) {
+        public RefreshTask(final String task, final Context context, final Date startDate, final Date endDate, final boolean render) {
             super(task, context);
+            this.startDate = startDate;
+            this.endDate = endDate;
+            this.render = render;
         }
 
         @Override
         protected void doInBackground(final DBHandler db) {
             final ChartsHost chartsHost = getChartsHost();
-            if (chartsHost != null) {
-                chartsData = refreshInBackground(chartsHost, db, chartsHost.getDevice());
-            } else {
+            if (chartsHost == null) {
                 cancel(true);
+                return;
+            }
+
+            // pin the date range, in case it changes while computing, or this is a prefetch
+            final ChartsHost rangeHost = new RangeChartsHost(chartsHost, startDate, endDate);
+            final String key = getCacheKey(startDate, endDate);
+            final long generation = ChartDataCache.getGeneration();
+            RANGE_HOST.set(rangeHost);
+            try {
+                chartsData = refreshInBackground(rangeHost, db, rangeHost.getDevice());
+            } finally {
+                RANGE_HOST.remove();
+            }
+            if (isCacheable()) {
+                chartDataCache.put(key, rangeHost.getDevice(), toTimestamp(endDate), generation, chartsData);
             }
         }
 
         @Override
         protected void onPostExecute(final Object o) {
             super.onPostExecute(o);
+            prefetchTasks.values().remove(this);
+            if (!render) {
+                return;
+            }
             final FragmentActivity activity = getActivity();
             if (activity != null && !activity.isFinishing() && !activity.isDestroyed()) {
                 updateChartsnUIThread(chartsData);
                 renderCharts();
+                if (isCacheable()) {
+                    prefetchNeighbours(startDate, endDate);
+                }
             } else {
                 LOG.info("Not rendering charts because activity is not available anymore");
             }
         }
     }
 
+    /**
+     * A {@link ChartsHost} with a fixed date range, for computing the data in the background.
+     */
+    private static final class RangeChartsHost implements ChartsHost {
+        private final ChartsHost chartsHost;
+        private final Date startDate;
+        private final Date endDate;
+
+        private RangeChartsHost(final ChartsHost chartsHost, final Date startDate, final Date endDate) {
+            this.chartsHost = chartsHost;
+            this.startDate = startDate;
+            this.endDate = endDate;
+        }
+
+        @Override
+        public GBDevice getDevice() {
+            return chartsHost.getDevice();
+        }
+
+        @Override
+        public void setStartDate(final Date startDate) {
+            // the range is fixed while computing the data, changes only apply to the actual host
+        }
+
+        @Override
+        public void setEndDate(final Date endDate) {
+            // the range is fixed while computing the data, changes only apply to the actual host
+        }
+
+        @Override
+        public Date getStartDate() {
+            return startDate;
+        }
+
+        @Override
+        public Date getEndDate() {
+            return endDate;
+        }
+
+        @Override
+        public void setDateInfo(final String dateInfo) {
+            chartsHost.setDateInfo(dateInfo);
+        }
+
+        @Override
+        public ViewGroup getDateBar() {
+            return chartsHost.getDateBar();
+        }
+
+        @Override
+        public void enableSwipeRefresh(final boolean enable) {
+            chartsHost.enableSwipeRefresh(enable);
+        }
+    }
+
     /**
      * Returns true if the date was successfully shifted, and false if the shift
      * was ignored, e.g. when the to-value is in the future.
@@ -17,7 +17,6 @@
     along with this program.  If not, see <https://www.gnu.org/licenses/>. */
 package nodomain.freeyourgadget.gadgetbridge.activities.charts;
 
-import android.app.Activity;
 import android.graphics.Color;
 import android.os.Build;
 import android.os.Bundle;
@@ -54,7 +53,7 @@ import nodomain.freeyourgadget.gadgetbridge.database.DBHandler;
 import nodomain.freeyourgadget.gadgetbridge.impl.GBDevice;
 import nodomain.freeyourgadget.gadgetbridge.model.ActivityAmounts;
 import nodomain.freeyourgadget.gadgetbridge.model.ActivitySample;
-import nodomain.freeyourgadget.gadgetbridge.util.LimitedQueue;
+import nodomain.freeyourgadget.gadgetbridge.model.DailyAggregateCache;
 
 
 public abstract class AbstractWeekChartFragment extends AbstractActivityChartFragment<AbstractWeekChartFragment.MyChartsData> {
@@ -302,20 +301,14 @@ public abstract class AbstractWeekChartFragment extends AbstractActivityChartFra
         yAxisRight.setTextColor(CHART_TEXT_COLOR);
     }
 
-    private List<? extends ActivitySample> getSamplesOfDay(DBHandler db, Calendar day, int offsetHours, GBDevice device) {
-        int startTs;
-        int endTs;
-
+    private int getDayStartTs(Calendar day, int offsetHours) {
         day = (Calendar) day.clone(); // do not modify the caller's argument
         day.set(Calendar.HOUR_OF_DAY, 0);
         day.set(Calendar.MINUTE, 0);
         day.set(Calendar.SECOND, 0);
         day.add(Calendar.HOUR, offsetHours);
 
-        startTs = (int) (day.getTimeInMillis() / 1000);
-        endTs = startTs + 24 * 60 * 60 - 1;
-
-        return getSamples(db, device, startTs, endTs);
+        return (int) (day.getTimeInMillis() / 1000);
     }
 
     @Override
@@ -352,26 +345,13 @@ public abstract class AbstractWeekChartFragment extends AbstractActivityChartFra
     }
 
     protected ActivityAmounts getActivityAmountsForDay(DBHandler db, Calendar day, GBDevice device) {
+        final int startTs = getDayStartTs(day, mOffsetHours);
+        final int endTs = startTs + 24 * 60 * 60 - 1;
 
-        LimitedQueue<Integer, ActivityAmounts> activityAmountCache = null;
-        ActivityAmounts amounts = null;
-
-        Activity activity = getActivity();
-        int key = (int) (day.getTimeInMillis() / 1000) + (mOffsetHours * 3600);
-        if (activity != null) {
-            activityAmountCache = ((ActivityChartsActivity) activity).mActivityAmountCache;
-            amounts = activityAmountCache.lookup(key);
-        }
-
-        if (amounts == null) {
+        return DailyAggregateCache.get(device, DailyAggregateCache.KIND_ACTIVITY_AMOUNTS, startTs, endTs, () -> {
             ActivityAnalysis analysis = new ActivityAnalysis();
-            amounts = analysis.calculateActivityAmounts(getSamplesOfDay(db, day, mOffsetHours, device));
-            if (activityAmountCache != null) {
-                activityAmountCache.add(key, amounts);
-            }
-        }
-
-        return amounts;
+            return analysis.calculateActivityAmounts(getSamples(db, device, startTs, endTs));
+        });
     }
 
     private int getRangeDays(){
@@ -115,6 +115,12 @@ public class ActivityListingChartFragment extends AbstractActivityChartFragment<
         }
     }
 
+    @Override
+    protected boolean isCacheable() {
+        // the ongoing session depends on the current time
+        return false;
+    }
+
     @Override
     protected MyChartsData refreshInBackground(ChartsHost chartsHost, DBHandler db, GBDevice device) {
         List<? extends ActivitySample> activitySamples;
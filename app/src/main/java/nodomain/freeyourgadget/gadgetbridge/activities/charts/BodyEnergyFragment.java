@@ -97,14 +97,14 @@ public class BodyEnergyFragment extends AbstractChartFragment<BodyEnergyFragment
 
     @Override
     protected BodyEnergyData refreshInBackground(ChartsHost chartsHost, DBHandler db, GBDevice device) {
-        String formattedDate = new SimpleDateFormat("E, MMM dd").format(getEndDate());
-        mDateView.setText(formattedDate);
         List<? extends BodyEnergySample> samples = getBodyEnergySamples(db, device, getTSStart(), getTSEnd());
-        return new BodyEnergyData(samples);
+        return new BodyEnergyData(getEndDate(), samples);
     }
 
     @Override
     protected void updateChartsnUIThread(BodyEnergyData bodyEnergyData) {
+        String formattedDate = new SimpleDateFormat("E, MMM dd").format(bodyEnergyData.date);
+        mDateView.setText(formattedDate);
 
         List<Entry> lineEntries = new ArrayList<>();
         final List<ILineDataSet> lineDataSets = new ArrayList<>();
@@ -296,9 +296,11 @@ public class BodyEnergyFragment extends AbstractChartFragment<BodyEnergyFragment
     }
 
     protected static class BodyEnergyData extends ChartsData {
+        private final Date date;
         private final List<? extends BodyEnergySample> samples;
 
-        protected BodyEnergyData(List<? extends BodyEnergySample> samples) {
+        protected BodyEnergyData(Date date, List<? extends BodyEnergySample> samples) {
+            this.date = date;
             this.samples = samples;
         }
     }
@@ -0,0 +1,191 @@
+/*  Copyright (C) 2026 agent
+
+    This file is part of Gadgetbridge.
+
+    Gadgetbridge is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published
+    by the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    Gadgetbridge is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>. */
+package nodomain.freeyourgadget.gadgetbridge.activities.charts;
+
+import android.content.SharedPreferences;
+
+import androidx.annotation.Nullable;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+import nodomain.freeyourgadget.gadgetbridge.GBApplication;
+import nodomain.freeyourgadget.gadgetbridge.impl.GBDevice;
+import nodomain.freeyourgadget.gadgetbridge.model.SampleCaches;
+
+/**
+ * A cache of computed {@link ChartsData} of a chart fragment, keyed by device, date range and the
+ * fragment's own cache key. The data is kept per fragment instance, since it may reference the
+ * fragment that computed it.
+ * <p>
+ * Entries are dropped when samples are written at or before the end of their date range, or when
+ * any preference changes. Samples written from far in the past are rare, so checking only the end
+ * of the range avoids having to know how far back each chart looks.
+ */
+public final class ChartDataCache<D extends ChartsData> {
+    private static final Logger LOG = LoggerFactory.getLogger(ChartDataCache.class);
+
+    private static final int MAX_ENTRIES = 8;
+
+    // charts may look a bit past the end of their range, eg. for sleep
+    private static final int RANGE_END_MARGIN = 24 * 60 * 60;
+
+    private static final Set<ChartDataCache<?>> INSTANCES = Collections.newSetFromMap(new WeakHashMap<>());
+
+    // devices for which samples were written through a sample provider since the last sync finished
+    private static final Set<String> DEVICES_WITH_WRITES = new HashSet<>();
+
+    // kept here, since SharedPreferences only holds a weak reference to its listeners
+    private static SharedPreferences.OnSharedPreferenceChangeListener prefsListener;
+
+    // incremented on every invalidation, so that data computed concurrently with a write is not cached
+    private static long generation = 0;
+
+    static {
+        // registered when the first chart uses the cache, before anything can be cached
+        SampleCaches.addListener(new SampleCaches.Listener() {
+            @Override
+            public void onSamplesWritten(final GBDevice device, final int tsFrom, final int tsTo) {
+                invalidate(device, tsFrom, tsTo);
+            }
+
+            @Override
+            public void onSyncFinished(@Nullable final GBDevice device) {
+                ChartDataCache.onSyncFinished(device);
+            }
+        });
+    }
+
+    private final Map<String, Entry<D>> entries = new LinkedHashMap<String, Entry<D>>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<String, Entry<D>> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    public ChartDataCache() {
+        synchronized (INSTANCES) {
+            if (prefsListener == null) {
+                prefsListener = (sharedPreferences, key) -> invalidateAll();
+                GBApplication.getPrefs().getPreferences().registerOnSharedPreferenceChangeListener(prefsListener);
+            }
+            INSTANCES.add(this);
+        }
+    }
+
+    public static String getKey(final GBDevice device, final String cacheKey, final long startMillis, final long endMillis) {
+        return device.getAddress() + "_" + cacheKey + "_" + startMillis + "_" + endMillis;
+    }
+
+    @Nullable
+    public D get(final String key) {
+        synchronized (INSTANCES) {
+            final Entry<D> entry = entries.get(key);
+            return entry != null ? entry.data : null;
+        }
+    }
+
+    public boolean contains(final String key) {
+        synchronized (INSTANCES) {
+            return entries.containsKey(key);
+        }
+    }
+
+    /**
+     * The current generation, to be passed to {@link #put} once the data is computed.
+     */
+    public static long getGeneration() {
+        synchronized (INSTANCES) {
+            return generation;
+        }
+    }
+
+    public void put(final String key, final GBDevice device, final int tsEnd, final long computeGeneration, final D data) {
+        synchronized (INSTANCES) {
+            if (computeGeneration == generation && data != null) {
+                entries.put(key, new Entry<>(device.getAddress(), tsEnd + RANGE_END_MARGIN, data));
+            }
+        }
+    }
+
+    /**
+     * Drop all cached data for a device which may depend on samples between the given timestamps (inclusive, in seconds).
+     */
+    public static void invalidate(final GBDevice device, final int tsFrom, final int tsTo) {
+        synchronized (INSTANCES) {
+            generation++;
+            DEVICES_WITH_WRITES.add(device.getAddress());
+            for (final ChartDataCache<?> cache : INSTANCES) {
+                final Iterator<? extends Entry<?>> it = cache.entries.values().iterator();
+                while (it.hasNext()) {
+                    final Entry<?> entry = it.next();
+                    if (entry.address.equals(device.getAddress()) && tsFrom <= entry.rangeEnd) {
+                        it.remove();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Called when the data sync of a device finished. Not all devices write their samples through
+     * the sample providers - if none were seen, drop all cached data for the device. If the device
+     * is not known, drop everything.
+     */
+    public static void onSyncFinished(@Nullable final GBDevice device) {
+        if (device == null) {
+            invalidateAll();
+            return;
+        }
+        synchronized (INSTANCES) {
+            if (!DEVICES_WITH_WRITES.remove(device.getAddress())) {
+                LOG.debug("No sample writes seen for {}, invalidating all chart data", device.getAddress());
+                invalidate(device, Integer.MIN_VALUE, Integer.MAX_VALUE);
+                DEVICES_WITH_WRITES.remove(device.getAddress());
+            }
+        }
+    }
+
+    public static void invalidateAll() {
+        synchronized (INSTANCES) {
+            generation++;
+            for (final ChartDataCache<?> cache : INSTANCES) {
+                cache.entries.clear();
+            }
+        }
+    }
+
+    private static class Entry<D> {
+        private final String address;
+        private final int rangeEnd;
+        private final D data;
+
+        private Entry(final String address, final int rangeEnd, final D data) {
+            this.address = address;
+            this.rangeEnd = rangeEnd;
+            this.data = data;
+        }
+    }
+}
@@ -57,6 +57,7 @@ import nodomain.freeyourgadget.gadgetbridge.database.DBHandler;
 import nodomain.freeyourgadget.gadgetbridge.devices.DeviceCoordinator;
 import nodomain.freeyourgadget.gadgetbridge.devices.TimeSampleProvider;
 import nodomain.freeyourgadget.gadgetbridge.impl.GBDevice;
+import nodomain.freeyourgadget.gadgetbridge.model.DailyAggregateCache;
 import nodomain.freeyourgadget.gadgetbridge.model.HrvSummarySample;
 import nodomain.freeyourgadget.gadgetbridge.model.HrvValueSample;
 import nodomain.freeyourgadget.gadgetbridge.util.DateTimeUtils;
@@ -126,10 +127,8 @@ public class HRVStatusFragment extends AbstractChartFragment<HRVStatusFragment.H
     @Override
     protected HRVStatusWeeklyData refreshInBackground(ChartsHost chartsHost, DBHandler db, GBDevice device) {
         Calendar day = Calendar.getInstance();
-        Date tsEnd = getChartsHost().getEndDate();
+        Date tsEnd = chartsHost.getEndDate();
         day.setTime(tsEnd);
-        String formattedDate = new SimpleDateFormat("E, MMM dd").format(tsEnd);
-        mDateView.setText(formattedDate);
         List<HRVStatusDayData> weeklyData = getWeeklyData(db, day, device);
         return new HRVStatusWeeklyData(weeklyData);
     }
@@ -198,6 +197,8 @@ public class HRVStatusFragment extends AbstractChartFragment<HRVStatusFragment.H
         x.setValueFormatter(getHRVStatusChartDayValueFormatter(weeklyData));
 
         HRVStatusDayData today = weeklyData.getCurrentDay();
+        String formattedDate = new SimpleDateFormat("E, MMM dd").format(today.day.getTime());
+        mDateView.setText(formattedDate);
         mHRVStatusSevenDaysAvg.setText(today.weeklyAvg > 0 ? getString(R.string.hrv_status_unit, today.weeklyAvg) : "-");
         mHRVStatusLastNight.setText(today.lastNight > 0 ? getString(R.string.hrv_status_unit, today.lastNight) : "-");
         mHRVStatusLastNight5MinHighest.setText(today.lastNight5MinHigh > 0 ? getString(R.string.hrv_status_unit, today.lastNight5MinHigh) : "-");
@@ -249,12 +250,9 @@ public class HRVStatusFragment extends AbstractChartFragment<HRVStatusFragment.H
         for (int counter = 0; counter < TOTAL_DAYS; counter++) {
             int startTs = (int) (day.getTimeInMillis() / 1000);
             int endTs = startTs + 24 * 60 * 60 - 1;
-            Optional<? extends HrvSummarySample> latestSummarySample = getSamples(db, device, startTs, endTs)
-                    .stream()
-                    .max(Comparator.comparingLong(HrvSummarySample::getTimestamp));
-            List<? extends HrvValueSample> valueSamples = getHrvValueSamples(db, device, startTs, endTs);
-
-            int avgHRV = (int) valueSamples.stream().mapToInt(HrvValueSample::getValue).average().orElse(0);
+            HrvDayAggregate dayAggregate = getDayAggregate(db, device, startTs, endTs);
+            Optional<? extends HrvSummarySample> latestSummarySample = dayAggregate.latestSummarySample;
+            int avgHRV = dayAggregate.avgHRV;
             if (latestSummarySample.isPresent()) {
                 final HrvSummarySample sample = latestSummarySample.get();
                 Calendar finalDay = (Calendar) day.clone();
@@ -293,6 +291,18 @@ public class HRVStatusFragment extends AbstractChartFragment<HRVStatusFragment.H
         return weeklyData;
     }
 
+    private HrvDayAggregate getDayAggregate(final DBHandler db, final GBDevice device, int tsFrom, int tsTo) {
+        return DailyAggregateCache.get(device, DailyAggregateCache.KIND_HRV_STATUS, tsFrom, tsTo, () -> {
+            Optional<? extends HrvSummarySample> latestSummarySample = getSamples(db, device, tsFrom, tsTo)
+                    .stream()
+                    .max(Comparator.comparingLong(HrvSummarySample::getTimestamp));
+            List<? extends HrvValueSample> valueSamples = getHrvValueSamples(db, device, tsFrom, tsTo);
+
+            int avgHRV = (int) valueSamples.stream().mapToInt(HrvValueSample::getValue).average().orElse(0);
+            return new HrvDayAggregate(latestSummarySample, avgHRV);
+        });
+    }
+
     private List<? extends HrvSummarySample> getSamples(final DBHandler db, final GBDevice device, int tsFrom, int tsTo) {
         final DeviceCoordinator coordinator = device.getDeviceCoordinator();
         final TimeSampleProvider<? extends HrvSummarySample> sampleProvider = coordinator.getHrvSummarySampleProvider(device, db.getDaoSession());
@@ -375,6 +385,16 @@ public class HRVStatusFragment extends AbstractChartFragment<HRVStatusFragment.H
         }
     }
 
+    private static class HrvDayAggregate {
+        private final Optional<? extends HrvSummarySample> latestSummarySample;
+        private final int avgHRV;
+
+        private HrvDayAggregate(final Optional<? extends HrvSummarySample> latestSummarySample, final int avgHRV) {
+            this.latestSummarySample = latestSummarySample;
+            this.avgHRV = avgHRV;
+        }
+    }
+
     protected static class HRVStatusDayData {
         public Integer i;
         public long timestamp;
@@ -124,8 +124,6 @@ public class HeartRateDailyFragment extends AbstractChartFragment<HeartRateDaily
         int startTs = (int) (day.getTimeInMillis() / 1000);
         int endTs = startTs + 24 * 60 * 60 - 1;
         Date date = new Date((long) endTs * 1000);
-        String formattedDate = new SimpleDateFormat("E, MMM dd").format(date);
-        mDateView.setText(formattedDate);
         List<? extends ActivitySample> samples = getActivitySamples(db, device, startTs, endTs);
 
         int restingHeartRate = -1;
@@ -139,7 +137,7 @@ public class HeartRateDailyFragment extends AbstractChartFragment<HeartRateDaily
                     .orElse(-1);
         }
 
-        return new HeartRateData(samples, restingHeartRate);
+        return new HeartRateData(date, samples, restingHeartRate);
     }
 
     @Override
@@ -211,6 +209,9 @@ public class HeartRateDailyFragment extends AbstractChartFragment<HeartRateDaily
 
     @Override
     protected void updateChartsnUIThread(HeartRateDailyFragment.HeartRateData data) {
+        String formattedDate = new SimpleDateFormat("E, MMM dd").format(data.date);
+        mDateView.setText(formattedDate);
+
         HeartRateUtils heartRateUtilsInstance = HeartRateUtils.getInstance();
         final TimestampTranslation tsTranslation = new TimestampTranslation();
         final List<Entry> lineEntries = new ArrayList<>();
@@ -297,10 +298,12 @@ public class HeartRateDailyFragment extends AbstractChartFragment<HeartRateDaily
     }
 
     protected static class HeartRateData extends ChartsData {
+        public Date date;
         public List<? extends ActivitySample> samples;
         public int restingHeartRate;
 
-        protected HeartRateData(List<? extends ActivitySample> samples, int restingHeartRate) {
+        protected HeartRateData(Date date, List<? extends ActivitySample> samples, int restingHeartRate) {
+            this.date = date;
             this.samples = samples;
             this.restingHeartRate = restingHeartRate;
         }
@@ -17,10 +17,7 @@
     along with this program.  If not, see <https://www.gnu.org/licenses/>. */
 package nodomain.freeyourgadget.gadgetbridge.activities.charts;
 
-import android.content.BroadcastReceiver;
-import android.content.Context;
 import android.content.Intent;
-import android.content.IntentFilter;
 import android.graphics.Paint;
 import android.os.Bundle;
 import android.view.LayoutInflater;
@@ -56,7 +53,6 @@ import java.util.concurrent.TimeUnit;
 
 import androidx.annotation.Nullable;
 import androidx.fragment.app.FragmentActivity;
-import androidx.localbroadcastmanager.content.LocalBroadcastManager;
 import nodomain.freeyourgadget.gadgetbridge.GBApplication;
 import nodomain.freeyourgadget.gadgetbridge.R;
 import nodomain.freeyourgadget.gadgetbridge.activities.HeartRateUtils;
@@ -66,6 +62,7 @@ import nodomain.freeyourgadget.gadgetbridge.model.ActivitySample;
 import nodomain.freeyourgadget.gadgetbridge.model.ActivityUser;
 import nodomain.freeyourgadget.gadgetbridge.model.DeviceService;
 import nodomain.freeyourgadget.gadgetbridge.util.GB;
+import nodomain.freeyourgadget.gadgetbridge.util.RealtimeSampleStream;
 
 public class LiveActivityFragment extends AbstractActivityChartFragment<ChartsData> {
     private static final Logger LOG = LoggerFactory.getLogger(LiveActivityFragment.class);
@@ -155,15 +152,12 @@ public class LiveActivityFragment extends AbstractActivityChartFragment<ChartsDa
         }
     }
 
-    private final BroadcastReceiver mReceiver = new BroadcastReceiver() {
-        @Override
-        public void onReceive(Context context, Intent intent) {
-            String action = intent.getAction();
-            switch (action) {
-                case DeviceService.ACTION_REALTIME_SAMPLES: {
-                    ActivitySample sample = (ActivitySample) intent.getSerializableExtra(DeviceService.EXTRA_REALTIME_SAMPLE);
-                    addSample(sample);
-                    break;
+    private final RealtimeSampleStream.Subscriber realtimeSampleSubscriber = updates -> {
+        // every sample counts for the steps per minute, not only the latest one
+        for (final RealtimeSampleStream.Update update : updates) {
+            for (final Object sample : update.getSamples()) {
+                if (sample instanceof ActivitySample) {
+                    addSample((ActivitySample) sample);
                 }
             }
         }
@@ -264,8 +258,6 @@ public class LiveActivityFragment extends AbstractActivityChartFragment<ChartsDa
     @Nullable
     @Override
     public View onCreateView(LayoutInflater inflater, ViewGroup container, Bundle savedInstanceState) {
-        IntentFilter filterLocal = new IntentFilter();
-        filterLocal.addAction(DeviceService.ACTION_REALTIME_SAMPLES);
         tsTranslation = new TimestampTranslation();
 
         View rootView = inflater.inflate(R.layout.fragment_live_activity, container, false);
@@ -286,7 +278,7 @@ public class LiveActivityFragment extends AbstractActivityChartFragment<ChartsDa
         setupHistoryChart(mStepsPerMinuteHistoryChart);
         mMaxHeartRateView = rootView.findViewById(R.id.livechart_max_heart_rate);
 
-        LocalBroadcastManager.getInstance(getActivity()).registerReceiver(mReceiver, filterLocal);
+        RealtimeSampleStream.getInstance().subscribe(realtimeSampleSubscriber, true);
 
         return rootView;
     }
@@ -398,7 +390,7 @@ public class LiveActivityFragment extends AbstractActivityChartFragment<ChartsDa
     @Override
     public void onDestroyView() {
         onMadeInvisibleInActivity();
-        LocalBroadcastManager.getInstance(getActivity()).unregisterReceiver(mReceiver);
+        RealtimeSampleStream.getInstance().unsubscribe(realtimeSampleSubscriber);
         super.onDestroyView();
     }
 
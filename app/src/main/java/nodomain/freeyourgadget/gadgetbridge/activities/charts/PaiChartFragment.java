@@ -57,6 +57,7 @@ import nodomain.freeyourgadget.gadgetbridge.database.DBHandler;
 import nodomain.freeyourgadget.gadgetbridge.devices.DeviceCoordinator;
 import nodomain.freeyourgadget.gadgetbridge.devices.TimeSampleProvider;
 import nodomain.freeyourgadget.gadgetbridge.impl.GBDevice;
+import nodomain.freeyourgadget.gadgetbridge.model.DailyAggregateCache;
 import nodomain.freeyourgadget.gadgetbridge.model.PaiSample;
 import nodomain.freeyourgadget.gadgetbridge.util.DateTimeUtils;
 
@@ -411,10 +412,14 @@ public class PaiChartFragment extends AbstractChartFragment<PaiChartFragment.Pai
     private Optional<? extends PaiSample> getSamplePaiForDay(final DBHandler db, final GBDevice device, final Calendar day) {
         final Date dayStart = DateTimeUtils.dayStart(day.getTime());
         final Date dayEnd = DateTimeUtils.dayEnd(day.getTime());
-        final DeviceCoordinator coordinator = device.getDeviceCoordinator();
-        final TimeSampleProvider<? extends PaiSample> sampleProvider = coordinator.getPaiSampleProvider(device, db.getDaoSession());
-        final List<? extends PaiSample> daySamples = sampleProvider.getAllSamples(dayStart.getTime(), dayEnd.getTime());
-        return Optional.ofNullable(daySamples.isEmpty() ? null : daySamples.get(daySamples.size() - 1));
+        final int tsFrom = (int) (dayStart.getTime() / 1000);
+        final int tsTo = (int) (dayEnd.getTime() / 1000);
+        return DailyAggregateCache.get(device, DailyAggregateCache.KIND_PAI, tsFrom, tsTo, () -> {
+            final DeviceCoordinator coordinator = device.getDeviceCoordinator();
+            final TimeSampleProvider<? extends PaiSample> sampleProvider = coordinator.getPaiSampleProvider(device, db.getDaoSession());
+            final List<? extends PaiSample> daySamples = sampleProvider.getAllSamples(dayStart.getTime(), dayEnd.getTime());
+            return Optional.ofNullable(daySamples.isEmpty() ? null : daySamples.get(daySamples.size() - 1));
+        });
     }
 
     protected static class DayData {
@@ -33,6 +33,7 @@ import org.slf4j.LoggerFactory;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.Date;
 import java.util.List;
 
 import nodomain.freeyourgadget.gadgetbridge.GBApplication;
@@ -101,8 +102,6 @@ public class StepsDailyFragment extends StepsFragment<StepsDailyFragment.StepsDa
     protected StepsDailyFragment.StepsData refreshInBackground(ChartsHost chartsHost, DBHandler db, GBDevice device) {
         Calendar day = Calendar.getInstance();
         day.setTime(chartsHost.getEndDate());
-        String formattedDate = new SimpleDateFormat("E, MMM dd").format(chartsHost.getEndDate());
-        mDateView.setText(formattedDate);
         List<StepsDay> stepsDayList = getMyStepsDaysData(db, day, device);
         final StepsDay stepsDay;
         if (stepsDayList.isEmpty()) {
@@ -112,11 +111,14 @@ public class StepsDailyFragment extends StepsFragment<StepsDailyFragment.StepsDa
             stepsDay = stepsDayList.get(0);
         }
         List<? extends ActivitySample> samplesOfDay = getSamplesOfDay(db, day, 0, device);
-        return new StepsDailyFragment.StepsData(stepsDay, samplesOfDay);
+        return new StepsDailyFragment.StepsData(chartsHost.getEndDate(), stepsDay, samplesOfDay);
     }
 
     @Override
     protected void updateChartsnUIThread(StepsDailyFragment.StepsData stepsData) {
+        String formattedDate = new SimpleDateFormat("E, MMM dd").format(stepsData.date);
+        mDateView.setText(formattedDate);
+
         final int width = (int) TypedValue.applyDimension(
                 TypedValue.COMPLEX_UNIT_DIP,
                 300,
@@ -279,10 +281,12 @@ public class StepsDailyFragment extends StepsFragment<StepsDailyFragment.StepsDa
     }
 
     protected static class StepsData extends ChartsData {
+        Date date;
         StepsDay todayStepsDay;
         List<? extends ActivitySample> samples;
 
-        public StepsData(final StepsDay todayStepsDay, final List<? extends ActivitySample> samplesOfDay) {
+        public StepsData(final Date date, final StepsDay todayStepsDay, final List<? extends ActivitySample> samplesOfDay) {
+            this.date = date;
             this.todayStepsDay = todayStepsDay;
             this.samples = samplesOfDay;
         }
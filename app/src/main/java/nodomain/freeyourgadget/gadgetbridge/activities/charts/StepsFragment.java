@@ -1,7 +1,5 @@
 package nodomain.freeyourgadget.gadgetbridge.activities.charts;
 
-import android.app.Activity;
-
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -18,7 +16,7 @@ import nodomain.freeyourgadget.gadgetbridge.model.ActivityAmount;
 import nodomain.freeyourgadget.gadgetbridge.model.ActivityAmounts;
 import nodomain.freeyourgadget.gadgetbridge.model.ActivitySample;
 import nodomain.freeyourgadget.gadgetbridge.model.ActivityUser;
-import nodomain.freeyourgadget.gadgetbridge.util.LimitedQueue;
+import nodomain.freeyourgadget.gadgetbridge.model.DailyAggregateCache;
 
 abstract class StepsFragment<T extends ChartsData> extends AbstractChartFragment<T> {
     protected static final Logger LOG = LoggerFactory.getLogger(StepsDailyFragment.class);
@@ -76,41 +74,30 @@ abstract class StepsFragment<T extends ChartsData> extends AbstractChartFragment
     }
 
     protected ActivityAmounts getActivityAmountsForDay(DBHandler db, Calendar day, GBDevice device) {
-        LimitedQueue<Integer, ActivityAmounts> activityAmountCache = null;
-        ActivityAmounts amounts = null;
-
-        Activity activity = getActivity();
-        int key = (int) (day.getTimeInMillis() / 1000);
-        if (activity != null) {
-            activityAmountCache = ((ActivityChartsActivity) activity).mActivityAmountCache;
-            amounts = activityAmountCache.lookup(key);
-        }
+        final int startTs = getDayStartTs(day, 0);
+        final int endTs = startTs + 24 * 60 * 60 - 1;
 
-        if (amounts == null) {
+        return DailyAggregateCache.get(device, DailyAggregateCache.KIND_ACTIVITY_AMOUNTS, startTs, endTs, () -> {
             ActivityAnalysis analysis = new ActivityAnalysis();
-            amounts = analysis.calculateActivityAmounts(getSamplesOfDay(db, day, 0, device));
-            if (activityAmountCache != null) {
-                activityAmountCache.add(key, amounts);
-            }
-        }
-
-        return amounts;
+            return analysis.calculateActivityAmounts(getSamples(db, device, startTs, endTs));
+        });
     }
 
     protected List<? extends ActivitySample> getSamplesOfDay(DBHandler db, Calendar day, int offsetHours, GBDevice device) {
-        int startTs;
-        int endTs;
+        int startTs = getDayStartTs(day, offsetHours);
+        int endTs = startTs + 24 * 60 * 60 - 1;
 
+        return getSamples(db, device, startTs, endTs);
+    }
+
+    private int getDayStartTs(Calendar day, int offsetHours) {
         day = (Calendar) day.clone(); // do not modify the caller's argument
         day.set(Calendar.HOUR_OF_DAY, 0);
         day.set(Calendar.MINUTE, 0);
         day.set(Calendar.SECOND, 0);
         day.add(Calendar.HOUR, offsetHours);
 
-        startTs = (int) (day.getTimeInMillis() / 1000);
-        endTs = startTs + 24 * 60 * 60 - 1;
-
-        return getSamples(db, device, startTs, endTs);
+        return (int) (day.getTimeInMillis() / 1000);
     }
 
     protected List<? extends ActivitySample> getSamples(DBHandler db, GBDevice device, int tsFrom, int tsTo) {
@@ -143,17 +143,18 @@ public class StepsPeriodFragment extends StepsFragment<StepsPeriodFragment.Steps
     protected StepsData refreshInBackground(ChartsHost chartsHost, DBHandler db, GBDevice device) {
         Calendar day = Calendar.getInstance();
         Date to = new Date((long) this.getTSEnd() * 1000);
-        Date from = DateUtils.addDays(to,-(TOTAL_DAYS - 1));
-        String toFormattedDate = new SimpleDateFormat("E, MMM dd").format(to);
-        String fromFormattedDate = new SimpleDateFormat("E, MMM dd").format(from);
-        mDateView.setText(fromFormattedDate + " - " + toFormattedDate);
         day.setTime(to);
         List<StepsDay> stepsDaysData = getMyStepsDaysData(db, day, device);
-        return new StepsData(stepsDaysData);
+        return new StepsData(to, stepsDaysData);
     }
 
     @Override
     protected void updateChartsnUIThread(StepsData stepsData) {
+        Date from = DateUtils.addDays(stepsData.to, -(TOTAL_DAYS - 1));
+        String toFormattedDate = new SimpleDateFormat("E, MMM dd").format(stepsData.to);
+        String fromFormattedDate = new SimpleDateFormat("E, MMM dd").format(from);
+        mDateView.setText(fromFormattedDate + " - " + toFormattedDate);
+
         stepsChart.setData(null);
 
         List<BarEntry> entries = new ArrayList<>();
@@ -202,13 +203,15 @@ public class StepsPeriodFragment extends StepsFragment<StepsPeriodFragment.Steps
     protected void setupLegend(Chart<?> chart) {}
 
     protected static class StepsData extends ChartsData {
+        Date to;
         List<StepsDay> days;
         long stepsDailyAvg = 0;
         double distanceDailyAvg = 0;
         long totalSteps = 0;
         double totalDistance = 0;
         StepsDay todayStepsDay;
-        protected StepsData(List<StepsDay> days) {
+        protected StepsData(Date to, List<StepsDay> days) {
+            this.to = to;
             this.days = days;
             int daysCounter = 0;
             for(StepsDay day : days) {
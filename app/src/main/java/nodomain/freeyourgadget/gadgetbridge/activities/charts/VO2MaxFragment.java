@@ -116,6 +116,12 @@ public class VO2MaxFragment extends AbstractChartFragment<VO2MaxFragment.VO2MaxD
         CHART_TEXT_COLOR = GBApplication.getSecondaryTextColor(requireContext());
     }
 
+    @Override
+    protected boolean isCacheable() {
+        // the x axis formatter depends on the range of the last computed data
+        return false;
+    }
+
     @Override
     protected VO2MaxData refreshInBackground(ChartsHost chartsHost, DBHandler db, GBDevice device) {
         String formattedDate = new SimpleDateFormat("E, MMM dd").format(getEndDate());
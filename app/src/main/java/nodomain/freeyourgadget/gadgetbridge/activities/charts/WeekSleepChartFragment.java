@@ -188,6 +188,12 @@ public class WeekSleepChartFragment extends AbstractWeekChartFragment {
         sleepDatesText.setText(fromFormattedDate + " - " + toFormattedDate);
     }
 
+    @Override
+    protected boolean isCacheable() {
+        // the averages are kept in fields of the fragment
+        return false;
+    }
+
     @Override
     protected MyChartsData refreshInBackground(ChartsHost chartsHost, DBHandler db, GBDevice device) {
         Calendar day = Calendar.getInstance();
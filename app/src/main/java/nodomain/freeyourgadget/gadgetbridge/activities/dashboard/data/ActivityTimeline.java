@@ -0,0 +1,218 @@
+/*  Copyright (C) 2026 agent
+
+    This file is part of Gadgetbridge.
+
+    Gadgetbridge is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published
+    by the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    Gadgetbridge is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>. */
+package nodomain.freeyourgadget.gadgetbridge.activities.dashboard.data;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeSet;
+
+import nodomain.freeyourgadget.gadgetbridge.activities.DashboardFragment.DashboardData.GeneralizedActivity;
+import nodomain.freeyourgadget.gadgetbridge.model.ActivityKind;
+
+/**
+ * Merges overlapping activity ranges (in seconds, both ends inclusive) into a timeline where each
+ * second has a single activity kind, keeping the most important one:
+ * EXERCISE &gt; ACTIVITY &gt; DEEP_SLEEP &gt; LIGHT_SLEEP &gt; REM_SLEEP &gt; AWAKE_SLEEP &gt; SLEEP_ANY / NOT_MEASURED.
+ * Between SLEEP_ANY and NOT_MEASURED the range added first wins, while any other kind (eg. NOT_WORN)
+ * has the lowest priority and the range added last wins.
+ * <p>
+ * The ranges are merged with a sweep over their boundaries, so the cost depends on the number of
+ * ranges, not on the number of seconds they cover.
+ */
+public class ActivityTimeline {
+    private static final int RANK_FIRST_WINS = 6;
+    private static final int RANK_LAST_WINS = 7;
+    private static final ActivityKind[] RANKED_KINDS = {
+            ActivityKind.EXERCISE,
+            ActivityKind.ACTIVITY,
+            ActivityKind.DEEP_SLEEP,
+            ActivityKind.LIGHT_SLEEP,
+            ActivityKind.REM_SLEEP,
+            ActivityKind.AWAKE_SLEEP,
+    };
+
+    private long[] timeFrom = new long[64];
+    private long[] timeTo = new long[64];
+    private final List<ActivityKind> kinds = new ArrayList<>();
+
+    public void add(final long from, final long to, final ActivityKind activityKind) {
+        if (from > to) {
+            return;
+        }
+        final int size = kinds.size();
+        if (size == timeFrom.length) {
+            timeFrom = Arrays.copyOf(timeFrom, size * 2);
+            timeTo = Arrays.copyOf(timeTo, size * 2);
+        }
+        timeFrom[size] = from;
+        timeTo[size] = to;
+        kinds.add(activityKind);
+    }
+
+    public int size() {
+        return kinds.size();
+    }
+
+    /**
+     * Merge the timeline into generalized activity ranges. A new range is started whenever the
+     * activity kind changes, there is a gap of more than a minute, or at any of the split timestamps.
+     */
+    public List<GeneralizedActivity> toGeneralizedActivities(final long... splitTimestamps) {
+        final List<GeneralizedActivity> result = new ArrayList<>();
+        final int size = kinds.size();
+        if (size == 0) {
+            return result;
+        }
+
+        final long[] splits = splitTimestamps.clone();
+        Arrays.sort(splits);
+
+        // Sort the range boundaries, encoding the range index in the lower bits of the key.
+        // Ranges end at timeTo + 1, so that an end and a start at the same timestamp do not overlap.
+        long base = Long.MAX_VALUE;
+        for (int i = 0; i < size; i++) {
+            base = Math.min(base, timeFrom[i]);
+        }
+        final int indexBits = 32 - Integer.numberOfLeadingZeros(size);
+        final long indexMask = (1L << indexBits) - 1;
+        final long[] starts = new long[size];
+        final long[] ends = new long[size];
+        for (int i = 0; i < size; i++) {
+            starts[i] = ((timeFrom[i] - base) << indexBits) | i;
+            ends[i] = ((timeTo[i] + 1 - base) << indexBits) | i;
+        }
+        Arrays.sort(starts);
+        Arrays.sort(ends);
+
+        final int[] rankedCount = new int[RANKED_KINDS.length];
+        final TreeSet<Integer> activeFirstWins = new TreeSet<>();
+        final TreeSet<Integer> activeLastWins = new TreeSet<>();
+
+        GeneralizedActivity previous = null;
+        int s = 0;
+        int e = 0;
+        while (e < size) {
+            final long time = s < size ? Math.min(starts[s] >> indexBits, ends[e] >> indexBits) : ends[e] >> indexBits;
+
+            for (; e < size && ends[e] >> indexBits == time; e++) {
+                final int index = (int) (ends[e] & indexMask);
+                final int rank = rank(kinds.get(index));
+                if (rank < RANK_FIRST_WINS) {
+                    rankedCount[rank]--;
+                } else if (rank == RANK_FIRST_WINS) {
+                    activeFirstWins.remove(index);
+                } else {
+                    activeLastWins.remove(index);
+                }
+            }
+            for (; s < size && starts[s] >> indexBits == time; s++) {
+                final int index = (int) (starts[s] & indexMask);
+                final int rank = rank(kinds.get(index));
+                if (rank < RANK_FIRST_WINS) {
+                    rankedCount[rank]++;
+                } else if (rank == RANK_FIRST_WINS) {
+                    activeFirstWins.add(index);
+                } else {
+                    activeLastWins.add(index);
+                }
+            }
+
+            final ActivityKind current = winner(rankedCount, activeFirstWins, activeLastWins);
+            if (current == null) {
+                continue;
+            }
+
+            // there is at least one active range, so there is a next boundary
+            final long next = s < size ? Math.min(starts[s] >> indexBits, ends[e] >> indexBits) : ends[e] >> indexBits;
+            previous = append(result, previous, current, time + base, next - 1 + base, splits);
+        }
+
+        return result;
+    }
+
+    private static GeneralizedActivity append(final List<GeneralizedActivity> result,
+                                              GeneralizedActivity previous,
+                                              final ActivityKind activityKind,
+                                              final long from,
+                                              final long to,
+                                              final long[] splits) {
+        if (previous == null ||
+                previous.activityKind != activityKind ||
+                previous.timeTo < from - 60 ||
+                Arrays.binarySearch(splits, from) >= 0) {
+            previous = new GeneralizedActivity(activityKind, from, from);
+            result.add(previous);
+        }
+
+        // split points strictly inside the range
+        int i = Arrays.binarySearch(splits, from + 1);
+        if (i < 0) {
+            i = -i - 1;
+        }
+        for (; i < splits.length && splits[i] <= to; i++) {
+            if (i > 0 && splits[i] == splits[i - 1]) {
+                continue;
+            }
+            previous.timeTo = splits[i] - 1;
+            previous = new GeneralizedActivity(activityKind, splits[i], splits[i]);
+            result.add(previous);
+        }
+
+        previous.timeTo = to;
+        return previous;
+    }
+
+    private ActivityKind winner(final int[] rankedCount,
+                                final TreeSet<Integer> activeFirstWins,
+                                final TreeSet<Integer> activeLastWins) {
+        for (int rank = 0; rank < rankedCount.length; rank++) {
+            if (rankedCount[rank] > 0) {
+                return RANKED_KINDS[rank];
+            }
+        }
+        if (!activeFirstWins.isEmpty()) {
+            return kinds.get(activeFirstWins.first());
+        }
+        if (!activeLastWins.isEmpty()) {
+            return kinds.get(activeLastWins.last());
+        }
+        return null;
+    }
+
+    private static int rank(final ActivityKind activityKind) {
+        switch (activityKind) {
+            case EXERCISE:
+                return 0;
+            case ACTIVITY:
+                return 1;
+            case DEEP_SLEEP:
+                return 2;
+            case LIGHT_SLEEP:
+                return 3;
+            case REM_SLEEP:
+                return 4;
+            case AWAKE_SLEEP:
+                return 5;
+            case SLEEP_ANY:
+            case NOT_MEASURED:
+                return RANK_FIRST_WINS;
+            default:
+                return RANK_LAST_WINS;
+        }
+    }
+}
@@ -0,0 +1,212 @@
+/*  Copyright (C) 2026 agent
+
+    This file is part of Gadgetbridge.
+
+    Gadgetbridge is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published
+    by the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    Gadgetbridge is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>. */
+package nodomain.freeyourgadget.gadgetbridge.activities.dashboard.data;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.List;
+
+import nodomain.freeyourgadget.gadgetbridge.GBApplication;
+import nodomain.freeyourgadget.gadgetbridge.activities.DashboardFragment;
+import nodomain.freeyourgadget.gadgetbridge.activities.HeartRateUtils;
+import nodomain.freeyourgadget.gadgetbridge.activities.charts.StepAnalysis;
+import nodomain.freeyourgadget.gadgetbridge.database.DBHandler;
+import nodomain.freeyourgadget.gadgetbridge.entities.BaseActivitySummary;
+import nodomain.freeyourgadget.gadgetbridge.impl.GBDevice;
+import nodomain.freeyourgadget.gadgetbridge.model.ActivityKind;
+import nodomain.freeyourgadget.gadgetbridge.model.ActivitySample;
+import nodomain.freeyourgadget.gadgetbridge.model.ActivitySession;
+import nodomain.freeyourgadget.gadgetbridge.model.ActivityUser;
+import nodomain.freeyourgadget.gadgetbridge.model.DailyTotals;
+import nodomain.freeyourgadget.gadgetbridge.util.DashboardUtils;
+
+/**
+ * The activity data shown by the dashboard widgets for a day. The samples of each device are
+ * loaded from the database once, covering the dashboard range, the calendar day (steps and
+ * distance) and the 12h-shifted day (sleep), and split between them in a single pass.
+ */
+public class DashboardActivityData implements Serializable {
+    private static final Logger LOG = LoggerFactory.getLogger(DashboardActivityData.class);
+
+    public long steps;
+    public float distanceMeters;
+    public long sleepMinutes;
+    public long activeMinutes;
+    public final List<DashboardFragment.DashboardData.GeneralizedActivity> generalizedActivities = new ArrayList<>();
+
+    public static DashboardActivityData compute(final DashboardFragment.DashboardData dashboardData) {
+        final long nanoStart = System.nanoTime();
+
+        final DashboardActivityData data = new DashboardActivityData();
+
+        final Calendar day = Calendar.getInstance();
+        day.setTimeInMillis(dashboardData.timeTo * 1000L);
+        day.set(Calendar.HOUR_OF_DAY, 0);
+        day.set(Calendar.MINUTE, 0);
+        day.set(Calendar.SECOND, 0);
+        final int dayFrom = (int) (day.getTimeInMillis() / 1000);
+        final int dayTo = dayFrom + 24 * 60 * 60 - 1;
+        day.add(Calendar.HOUR, -12);
+        final int sleepFrom = (int) (day.getTimeInMillis() / 1000);
+        final int sleepTo = sleepFrom + 24 * 60 * 60 - 1;
+
+        final int loadFrom = Math.min(sleepFrom, dashboardData.timeFrom);
+        final int loadTo = Math.max(dayTo, dashboardData.timeTo);
+
+        final int stepLength = new ActivityUser().getStepLengthCm();
+        long distanceCm = 0;
+
+        final List<ActivitySample> rangeSamples = new ArrayList<>();
+        final List<ActivitySession> stepSessions = new ArrayList<>();
+        List<BaseActivitySummary> activitySummaries = null;
+
+        try (DBHandler dbHandler = GBApplication.acquireDB()) {
+            for (final GBDevice dev : GBApplication.app().getDeviceManager().getDevices()) {
+                if (!(dashboardData.showAllDevices || dashboardData.showDeviceList.contains(dev.getAddress())) || !dev.getDeviceCoordinator().supportsActivityTracking()) {
+                    continue;
+                }
+
+                final List<? extends ActivitySample> samples = dev.getDeviceCoordinator()
+                        .getSampleProvider(dev, dbHandler.getDaoSession())
+                        .getAllActivitySamples(loadFrom, loadTo);
+
+                final List<ActivitySample> deviceRangeSamples = new ArrayList<>();
+                final List<ActivitySample> daySamples = new ArrayList<>();
+                final List<ActivitySample> sleepSamples = new ArrayList<>();
+                for (final ActivitySample sample : samples) {
+                    final int ts = sample.getTimestamp();
+                    if (ts >= dashboardData.timeFrom && ts <= dashboardData.timeTo) {
+                        deviceRangeSamples.add(sample);
+                    }
+                    if (ts >= dayFrom && ts <= dayTo) {
+                        daySamples.add(sample);
+                    }
+                    if (ts >= sleepFrom && ts <= sleepTo) {
+                        sleepSamples.add(sample);
+                    }
+                }
+
+                final DailyTotals dailyTotals = DailyTotals.getDailyTotals(daySamples, sleepSamples);
+                data.steps += dailyTotals.getSteps();
+                data.sleepMinutes += dailyTotals.getSleep();
+                if (dailyTotals.getSteps() > 0 && dailyTotals.getDistance() > 0) {
+                    distanceCm += dailyTotals.getDistance();
+                } else {
+                    distanceCm += dailyTotals.getSteps() * stepLength;
+                }
+
+                final StepAnalysis stepAnalysis = new StepAnalysis();
+                final List<ActivitySession> deviceStepSessions = stepAnalysis.calculateStepSessions(deviceRangeSamples);
+                final ActivitySession stepSessionsSummary = stepAnalysis.calculateSummary(deviceStepSessions, deviceStepSessions.isEmpty());
+                data.activeMinutes += (stepSessionsSummary.getEndTime().getTime() - stepSessionsSummary.getStartTime().getTime()) / 1000 / 60;
+
+                rangeSamples.addAll(deviceRangeSamples);
+                stepSessions.addAll(deviceStepSessions);
+            }
+            activitySummaries = DashboardUtils.getWorkoutSamples(dbHandler, dashboardData);
+        } catch (final Exception e) {
+            LOG.warn("Could not retrieve activity data", e);
+        }
+        data.distanceMeters = distanceCm * 0.01f;
+
+        Collections.sort(rangeSamples, (lhs, rhs) -> Integer.compare(lhs.getTimestamp(), rhs.getTimestamp()));
+        data.computeTimeline(dashboardData, rangeSamples, activitySummaries, stepSessions);
+
+        LOG.debug("Computing dashboard activity data took {}ms", (System.nanoTime() - nanoStart) / 1000000);
+
+        return data;
+    }
+
+    /**
+     * Merge the worn sessions, sleep, workouts and step sessions into generalized activity ranges.
+     */
+    private void computeTimeline(final DashboardFragment.DashboardData dashboardData,
+                                 final List<ActivitySample> samples,
+                                 final List<BaseActivitySummary> activitySummaries,
+                                 final List<ActivitySession> stepSessions) {
+        final ActivityTimeline timeline = new ActivityTimeline();
+
+        // Determine worn sessions from heart rate samples
+        addWornSessions(timeline, samples, dashboardData.hrIntervalSecs);
+
+        // Integrate various data from multiple devices
+        for (final ActivitySample sample : samples) {
+            // Handle only TYPE_NOT_WORN and TYPE_SLEEP (including variants) here
+            if (sample.getKind() != ActivityKind.NOT_WORN && (sample.getKind() == ActivityKind.NOT_MEASURED || !ActivityKind.isSleep(sample.getKind())))
+                continue;
+            timeline.add(sample.getTimestamp(), sample.getTimestamp() + 60, sample.getKind());
+        }
+        if (activitySummaries != null) {
+            for (final BaseActivitySummary baseActivitySummary : activitySummaries) {
+                timeline.add(baseActivitySummary.getStartTime().getTime() / 1000, baseActivitySummary.getEndTime().getTime() / 1000, ActivityKind.EXERCISE);
+            }
+        }
+        for (final ActivitySession session : stepSessions) {
+            timeline.add(session.getStartTime().getTime() / 1000, session.getEndTime().getTime() / 1000, ActivityKind.ACTIVITY);
+        }
+
+        final long currentTime = Calendar.getInstance().getTimeInMillis() / 1000;
+        final long midDaySecond = dashboardData.timeTo - (12 * 60 * 60);
+        final long[] splitTimestamps;
+        if (GBApplication.getPrefs().getBoolean("dashboard_widget_today_24h", false)) {
+            splitTimestamps = new long[]{dashboardData.timeTo - 86400, currentTime - 86400};
+        } else {
+            splitTimestamps = new long[]{midDaySecond, midDaySecond - 86400, dashboardData.timeTo - 86400, currentTime - 86400};
+        }
+        generalizedActivities.addAll(timeline.toGeneralizedActivities(splitTimestamps));
+    }
+
+    /**
+     * Add NOT_MEASURED (worn) activities for every successful heart rate measurement
+     */
+    private static void addWornSessions(final ActivityTimeline timeline, final List<ActivitySample> samples, final int hrIntervalSecs) {
+        int firstTimestamp = 0;
+        int lastTimestamp = 0;
+
+        for (ActivitySample sample : samples) {
+            if (sample.getHeartRate() < 10 && firstTimestamp == 0) continue;
+            if (firstTimestamp == 0) firstTimestamp = sample.getTimestamp();
+            if (lastTimestamp == 0) lastTimestamp = sample.getTimestamp();
+            if (HeartRateUtils.getInstance().isValidHeartRateValue(sample.getHeartRate())
+                    && sample.getTimestamp() > lastTimestamp + hrIntervalSecs
+                    && firstTimestamp != lastTimestamp) {
+                LOG.debug("Registered worn session from {} to {}", firstTimestamp, lastTimestamp);
+                timeline.add(firstTimestamp, lastTimestamp, ActivityKind.NOT_MEASURED);
+                if (sample.getHeartRate() < 10) {
+                    firstTimestamp = 0;
+                    lastTimestamp = 0;
+                } else {
+                    firstTimestamp = sample.getTimestamp();
+                    lastTimestamp = sample.getTimestamp();
+                }
+                continue;
+            }
+            if (HeartRateUtils.getInstance().isValidHeartRateValue(sample.getHeartRate())) {
+                lastTimestamp = sample.getTimestamp();
+            }
+        }
+        if (firstTimestamp != lastTimestamp) {
+            LOG.debug("Registered worn session from {} to {}", firstTimestamp, lastTimestamp);
+            timeline.add(firstTimestamp, lastTimestamp, ActivityKind.NOT_MEASURED);
+        }
+    }
+}
@@ -88,6 +88,7 @@ import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Hashtable;
@@ -147,6 +148,20 @@ public class GBDeviceAdapterv2 extends ListAdapter<GBDevice, GBDeviceAdapterv2.V
     private HashMap<String, DailyTotals> deviceActivityMap = new HashMap<>();
     private final StableIdGenerator idGenerator = new StableIdGenerator();
 
+    /**
+     * Payload for {@link #notifyItemChanged(int, Object)} when only the activity card of a device changed.
+     */
+    private static final Object PAYLOAD_ACTIVITY_CARD = new Object();
+
+    /**
+     * Changes of a device that can be rebound without binding the whole device card.
+     */
+    private static final Set<GBDevice.Change> PARTIAL_CHANGES = EnumSet.of(
+            GBDevice.Change.BATTERY,
+            GBDevice.Change.RSSI,
+            GBDevice.Change.BUSY_TASK
+    );
+
     public GBDeviceAdapterv2(Context context, List<GBDevice> deviceList, HashMap<String, DailyTotals> deviceMap) {
         super(new GBDeviceDiffUtil());
         this.context = context;
@@ -162,7 +177,7 @@ public class GBDeviceAdapterv2 extends ListAdapter<GBDevice, GBDeviceAdapterv2.V
     @SuppressLint("NotifyDataSetChanged")
     public final void refreshSingleDevice(final GBDevice device) {
         final int i = devicesListWithFolders.indexOf(device);
-        if (i > 0) {
+        if (i >= 0) {
             notifyItemChanged(i);
         } else {
             // Somehow the device was not on the list - rebuild everything
@@ -171,6 +186,27 @@ public class GBDeviceAdapterv2 extends ListAdapter<GBDevice, GBDeviceAdapterv2.V
         }
     }
 
+    /**
+     * Rebind only the activity card of a device, after its daily totals changed.
+     */
+    public final void refreshActivityCard(final GBDevice device) {
+        final int i = devicesListWithFolders.indexOf(device);
+        if (i >= 0) {
+            notifyItemChanged(i, PAYLOAD_ACTIVITY_CARD);
+        }
+    }
+
+    /**
+     * Rebind only the views of a device affected by the given changes. Devices that are not
+     * visible (eg. in a collapsed folder) are ignored.
+     */
+    public final void refreshDeviceChanges(final GBDevice device, final Set<GBDevice.Change> changes) {
+        final int i = devicesListWithFolders.indexOf(device);
+        if (i >= 0) {
+            notifyItemChanged(i, EnumSet.copyOf(changes));
+        }
+    }
+
     private List<GBDevice> enrichDeviceListWithFolder(List<GBDevice> deviceList) {
         final Map<String, List<GBDevice>> devicesPerFolder = new LinkedHashMap<>();
         final List<GBDevice> enrichedList = new ArrayList<>();
@@ -215,6 +251,82 @@ public class GBDeviceAdapterv2 extends ListAdapter<GBDevice, GBDeviceAdapterv2.V
         return count;
     }
 
+    private void setDeviceStatus(final ViewHolder holder, final GBDevice device) {
+        if (device.isBusy()) {
+            holder.deviceStatusLabel.setText(device.getBusyTask());
+            holder.busyIndicator.setVisibility(View.VISIBLE);
+        } else {
+            holder.deviceStatusLabel.setText(device.getStateString(context));
+            holder.busyIndicator.setVisibility(View.INVISIBLE);
+        }
+    }
+
+    private void setBatteryStatus(final ViewHolder holder, final GBDevice device) {
+        final DeviceCoordinator coordinator = device.getDeviceCoordinator();
+
+        //battery
+        // multiple battery support: at this point we support up to three batteries
+        // to support more batteries, the battery UI would need to be extended
+
+        holder.batteryStatusBox0.setVisibility(coordinator.getBatteryCount() > 0 ? View.VISIBLE : View.GONE);
+        holder.batteryStatusBox1.setVisibility(coordinator.getBatteryCount() > 1 ? View.VISIBLE : View.GONE);
+        holder.batteryStatusBox2.setVisibility(coordinator.getBatteryCount() > 2 ? View.VISIBLE : View.GONE);
+
+        LinearLayout[] batteryStatusBoxes = {holder.batteryStatusBox0, holder.batteryStatusBox1, holder.batteryStatusBox2};
+        TextView[] batteryStatusLabels = {holder.batteryStatusLabel0, holder.batteryStatusLabel1, holder.batteryStatusLabel2};
+        ImageView[] batteryIcons = {holder.batteryIcon0, holder.batteryIcon1, holder.batteryIcon2};
+
+        for (int batteryIndex = 0; batteryIndex < coordinator.getBatteryCount(); batteryIndex++) {
+
+            int batteryLevel = device.getBatteryLevel(batteryIndex);
+            float batteryVoltage = device.getBatteryVoltage(batteryIndex);
+            BatteryState batteryState = device.getBatteryState(batteryIndex);
+            int batteryIcon = device.getBatteryIcon(batteryIndex);
+            int batteryLabel = device.getBatteryLabel(batteryIndex); //unused for now
+            batteryIcons[batteryIndex].setImageResource(R.drawable.level_list_battery);
+
+            if (batteryIcon != GBDevice.BATTERY_ICON_DEFAULT){
+                batteryIcons[batteryIndex].setImageResource(batteryIcon);
+            }
+
+            if (batteryLevel != GBDevice.BATTERY_UNKNOWN) {
+                batteryStatusLabels[batteryIndex].setText(device.getBatteryLevel(batteryIndex) + "%");
+                if (BatteryState.BATTERY_CHARGING.equals(batteryState) ||
+                        BatteryState.BATTERY_CHARGING_FULL.equals(batteryState)) {
+                    batteryIcons[batteryIndex].setImageLevel(device.getBatteryLevel(batteryIndex) + 100);
+                } else {
+                    batteryIcons[batteryIndex].setImageLevel(device.getBatteryLevel(batteryIndex));
+                }
+            } else if (BatteryState.NO_BATTERY.equals(batteryState) && batteryVoltage != GBDevice.BATTERY_UNKNOWN) {
+                batteryStatusLabels[batteryIndex].setText(String.format(Locale.getDefault(), "%.2f", batteryVoltage));
+                batteryIcons[batteryIndex].setImageLevel(200);
+            } else {
+                //should be the "default" status, shown when the device is not connected
+                batteryStatusLabels[batteryIndex].setText("");
+                batteryIcons[batteryIndex].setImageLevel(300);
+            }
+            final int finalBatteryIndex = batteryIndex;
+            batteryStatusBoxes[batteryIndex].setOnClickListener(new View.OnClickListener() {
+                                                               @Override
+                                                               public void onClick(View v) {
+                                                                   Intent startIntent;
+                                                                   startIntent = new Intent(context, BatteryInfoActivity.class);
+                                                                   startIntent.putExtra(GBDevice.EXTRA_DEVICE, device);
+                                                                   startIntent.putExtra(GBDevice.BATTERY_INDEX, finalBatteryIndex);
+                                                                   context.startActivity(startIntent);
+                                                               }
+                                                           }
+            );
+
+            // Hide the battery status level, if it has no text
+            if (TextUtils.isEmpty(batteryStatusLabels[batteryIndex].getText())) {
+                batteryStatusLabels[batteryIndex].setVisibility(View.GONE);
+            } else {
+                batteryStatusLabels[batteryIndex].setVisibility(View.VISIBLE);
+            }
+        }
+    }
+
     private void showDeviceFolder(ViewHolder holder, final GBDeviceFolder folder){
         holder.container.setVisibility(View.VISIBLE);
         holder.deviceNameLabel.setText(folder.getName());
@@ -283,6 +395,41 @@ public class GBDeviceAdapterv2 extends ListAdapter<GBDevice, GBDeviceAdapterv2.V
         GBApplication.deviceService(device).connect();
     }
 
+    @Override
+    public void onBindViewHolder(@NonNull ViewHolder holder, final int position, @NonNull List<Object> payloads) {
+        final GBDevice device = devicesListWithFolders.get(position);
+        if (payloads.isEmpty() || device instanceof GBDeviceFolder) {
+            onBindViewHolder(holder, position);
+            return;
+        }
+
+        boolean activityCard = false;
+        final Set<GBDevice.Change> changes = EnumSet.noneOf(GBDevice.Change.class);
+        for (final Object payload : payloads) {
+            if (payload == PAYLOAD_ACTIVITY_CARD) {
+                activityCard = true;
+            } else if (payload instanceof EnumSet && PARTIAL_CHANGES.containsAll((EnumSet<?>) payload)) {
+                //noinspection unchecked
+                changes.addAll((EnumSet<GBDevice.Change>) payload);
+            } else {
+                onBindViewHolder(holder, position);
+                return;
+            }
+        }
+
+        if (activityCard && device.getDeviceCoordinator().supportsActivityTracking()) {
+            DailyTotals dailyTotals = deviceActivityMap.get(device.getAddress());
+            setActivityCard(holder, device, dailyTotals != null ? dailyTotals : new DailyTotals());
+        }
+        if (changes.contains(GBDevice.Change.BUSY_TASK)) {
+            setDeviceStatus(holder, device);
+        }
+        if (changes.contains(GBDevice.Change.BATTERY)) {
+            setBatteryStatus(holder, device);
+        }
+        // the RSSI is not displayed
+    }
+
     @Override
     public void onBindViewHolder(@NonNull ViewHolder holder, final int position) {
         final GBDevice device = devicesListWithFolders.get(position);
@@ -340,76 +487,11 @@ public class GBDeviceAdapterv2 extends ListAdapter<GBDevice, GBDeviceAdapterv2.V
 
         holder.deviceNameLabel.setText(getUniqueDeviceName(device));
 
-        if (device.isBusy()) {
-            holder.deviceStatusLabel.setText(device.getBusyTask());
-            holder.busyIndicator.setVisibility(View.VISIBLE);
-        } else {
-            holder.deviceStatusLabel.setText(device.getStateString(context));
-            holder.busyIndicator.setVisibility(View.INVISIBLE);
-        }
+        setDeviceStatus(holder, device);
 
         //begin of action row
-        //battery
-        // multiple battery support: at this point we support up to three batteries
-        // to support more batteries, the battery UI would need to be extended
-
-        holder.batteryStatusBox0.setVisibility(coordinator.getBatteryCount() > 0 ? View.VISIBLE : View.GONE);
-        holder.batteryStatusBox1.setVisibility(coordinator.getBatteryCount() > 1 ? View.VISIBLE : View.GONE);
-        holder.batteryStatusBox2.setVisibility(coordinator.getBatteryCount() > 2 ? View.VISIBLE : View.GONE);
-
-        LinearLayout[] batteryStatusBoxes = {holder.batteryStatusBox0, holder.batteryStatusBox1, holder.batteryStatusBox2};
-        TextView[] batteryStatusLabels = {holder.batteryStatusLabel0, holder.batteryStatusLabel1, holder.batteryStatusLabel2};
-        ImageView[] batteryIcons = {holder.batteryIcon0, holder.batteryIcon1, holder.batteryIcon2};
-
-        for (int batteryIndex = 0; batteryIndex < coordinator.getBatteryCount(); batteryIndex++) {
-
-            int batteryLevel = device.getBatteryLevel(batteryIndex);
-            float batteryVoltage = device.getBatteryVoltage(batteryIndex);
-            BatteryState batteryState = device.getBatteryState(batteryIndex);
-            int batteryIcon = device.getBatteryIcon(batteryIndex);
-            int batteryLabel = device.getBatteryLabel(batteryIndex); //unused for now
-            batteryIcons[batteryIndex].setImageResource(R.drawable.level_list_battery);
+        setBatteryStatus(holder, device);
 
-            if (batteryIcon != GBDevice.BATTERY_ICON_DEFAULT){
-                batteryIcons[batteryIndex].setImageResource(batteryIcon);
-            }
-
-            if (batteryLevel != GBDevice.BATTERY_UNKNOWN) {
-                batteryStatusLabels[batteryIndex].setText(device.getBatteryLevel(batteryIndex) + "%");
-                if (BatteryState.BATTERY_CHARGING.equals(batteryState) ||
-                        BatteryState.BATTERY_CHARGING_FULL.equals(batteryState)) {
-                    batteryIcons[batteryIndex].setImageLevel(device.getBatteryLevel(batteryIndex) + 100);
-                } else {
-                    batteryIcons[batteryIndex].setImageLevel(device.getBatteryLevel(batteryIndex));
-                }
-            } else if (BatteryState.NO_BATTERY.equals(batteryState) && batteryVoltage != GBDevice.BATTERY_UNKNOWN) {
-                batteryStatusLabels[batteryIndex].setText(String.format(Locale.getDefault(), "%.2f", batteryVoltage));
-                batteryIcons[batteryIndex].setImageLevel(200);
-            } else {
-                //should be the "default" status, shown when the device is not connected
-                batteryStatusLabels[batteryIndex].setText("");
-                batteryIcons[batteryIndex].setImageLevel(300);
-            }
-            final int finalBatteryIndex = batteryIndex;
-            batteryStatusBoxes[batteryIndex].setOnClickListener(new View.OnClickListener() {
-                                                               @Override
-                                                               public void onClick(View v) {
-                                                                   Intent startIntent;
-                                                                   startIntent = new Intent(context, BatteryInfoActivity.class);
-                                                                   startIntent.putExtra(GBDevice.EXTRA_DEVICE, device);
-                                                                   startIntent.putExtra(GBDevice.BATTERY_INDEX, finalBatteryIndex);
-                                                                   context.startActivity(startIntent);
-                                                               }
-                                                           }
-            );
-
-            // Hide the battery status level, if it has no text
-            if (TextUtils.isEmpty(batteryStatusLabels[batteryIndex].getText())) {
-                batteryStatusLabels[batteryIndex].setVisibility(View.GONE);
-            } else {
-                batteryStatusLabels[batteryIndex].setVisibility(View.VISIBLE);
-            }
-        }
         holder.heartRateStatusBox.setVisibility((device.isInitialized() && coordinator.supportsRealtimeData() && coordinator.supportsManualHeartRateMeasurement(device)) ? View.VISIBLE : View.GONE);
         if (parent.getContext() instanceof ControlCenterv2) {
             ActivitySample sample = ((ControlCenterv2) parent.getContext()).getCurrentHRSample(device);
@@ -35,6 +35,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Collections;
 import java.util.Date;
@@ -197,6 +198,58 @@ public class DBHelper {
         return false;
     }
 
+    public static List<String> getTableNames(SQLiteDatabase db) {
+        final List<String> tableNames = new ArrayList<>();
+        try (Cursor res = db.rawQuery("SELECT name FROM sqlite_master WHERE type = 'table' AND name NOT LIKE 'sqlite_%' AND name != 'android_metadata'", null)) {
+            while (res.moveToNext()) {
+                tableNames.add(res.getString(0));
+            }
+        }
+        return tableNames;
+    }
+
+    /**
+     * Checks whether the table has an index starting with the given columns, in order, regardless
+     * of its name.
+     */
+    public static boolean existsIndex(String tableName, List<String> columnNames, SQLiteDatabase db) {
+        final List<String> indexNames = new ArrayList<>();
+        try (Cursor res = db.rawQuery("PRAGMA index_list('" + tableName + "')", null)) {
+            final int index = res.getColumnIndex("name");
+            while (res.moveToNext()) {
+                indexNames.add(res.getString(index));
+            }
+        }
+
+        for (final String indexName : indexNames) {
+            final List<String> indexColumnNames = new ArrayList<>();
+            try (Cursor res = db.rawQuery("PRAGMA index_info('" + indexName + "')", null)) {
+                final int index = res.getColumnIndex("name");
+                while (res.moveToNext()) {
+                    indexColumnNames.add(res.getString(index));
+                }
+            }
+            if (indexColumnNames.size() >= columnNames.size() && indexColumnNames.subList(0, columnNames.size()).equals(columnNames)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Creates an index on the given columns, named like the ones generated by greenDAO, unless the
+     * table already has an equivalent one.
+     */
+    public static void createIndex(String tableName, List<String> columnNames, SQLiteDatabase db) {
+        if (existsIndex(tableName, columnNames, db)) {
+            return;
+        }
+        final String statement = "CREATE INDEX IF NOT EXISTS \"IDX_" + tableName + "_" + String.join("_", columnNames) + "\""
+                + " ON \"" + tableName + "\" (\"" + String.join("\",\"", columnNames) + "\")";
+        LOG.info("Creating index: {}", statement);
+        db.execSQL(statement);
+    }
+
     /**
      * Looks up the user entity in the database. If a user exists already, it will
      * be updated with the current preferences values. If no user exists yet, it will
@@ -19,8 +19,10 @@ package nodomain.freeyourgadget.gadgetbridge.database;
 import android.content.Context;
 import android.database.sqlite.SQLiteDatabase;
 
+import nodomain.freeyourgadget.gadgetbridge.R;
 import nodomain.freeyourgadget.gadgetbridge.database.schema.SchemaMigration;
 import nodomain.freeyourgadget.gadgetbridge.entities.DaoMaster;
+import nodomain.freeyourgadget.gadgetbridge.util.GB;
 
 public class DBOpenHelper extends DaoMaster.OpenHelper {
     private final String updaterClassNamePrefix;
@@ -35,13 +37,40 @@ public class DBOpenHelper extends DaoMaster.OpenHelper {
     @Override
     public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
         DaoMaster.createAllTables(db, true);
-        new SchemaMigration(updaterClassNamePrefix).onUpgrade(db, oldVersion, newVersion);
+        final SchemaMigration migration = createSchemaMigration();
+        try {
+            migration.onUpgrade(db, oldVersion, newVersion);
+        } finally {
+            removeProgressNotification();
+        }
     }
 
     @Override
     public void onDowngrade(SQLiteDatabase db, int oldVersion, int newVersion) {
         DaoMaster.createAllTables(db, true);
-        new SchemaMigration(updaterClassNamePrefix).onDowngrade(db, oldVersion, newVersion);
+        final SchemaMigration migration = createSchemaMigration();
+        try {
+            migration.onDowngrade(db, oldVersion, newVersion);
+        } finally {
+            removeProgressNotification();
+        }
+    }
+
+    private SchemaMigration createSchemaMigration() {
+        final SchemaMigration migration = new SchemaMigration(updaterClassNamePrefix);
+        migration.setProgressListener((version, step, steps) -> GB.updateTransferNotification(
+                context.getString(R.string.database_migration_title),
+                context.getString(R.string.database_migration_progress, version, step, steps),
+                true,
+                // percentage 100 removes the notification
+                Math.min(99, (step - 1) * 100 / steps),
+                context
+        ));
+        return migration;
+    }
+
+    private void removeProgressNotification() {
+        GB.updateTransferNotification(null, null, false, 100, context);
     }
 
     public Context getContext() {
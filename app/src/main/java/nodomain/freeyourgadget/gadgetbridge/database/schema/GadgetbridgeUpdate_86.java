@@ -0,0 +1,62 @@
+package nodomain.freeyourgadget.gadgetbridge.database.schema;
+
+import android.database.sqlite.SQLiteDatabase;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import nodomain.freeyourgadget.gadgetbridge.database.DBHelper;
+import nodomain.freeyourgadget.gadgetbridge.database.DBUpdateScript;
+import nodomain.freeyourgadget.gadgetbridge.entities.BaseActivitySummaryDao;
+import nodomain.freeyourgadget.gadgetbridge.entities.HPlusHealthActivityOverlayDao;
+import nodomain.freeyourgadget.gadgetbridge.entities.HuaweiWorkoutSummarySampleDao;
+import nodomain.freeyourgadget.gadgetbridge.entities.PebbleHealthActivityOverlayDao;
+import nodomain.freeyourgadget.gadgetbridge.entities.WatchXPlusHealthActivityOverlayDao;
+
+/**
+ * Index the sample tables by (device, timestamp), matching the queries of the sample providers.
+ * The primary key of these tables starts with the timestamp, so a query for a single device
+ * needs to go through the samples of all devices, or the whole table when sorting.
+ */
+public class GadgetbridgeUpdate_86 implements DBUpdateScript {
+    private static final String DEVICE_ID = "DEVICE_ID";
+    private static final String TIMESTAMP = "TIMESTAMP";
+
+    @Override
+    public void upgradeSchema(final SQLiteDatabase db) {
+        for (final String tableName : DBHelper.getTableNames(db)) {
+            if (DBHelper.existsColumn(tableName, DEVICE_ID, db) && DBHelper.existsColumn(tableName, TIMESTAMP, db)) {
+                DBHelper.createIndex(tableName, Arrays.asList(DEVICE_ID, TIMESTAMP), db);
+            }
+        }
+
+        DBHelper.createIndex(PebbleHealthActivityOverlayDao.TABLENAME, Arrays.asList(
+                PebbleHealthActivityOverlayDao.Properties.DeviceId.columnName,
+                PebbleHealthActivityOverlayDao.Properties.TimestampFrom.columnName
+        ), db);
+        DBHelper.createIndex(HPlusHealthActivityOverlayDao.TABLENAME, Arrays.asList(
+                HPlusHealthActivityOverlayDao.Properties.DeviceId.columnName,
+                HPlusHealthActivityOverlayDao.Properties.TimestampFrom.columnName
+        ), db);
+        DBHelper.createIndex(WatchXPlusHealthActivityOverlayDao.TABLENAME, Arrays.asList(
+                WatchXPlusHealthActivityOverlayDao.Properties.DeviceId.columnName,
+                WatchXPlusHealthActivityOverlayDao.Properties.TimestampFrom.columnName
+        ), db);
+
+        DBHelper.createIndex(BaseActivitySummaryDao.TABLENAME, Arrays.asList(
+                BaseActivitySummaryDao.Properties.DeviceId.columnName,
+                BaseActivitySummaryDao.Properties.StartTime.columnName
+        ), db);
+        DBHelper.createIndex(BaseActivitySummaryDao.TABLENAME, Collections.singletonList(
+                BaseActivitySummaryDao.Properties.StartTime.columnName
+        ), db);
+        DBHelper.createIndex(HuaweiWorkoutSummarySampleDao.TABLENAME, Arrays.asList(
+                HuaweiWorkoutSummarySampleDao.Properties.DeviceId.columnName,
+                HuaweiWorkoutSummarySampleDao.Properties.StartTimestamp.columnName
+        ), db);
+    }
+
+    @Override
+    public void downgradeSchema(final SQLiteDatabase db) {
+    }
+}
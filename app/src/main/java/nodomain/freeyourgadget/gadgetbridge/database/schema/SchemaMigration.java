@@ -28,19 +28,27 @@ import nodomain.freeyourgadget.gadgetbridge.util.GB;
 public class SchemaMigration {
     private static final Logger LOG = LoggerFactory.getLogger(SchemaMigration.class);
     private final String classNamePrefix;
+    private ProgressListener progressListener;
 
     public SchemaMigration(String updaterClassNamePrefix) {
         classNamePrefix = updaterClassNamePrefix;
     }
 
+    public void setProgressListener(final ProgressListener progressListener) {
+        this.progressListener = progressListener;
+    }
+
     public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
         LOG.info("ActivityDatabase: schema upgrade requested from " + oldVersion + " to " + newVersion);
         try {
             for (int i = oldVersion + 1; i <= newVersion; i++) {
+                reportProgress(i, i - oldVersion, newVersion - oldVersion);
                 DBUpdateScript updater = getUpdateScript(db, i);
                 if (updater != null) {
                     LOG.info("upgrading activity database to version " + i);
+                    final long start = System.currentTimeMillis();
                     updater.upgradeSchema(db);
+                    LOG.info("upgraded activity database to version {} in {}ms", i, System.currentTimeMillis() - start);
                 }
             }
             LOG.info("activity database is now at version " + newVersion);
@@ -54,6 +62,7 @@ public class SchemaMigration {
         LOG.info("ActivityDatabase: schema downgrade requested from " + oldVersion + " to " + newVersion);
         try {
             for (int i = oldVersion; i >= newVersion; i--) {
+                reportProgress(i - 1, oldVersion - i + 1, oldVersion - newVersion + 1);
                 DBUpdateScript updater = getUpdateScript(db, i);
                 if (updater != null) {
                     LOG.info("downgrading activity database to version " + (i - 1));
@@ -67,6 +76,12 @@ public class SchemaMigration {
         }
     }
 
+    private void reportProgress(final int version, final int step, final int steps) {
+        if (progressListener != null) {
+            progressListener.onProgress(version, step, steps);
+        }
+    }
+
     private DBUpdateScript getUpdateScript(SQLiteDatabase db, int version) {
         try {
             Class<?> updateClass = getClass().getClassLoader().loadClass(getClass().getPackage().getName() + "." + classNamePrefix + version);
@@ -77,4 +92,15 @@ public class SchemaMigration {
             throw new RuntimeException("Error instantiating DBUpdate class for version " + version, e);
         }
     }
+
+    public interface ProgressListener {
+        /**
+         * Called before each migration step.
+         *
+         * @param version the version being migrated to
+         * @param step    the current step, starting at 1
+         * @param steps   the total number of steps
+         */
+        void onProgress(int version, int step, int steps);
+    }
 }
@@ -44,6 +44,7 @@ import nodomain.freeyourgadget.gadgetbridge.entities.Device;
 import nodomain.freeyourgadget.gadgetbridge.impl.GBDevice;
 import nodomain.freeyourgadget.gadgetbridge.model.ActivityKind;
 import nodomain.freeyourgadget.gadgetbridge.model.ActivitySample;
+import nodomain.freeyourgadget.gadgetbridge.model.SampleCaches;
 
 /**
  * Base class for all sample providers. A Sample provider is device specific and provides
@@ -90,11 +91,29 @@ public abstract class AbstractSampleProvider<T extends AbstractActivitySample> i
     @Override
     public void addGBActivitySample(T activitySample) {
         getSampleDao().insertOrReplace(activitySample);
+        invalidateCaches(activitySample.getTimestamp(), activitySample.getTimestamp());
     }
 
     @Override
     public void addGBActivitySamples(T[] activitySamples) {
         getSampleDao().insertOrReplaceInTx(activitySamples);
+        if (activitySamples.length > 0) {
+            int tsFrom = Integer.MAX_VALUE;
+            int tsTo = Integer.MIN_VALUE;
+            for (final T sample : activitySamples) {
+                tsFrom = Math.min(tsFrom, sample.getTimestamp());
+                tsTo = Math.max(tsTo, sample.getTimestamp());
+            }
+            invalidateCaches(tsFrom, tsTo);
+        }
+    }
+
+    /**
+     * Drop all cached data of the device which depends on samples between the given timestamps
+     * (inclusive, in seconds). Must be called by subclasses which write samples themselves.
+     */
+    protected void invalidateCaches(final int tsFrom, final int tsTo) {
+        SampleCaches.onSamplesWritten(getDevice(), tsFrom, tsTo);
     }
 
     @Nullable
@@ -30,6 +30,7 @@ import nodomain.freeyourgadget.gadgetbridge.entities.AbstractTimeSample;
 import nodomain.freeyourgadget.gadgetbridge.entities.DaoSession;
 import nodomain.freeyourgadget.gadgetbridge.entities.Device;
 import nodomain.freeyourgadget.gadgetbridge.impl.GBDevice;
+import nodomain.freeyourgadget.gadgetbridge.model.SampleCaches;
 
 /**
  * Base class for all time sample providers. A Sample provider is device specific and provides
@@ -75,11 +76,22 @@ public abstract class AbstractTimeSampleProvider<T extends AbstractTimeSample> i
     @Override
     public void addSample(final T activitySample) {
         getSampleDao().insertOrReplace(activitySample);
+        final int ts = (int) (activitySample.getTimestamp() / 1000);
+        SampleCaches.onSamplesWritten(getDevice(), ts, ts);
     }
 
     @Override
     public void addSamples(final List<T> activitySamples) {
         getSampleDao().insertOrReplaceInTx(activitySamples);
+        if (!activitySamples.isEmpty()) {
+            long tsFrom = Long.MAX_VALUE;
+            long tsTo = Long.MIN_VALUE;
+            for (final T sample : activitySamples) {
+                tsFrom = Math.min(tsFrom, sample.getTimestamp());
+                tsTo = Math.max(tsTo, sample.getTimestamp());
+            }
+            SampleCaches.onSamplesWritten(getDevice(), (int) (tsFrom / 1000), (int) (tsTo / 1000));
+        }
     }
 
     @Nullable
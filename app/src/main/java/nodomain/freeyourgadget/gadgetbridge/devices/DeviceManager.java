@@ -33,6 +33,7 @@ import java.text.Collator;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Set;
 
@@ -62,13 +63,35 @@ public class DeviceManager {
      */
     public static final String ACTION_REFRESH_DEVICELIST
             = "nodomain.freeyourgadget.gadgetbridge.devices.devicemanager.action.set_version";
+    /**
+     * Changes of a device which affect the list of devices (eg. its order or folders). Other changes,
+     * such as the battery level, only need the device itself to be refreshed.
+     */
+    private static final Set<GBDevice.Change> DEVICE_LIST_CHANGES = EnumSet.of(
+            GBDevice.Change.STATE,
+            GBDevice.Change.NAME,
+            GBDevice.Change.FOLDER
+    );
+    /**
+     * Changes of a device which may need its database entry to be updated.
+     */
+    private static final Set<GBDevice.Change> DATABASE_CHANGES = EnumSet.of(
+            GBDevice.Change.STATE,
+            GBDevice.Change.NAME,
+            GBDevice.Change.DEVICE_INFO
+    );
     private final Context context;
     /**
      * This list is final, it will never be recreated. Only its contents change.
      * This allows direct access to the list from ListAdapters.
+     * The list is loaded from a background thread, so it is only modified while holding its lock.
      */
     private final List<GBDevice> deviceList = new ArrayList<>();
     private List<GBDevice> selectedDevices = new ArrayList<>();
+    /**
+     * Read by {@link #ensureDevicesLoaded()}, which may be called from any thread.
+     */
+    private volatile boolean devicesLoaded = false;
 
     private final BroadcastReceiver mReceiver = new BroadcastReceiver() {
         @Override
@@ -88,14 +111,19 @@ public class DeviceManager {
                     break;
                 case GBDevice.ACTION_DEVICE_CHANGED:
                     GBDevice dev = intent.getParcelableExtra(GBDevice.EXTRA_DEVICE);
+                    final Set<GBDevice.Change> changes = GBDevice.getChanges(intent);
+                    boolean added = false;
                     if (dev.getAddress() != null) {
-                        int index = deviceList.indexOf(dev); // search by address
-                        if (index >= 0) {
-                            deviceList.get(index).copyFromDevice(dev);
-                        } else {
-                            deviceList.add(dev);
+                        synchronized (deviceList) {
+                            int index = deviceList.indexOf(dev); // search by address
+                            if (index >= 0) {
+                                deviceList.get(index).copyFromDevice(dev);
+                            } else {
+                                deviceList.add(dev);
+                                added = true;
+                            }
                         }
-                        if (dev.isInitialized()) {
+                        if (dev.isInitialized() && !Collections.disjoint(changes, DATABASE_CHANGES)) {
                             try (DBHandler dbHandler = GBApplication.acquireDB()) {
                                 DBHelper.getDevice(dev, dbHandler.getDaoSession()); // implicitly creates the device in database if not present, and updates device attributes
                             } catch (Exception ignore) {
@@ -103,7 +131,9 @@ public class DeviceManager {
                         }
                     }
                     updateSelectedDevice(dev);
-                    refreshPairedDevices();
+                    if (added || affectsDeviceList(changes)) {
+                        refreshPairedDevices();
+                    }
                     break;
             }
         }
@@ -123,16 +153,35 @@ public class DeviceManager {
         filterGlobal.addAction(BluetoothDevice.ACTION_BOND_STATE_CHANGED);
         ContextCompat.registerReceiver(context, mReceiver, filterGlobal, ContextCompat.RECEIVER_EXPORTED);
 
-        refreshPairedDevices();
+        // the database may still be opening, do not block the application startup on it
+        GBApplication.runWhenDatabaseReady(this::ensureDevicesLoaded);
+    }
+
+    /**
+     * Load the devices from the database, if that did not happen yet. Until then, the list of
+     * devices is empty. This blocks until the database is ready, so it should only be called
+     * by code that needs the devices right away, such as when auto-connecting.
+     */
+    public void ensureDevicesLoaded() {
+        if (!devicesLoaded) {
+            synchronized (deviceList) {
+                // another thread may have loaded the devices while we were waiting for the lock
+                if (!devicesLoaded) {
+                    refreshPairedDevices();
+                }
+            }
+        }
     }
 
     private void updateDeviceName(BluetoothDevice device, String newName) {
-        for (GBDevice dev : deviceList) {
-            if (device.getAddress().equals(dev.getAddress())) {
-                if (!dev.getName().equals(newName)) {
-                    dev.setName(newName);
-                    notifyDevicesChanged();
-                    return;
+        synchronized (deviceList) {
+            for (GBDevice dev : deviceList) {
+                if (device.getAddress().equals(dev.getAddress())) {
+                    if (!dev.getName().equals(newName)) {
+                        dev.setName(newName);
+                        notifyDevicesChanged();
+                        return;
+                    }
                 }
             }
         }
@@ -140,9 +189,11 @@ public class DeviceManager {
 
     private void updateSelectedDevice(GBDevice dev) {
         selectedDevices.clear();
-        for(GBDevice device : deviceList){
-            if(device.isInitialized()){
-                selectedDevices.add(device);
+        synchronized (deviceList) {
+            for (GBDevice device : deviceList) {
+                if (device.isInitialized()) {
+                    selectedDevices.add(device);
+                }
             }
         }
         GB.updateNotification(selectedDevices, context);
@@ -150,22 +201,26 @@ public class DeviceManager {
 
     private void refreshPairedDevices() {
         Set<GBDevice> availableDevices = DeviceHelper.getInstance().getAvailableDevices(context);
-        deviceList.retainAll(availableDevices);
-        for (GBDevice availableDevice : availableDevices) {
-            if (!deviceList.contains(availableDevice)) {
-                deviceList.add(availableDevice);
+        synchronized (deviceList) {
+            deviceList.retainAll(availableDevices);
+            for (GBDevice availableDevice : availableDevices) {
+                if (!deviceList.contains(availableDevice)) {
+                    deviceList.add(availableDevice);
+                }
             }
-        }
 
-        Collections.sort(deviceList, new Comparator<GBDevice>() {
-            @Override
-            public int compare(GBDevice lhs, GBDevice rhs) {
-                if (rhs.getStateOrdinal() - lhs.getStateOrdinal() == 0) {
-                    return Collator.getInstance().compare(lhs.getAliasOrName(), rhs.getAliasOrName());
+            Collections.sort(deviceList, new Comparator<GBDevice>() {
+                @Override
+                public int compare(GBDevice lhs, GBDevice rhs) {
+                    if (rhs.getStateOrdinal() - lhs.getStateOrdinal() == 0) {
+                        return Collator.getInstance().compare(lhs.getAliasOrName(), rhs.getAliasOrName());
+                    }
+                    return (rhs.getStateOrdinal() - lhs.getStateOrdinal());
                 }
-                return (rhs.getStateOrdinal() - lhs.getStateOrdinal());
-            }
-        });
+            });
+            // set once the list is filled, so that other threads never see it loaded but empty
+            devicesLoaded = true;
+        }
         notifyDevicesChanged();
     }
 
@@ -178,18 +233,30 @@ public class DeviceManager {
     }
 
     public GBDevice getDeviceByAddress(String address){
-        for(GBDevice device : deviceList){
-            if(device.getAddress().compareToIgnoreCase(address) == 0){
-                return device;
+        ensureDevicesLoaded();
+        synchronized (deviceList) {
+            for (GBDevice device : deviceList) {
+                if (device.getAddress().compareToIgnoreCase(address) == 0) {
+                    return device;
+                }
             }
         }
         return null;
     }
 
     public List<GBDevice> getSelectedDevices() {
+        ensureDevicesLoaded();
         return selectedDevices;
     }
 
+    /**
+     * Whether the given changes of a device are followed by {@link #ACTION_DEVICES_CHANGED}. If not,
+     * receivers of {@link GBDevice#ACTION_DEVICE_CHANGED} only need to refresh the changed device.
+     */
+    public static boolean affectsDeviceList(final Set<GBDevice.Change> changes) {
+        return !Collections.disjoint(changes, DEVICE_LIST_CHANGES);
+    }
+
     private void notifyDevicesChanged() {
         LocalBroadcastManager.getInstance(context).sendBroadcast(new Intent(ACTION_DEVICES_CHANGED));
     }
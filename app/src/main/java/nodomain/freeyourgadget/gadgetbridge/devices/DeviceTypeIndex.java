@@ -0,0 +1,369 @@
+/*  Copyright (C) 2026 agent
+
+    This file is part of Gadgetbridge.
+
+    Gadgetbridge is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published
+    by the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    Gadgetbridge is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>. */
+package nodomain.freeyourgadget.gadgetbridge.devices;
+
+import androidx.annotation.Nullable;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import nodomain.freeyourgadget.gadgetbridge.impl.GBDeviceCandidate;
+import nodomain.freeyourgadget.gadgetbridge.model.DeviceType;
+
+/**
+ * Resolves the {@link DeviceType} of a discovered device without calling
+ * {@link DeviceCoordinator#supports(GBDeviceCandidate)} on every coordinator.
+ * <p>
+ * Most coordinators only match the device name against {@link AbstractDeviceCoordinator#getSupportedDeviceName()}.
+ * For those, the literal prefixes that any matching name must start with are extracted from the
+ * pattern, and indexed by their first character. Only the coordinators indexed under the first
+ * character of the device name, plus the ones whose support can't be determined from the name
+ * alone, are then checked, in the same priority order as before.
+ */
+public class DeviceTypeIndex {
+    private static final Logger LOG = LoggerFactory.getLogger(DeviceTypeIndex.class);
+
+    private static final int[] EMPTY = new int[0];
+
+    private final DeviceType[] orderedTypes;
+    // name prefixes for each type, by priority index - null if the type is not indexed
+    private final String[][] prefixes;
+    private final Map<Character, int[]> indexedByFirstChar;
+    private final int[] unindexed;
+
+    /**
+     * @param orderedTypes the device types, in the order they should be checked
+     */
+    public DeviceTypeIndex(final DeviceType[] orderedTypes) {
+        final long start = System.nanoTime();
+
+        this.orderedTypes = orderedTypes;
+        this.prefixes = new String[orderedTypes.length][];
+
+        final Map<Character, List<Integer>> byFirstChar = new HashMap<>();
+        final List<Integer> unindexedList = new ArrayList<>();
+
+        for (int i = 0; i < orderedTypes.length; i++) {
+            final List<String> typePrefixes = getNamePrefixes(orderedTypes[i].getDeviceCoordinator());
+            if (typePrefixes == null) {
+                unindexedList.add(i);
+                continue;
+            }
+
+            prefixes[i] = typePrefixes.toArray(new String[0]);
+            for (final String prefix : typePrefixes) {
+                final List<Integer> bucket = byFirstChar.computeIfAbsent(Character.toLowerCase(prefix.charAt(0)), k -> new ArrayList<>());
+                if (bucket.isEmpty() || bucket.get(bucket.size() - 1) != i) {
+                    bucket.add(i);
+                }
+            }
+        }
+
+        this.indexedByFirstChar = new HashMap<>(byFirstChar.size());
+        for (final Map.Entry<Character, List<Integer>> e : byFirstChar.entrySet()) {
+            indexedByFirstChar.put(e.getKey(), toArray(e.getValue()));
+        }
+        this.unindexed = toArray(unindexedList);
+
+        LOG.debug(
+                "Indexed {} of {} device types by name in {}ms",
+                orderedTypes.length - unindexed.length,
+                orderedTypes.length,
+                (System.nanoTime() - start) / 1000000L
+        );
+    }
+
+    /**
+     * @return the first device type, in priority order, that supports the candidate, or
+     * {@link DeviceType#UNKNOWN} if none does
+     */
+    public DeviceType resolve(final GBDeviceCandidate candidate) {
+        final String name = candidate.getName();
+        int[] indexed = EMPTY;
+        if (name != null && !name.isEmpty()) {
+            final int[] bucket = indexedByFirstChar.get(Character.toLowerCase(name.charAt(0)));
+            if (bucket != null) {
+                indexed = bucket;
+            }
+        }
+
+        // merge both lists, preserving the priority order
+        int i = 0;
+        int j = 0;
+        while (i < indexed.length || j < unindexed.length) {
+            final int typeIndex;
+            if (j >= unindexed.length || (i < indexed.length && indexed[i] < unindexed[j])) {
+                typeIndex = indexed[i++];
+                if (!startsWithAny(name, prefixes[typeIndex])) {
+                    continue;
+                }
+            } else {
+                typeIndex = unindexed[j++];
+            }
+
+            final DeviceType type = orderedTypes[typeIndex];
+            if (type.getDeviceCoordinator().supports(candidate)) {
+                return type;
+            }
+        }
+
+        return DeviceType.UNKNOWN;
+    }
+
+    private static boolean startsWithAny(final String name, final String[] prefixes) {
+        for (final String prefix : prefixes) {
+            // case-insensitive, so that this is never stricter than the pattern
+            if (name.regionMatches(true, 0, prefix, 0, prefix.length())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the prefixes that any name supported by the coordinator starts with, or null if
+     * support is not determined only by the name pattern
+     */
+    @Nullable
+    private static List<String> getNamePrefixes(final DeviceCoordinator coordinator) {
+        if (!(coordinator instanceof AbstractDeviceCoordinator)) {
+            return null;
+        }
+
+        try {
+            final Class<?> supportsDeclaringClass = coordinator.getClass()
+                    .getMethod("supports", GBDeviceCandidate.class)
+                    .getDeclaringClass();
+            if (supportsDeclaringClass != AbstractDeviceCoordinator.class) {
+                return null;
+            }
+
+            final Pattern pattern = ((AbstractDeviceCoordinator) coordinator).getSupportedDeviceName();
+            if (pattern == null) {
+                return null;
+            }
+
+            return extractPrefixes(pattern);
+        } catch (final Exception e) {
+            LOG.warn("Failed to index {}", coordinator.getClass(), e);
+            return null;
+        }
+    }
+
+    /**
+     * Extract the literal prefixes of a pattern, such that any string fully matching the pattern
+     * starts with one of them.
+     *
+     * @return the prefixes, or null if the pattern is too complex, or a match may start with any character
+     */
+    @Nullable
+    static List<String> extractPrefixes(final Pattern pattern) {
+        final int flags = pattern.flags();
+        if ((flags & ~(Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE | Pattern.LITERAL)) != 0) {
+            return null;
+        }
+
+        if ((flags & Pattern.LITERAL) != 0) {
+            if (pattern.pattern().isEmpty()) {
+                return null;
+            }
+            return Collections.singletonList(pattern.pattern());
+        }
+
+        final List<String> prefixes = new ArrayList<>();
+        if (!extractPrefixes(pattern.pattern(), prefixes)) {
+            return null;
+        }
+        return prefixes;
+    }
+
+    private static boolean extractPrefixes(final String regex, final List<String> out) {
+        final List<String> alternatives = splitAlternatives(regex);
+        if (alternatives == null) {
+            return false;
+        }
+
+        for (String alternative : alternatives) {
+            if (alternative.startsWith("^")) {
+                alternative = alternative.substring(1);
+            }
+
+            if (alternative.startsWith("(")) {
+                if (alternative.startsWith("(?")) {
+                    // flags, non-capturing or lookaround groups
+                    return false;
+                }
+                final int end = findGroupEnd(alternative);
+                if (end < 0 || isQuantifier(alternative, end + 1)) {
+                    return false;
+                }
+                if (!extractPrefixes(alternative.substring(1, end), out)) {
+                    return false;
+                }
+                continue;
+            }
+
+            final String prefix = literalPrefix(alternative);
+            if (prefix.isEmpty()) {
+                return false;
+            }
+            out.add(prefix);
+        }
+
+        return true;
+    }
+
+    /**
+     * Split a regex on its top-level alternations.
+     *
+     * @return the alternatives, or null if the regex could not be parsed
+     */
+    @Nullable
+    private static List<String> splitAlternatives(final String regex) {
+        final List<String> alternatives = new ArrayList<>();
+        int depth = 0;
+        int start = 0;
+        for (int i = 0; i < regex.length(); i++) {
+            final char c = regex.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (c == '[') {
+                i = findClassEnd(regex, i);
+                if (i < 0) {
+                    return null;
+                }
+            } else if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                depth--;
+                if (depth < 0) {
+                    return null;
+                }
+            } else if (c == '|' && depth == 0) {
+                alternatives.add(regex.substring(start, i));
+                start = i + 1;
+            }
+        }
+        if (depth != 0) {
+            return null;
+        }
+        alternatives.add(regex.substring(start));
+        return alternatives;
+    }
+
+    /**
+     * @return the index of the parenthesis closing the group that starts at index 0, or -1
+     */
+    private static int findGroupEnd(final String regex) {
+        int depth = 0;
+        for (int i = 0; i < regex.length(); i++) {
+            final char c = regex.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (c == '[') {
+                i = findClassEnd(regex, i);
+                if (i < 0) {
+                    return -1;
+                }
+            } else if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                depth--;
+                if (depth == 0) {
+                    return i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return the index of the bracket closing the character class that starts at start, or -1
+     */
+    private static int findClassEnd(final String regex, final int start) {
+        int i = start + 1;
+        if (i < regex.length() && regex.charAt(i) == '^') {
+            i++;
+        }
+        if (i < regex.length() && regex.charAt(i) == ']') {
+            i++; // a leading ] is a literal
+        }
+        for (; i < regex.length(); i++) {
+            final char c = regex.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (c == '[') {
+                // nested classes / intersections
+                return -1;
+            } else if (c == ']') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static String literalPrefix(final String regex) {
+        final StringBuilder sb = new StringBuilder();
+        int i = 0;
+        while (i < regex.length()) {
+            final char c = regex.charAt(i);
+            final char literal;
+            final int next;
+            if (c == '\\') {
+                if (i + 1 >= regex.length() || Character.isLetterOrDigit(regex.charAt(i + 1))) {
+                    // character classes, quoting, back references
+                    break;
+                }
+                literal = regex.charAt(i + 1);
+                next = i + 2;
+            } else if (".[](){}*+?^$|".indexOf(c) >= 0) {
+                break;
+            } else {
+                literal = c;
+                next = i + 1;
+            }
+
+            if (isQuantifier(regex, next)) {
+                // this character is optional or repeated
+                break;
+            }
+
+            sb.append(literal);
+            i = next;
+        }
+        return sb.toString();
+    }
+
+    private static boolean isQuantifier(final String regex, final int index) {
+        return index < regex.length() && "?*+{".indexOf(regex.charAt(index)) >= 0;
+    }
+
+    private static int[] toArray(final List<Integer> list) {
+        final int[] arr = new int[list.size()];
+        for (int i = 0; i < arr.length; i++) {
+            arr[i] = list.get(i);
+        }
+        return arr;
+    }
+}
@@ -22,7 +22,12 @@ import androidx.annotation.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
 import de.greenrobot.dao.AbstractDao;
 import de.greenrobot.dao.Property;
@@ -92,43 +97,72 @@ public class BangleJSSampleProvider extends AbstractSampleProvider<BangleJSActiv
 
     /**
      * Upserts a sample in the database, avoiding duplicated samples if a sample already exists in a
-     * close timestamp (within 2 minutes);
+     * close timestamp (within 2 minutes). The new values are merged into the closest existing sample,
+     * or the earlier one if two are equally close.
      */
     public void upsertSample(final BangleJSActivitySample sample) {
-        final List<BangleJSActivitySample> nearSamples = getGBActivitySamples(
-                sample.getTimestamp() - 60 * 2,
-                sample.getTimestamp() + 60 * 2
-        );
-
-        if (nearSamples.isEmpty()) {
-            // No nearest sample, just insert
-            LOG.debug("No duplicate found at {}, inserting", sample.getTimestamp());
-            addGBActivitySample(sample);
+        upsertSamples(Collections.singletonList(sample));
+    }
+
+    /**
+     * Upserts a batch of samples, with the same de-duplication as {@link #upsertSample}, using a
+     * single range query for the whole batch and writing all samples in one transaction. Samples of
+     * the batch are also merged into each other, as if they were upserted one by one.
+     */
+    public void upsertSamples(final List<BangleJSActivitySample> samples) {
+        if (samples.isEmpty()) {
             return;
         }
 
-        BangleJSActivitySample nearestSample = nearSamples.get(0);
+        final List<BangleJSActivitySample> sorted = new ArrayList<>(samples);
+        sorted.sort(Comparator.comparingInt(BangleJSActivitySample::getTimestamp));
 
-        for (final BangleJSActivitySample s : nearSamples) {
-            final int curDist = Math.abs(nearestSample.getTimestamp() - s.getTimestamp());
-            final int newDist = Math.abs(sample.getTimestamp() - s.getTimestamp());
-            if (newDist < curDist) {
-                nearestSample = s;
-            }
+        final int tsFrom = sorted.get(0).getTimestamp() - 60 * 2;
+        final int tsTo = sorted.get(sorted.size() - 1).getTimestamp() + 60 * 2;
+
+        // existing and already upserted samples, by timestamp
+        final TreeMap<Integer, BangleJSActivitySample> known = new TreeMap<>();
+        for (final BangleJSActivitySample s : getGBActivitySamples(tsFrom, tsTo)) {
+            known.put(s.getTimestamp(), s);
         }
 
-        LOG.debug("Found {} duplicates for {}, updating nearest sample at {}", nearSamples.size(), sample.getTimestamp(), nearestSample.getTimestamp());
+        final Map<Integer, BangleJSActivitySample> toWrite = new TreeMap<>();
+        for (final BangleJSActivitySample sample : sorted) {
+            final int ts = sample.getTimestamp();
+            final Map.Entry<Integer, BangleJSActivitySample> floor = known.floorEntry(ts);
+            final Map.Entry<Integer, BangleJSActivitySample> ceiling = known.ceilingEntry(ts);
 
-        if (sample.getHeartRate() != 0) {
-            nearestSample.setHeartRate(sample.getHeartRate());
-        }
-        if (sample.getSteps() != 0) {
-            nearestSample.setSteps(sample.getSteps());
-        }
-        if (sample.getRawIntensity() != 0) {
-            nearestSample.setRawIntensity(sample.getRawIntensity());
+            BangleJSActivitySample nearestSample = null;
+            if (floor != null && ts - floor.getKey() <= 60 * 2) {
+                nearestSample = floor.getValue();
+            }
+            if (ceiling != null && ceiling.getKey() - ts <= 60 * 2) {
+                if (nearestSample == null || ceiling.getKey() - ts < ts - nearestSample.getTimestamp()) {
+                    nearestSample = ceiling.getValue();
+                }
+            }
+
+            if (nearestSample == null) {
+                known.put(ts, sample);
+                toWrite.put(ts, sample);
+                continue;
+            }
+
+            if (sample.getHeartRate() != 0) {
+                nearestSample.setHeartRate(sample.getHeartRate());
+            }
+            if (sample.getSteps() != 0) {
+                nearestSample.setSteps(sample.getSteps());
+            }
+            if (sample.getRawIntensity() != 0) {
+                nearestSample.setRawIntensity(sample.getRawIntensity());
+            }
+            toWrite.put(nearestSample.getTimestamp(), nearestSample);
         }
 
-        addGBActivitySample(nearestSample);
+        LOG.debug("Upserting {} samples as {} rows between {} and {}", samples.size(), toWrite.size(), tsFrom, tsTo);
+
+        getSampleDao().insertOrReplaceInTx(toWrite.values());
+        invalidateCaches(tsFrom, tsTo);
     }
 }
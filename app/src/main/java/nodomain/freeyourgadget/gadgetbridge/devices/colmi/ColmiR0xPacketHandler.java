@@ -17,11 +17,8 @@
 package nodomain.freeyourgadget.gadgetbridge.devices.colmi;
 
 import android.content.Context;
-import android.content.Intent;
 import android.widget.Toast;
 
-import androidx.localbroadcastmanager.content.LocalBroadcastManager;
-
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -54,10 +51,10 @@ import nodomain.freeyourgadget.gadgetbridge.entities.Device;
 import nodomain.freeyourgadget.gadgetbridge.entities.User;
 import nodomain.freeyourgadget.gadgetbridge.impl.GBDevice;
 import nodomain.freeyourgadget.gadgetbridge.model.ActivityKind;
-import nodomain.freeyourgadget.gadgetbridge.model.DeviceService;
 import nodomain.freeyourgadget.gadgetbridge.service.btle.BLETypeConversions;
 import nodomain.freeyourgadget.gadgetbridge.service.devices.colmi.ColmiR0xDeviceSupport;
 import nodomain.freeyourgadget.gadgetbridge.util.GB;
+import nodomain.freeyourgadget.gadgetbridge.util.RealtimeSampleStream;
 import nodomain.freeyourgadget.gadgetbridge.util.StringUtils;
 
 public class ColmiR0xPacketHandler {
@@ -150,11 +147,7 @@ public class ColmiR0xPacketHandler {
                 gbSample.setHeartRate(hrResponse);
                 sampleProvider.addSample(gbSample);
                 // Send local intent with sample for listeners like the heart rate dialog
-                Intent liveIntent = new Intent(DeviceService.ACTION_REALTIME_SAMPLES);
-                liveIntent.putExtra(GBDevice.EXTRA_DEVICE, device);
-                liveIntent.putExtra(DeviceService.EXTRA_REALTIME_SAMPLE, gbSample);
-                LocalBroadcastManager.getInstance(context)
-                        .sendBroadcast(liveIntent);
+                RealtimeSampleStream.publish(device, gbSample);
             } catch (Exception e) {
                 LOG.error("Error acquiring database for recording heart rate samples", e);
             }
@@ -1,16 +1,10 @@
 package nodomain.freeyourgadget.gadgetbridge.devices.cycling_sensor.activity;
 
-import android.content.BroadcastReceiver;
-import android.content.Context;
-import android.content.Intent;
-import android.content.IntentFilter;
 import android.os.Bundle;
 import android.view.View;
 import android.widget.TextView;
 import android.widget.Toast;
 
-import androidx.localbroadcastmanager.content.LocalBroadcastManager;
-
 import java.util.List;
 
 import nodomain.freeyourgadget.gadgetbridge.GBApplication;
@@ -19,9 +13,9 @@ import nodomain.freeyourgadget.gadgetbridge.activities.AbstractGBActivity;
 import nodomain.freeyourgadget.gadgetbridge.activities.SettingsActivity;
 import nodomain.freeyourgadget.gadgetbridge.entities.CyclingSample;
 import nodomain.freeyourgadget.gadgetbridge.impl.GBDevice;
-import nodomain.freeyourgadget.gadgetbridge.model.DeviceService;
 import nodomain.freeyourgadget.gadgetbridge.model.DeviceType;
 import nodomain.freeyourgadget.gadgetbridge.util.GB;
+import nodomain.freeyourgadget.gadgetbridge.util.RealtimeSampleStream;
 
 public class CyclingLiveDataActivity extends AbstractGBActivity {
     private TextView speedView, tripDistanceView, totalDistanceView;
@@ -112,24 +106,17 @@ public class CyclingLiveDataActivity extends AbstractGBActivity {
         return null;
     }
 
-    private BroadcastReceiver cyclingDataReceiver = new BroadcastReceiver() {
-        @Override
-        public void onReceive(Context context, Intent intent) {
-            String deviceAddress = intent.getStringExtra("EXTRA_DEVICE_ADDRESS");
-
-            if(deviceAddress == null) {
-                return;
+    private final RealtimeSampleStream.Subscriber cyclingDataSubscriber = updates -> {
+        for (final RealtimeSampleStream.Update update : updates) {
+            if(!update.getDevice().getAddress().equals(selectedDevice.getAddress())) {
+                continue;
             }
 
-            if(!deviceAddress.equals(selectedDevice.getAddress())) {
-                return;
+            if(!(update.getLatestSample() instanceof CyclingSample)) {
+                continue;
             }
 
-            CyclingSample sample = (CyclingSample) intent.getSerializableExtra(DeviceService.EXTRA_REALTIME_SAMPLE);
-
-            if(sample == null) {
-                return;
-            }
+            CyclingSample sample = (CyclingSample) update.getLatestSample();
 
             Float metersPerSecond = sample.getSpeed();
             if(metersPerSecond != null) {
@@ -150,21 +137,14 @@ public class CyclingLiveDataActivity extends AbstractGBActivity {
     protected void onResume() {
         super.onResume();
 
-        LocalBroadcastManager
-                .getInstance(this)
-                .registerReceiver(
-                        cyclingDataReceiver,
-                        new IntentFilter(DeviceService.ACTION_REALTIME_SAMPLES)
-                );
+        RealtimeSampleStream.getInstance().subscribe(cyclingDataSubscriber);
     }
 
     @Override
     protected void onPause() {
         super.onPause();
 
-        LocalBroadcastManager
-                .getInstance(this)
-                .unregisterReceiver(cyclingDataReceiver);
+        RealtimeSampleStream.getInstance().unsubscribe(cyclingDataSubscriber);
     }
 
 }
@@ -36,6 +36,7 @@ import nodomain.freeyourgadget.gadgetbridge.impl.GBDevice;
 import nodomain.freeyourgadget.gadgetbridge.model.ActivityKind;
 import nodomain.freeyourgadget.gadgetbridge.model.ActivitySample;
 import nodomain.freeyourgadget.gadgetbridge.service.devices.garmin.fit.fieldDefinitions.FieldDefinitionSleepStage;
+import nodomain.freeyourgadget.gadgetbridge.util.LongRangeMap;
 import nodomain.freeyourgadget.gadgetbridge.util.RangeMap;
 
 public class GarminActivitySampleProvider extends AbstractSampleProvider<GarminActivitySample> {
@@ -121,7 +122,7 @@ public class GarminActivitySampleProvider extends AbstractSampleProvider<GarminA
 
     public void overlaySleep(final List<GarminActivitySample> samples, final int timestamp_from, final int timestamp_to) {
         // The samples provided by Garmin are upper-bound timestamps of the sleep stage
-        final RangeMap<Long, ActivityKind> stagesMap = new RangeMap<>(RangeMap.Mode.UPPER_BOUND);
+        final LongRangeMap<ActivityKind> stagesMap = new LongRangeMap<>(RangeMap.Mode.UPPER_BOUND);
 
         final GarminEventSampleProvider eventSampleProvider = new GarminEventSampleProvider(getDevice(), getSession());
         final List<GarminEventSample> sleepEventSamples = eventSampleProvider.getSleepEvents(
@@ -173,14 +174,12 @@ public class GarminActivitySampleProvider extends AbstractSampleProvider<GarminA
         }
 
         if (!stagesMap.isEmpty()) {
-            for (final GarminActivitySample sample : samples) {
-                final long ts = sample.getTimestamp() * 1000L;
-                final ActivityKind sleepType = stagesMap.get(ts);
-                if (sleepType != null && !sleepType.equals(ActivityKind.UNKNOWN)) {
+            stagesMap.sweep(samples, sample -> sample.getTimestamp() * 1000L, (sample, sleepType) -> {
+                if (!sleepType.equals(ActivityKind.UNKNOWN)) {
                     sample.setRawKind(sleepType.getCode());
                     sample.setRawIntensity(ActivitySample.NOT_MEASURED);
                 }
-            }
+            });
         }
     }
 
@@ -374,9 +374,7 @@ public class HuaweiPacket {
         this.left = buffer.remaining();
         buffer.rewind();
 
-        byte[] dataNoCRC = new byte[expectedSize + 3];
-        buffer.get(dataNoCRC, 0, expectedSize + 3);
-        short actualChecksum = (short) CheckSums.getCRC16(dataNoCRC, 0x0000);
+        short actualChecksum = (short) CheckSums.getCRC16(data, 0, expectedSize + 3, 0x0000);
         if (actualChecksum != expectedChecksum) {
             throw new ChecksumIncorrectException("Checksum mismatch : "
                     + String.valueOf(actualChecksum)
@@ -796,10 +794,7 @@ public class HuaweiPacket {
                 LOG.error(String.format(GBApplication.getLanguage(), "Packet lengths don't match! %d != %d", length, packetSize + headerLength));
             }
 
-            byte[] complete = new byte[length];
-            packet.position(start);
-            packet.get(complete, 0, length);
-            int crc16 = CheckSums.getCRC16(complete, 0x0000);
+            int crc16 = CheckSums.getCRC16(packet.array(), start, length, 0x0000);
 
             packet.putShort((short) crc16);                         // CRC16
 
@@ -216,11 +216,14 @@ public class HuaweiSampleProvider extends AbstractSampleProvider<HuaweiActivityS
 
         getSampleDao().insertOrReplace(start);
         getSampleDao().insertOrReplace(end);
+        invalidateCaches(Math.min(start.getTimestamp(), end.getTimestamp()), Math.max(start.getTimestamp(), end.getTimestamp()));
     }
 
     @Override
     public void addGBActivitySamples(HuaweiActivitySample[] activitySamples) {
         List<HuaweiActivitySample> newSamples = new ArrayList<>();
+        int tsFrom = Integer.MAX_VALUE;
+        int tsTo = Integer.MIN_VALUE;
         for (HuaweiActivitySample sample : activitySamples) {
             HuaweiActivitySample start = copySample(sample);
             HuaweiActivitySample end = copySample(sample);
@@ -234,8 +237,13 @@ public class HuaweiSampleProvider extends AbstractSampleProvider<HuaweiActivityS
 
             newSamples.add(start);
             newSamples.add(end);
+            tsFrom = Math.min(tsFrom, Math.min(start.getTimestamp(), end.getTimestamp()));
+            tsTo = Math.max(tsTo, Math.max(start.getTimestamp(), end.getTimestamp()));
         }
         getSampleDao().insertOrReplaceInTx(newSamples);
+        if (!newSamples.isEmpty()) {
+            invalidateCaches(tsFrom, tsTo);
+        }
     }
 
     /**
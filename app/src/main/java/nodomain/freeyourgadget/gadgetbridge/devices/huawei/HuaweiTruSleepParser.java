@@ -193,20 +193,21 @@ public class HuaweiTruSleepParser {
 
             byte countShort = buffer.get();
 
-            ArrayList<Short> peak = decodePeak(countShort, buffer);
-            ArrayList<Short> amp = decodeAmp(countShort, buffer);
-
             // Sanity check
-            if (peak.size() != countShort || amp.size() != countShort)
-                throw new IllegalStateException("Decoded arrays have different length");
+            if (countShort < 0)
+                throw new IllegalArgumentException("Invalid count of short " + countShort);
+
+            short[] peak = decodePeak(countShort, buffer);
+            short[] amp = decodeAmp(countShort, buffer);
 
+            dataPPGs.ensureCapacity(dataPPGs.size() + countShort);
             for (int i = 0; i < countShort; i++) {
-                dataPPGs.add(new TruSleepDataPpg((long)startTime * 1000 + peak.get(i) * 10, amp.get(i)));
+                dataPPGs.add(new TruSleepDataPpg((long)startTime * 1000 + peak[i] * 10, amp[i]));
             }
             LOG.debug("Buffer remaining {}", buffer.remaining());
         }
 
-        private ArrayList<Short> decodePeak(byte countShort, ByteBuffer buffer) throws IllegalArgumentException {
+        private short[] decodePeak(byte countShort, ByteBuffer buffer) throws IllegalArgumentException {
             if (countShort == 0)
                 throw new IllegalArgumentException("Number of short to generate is invalid");
 
@@ -215,21 +216,18 @@ public class HuaweiTruSleepParser {
 
             byte tag = buffer.get();
 
-            ArrayList<Short> al = new ArrayList<Short>();
+            short[] values = new short[countShort];
             if (tag == TAG_COMPRESSION_RAW) {
                 if (buffer.remaining() < countShort * 2)
                     throw new IllegalArgumentException("Not enough elements in buffer");
 
-                while (countShort > 0) {
-                    al.add(buffer.getShort());
-                    countShort--;
-                }
+                buffer.asShortBuffer().get(values);
+                buffer.position(buffer.position() + countShort * 2);
             } else if (tag == TAG_COMPRESSION_COMP) {
                 short working = buffer.getShort();
-                al.add(working);
-                countShort--;
+                values[0] = working;
 
-                while (countShort > 0) {
+                for (int i = 1; i < countShort; i++) {
                     byte c = buffer.get();
                     if (c == TAG_COMPRESSION_RESTART) {
                         if (buffer.remaining() < 2)
@@ -238,16 +236,18 @@ public class HuaweiTruSleepParser {
                     } else {
                         working += c;
                     }
-                    al.add(working);
-                    countShort--;
+                    values[i] = working;
                 }
             } else {
                 throw new IllegalArgumentException("Compression " + String.format("%02x", tag) + " is unsupported");
             }
-            return al;
+            return values;
         }
 
-        public ArrayList<Short> decodeAmp(byte countShort, ByteBuffer buffer) throws IllegalArgumentException {
+        /**
+         * The compressed amplitudes run until the end of the buffer, their count must match the peaks.
+         */
+        public short[] decodeAmp(byte countShort, ByteBuffer buffer) throws IllegalArgumentException, IllegalStateException {
             if (countShort == 0)
                 throw new IllegalArgumentException("Number of short to generate is invalid");
 
@@ -256,21 +256,20 @@ public class HuaweiTruSleepParser {
 
             byte tag = buffer.get();
 
-            ArrayList<Short> al = new ArrayList<Short>();
+            short[] values = new short[countShort];
             if (tag == TAG_COMPRESSION_RAW) {
                 if (buffer.remaining() < countShort * 2)
                     throw new IllegalArgumentException("Not enough elements in buffer");
 
-                while (countShort > 0) {
-                    al.add(buffer.getShort());
-                    countShort--;
-                }
+                buffer.asShortBuffer().get(values);
+                buffer.position(buffer.position() + countShort * 2);
             } else if (tag == TAG_COMPRESSION_COMP) {
                 if (buffer.remaining() < 2)
                     throw new IllegalArgumentException("Offset buffer is missing");
 
                 short offset = buffer.getShort();
-                short working = 0;
+                short working;
+                int count = 0;
                 while (buffer.remaining() > 0) {
                     byte c = buffer.get();
                     if (c == TAG_COMPRESSION_RESTART) {
@@ -280,12 +279,16 @@ public class HuaweiTruSleepParser {
                     } else {
                         working = (short)(offset + c);
                     }
-                    al.add(working);
+                    if (count >= countShort)
+                        throw new IllegalStateException("Decoded arrays have different length");
+                    values[count++] = working;
                 }
+                if (count != countShort)
+                    throw new IllegalStateException("Decoded arrays have different length");
             } else {
                 throw new IllegalArgumentException("Compression " + String.format("%02x", tag) + " is unsupported");
             }
-            return al;
+            return values;
         }
 
         public void parsePpgData(byte[] data) {
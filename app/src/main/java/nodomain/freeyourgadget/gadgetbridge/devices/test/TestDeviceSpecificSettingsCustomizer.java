@@ -32,7 +32,7 @@ public class TestDeviceSpecificSettingsCustomizer implements DeviceSpecificSetti
     @Override
     public void onPreferenceChange(final Preference preference, final DeviceSpecificSettingsHandler handler) {
         if (TestDeviceConst.PREF_TEST_FEATURES.equals(preference.getKey())) {
-            handler.getDevice().sendDeviceUpdateIntent(handler.getContext());
+            handler.getDevice().sendPreferencesUpdateIntent(handler.getContext());
         }
     }
 
@@ -35,6 +35,7 @@ import nodomain.freeyourgadget.gadgetbridge.entities.XiaomiSleepTimeSample;
 import nodomain.freeyourgadget.gadgetbridge.impl.GBDevice;
 import nodomain.freeyourgadget.gadgetbridge.model.ActivityKind;
 import nodomain.freeyourgadget.gadgetbridge.model.ActivitySample;
+import nodomain.freeyourgadget.gadgetbridge.util.LongRangeMap;
 import nodomain.freeyourgadget.gadgetbridge.util.RangeMap;
 
 public class XiaomiSampleProvider extends AbstractSampleProvider<XiaomiActivitySample> {
@@ -123,7 +124,7 @@ public class XiaomiSampleProvider extends AbstractSampleProvider<XiaomiActivityS
      * found.
      */
     public void overlaySleep(final List<XiaomiActivitySample> samples, final int timestamp_from, final int timestamp_to) {
-        final RangeMap<Long, ActivityKind> stagesMap = new RangeMap<>(RangeMap.Mode.LOWER_BOUND);
+        final LongRangeMap<ActivityKind> stagesMap = new LongRangeMap<>(RangeMap.Mode.LOWER_BOUND);
 
         final XiaomiSleepTimeSampleProvider sleepTimeSampleProvider = new XiaomiSleepTimeSampleProvider(getDevice(), getSession());
         final XiaomiSleepStageSampleProvider sleepStagesSampleProvider = new XiaomiSleepStageSampleProvider(getDevice(), getSession());
@@ -198,14 +199,12 @@ public class XiaomiSampleProvider extends AbstractSampleProvider<XiaomiActivityS
             //       activity files, the stages will not get overlayed/inserted and the sleep charts
             //       will stay empty.
 
-            for (final XiaomiActivitySample sample : samples) {
-                final long ts = sample.getTimestamp() * 1000L;
-                final ActivityKind sleepType = stagesMap.get(ts);
-                if (sleepType != null && !sleepType.equals(ActivityKind.UNKNOWN)) {
+            stagesMap.sweep(samples, sample -> sample.getTimestamp() * 1000L, (sample, sleepType) -> {
+                if (!sleepType.equals(ActivityKind.UNKNOWN)) {
                     sample.setRawKind(sleepType.getCode());
                     sample.setRawIntensity(ActivitySample.NOT_MEASURED);
                 }
-            }
+            });
         }
     }
 }
@@ -0,0 +1,122 @@
+/*  Copyright (C) 2026 agent
+
+    This file is part of Gadgetbridge.
+
+    Gadgetbridge is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published
+    by the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    Gadgetbridge is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>. */
+package nodomain.freeyourgadget.gadgetbridge.impl;
+
+import android.content.Context;
+import android.content.Intent;
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.localbroadcastmanager.content.LocalBroadcastManager;
+
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Sends the {@link GBDevice#ACTION_DEVICE_CHANGED} intents, with the set of changes of the device.
+ * <p>
+ * Connection state changes and updates with an explicit {@link GBDevice.DeviceUpdateSubject} are
+ * sent right away, since some receivers react to them. Other changes of a device are merged and sent
+ * once, {@link #COALESCE_WINDOW_MILLIS} after the first one, so that a burst of battery, RSSI or busy
+ * task updates results in a single intent.
+ */
+final class DeviceChangeNotifier {
+    static final long COALESCE_WINDOW_MILLIS = 250;
+
+    private static final Map<String, Pending> PENDING = new HashMap<>();
+
+    private static Handler handler;
+
+    private DeviceChangeNotifier() {
+    }
+
+    static void notify(final Context context,
+                       final GBDevice device,
+                       final GBDevice.DeviceUpdateSubject subject,
+                       final EnumSet<GBDevice.Change> changes) {
+        final boolean immediate = subject != GBDevice.DeviceUpdateSubject.UNKNOWN || changes.contains(GBDevice.Change.STATE);
+
+        synchronized (PENDING) {
+            final Pending pending = PENDING.get(device.getAddress());
+
+            if (!immediate) {
+                if (changes.isEmpty()) {
+                    // nothing changed since the last intent
+                    return;
+                }
+                if (pending != null) {
+                    pending.device = device;
+                    pending.changes.addAll(changes);
+                    return;
+                }
+
+                final Pending newPending = new Pending(context.getApplicationContext(), device, changes);
+                PENDING.put(device.getAddress(), newPending);
+                if (handler == null) {
+                    handler = new Handler(Looper.getMainLooper());
+                }
+                handler.postDelayed(newPending.runnable, COALESCE_WINDOW_MILLIS);
+                return;
+            }
+
+            if (pending != null) {
+                PENDING.remove(device.getAddress());
+                handler.removeCallbacks(pending.runnable);
+                changes.addAll(pending.changes);
+            }
+        }
+
+        send(context, device, subject, changes);
+    }
+
+    private static void flush(final Pending pending) {
+        synchronized (PENDING) {
+            if (PENDING.get(pending.device.getAddress()) != pending) {
+                // already sent along with an immediate change
+                return;
+            }
+            PENDING.remove(pending.device.getAddress());
+        }
+
+        send(pending.context, pending.device, GBDevice.DeviceUpdateSubject.UNKNOWN, pending.changes);
+    }
+
+    private static void send(final Context context,
+                             final GBDevice device,
+                             final GBDevice.DeviceUpdateSubject subject,
+                             final EnumSet<GBDevice.Change> changes) {
+        final Intent deviceUpdateIntent = new Intent(GBDevice.ACTION_DEVICE_CHANGED);
+        deviceUpdateIntent.putExtra(GBDevice.EXTRA_DEVICE, device);
+        deviceUpdateIntent.putExtra(GBDevice.EXTRA_UPDATE_SUBJECT, subject);
+        deviceUpdateIntent.putExtra(GBDevice.EXTRA_CHANGES, changes);
+        LocalBroadcastManager.getInstance(context).sendBroadcast(deviceUpdateIntent);
+    }
+
+    private static class Pending {
+        private final Context context;
+        private GBDevice device;
+        private final EnumSet<GBDevice.Change> changes;
+        private final Runnable runnable = () -> flush(this);
+
+        private Pending(final Context context, final GBDevice device, final EnumSet<GBDevice.Change> changes) {
+            this.context = context;
+            this.device = device;
+            this.changes = EnumSet.copyOf(changes);
+        }
+    }
+}
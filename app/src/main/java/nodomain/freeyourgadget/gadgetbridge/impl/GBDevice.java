@@ -27,15 +27,17 @@ import android.os.Parcelable;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
-import androidx.localbroadcastmanager.content.LocalBroadcastManager;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Objects;
+import java.util.Set;
 
 import nodomain.freeyourgadget.gadgetbridge.GBApplication;
 import nodomain.freeyourgadget.gadgetbridge.R;
@@ -67,6 +69,7 @@ public class GBDevice implements Parcelable {
     public static final String EXTRA_DEVICE = "device";
     public static final String EXTRA_UUID = "extraUUID";
     public static final String EXTRA_UPDATE_SUBJECT = "EXTRA_UPDATE_SUBJECT";
+    public static final String EXTRA_CHANGES = "EXTRA_CHANGES";
     private static final String DEVINFO_HW_VER = "HW: ";
     private static final String DEVINFO_FW_VER = "FW: ";
     private static final String DEVINFO_FW2_VER = "FW2: ";
@@ -100,6 +103,9 @@ public class GBDevice implements Parcelable {
     private int mNotificationIconDisconnected = R.drawable.ic_notification_disconnected;
     private int mNotificationIconLowBattery = R.drawable.ic_notification_low_battery;
 
+    // changed since the last device update intent, not parceled
+    private final EnumSet<Change> mPendingChanges = EnumSet.noneOf(Change.class);
+
     public static enum DeviceUpdateSubject {
         UNKNOWN,
         NOTHING,
@@ -107,6 +113,23 @@ public class GBDevice implements Parcelable {
         DEVICE_STATE,
     }
 
+    /**
+     * The fields of a device that changed, sent as {@link #EXTRA_CHANGES} in {@link #ACTION_DEVICE_CHANGED}.
+     */
+    public enum Change {
+        STATE,
+        NAME,
+        FOLDER,
+        DEVICE_INFO,
+        BATTERY,
+        RSSI,
+        BUSY_TASK,
+        EXTRA_INFO,
+        NOTIFICATION_ICONS,
+        // the device specific preferences, which are not part of the device itself
+        PREFERENCES,
+    }
+
     public GBDevice(String address, String name, String alias, String parentFolder, DeviceType deviceType) {
         this(address, null, name, alias, parentFolder, deviceType);
     }
@@ -119,6 +142,9 @@ public class GBDevice implements Parcelable {
         mDeviceType = deviceType;
         this.parentFolder = parentFolder;
         validate();
+
+        // not announced yet, receivers do not know anything about this device
+        mPendingChanges.addAll(EnumSet.allOf(Change.class));
     }
 
     private GBDevice(Parcel in) {
@@ -228,6 +254,7 @@ public class GBDevice implements Parcelable {
     }
 
     public void setParentFolder(String parentFolder) {
+        markChanged(Change.FOLDER, !Objects.equals(this.parentFolder, parentFolder));
         this.parentFolder = parentFolder;
     }
 
@@ -251,10 +278,12 @@ public class GBDevice implements Parcelable {
             LOG.warn("Ignoring setting of GBDevice name to null for " + this);
             return;
         }
+        markChanged(Change.NAME, !name.equals(mName));
         mName = name;
     }
 
     public void setAlias(String alias) {
+        markChanged(Change.NAME, !Objects.equals(mAlias, alias));
         mAlias = alias;
     }
 
@@ -274,6 +303,7 @@ public class GBDevice implements Parcelable {
     }
 
     public void setFirmwareVersion(String firmwareVersion) {
+        markChanged(Change.DEVICE_INFO, !Objects.equals(mFirmwareVersion, firmwareVersion));
         mFirmwareVersion = firmwareVersion;
     }
 
@@ -282,10 +312,12 @@ public class GBDevice implements Parcelable {
      * @param firmwareVersion2
      */
     public void setFirmwareVersion2(String firmwareVersion2) {
+        markChanged(Change.DEVICE_INFO, !Objects.equals(mFirmwareVersion2, firmwareVersion2));
         mFirmwareVersion2 = firmwareVersion2;
     }
 
     public void setVolatileAddress(String volatileAddress) {
+        markChanged(Change.DEVICE_INFO, !Objects.equals(mVolatileAddress, volatileAddress));
         mVolatileAddress = volatileAddress;
     }
 
@@ -301,6 +333,7 @@ public class GBDevice implements Parcelable {
     }
 
     public void setModel(String model) {
+        markChanged(Change.DEVICE_INFO, !Objects.equals(mModel, model));
         mModel = model;
     }
 
@@ -333,6 +366,7 @@ public class GBDevice implements Parcelable {
     }
 
     public void setNotificationIconConnected(int mNotificationIconConnected) {
+        markChanged(Change.NOTIFICATION_ICONS, this.mNotificationIconConnected != mNotificationIconConnected);
         this.mNotificationIconConnected = mNotificationIconConnected;
     }
 
@@ -341,6 +375,7 @@ public class GBDevice implements Parcelable {
     }
 
     public void setNotificationIconDisconnected(int notificationIconDisconnected) {
+        markChanged(Change.NOTIFICATION_ICONS, this.mNotificationIconDisconnected != notificationIconDisconnected);
         this.mNotificationIconDisconnected = notificationIconDisconnected;
     }
 
@@ -349,6 +384,7 @@ public class GBDevice implements Parcelable {
     }
 
     public void setNotificationIconLowBattery(int mNotificationIconLowBattery) {
+        markChanged(Change.NOTIFICATION_ICONS, this.mNotificationIconLowBattery != mNotificationIconLowBattery);
         this.mNotificationIconLowBattery = mNotificationIconLowBattery;
     }
 
@@ -369,6 +405,7 @@ public class GBDevice implements Parcelable {
             LOG.warn("Attempt to mark device as busy with: " + task + ", but is already busy with: " + mBusyTask);
         }
         LOG.info("Mark device as busy: " + task);
+        markChanged(Change.BUSY_TASK, !task.equals(mBusyTask));
         mBusyTask = task;
     }
 
@@ -381,6 +418,7 @@ public class GBDevice implements Parcelable {
             return;
         }
         LOG.info("Mark device as NOT busy anymore: " + mBusyTask);
+        markChanged(Change.BUSY_TASK, true);
         mBusyTask = null;
     }
 
@@ -393,6 +431,7 @@ public class GBDevice implements Parcelable {
     }
 
     public void setState(State state) {
+        markChanged(Change.STATE, state != mState);
         mState = state;
         if (state.ordinal() <= State.CONNECTED.ordinal()) {
             unsetDynamicState();
@@ -455,10 +494,10 @@ public class GBDevice implements Parcelable {
     public void setRssi(short rssi) {
         if (rssi < 0) {
             LOG.warn("Illegal RSSI value " + rssi + ", setting to RSSI_UNKNOWN");
-            mRssi = RSSI_UNKNOWN;
-        } else {
-            mRssi = rssi;
+            rssi = RSSI_UNKNOWN;
         }
+        markChanged(Change.RSSI, rssi != mRssi);
+        mRssi = rssi;
     }
 
     /**
@@ -473,12 +512,48 @@ public class GBDevice implements Parcelable {
         sendDeviceUpdateIntent(context, DeviceUpdateSubject.UNKNOWN);
     }
 
+    /**
+     * Notify the changes made to this device since the last call. Connection state changes and
+     * explicit subjects are sent right away, together with any pending changes. Other changes,
+     * such as battery, RSSI or busy task updates, are merged for a short while, and are not sent
+     * at all if nothing changed. See {@link DeviceChangeNotifier}.
+     */
     // TODO: this doesn't really belong here
     public void sendDeviceUpdateIntent(Context context, DeviceUpdateSubject subject) {
-        Intent deviceUpdateIntent = new Intent(ACTION_DEVICE_CHANGED);
-        deviceUpdateIntent.putExtra(EXTRA_DEVICE, this);
-        deviceUpdateIntent.putExtra(EXTRA_UPDATE_SUBJECT, subject);
-        LocalBroadcastManager.getInstance(context).sendBroadcast(deviceUpdateIntent);
+        final EnumSet<Change> changes;
+        synchronized (mPendingChanges) {
+            // the device is announced again, receivers can not know what differs from their copy
+            changes = subject == DeviceUpdateSubject.NOTHING ? EnumSet.allOf(Change.class) : EnumSet.copyOf(mPendingChanges);
+            mPendingChanges.clear();
+        }
+        DeviceChangeNotifier.notify(context, this, subject, changes);
+    }
+
+    /**
+     * Notify that the device specific preferences changed, for receivers that display or act on
+     * them. Any other pending changes of the device are sent along.
+     */
+    public void sendPreferencesUpdateIntent(Context context) {
+        markChanged(Change.PREFERENCES, true);
+        sendDeviceUpdateIntent(context);
+    }
+
+    /**
+     * Returns the changes notified by an {@link #ACTION_DEVICE_CHANGED} intent. If unknown, all
+     * fields are assumed to have changed.
+     */
+    @SuppressWarnings("unchecked")
+    public static Set<Change> getChanges(final Intent intent) {
+        final Set<Change> changes = (Set<Change>) intent.getSerializableExtra(EXTRA_CHANGES);
+        return changes != null ? changes : EnumSet.allOf(Change.class);
+    }
+
+    private void markChanged(final Change change, final boolean changed) {
+        if (changed) {
+            synchronized (mPendingChanges) {
+                mPendingChanges.add(change);
+            }
+        }
     }
 
     @Override
@@ -529,13 +604,14 @@ public class GBDevice implements Parcelable {
             mExtraInfos = new HashMap<>();
         }
 
-        mExtraInfos.put(key, info);
+        markChanged(Change.EXTRA_INFO, !Objects.equals(mExtraInfos.put(key, info), info));
     }
 
     /**
      * Deletes all the extra infos
      */
     public void resetExtraInfos() {
+        markChanged(Change.EXTRA_INFO, mExtraInfos != null && !mExtraInfos.isEmpty());
         mExtraInfos = null;
     }
 
@@ -559,6 +635,7 @@ public class GBDevice implements Parcelable {
 
     public void setBatteryLevel(int batteryLevel, int index) {
         if ((batteryLevel >= 0 && batteryLevel <= 100) || batteryLevel == BATTERY_UNKNOWN) {
+            markChanged(Change.BATTERY, mBatteryLevel[index] != batteryLevel);
             mBatteryLevel[index] = batteryLevel;
         } else {
             LOG.error("Battery level musts be within range 0-100: " + batteryLevel);
@@ -572,6 +649,7 @@ public class GBDevice implements Parcelable {
 
     public void setBatteryVoltage(float batteryVoltage, int index) {
         if (batteryVoltage >= 0 || batteryVoltage == BATTERY_UNKNOWN) {
+            markChanged(Change.BATTERY, mBatteryVoltage[index] != batteryVoltage);
             mBatteryVoltage[index] = batteryVoltage;
         } else {
             LOG.error("Battery voltage must be > 0: " + batteryVoltage);
@@ -604,6 +682,7 @@ public class GBDevice implements Parcelable {
     }
 
     public void setBatteryState(BatteryState mBatteryState, int index) {
+        markChanged(Change.BATTERY, this.mBatteryState[index] != mBatteryState);
         this.mBatteryState[index] = mBatteryState;
     }
 
@@ -612,6 +691,7 @@ public class GBDevice implements Parcelable {
     }
 
     public void setBatteryIcon(int icon, int index) {
+        markChanged(Change.BATTERY, this.mBatteryIcons[index] != icon);
         this.mBatteryIcons[index] = icon;
     }
 
@@ -620,6 +700,7 @@ public class GBDevice implements Parcelable {
     }
 
     public void setBatteryLabel(int label, int index) {
+        markChanged(Change.BATTERY, this.mBatteryLabels[index] != label);
         this.mBatteryLabels[index] = label;
     }
 
@@ -689,10 +770,12 @@ public class GBDevice implements Parcelable {
     }
 
     public void setDeviceInfos(List<ItemWithDetails> deviceInfos) {
+        markChanged(Change.DEVICE_INFO, true);
         this.mDeviceInfos = deviceInfos;
     }
 
     public void addDeviceInfo(ItemWithDetails info) {
+        markChanged(Change.DEVICE_INFO, true);
         if (mDeviceInfos == null) {
             mDeviceInfos = new ArrayList<>();
         } else {
@@ -709,7 +792,9 @@ public class GBDevice implements Parcelable {
         if (mDeviceInfos == null) {
             return false;
         }
-        return mDeviceInfos.remove(info);
+        final boolean removed = mDeviceInfos.remove(info);
+        markChanged(Change.DEVICE_INFO, removed);
+        return removed;
     }
 
     public enum State {
@@ -0,0 +1,144 @@
+/*  Copyright (C) 2026 agent
+
+    This file is part of Gadgetbridge.
+
+    Gadgetbridge is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published
+    by the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    Gadgetbridge is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>. */
+package nodomain.freeyourgadget.gadgetbridge.model;
+
+import androidx.annotation.Nullable;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import nodomain.freeyourgadget.gadgetbridge.impl.GBDevice;
+
+/**
+ * An in-memory store of per-day aggregates computed from the samples of a device, such as the
+ * {@link ActivityAmounts} of a day, so that the week and month charts only need to compute the
+ * days that changed. Each aggregate is keyed by device, kind and the time range of the samples it
+ * was computed from, and is dropped when samples are written in that time range.
+ */
+public final class DailyAggregateCache {
+    private static final Logger LOG = LoggerFactory.getLogger(DailyAggregateCache.class);
+
+    public static final String KIND_ACTIVITY_AMOUNTS = "activity_amounts";
+    public static final String KIND_PAI = "pai";
+    public static final String KIND_HRV_STATUS = "hrv_status";
+
+    // enough for a few month charts of a couple of devices
+    private static final int MAX_ENTRIES = 512;
+
+    private static final Map<String, Entry> CACHE = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<String, Entry> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    // devices for which samples were written through a sample provider since the last sync finished
+    private static final Set<String> DEVICES_WITH_WRITES = new HashSet<>();
+
+    // incremented on every invalidation, so that aggregates computed concurrently with a write are not cached
+    private static long generation = 0;
+
+    private DailyAggregateCache() {
+    }
+
+    /**
+     * Get the aggregate of the given kind for the samples between the given timestamps (inclusive,
+     * in seconds), computing it if not cached. The computation must not return null.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T get(final GBDevice device, final String kind, final int tsFrom, final int tsTo, final Supplier<T> computation) {
+        final String key = device.getAddress() + "_" + kind + "_" + tsFrom + "_" + tsTo;
+
+        final long computeGeneration;
+        synchronized (CACHE) {
+            final Entry entry = CACHE.get(key);
+            if (entry != null) {
+                return (T) entry.value;
+            }
+            computeGeneration = generation;
+        }
+
+        final T value = computation.get();
+
+        synchronized (CACHE) {
+            if (computeGeneration == generation) {
+                CACHE.put(key, new Entry(device.getAddress(), tsFrom, tsTo, value));
+            }
+        }
+
+        return value;
+    }
+
+    /**
+     * Drop all aggregates for a device which depend on samples between the given timestamps (inclusive, in seconds).
+     */
+    public static void invalidate(final GBDevice device, final int tsFrom, final int tsTo) {
+        synchronized (CACHE) {
+            generation++;
+            DEVICES_WITH_WRITES.add(device.getAddress());
+            final Iterator<Entry> it = CACHE.values().iterator();
+            while (it.hasNext()) {
+                final Entry entry = it.next();
+                if (entry.address.equals(device.getAddress()) && entry.tsFrom <= tsTo && tsFrom <= entry.tsTo) {
+                    it.remove();
+                }
+            }
+        }
+    }
+
+    /**
+     * Called when the data sync of a device finished. Not all devices write their samples through
+     * the sample providers - if none were seen, drop all aggregates for the device. If the device
+     * is not known, drop everything.
+     */
+    public static void onSyncFinished(@Nullable final GBDevice device) {
+        synchronized (CACHE) {
+            if (device == null) {
+                generation++;
+                CACHE.clear();
+                DEVICES_WITH_WRITES.clear();
+                return;
+            }
+            if (!DEVICES_WITH_WRITES.remove(device.getAddress())) {
+                LOG.debug("No sample writes seen for {}, invalidating all daily aggregates", device.getAddress());
+                invalidate(device, Integer.MIN_VALUE, Integer.MAX_VALUE);
+                DEVICES_WITH_WRITES.remove(device.getAddress());
+            }
+        }
+    }
+
+    private static class Entry {
+        private final String address;
+        private final int tsFrom;
+        private final int tsTo;
+        private final Object value;
+
+        private Entry(final String address, final int tsFrom, final int tsTo, final Object value) {
+            this.address = address;
+            this.tsFrom = tsFrom;
+            this.tsTo = tsTo;
+            this.value = value;
+        }
+    }
+}
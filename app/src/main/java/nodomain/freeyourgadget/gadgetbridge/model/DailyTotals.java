@@ -27,6 +27,7 @@ import java.io.Serializable;
 import java.util.Arrays;
 import java.util.Calendar;
 import java.util.List;
+import java.util.Objects;
 
 import nodomain.freeyourgadget.gadgetbridge.GBApplication;
 import nodomain.freeyourgadget.gadgetbridge.activities.charts.ActivityAnalysis;
@@ -67,6 +68,19 @@ public class DailyTotals implements Serializable {
         return sleep[0] + sleep[1] + sleep[2];
     }
 
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) return true;
+        if (!(o instanceof DailyTotals)) return false;
+        final DailyTotals that = (DailyTotals) o;
+        return steps == that.steps && distance == that.distance && Arrays.equals(sleep, that.sleep);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Objects.hash(steps, distance) + Arrays.hashCode(sleep);
+    }
+
     public static DailyTotals getDailyTotalsForDevice(GBDevice device, Calendar day) {
 
         try (DBHandler handler = GBApplication.acquireDB()) {
@@ -78,12 +92,22 @@ public class DailyTotals implements Serializable {
     }
 
     public static DailyTotals getDailyTotalsForDevice(GBDevice device, Calendar day, DBHandler handler) {
+        return getDailyTotals(getSamplesOfDay(handler, day, 0, device), getSamplesOfDay(handler, day, -12, device));
+    }
+
+    /**
+     * Compute the totals from samples that were already loaded.
+     *
+     * @param stepsSamples the samples of the day
+     * @param sleepSamples the samples of the day, shifted 12 hours back (noon to noon)
+     */
+    public static DailyTotals getDailyTotals(List<? extends ActivitySample> stepsSamples, List<? extends ActivitySample> sleepSamples) {
         ActivityAnalysis analysis = new ActivityAnalysis();
         ActivityAmounts amountsSteps;
         ActivityAmounts amountsSleep;
 
-        amountsSteps = analysis.calculateActivityAmounts(getSamplesOfDay(handler, day, 0, device));
-        amountsSleep = analysis.calculateActivityAmounts(getSamplesOfDay(handler, day, -12, device));
+        amountsSteps = analysis.calculateActivityAmounts(stepsSamples);
+        amountsSleep = analysis.calculateActivityAmounts(sleepSamples);
 
         long[] sleep = getTotalsSleepForActivityAmounts(amountsSleep);
         Pair<Long, Long> stepsDistance = getTotalsStepsForActivityAmounts(amountsSteps);
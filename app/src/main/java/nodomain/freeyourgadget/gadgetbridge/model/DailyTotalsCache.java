@@ -0,0 +1,146 @@
+/*  Copyright (C) 2026 agent
+
+    This file is part of Gadgetbridge.
+
+    Gadgetbridge is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published
+    by the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    Gadgetbridge is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>. */
+package nodomain.freeyourgadget.gadgetbridge.model;
+
+import androidx.annotation.Nullable;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Calendar;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import nodomain.freeyourgadget.gadgetbridge.database.DBHandler;
+import nodomain.freeyourgadget.gadgetbridge.impl.GBDevice;
+
+/**
+ * A small in-memory cache of {@link DailyTotals}, keyed by device and day. Entries are dropped
+ * when samples are written in the time range that was used to compute them.
+ */
+public final class DailyTotalsCache {
+    private static final Logger LOG = LoggerFactory.getLogger(DailyTotalsCache.class);
+
+    private static final int MAX_ENTRIES = 32;
+
+    private static final Map<String, Entry> CACHE = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<String, Entry> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    // incremented on every invalidation, so that totals computed concurrently with a write are not cached
+    private static long generation = 0;
+
+    private DailyTotalsCache() {
+    }
+
+    public static DailyTotals getDailyTotalsForDevice(final GBDevice device, final Calendar day, final DBHandler handler) {
+        final int dayStart = getDayStart(day);
+        final String key = getKey(device, dayStart);
+
+        final long computeGeneration;
+        synchronized (CACHE) {
+            final Entry entry = CACHE.get(key);
+            if (entry != null) {
+                return entry.totals;
+            }
+            computeGeneration = generation;
+        }
+
+        final DailyTotals totals = DailyTotals.getDailyTotalsForDevice(device, day, handler);
+
+        synchronized (CACHE) {
+            if (computeGeneration == generation) {
+                CACHE.put(key, new Entry(device.getAddress(), dayStart, totals));
+            }
+        }
+
+        return totals;
+    }
+
+    /**
+     * Drop all cached totals for a device which depend on samples between the given timestamps (inclusive, in seconds).
+     */
+    public static void invalidate(final GBDevice device, final int tsFrom, final int tsTo) {
+        synchronized (CACHE) {
+            generation++;
+            final Iterator<Entry> it = CACHE.values().iterator();
+            while (it.hasNext()) {
+                final Entry entry = it.next();
+                if (entry.address.equals(device.getAddress()) && entry.rangeStart <= tsTo && tsFrom <= entry.rangeEnd) {
+                    LOG.debug("Invalidating daily totals for {} at {}", entry.address, entry.dayStart);
+                    it.remove();
+                }
+            }
+        }
+    }
+
+    /**
+     * Drop all cached totals for a device.
+     */
+    public static void invalidate(final GBDevice device) {
+        invalidate(device, Integer.MIN_VALUE, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Called when the data sync of a device finished. Not all devices write their samples through
+     * the sample providers, so drop all totals for the device - or for all devices, if it is not known.
+     */
+    public static void onSyncFinished(@Nullable final GBDevice device) {
+        if (device != null) {
+            invalidate(device);
+            return;
+        }
+        synchronized (CACHE) {
+            generation++;
+            CACHE.clear();
+        }
+    }
+
+    private static int getDayStart(final Calendar day) {
+        final Calendar dayStart = (Calendar) day.clone();
+        dayStart.set(Calendar.HOUR_OF_DAY, 0);
+        dayStart.set(Calendar.MINUTE, 0);
+        dayStart.set(Calendar.SECOND, 0);
+        dayStart.set(Calendar.MILLISECOND, 0);
+        return (int) (dayStart.getTimeInMillis() / 1000);
+    }
+
+    private static String getKey(final GBDevice device, final int dayStart) {
+        return device.getAddress() + "_" + dayStart;
+    }
+
+    private static class Entry {
+        private final String address;
+        private final int dayStart;
+        // sleep is computed from 12h before the start of the day
+        private final int rangeStart;
+        private final int rangeEnd;
+        private final DailyTotals totals;
+
+        private Entry(final String address, final int dayStart, final DailyTotals totals) {
+            this.address = address;
+            this.dayStart = dayStart;
+            this.rangeStart = dayStart - 12 * 60 * 60;
+            this.rangeEnd = dayStart + 24 * 60 * 60 - 1;
+            this.totals = totals;
+        }
+    }
+}
@@ -65,7 +65,6 @@ public interface DeviceService extends EventHandler {
     String ACTION_SET_WORLD_CLOCKS = PREFIX + ".action.set_world_clocks";
     String ACTION_SET_CONTACTS = PREFIX + ".action.set_contacts";
     String ACTION_ENABLE_REALTIME_STEPS = PREFIX + ".action.enable_realtime_steps";
-    String ACTION_REALTIME_SAMPLES = PREFIX + ".action.realtime_samples";
     String ACTION_ENABLE_REALTIME_HEARTRATE_MEASUREMENT = PREFIX + ".action.realtime_hr_measurement";
     String ACTION_ENABLE_HEARTRATE_SLEEP_SUPPORT = PREFIX + ".action.enable_heartrate_sleep_support";
     String ACTION_SET_HEARTRATE_MEASUREMENT_INTERVAL = PREFIX + ".action.set_heartrate_measurement_intervarl";
@@ -148,18 +147,7 @@ public interface DeviceService extends EventHandler {
     String EXTRA_CAMERA_EVENT = "event";
     String EXTRA_CAMERA_FILENAME = "filename";
 
-    /**
-     * Use EXTRA_REALTIME_SAMPLE instead
-     */
-    @Deprecated
-    String EXTRA_REALTIME_STEPS = "realtime_steps";
-    String EXTRA_REALTIME_SAMPLE = "realtime_sample";
     String EXTRA_TIMESTAMP = "timestamp";
-    /**
-     * Use EXTRA_REALTIME_SAMPLE instead
-     */
-    @Deprecated
-    String EXTRA_HEART_RATE_VALUE = "hr_value";
     String EXTRA_CALENDAREVENT_ID = "calendarevent_id";
     String EXTRA_CALENDAREVENT_TYPE = "calendarevent_type";
     String EXTRA_CALENDAREVENT_TIMESTAMP = "calendarevent_timestamp";
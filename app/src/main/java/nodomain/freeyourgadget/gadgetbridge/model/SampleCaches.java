@@ -0,0 +1,80 @@
+/*  Copyright (C) 2026 agent
+
+    This file is part of Gadgetbridge.
+
+    Gadgetbridge is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published
+    by the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    Gadgetbridge is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>. */
+package nodomain.freeyourgadget.gadgetbridge.model;
+
+import androidx.annotation.Nullable;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import nodomain.freeyourgadget.gadgetbridge.impl.GBDevice;
+
+/**
+ * Drops the data that was computed from the samples of a device and cached, when the samples
+ * change. Sample writers call this instead of the caches, and caches outside of the model, such as
+ * the ones of the charts, register a {@link Listener}.
+ */
+public final class SampleCaches {
+    private static final List<Listener> LISTENERS = new CopyOnWriteArrayList<>();
+
+    public interface Listener {
+        /**
+         * Samples of the device were written between the given timestamps (inclusive, in seconds).
+         */
+        void onSamplesWritten(GBDevice device, int tsFrom, int tsTo);
+
+        /**
+         * The data sync of the device finished, or of an unknown device if null.
+         */
+        void onSyncFinished(@Nullable GBDevice device);
+    }
+
+    private SampleCaches() {
+    }
+
+    public static void addListener(final Listener listener) {
+        LISTENERS.add(listener);
+    }
+
+    public static void removeListener(final Listener listener) {
+        LISTENERS.remove(listener);
+    }
+
+    /**
+     * Drop all cached data for a device which depends on samples between the given timestamps
+     * (inclusive, in seconds). Must be called by everything that writes samples.
+     */
+    public static void onSamplesWritten(final GBDevice device, final int tsFrom, final int tsTo) {
+        DailyTotalsCache.invalidate(device, tsFrom, tsTo);
+        DailyAggregateCache.invalidate(device, tsFrom, tsTo);
+        for (final Listener listener : LISTENERS) {
+            listener.onSamplesWritten(device, tsFrom, tsTo);
+        }
+    }
+
+    /**
+     * Called when the data sync of a device finished. Not all devices report the samples they
+     * write, so the caches may drop more than that.
+     */
+    public static void onSyncFinished(@Nullable final GBDevice device) {
+        DailyTotalsCache.onSyncFinished(device);
+        DailyAggregateCache.onSyncFinished(device);
+        for (final Listener listener : LISTENERS) {
+            listener.onSyncFinished(device);
+        }
+    }
+}
@@ -25,15 +25,20 @@ import org.json.JSONObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
-import java.io.ObjectStreamException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public class Weather {
     private static final Logger LOG = LoggerFactory.getLogger(Weather.class);
@@ -42,7 +47,14 @@ public class Weather {
 
     private JSONObject reconstructedOWMForecast = null;
 
-    private File cacheFile;
+    private static final String CACHE_FILE_NAME = "weatherCache.v2.bin";
+    private static final String LEGACY_CACHE_FILE_NAME = "weatherCache.bin";
+
+    private volatile File cacheFile;
+
+    // reads and writes of the cache file, in order
+    private final ExecutorService cacheExecutor = Executors.newSingleThreadExecutor(r -> new Thread(r, "WeatherCache"));
+    private volatile Future<?> cacheLoad;
 
     private Weather() {
         // Use getInstance
@@ -50,20 +62,26 @@ public class Weather {
 
     @Nullable
     public WeatherSpec getWeatherSpec() {
-        if (weatherSpecs.isEmpty()) {
-            return null;
-        }
+        awaitCacheLoad();
+        synchronized (weatherSpecs) {
+            if (weatherSpecs.isEmpty()) {
+                return null;
+            }
 
-        return weatherSpecs.get(0);
+            return weatherSpecs.get(0);
+        }
     }
 
     public List<WeatherSpec> getWeatherSpecs() {
+        awaitCacheLoad();
         return weatherSpecs;
     }
 
     public void setWeatherSpec(final List<WeatherSpec> newWeatherSpecs) {
-        weatherSpecs.clear();
-        weatherSpecs.addAll(newWeatherSpecs);
+        synchronized (weatherSpecs) {
+            weatherSpecs.clear();
+            weatherSpecs.addAll(newWeatherSpecs);
+        }
         saveToCache();
     }
 
@@ -1149,65 +1167,135 @@ public class Weather {
     }
 
     /**
-     * Set the weather cache file. If enabled and the current weather is null, load the cache file.
+     * Set the weather cache file. If enabled and the current weather is null, the cache file is
+     * loaded in the background - the first access to the weather waits for it to finish.
      *
      * @param cacheDir the cache directory, where the cache file will be created
      * @param enabled whether caching is enabled
      */
     public void setCacheFile(final File cacheDir, final boolean enabled) {
-        // FIXME: Do not use serializable for this
+        final File newCacheFile = new File(cacheDir, CACHE_FILE_NAME);
+        cacheFile = newCacheFile;
 
-        cacheFile = new File(cacheDir, "weatherCache.bin");
+        // older versions used java serialization, which we can't read anymore
+        final File legacyCacheFile = new File(cacheDir, LEGACY_CACHE_FILE_NAME);
+        cacheExecutor.execute(() -> deleteCacheFile(legacyCacheFile));
 
         if (enabled) {
-            LOG.info("Setting weather cache file to {}", cacheFile.getPath());
-
-            if (cacheFile.isFile() && weatherSpecs.isEmpty()) {
-                try (final ObjectInputStream o = new ObjectInputStream(new FileInputStream(cacheFile))) {
-                    final ArrayList<WeatherSpec> cachedSpecs = (ArrayList<WeatherSpec>) o.readObject();
-                    weatherSpecs.addAll(cachedSpecs);
-                } catch (final ObjectStreamException e) {
-                    LOG.error("Failed to deserialize weather from cache", e);
-                    // keep cacheFile set - it's most likely an older version
-                } catch (final IOException e) {
-                    LOG.error("Failed to read weather cache file", e);
-                    // Something is wrong with the file
-                    cacheFile = null;
-                } catch (final Throwable e) {
-                    LOG.error("Failed to read weather from cache", e);
-                    // keep cacheFile set - it's most likely an older version
-                }
-            } else if (!weatherSpecs.isEmpty()) {
+            LOG.info("Setting weather cache file to {}", newCacheFile.getPath());
+
+            final boolean isEmpty;
+            synchronized (weatherSpecs) {
+                isEmpty = weatherSpecs.isEmpty();
+            }
+
+            if (isEmpty) {
+                cacheLoad = cacheExecutor.submit(() -> loadFromCache(newCacheFile));
+            } else {
                 saveToCache();
             }
         } else {
-            if (cacheFile.isFile()) {
-                LOG.info("Deleting weather cache file {}", cacheFile.getPath());
-
-                try {
-                    cacheFile.delete();
-                } catch (final Throwable e) {
-                    LOG.error("Failed to delete cache file", e);
-                    cacheFile = null;
-                }
+            cacheFile = null;
+            cacheExecutor.execute(() -> deleteCacheFile(newCacheFile));
+        }
+    }
+
+    private void awaitCacheLoad() {
+        final Future<?> load = cacheLoad;
+        if (load == null) {
+            return;
+        }
+
+        if (!load.isDone()) {
+            final long start = System.nanoTime();
+            try {
+                load.get();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (final ExecutionException e) {
+                LOG.error("Failed to load weather from cache", e);
             }
+            LOG.debug("Waited {}ms for the weather cache", (System.nanoTime() - start) / 1000000L);
+        }
+
+        cacheLoad = null;
+    }
+
+    private void loadFromCache(final File file) {
+        if (!file.isFile()) {
+            return;
+        }
+
+        final long start = System.nanoTime();
+
+        final List<WeatherSpec> cachedSpecs;
+        try (InputStream in = new BufferedInputStream(new FileInputStream(file))) {
+            cachedSpecs = WeatherCacheFile.read(in);
+        } catch (final Exception e) {
+            LOG.error("Failed to read weather from cache", e);
+            // it will be overwritten by the next weather update
+            return;
+        }
+
+        synchronized (weatherSpecs) {
+            // do not overwrite weather that was received in the meantime
+            if (weatherSpecs.isEmpty()) {
+                weatherSpecs.addAll(cachedSpecs);
+            }
+        }
+
+        LOG.info(
+                "Loaded {} weather specs ({} bytes) from cache in {}ms",
+                cachedSpecs.size(),
+                file.length(),
+                (System.nanoTime() - start) / 1000000L
+        );
+    }
+
+    private static void deleteCacheFile(final File file) {
+        if (!file.isFile()) {
+            return;
+        }
+
+        LOG.info("Deleting weather cache file {}", file.getPath());
+
+        if (!file.delete()) {
+            LOG.error("Failed to delete cache file {}", file.getPath());
         }
     }
 
     /**
      * Save the current weather to cache, if a cache file is enabled and the weather is not null.
+     * The file is written in the background.
      */
     public void saveToCache() {
-        if (weatherSpecs.isEmpty() || cacheFile == null) {
+        final File file = cacheFile;
+        if (file == null) {
             return;
         }
 
-        LOG.info("Loading weather from cache {}", cacheFile.getPath());
-
-        try (ObjectOutputStream o = new ObjectOutputStream(new FileOutputStream(cacheFile))) {
-            o.writeObject(weatherSpecs);
-        } catch (final Throwable e) {
-            LOG.error("Failed to save weather to cache", e);
+        final List<WeatherSpec> weatherSpecsCopy;
+        synchronized (weatherSpecs) {
+            if (weatherSpecs.isEmpty()) {
+                return;
+            }
+            weatherSpecsCopy = new ArrayList<>(weatherSpecs);
         }
+
+        cacheExecutor.execute(() -> {
+            LOG.info("Saving weather to cache {}", file.getPath());
+
+            final File tmpFile = new File(file.getPath() + ".tmp");
+            try (OutputStream out = new BufferedOutputStream(new FileOutputStream(tmpFile))) {
+                WeatherCacheFile.write(out, weatherSpecsCopy);
+            } catch (final IOException e) {
+                LOG.error("Failed to save weather to cache", e);
+                return;
+            }
+
+            if (!tmpFile.renameTo(file)) {
+                LOG.error("Failed to replace weather cache {}", file.getPath());
+            }
+        });
     }
 }
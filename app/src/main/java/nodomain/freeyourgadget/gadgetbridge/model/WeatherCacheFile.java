@@ -0,0 +1,290 @@
+/*  Copyright (C) 2026 agent
+
+    This file is part of Gadgetbridge.
+
+    Gadgetbridge is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published
+    by the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    Gadgetbridge is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>. */
+package nodomain.freeyourgadget.gadgetbridge.model;
+
+import androidx.annotation.Nullable;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Binary format of the weather cache file. Unlike java serialization, it does not depend on the
+ * class layout - any change to the fields must bump {@link #VERSION}, and files with a different
+ * version are discarded.
+ */
+public final class WeatherCacheFile {
+    private static final int MAGIC = 0x47425743; // GBWC
+    public static final int VERSION = 1;
+
+    private static final int MAX_COUNT = 1000;
+
+    private WeatherCacheFile() {
+    }
+
+    public static void write(final OutputStream outputStream, final List<WeatherSpec> weatherSpecs) throws IOException {
+        final DataOutputStream out = new DataOutputStream(outputStream);
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(weatherSpecs.size());
+        for (final WeatherSpec weatherSpec : weatherSpecs) {
+            writeWeatherSpec(out, weatherSpec);
+        }
+        out.flush();
+    }
+
+    public static List<WeatherSpec> read(final InputStream inputStream) throws IOException {
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[8192];
+        int read;
+        while ((read = inputStream.read(buffer)) != -1) {
+            baos.write(buffer, 0, read);
+        }
+        return read(baos.toByteArray());
+    }
+
+    public static List<WeatherSpec> read(final byte[] bytes) throws IOException {
+        // the whole file is parsed from memory - reading it field by field from a stream is slower
+        // than java serialization
+        final ByteBuffer in = ByteBuffer.wrap(bytes);
+        try {
+            if (in.getInt() != MAGIC) {
+                throw new IOException("Not a weather cache file");
+            }
+            final int version = in.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported weather cache version " + version);
+            }
+            final int count = readCount(in);
+            final List<WeatherSpec> weatherSpecs = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                weatherSpecs.add(readWeatherSpec(in));
+            }
+            return weatherSpecs;
+        } catch (final BufferUnderflowException e) {
+            throw new IOException("Truncated weather cache file", e);
+        }
+    }
+
+    private static void writeWeatherSpec(final DataOutputStream out, final WeatherSpec spec) throws IOException {
+        out.writeInt(spec.timestamp);
+        writeString(out, spec.location);
+        out.writeInt(spec.currentTemp);
+        out.writeInt(spec.currentConditionCode);
+        writeString(out, spec.currentCondition);
+        out.writeInt(spec.currentHumidity);
+        out.writeInt(spec.todayMaxTemp);
+        out.writeInt(spec.todayMinTemp);
+        out.writeFloat(spec.windSpeed);
+        out.writeInt(spec.windDirection);
+        out.writeFloat(spec.uvIndex);
+        out.writeInt(spec.precipProbability);
+        out.writeInt(spec.dewPoint);
+        out.writeFloat(spec.pressure);
+        out.writeInt(spec.cloudCover);
+        out.writeFloat(spec.visibility);
+        out.writeInt(spec.sunRise);
+        out.writeInt(spec.sunSet);
+        out.writeInt(spec.moonRise);
+        out.writeInt(spec.moonSet);
+        out.writeInt(spec.moonPhase);
+        out.writeFloat(spec.latitude);
+        out.writeFloat(spec.longitude);
+        out.writeInt(spec.feelsLikeTemp);
+        out.writeInt(spec.isCurrentLocation);
+        writeAirQuality(out, spec.airQuality);
+
+        out.writeInt(spec.forecasts.size());
+        for (final WeatherSpec.Daily daily : spec.forecasts) {
+            out.writeInt(daily.minTemp);
+            out.writeInt(daily.maxTemp);
+            out.writeInt(daily.conditionCode);
+            out.writeInt(daily.humidity);
+            out.writeFloat(daily.windSpeed);
+            out.writeInt(daily.windDirection);
+            out.writeFloat(daily.uvIndex);
+            out.writeInt(daily.precipProbability);
+            out.writeInt(daily.sunRise);
+            out.writeInt(daily.sunSet);
+            out.writeInt(daily.moonRise);
+            out.writeInt(daily.moonSet);
+            out.writeInt(daily.moonPhase);
+            writeAirQuality(out, daily.airQuality);
+        }
+
+        out.writeInt(spec.hourly.size());
+        for (final WeatherSpec.Hourly hourly : spec.hourly) {
+            out.writeInt(hourly.timestamp);
+            out.writeInt(hourly.temp);
+            out.writeInt(hourly.conditionCode);
+            out.writeInt(hourly.humidity);
+            out.writeFloat(hourly.windSpeed);
+            out.writeInt(hourly.windDirection);
+            out.writeFloat(hourly.uvIndex);
+            out.writeInt(hourly.precipProbability);
+        }
+    }
+
+    private static WeatherSpec readWeatherSpec(final ByteBuffer in) throws IOException {
+        final WeatherSpec spec = new WeatherSpec();
+        spec.timestamp = in.getInt();
+        spec.location = readString(in);
+        spec.currentTemp = in.getInt();
+        spec.currentConditionCode = in.getInt();
+        spec.currentCondition = readString(in);
+        spec.currentHumidity = in.getInt();
+        spec.todayMaxTemp = in.getInt();
+        spec.todayMinTemp = in.getInt();
+        spec.windSpeed = in.getFloat();
+        spec.windDirection = in.getInt();
+        spec.uvIndex = in.getFloat();
+        spec.precipProbability = in.getInt();
+        spec.dewPoint = in.getInt();
+        spec.pressure = in.getFloat();
+        spec.cloudCover = in.getInt();
+        spec.visibility = in.getFloat();
+        spec.sunRise = in.getInt();
+        spec.sunSet = in.getInt();
+        spec.moonRise = in.getInt();
+        spec.moonSet = in.getInt();
+        spec.moonPhase = in.getInt();
+        spec.latitude = in.getFloat();
+        spec.longitude = in.getFloat();
+        spec.feelsLikeTemp = in.getInt();
+        spec.isCurrentLocation = in.getInt();
+        spec.airQuality = readAirQuality(in);
+
+        final int numForecasts = readCount(in);
+        spec.forecasts.ensureCapacity(numForecasts);
+        for (int i = 0; i < numForecasts; i++) {
+            final WeatherSpec.Daily daily = new WeatherSpec.Daily();
+            daily.minTemp = in.getInt();
+            daily.maxTemp = in.getInt();
+            daily.conditionCode = in.getInt();
+            daily.humidity = in.getInt();
+            daily.windSpeed = in.getFloat();
+            daily.windDirection = in.getInt();
+            daily.uvIndex = in.getFloat();
+            daily.precipProbability = in.getInt();
+            daily.sunRise = in.getInt();
+            daily.sunSet = in.getInt();
+            daily.moonRise = in.getInt();
+            daily.moonSet = in.getInt();
+            daily.moonPhase = in.getInt();
+            daily.airQuality = readAirQuality(in);
+            spec.forecasts.add(daily);
+        }
+
+        final int numHourly = readCount(in);
+        spec.hourly.ensureCapacity(numHourly);
+        for (int i = 0; i < numHourly; i++) {
+            final WeatherSpec.Hourly hourly = new WeatherSpec.Hourly();
+            hourly.timestamp = in.getInt();
+            hourly.temp = in.getInt();
+            hourly.conditionCode = in.getInt();
+            hourly.humidity = in.getInt();
+            hourly.windSpeed = in.getFloat();
+            hourly.windDirection = in.getInt();
+            hourly.uvIndex = in.getFloat();
+            hourly.precipProbability = in.getInt();
+            spec.hourly.add(hourly);
+        }
+
+        return spec;
+    }
+
+    private static void writeAirQuality(final DataOutputStream out, @Nullable final WeatherSpec.AirQuality airQuality) throws IOException {
+        out.writeBoolean(airQuality != null);
+        if (airQuality == null) {
+            return;
+        }
+        out.writeInt(airQuality.aqi);
+        out.writeFloat(airQuality.co);
+        out.writeFloat(airQuality.no2);
+        out.writeFloat(airQuality.o3);
+        out.writeFloat(airQuality.pm10);
+        out.writeFloat(airQuality.pm25);
+        out.writeFloat(airQuality.so2);
+        out.writeInt(airQuality.coAqi);
+        out.writeInt(airQuality.no2Aqi);
+        out.writeInt(airQuality.o3Aqi);
+        out.writeInt(airQuality.pm10Aqi);
+        out.writeInt(airQuality.pm25Aqi);
+        out.writeInt(airQuality.so2Aqi);
+    }
+
+    @Nullable
+    private static WeatherSpec.AirQuality readAirQuality(final ByteBuffer in) {
+        if (in.get() == 0) {
+            return null;
+        }
+        final WeatherSpec.AirQuality airQuality = new WeatherSpec.AirQuality();
+        airQuality.aqi = in.getInt();
+        airQuality.co = in.getFloat();
+        airQuality.no2 = in.getFloat();
+        airQuality.o3 = in.getFloat();
+        airQuality.pm10 = in.getFloat();
+        airQuality.pm25 = in.getFloat();
+        airQuality.so2 = in.getFloat();
+        airQuality.coAqi = in.getInt();
+        airQuality.no2Aqi = in.getInt();
+        airQuality.o3Aqi = in.getInt();
+        airQuality.pm10Aqi = in.getInt();
+        airQuality.pm25Aqi = in.getInt();
+        airQuality.so2Aqi = in.getInt();
+        return airQuality;
+    }
+
+    private static void writeString(final DataOutputStream out, @Nullable final String str) throws IOException {
+        if (str == null) {
+            out.writeInt(-1);
+            return;
+        }
+        final byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    @Nullable
+    private static String readString(final ByteBuffer in) throws IOException {
+        final int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        if (length > in.remaining()) {
+            throw new IOException("Invalid string length " + length);
+        }
+        final String str = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+        in.position(in.position() + length);
+        return str;
+    }
+
+    private static int readCount(final ByteBuffer in) throws IOException {
+        final int count = in.getInt();
+        if (count < 0 || count > MAX_COUNT) {
+            throw new IOException("Invalid count " + count);
+        }
+        return count;
+    }
+}
@@ -133,6 +133,7 @@ public abstract class AbstractDeviceSupport implements DeviceSupport {
     private BluetoothAdapter btAdapter;
     private Context context;
     private boolean autoReconnect, scanReconnect;
+    private final WeatherSendCache weatherSendCache = new WeatherSendCache();
 
 
 
@@ -191,6 +192,13 @@ public abstract class AbstractDeviceSupport implements DeviceSupport {
         return gbDevice;
     }
 
+    /**
+     * The weather last sent to the device, for implementations that skip unchanged weather.
+     */
+    public WeatherSendCache getWeatherSendCache() {
+        return weatherSendCache;
+    }
+
     @Override
     public BluetoothAdapter getBluetoothAdapter() {
         return btAdapter;
@@ -404,7 +412,7 @@ public abstract class AbstractDeviceSupport implements DeviceSupport {
         }
 
         savePreferencesEvent.update(GBApplication.getDeviceSpecificSharedPrefs(getDevice().getAddress()));
-        gbDevice.sendDeviceUpdateIntent(context);
+        gbDevice.sendPreferencesUpdateIntent(context);
     }
 
     protected void handleGBDeviceEvent(GBDeviceEventUpdateDeviceState updateDeviceState) {
@@ -553,6 +553,7 @@ public class DeviceCommunicationService extends Service implements SharedPrefere
     }
 
     private void scanAllDevices(){
+        GBApplication.app().getDeviceManager().ensureDevicesLoaded();
         List<GBDevice> devices = GBApplication.app().getDeviceManager().getDevices();
         for(GBDevice device : devices){
             if(!device.getDeviceCoordinator().getConnectionType().usesBluetoothLE()){
@@ -605,6 +606,7 @@ public class DeviceCommunicationService extends Service implements SharedPrefere
             gbDevs.add(device);
             fromExtra = true;
         } else {
+            GBApplication.app().getDeviceManager().ensureDevicesLoaded();
             List<GBDevice> gbAllDevs = GBApplication.app().getDeviceManager().getDevices();
 
             if (gbAllDevs != null && !gbAllDevs.isEmpty()) {
@@ -0,0 +1,120 @@
+/*  Copyright (C) 2026 agent
+
+    This file is part of Gadgetbridge.
+
+    Gadgetbridge is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published
+    by the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    Gadgetbridge is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>. */
+package nodomain.freeyourgadget.gadgetbridge.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Remembers the last weather payload sent to a device, per section (eg. current conditions,
+ * daily forecast), so that sections that would be sent with the exact same bytes can be skipped.
+ * Weather apps broadcast often, usually with mostly unchanged data.
+ * <p>
+ * The cache must be cleared whenever the device may have lost its weather, such as on reconnection.
+ * As a safety net, sections are re-sent anyway once they are older than {@link #MAX_AGE_MILLIS}.
+ */
+public class WeatherSendCache {
+    private static final Logger LOG = LoggerFactory.getLogger(WeatherSendCache.class);
+
+    private static final long MAX_AGE_MILLIS = 60 * 60 * 1000L;
+
+    private final Map<String, Entry> lastSent = new HashMap<>();
+
+    private int sentCount;
+    private long sentBytes;
+    private int skippedCount;
+    private long savedBytes;
+
+    /**
+     * @return true if the exact same payload was sent for this section recently, in which case
+     * it does not need to be sent again
+     */
+    public synchronized boolean isUnchanged(final String section, final byte[] payload) {
+        final Entry entry = lastSent.get(section);
+        if (entry == null || !Arrays.equals(entry.payload, payload)) {
+            return false;
+        }
+        if (System.currentTimeMillis() - entry.timestamp > MAX_AGE_MILLIS) {
+            return false;
+        }
+
+        skippedCount++;
+        savedBytes += payload.length;
+        LOG.debug("Weather {} unchanged, not sending {} bytes", section, payload.length);
+        return true;
+    }
+
+    /**
+     * Record that a payload was sent for a section.
+     */
+    public synchronized void markSent(final String section, final byte[] payload) {
+        lastSent.put(section, new Entry(payload, System.currentTimeMillis()));
+        sentCount++;
+        sentBytes += payload.length;
+    }
+
+    /**
+     * Forget the payload sent for a section, so that it is sent again.
+     */
+    public synchronized void remove(final String section) {
+        lastSent.remove(section);
+    }
+
+    public synchronized void clear() {
+        lastSent.clear();
+    }
+
+    public synchronized void logStats() {
+        LOG.info(
+                "Weather sections sent: {} ({} bytes), skipped as unchanged: {} ({} bytes saved)",
+                sentCount,
+                sentBytes,
+                skippedCount,
+                savedBytes
+        );
+    }
+
+    public synchronized int getSentCount() {
+        return sentCount;
+    }
+
+    public synchronized long getSentBytes() {
+        return sentBytes;
+    }
+
+    public synchronized int getSkippedCount() {
+        return skippedCount;
+    }
+
+    public synchronized long getSavedBytes() {
+        return savedBytes;
+    }
+
+    private static class Entry {
+        private final byte[] payload;
+        private final long timestamp;
+
+        private Entry(final byte[] payload, final long timestamp) {
+            this.payload = payload;
+            this.timestamp = timestamp;
+        }
+    }
+}
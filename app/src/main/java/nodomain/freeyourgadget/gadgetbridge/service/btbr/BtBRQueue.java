@@ -40,6 +40,7 @@ import nodomain.freeyourgadget.gadgetbridge.GBApplication;
 import nodomain.freeyourgadget.gadgetbridge.impl.GBDevice;
 import nodomain.freeyourgadget.gadgetbridge.service.DeviceSupport;
 import nodomain.freeyourgadget.gadgetbridge.util.GB;
+import nodomain.freeyourgadget.gadgetbridge.util.logging.PacketTrace;
 
 public final class BtBRQueue {
     private static final Logger LOG = LoggerFactory.getLogger(BtBRQueue.class);
@@ -81,7 +82,12 @@ public final class BtBRQueue {
                     break;
                 }
 
-                LOG.debug("Received {} bytes: {}", nRead, GB.hexdump(buffer, 0, nRead));
+                final PacketTrace packetTrace = GBApplication.getLogging().getPacketTrace();
+                if (packetTrace != null) {
+                    packetTrace.record(PacketTrace.TYPE_SOCKET_READ, null, buffer, 0, nRead);
+                } else if (LOG.isDebugEnabled()) {
+                    LOG.debug("Received {} bytes: {}", nRead, GB.hexdump(buffer, 0, nRead));
+                }
 
                 try {
                     mCallback.onSocketRead(Arrays.copyOf(buffer, nRead));
@@ -24,8 +24,10 @@ import java.io.OutputStream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import nodomain.freeyourgadget.gadgetbridge.GBApplication;
 import nodomain.freeyourgadget.gadgetbridge.Logging;
 import nodomain.freeyourgadget.gadgetbridge.service.btbr.BtBRAction;
+import nodomain.freeyourgadget.gadgetbridge.util.logging.PacketTrace;
 
 /**
  * Invokes a write operation on a given socket.
@@ -58,7 +60,10 @@ public class WriteAction extends BtBRAction {
     }
 
     protected boolean writeValue(byte[] value) {
-        if (LOG.isDebugEnabled()) {
+        final PacketTrace packetTrace = GBApplication.getLogging().getPacketTrace();
+        if (packetTrace != null) {
+            packetTrace.record(PacketTrace.TYPE_SOCKET_WRITE, null, value);
+        } else if (LOG.isDebugEnabled()) {
             LOG.debug("writing to socket: " + Logging.formatBytes(value));
         }
         try {
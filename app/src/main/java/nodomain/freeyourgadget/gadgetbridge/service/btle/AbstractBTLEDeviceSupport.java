@@ -348,6 +348,9 @@ public abstract class AbstractBTLEDeviceSupport extends AbstractDeviceSupport im
     // default implementations of event handler methods (gatt callbacks)
     @Override
     public void onConnectionStateChange(BluetoothGatt gatt, int status, int newState) {
+        // the device may have lost the weather
+        getWeatherSendCache().clear();
+
         for (AbstractBleProfile<?> profile : mSupportedProfiles) {
             profile.onConnectionStateChange(gatt, status, newState);
         }
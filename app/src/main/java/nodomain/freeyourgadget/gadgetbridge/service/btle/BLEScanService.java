@@ -374,6 +374,7 @@ public class BLEScanService extends Service {
         ArrayList<ScanFilter> scanFilters = null;
 
         if (applyFilters) {
+            GBApplication.app().getDeviceManager().ensureDevicesLoaded();
             List<GBDevice> devices = GBApplication.app().getDeviceManager().getDevices();
 
             scanFilters = new ArrayList<>(devices.size());
@@ -53,6 +53,7 @@ import nodomain.freeyourgadget.gadgetbridge.impl.GBDevice;
 import nodomain.freeyourgadget.gadgetbridge.impl.GBDevice.State;
 import nodomain.freeyourgadget.gadgetbridge.service.DeviceSupport;
 import nodomain.freeyourgadget.gadgetbridge.service.btle.actions.WriteAction;
+import nodomain.freeyourgadget.gadgetbridge.util.logging.PacketTrace;
 
 /**
  * One queue/thread per connectable device.
@@ -613,12 +614,20 @@ public final class BtLEQueue {
         public void onCharacteristicRead(BluetoothGatt gatt,
                                          BluetoothGattCharacteristic characteristic,
                                          int status) {
-            LOG.debug(
-                    "characteristic read: {}{}{}",
-                    characteristic.getUuid(),
-                    getStatusString(status),
-                    status == BluetoothGatt.GATT_SUCCESS ? ": " + Logging.formatBytes(characteristic.getValue()) : ""
-            );
+            final PacketTrace packetTrace = GBApplication.getLogging().getPacketTrace();
+            if (packetTrace != null) {
+                if (status == BluetoothGatt.GATT_SUCCESS) {
+                    packetTrace.record(PacketTrace.TYPE_CHARACTERISTIC_READ, characteristic.getUuid(), characteristic.getValue());
+                }
+                LOG.debug("characteristic read: {}{}", characteristic.getUuid(), getStatusString(status));
+            } else if (LOG.isDebugEnabled()) {
+                LOG.debug(
+                        "characteristic read: {}{}{}",
+                        characteristic.getUuid(),
+                        getStatusString(status),
+                        status == BluetoothGatt.GATT_SUCCESS ? ": " + Logging.formatBytes(characteristic.getValue()) : ""
+                );
+            }
             if (!checkCorrectGattInstance(gatt, "characteristic read")) {
                 return;
             }
@@ -667,7 +676,10 @@ public final class BtLEQueue {
         @Override
         public void onCharacteristicChanged(BluetoothGatt gatt,
                                             BluetoothGattCharacteristic characteristic) {
-            if (LOG.isDebugEnabled()) {
+            final PacketTrace packetTrace = GBApplication.getLogging().getPacketTrace();
+            if (packetTrace != null) {
+                packetTrace.record(PacketTrace.TYPE_CHARACTERISTIC_CHANGED, characteristic.getUuid(), characteristic.getValue());
+            } else if (LOG.isDebugEnabled()) {
                 String content = Logging.formatBytes(characteristic.getValue());
                 LOG.debug("characteristic changed: {} value: {}", characteristic.getUuid(), content);
             }
@@ -23,8 +23,10 @@ import android.bluetooth.BluetoothGattServer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import nodomain.freeyourgadget.gadgetbridge.GBApplication;
 import nodomain.freeyourgadget.gadgetbridge.Logging;
 import nodomain.freeyourgadget.gadgetbridge.service.btle.BtLEServerAction;
+import nodomain.freeyourgadget.gadgetbridge.util.logging.PacketTrace;
 
 /**
  * Invokes a response on a given GATT characteristic read.
@@ -53,7 +55,10 @@ public class ServerResponseAction extends BtLEServerAction {
     }
 
     protected boolean writeValue(BluetoothGattServer gattServer, BluetoothDevice device, int requestId, int status, int offset, byte[] value) {
-        if (LOG.isDebugEnabled()) {
+        final PacketTrace packetTrace = GBApplication.getLogging().getPacketTrace();
+        if (packetTrace != null) {
+            packetTrace.record(PacketTrace.TYPE_SERVER_RESPONSE, null, value);
+        } else if (LOG.isDebugEnabled()) {
             LOG.debug("writing to server: " + device.getAddress() + ": " + Logging.formatBytes(value));
         }
 
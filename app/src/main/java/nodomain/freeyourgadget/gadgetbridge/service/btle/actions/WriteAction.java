@@ -24,8 +24,10 @@ import android.bluetooth.BluetoothGattCharacteristic;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import nodomain.freeyourgadget.gadgetbridge.GBApplication;
 import nodomain.freeyourgadget.gadgetbridge.Logging;
 import nodomain.freeyourgadget.gadgetbridge.service.btle.BtLEAction;
+import nodomain.freeyourgadget.gadgetbridge.util.logging.PacketTrace;
 
 /**
  * Invokes a write operation on a given GATT characteristic.
@@ -54,7 +56,10 @@ public class WriteAction extends BtLEAction {
     }
 
     protected boolean writeValue(BluetoothGatt gatt, BluetoothGattCharacteristic characteristic, byte[] value) {
-        if (LOG.isDebugEnabled()) {
+        final PacketTrace packetTrace = GBApplication.getLogging().getPacketTrace();
+        if (packetTrace != null) {
+            packetTrace.record(PacketTrace.TYPE_CHARACTERISTIC_WRITE, characteristic.getUuid(), value);
+        } else if (LOG.isDebugEnabled()) {
             LOG.debug("writing to characteristic: " + characteristic.getUuid() + ": " + Logging.formatBytes(value));
         }
         if (characteristic.setValue(value)) {
@@ -90,6 +90,7 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.SimpleTimeZone;
+import java.util.TreeMap;
 
 import javax.xml.xpath.XPath;
 import javax.xml.xpath.XPathConstants;
@@ -132,7 +133,6 @@ import nodomain.freeyourgadget.gadgetbridge.model.BatteryState;
 import nodomain.freeyourgadget.gadgetbridge.model.CalendarEventSpec;
 import nodomain.freeyourgadget.gadgetbridge.model.CallSpec;
 import nodomain.freeyourgadget.gadgetbridge.model.CannedMessagesSpec;
-import nodomain.freeyourgadget.gadgetbridge.model.DeviceService;
 import nodomain.freeyourgadget.gadgetbridge.model.MusicSpec;
 import nodomain.freeyourgadget.gadgetbridge.model.MusicStateSpec;
 import nodomain.freeyourgadget.gadgetbridge.model.NavigationInfoSpec;
@@ -151,6 +151,7 @@ import nodomain.freeyourgadget.gadgetbridge.util.FileUtils;
 import nodomain.freeyourgadget.gadgetbridge.util.GB;
 import nodomain.freeyourgadget.gadgetbridge.util.LimitedQueue;
 import nodomain.freeyourgadget.gadgetbridge.util.Prefs;
+import nodomain.freeyourgadget.gadgetbridge.util.RealtimeSampleStream;
 
 public class BangleJSDeviceSupport extends AbstractBTLEDeviceSupport {
     private static final Logger LOG = LoggerFactory.getLogger(BangleJSDeviceSupport.class);
@@ -162,7 +163,7 @@ public class BangleJSDeviceSupport extends AbstractBTLEDeviceSupport {
     int bangleCommandSeq = 0; // to attempt to stop duplicate packets when sending Local Intents
 
     /// Current line of data received from Bangle.js
-    private String receivedLine = "";
+    private final StringBuilder receivedLine = new StringBuilder();
     /// All characters received from Bangle.js for debug purposes (limited to MAX_RECEIVE_HISTORY_CHARS). Can be dumped with 'Fetch Device Debug Logs' from Debug menu
     private String receiveHistory = "";
     private boolean realtimeHRM = false;
@@ -174,6 +175,12 @@ public class BangleJSDeviceSupport extends AbstractBTLEDeviceSupport {
 
     private final LimitedQueue<Integer, Long> mNotificationReplyAction = new LimitedQueue<>(16);
 
+    /// Activity samples received during an 'actfetch', by timestamp - written in one go when the fetch ends
+    private final TreeMap<Integer, BangleJSActivitySample> pendingActivitySamples = new TreeMap<>();
+    private boolean activityFetchInProgress = false;
+    /// Maximum amount of samples to keep in pendingActivitySamples before writing them to the database
+    private static final int MAX_PENDING_ACTIVITY_SAMPLES = 24 * 60;
+
     private boolean gpsUpdateSetup = false;
 
     // this stores the globalUartReceiver (for uart.tx intents)
@@ -205,6 +212,7 @@ public class BangleJSDeviceSupport extends AbstractBTLEDeviceSupport {
 
     @Override
     public void dispose() {
+        flushActivitySamples();
         super.dispose();
         stopGlobalUartReceiver();
         stopLocationUpdate();
@@ -794,9 +802,12 @@ public class BangleJSDeviceSupport extends AbstractBTLEDeviceSupport {
     private void handleActivityFetch(final JSONObject json) throws JSONException {
         final String state = json.getString("state");
         if ("start".equals(state)) {
+            activityFetchInProgress = true;
             GB.updateTransferNotification(getContext().getString(R.string.busy_task_fetch_activity_data),"", true, 0, getContext());
             getDevice().setBusyTask(getContext().getString(R.string.busy_task_fetch_activity_data));
         } else if ("end".equals(state)) {
+            activityFetchInProgress = false;
+            flushActivitySamples();
             saveLastSyncTimestamp(System.currentTimeMillis() - 1000L * 60);
             getDevice().unsetBusyTask();
             GB.updateTransferNotification(null, "", false, 100, getContext());
@@ -844,24 +855,59 @@ public class BangleJSDeviceSupport extends AbstractBTLEDeviceSupport {
         sample.setSteps(steps);
         sample.setRawIntensity(intensity);
         if (!realtime) {
-            try (DBHandler dbHandler = GBApplication.acquireDB()) {
-                final Long userId = getUser(dbHandler.getDaoSession()).getId();
-                final Long deviceId = DBHelper.getDevice(getDevice(), dbHandler.getDaoSession()).getId();
-                BangleJSSampleProvider provider = new BangleJSSampleProvider(getDevice(), dbHandler.getDaoSession());
-                sample.setDeviceId(deviceId);
-                sample.setUserId(userId);
-                provider.upsertSample(sample);
-            } catch (final Exception ex) {
-                LOG.warn("Error saving activity: " + ex.getLocalizedMessage());
+            addActivitySample(sample);
+            if (!activityFetchInProgress || pendingActivitySamples.size() >= MAX_PENDING_ACTIVITY_SAMPLES) {
+                flushActivitySamples();
             }
         }
 
         // push realtime data
         if (realtime && (realtimeHRM || realtimeStep)) {
-            Intent intent = new Intent(DeviceService.ACTION_REALTIME_SAMPLES)
-                    .putExtra(GBDevice.EXTRA_DEVICE, getDevice())
-                    .putExtra(DeviceService.EXTRA_REALTIME_SAMPLE, sample);
-            LocalBroadcastManager.getInstance(getContext()).sendBroadcast(intent);
+            RealtimeSampleStream.publish(getDevice(), sample);
+        }
+    }
+
+    /**
+     * Queue a non-realtime sample for writing, merging it with a pending sample at the same timestamp
+     */
+    private void addActivitySample(final BangleJSActivitySample sample) {
+        final BangleJSActivitySample pending = pendingActivitySamples.get(sample.getTimestamp());
+        if (pending == null) {
+            pendingActivitySamples.put(sample.getTimestamp(), sample);
+            return;
+        }
+        if (sample.getHeartRate() != 0) {
+            pending.setHeartRate(sample.getHeartRate());
+        }
+        if (sample.getSteps() != 0) {
+            pending.setSteps(sample.getSteps());
+        }
+        if (sample.getRawIntensity() != 0) {
+            pending.setRawIntensity(sample.getRawIntensity());
+        }
+    }
+
+    /**
+     * Write all pending activity samples to the database in a single transaction
+     */
+    private void flushActivitySamples() {
+        if (pendingActivitySamples.isEmpty()) {
+            return;
+        }
+        final List<BangleJSActivitySample> samples = new ArrayList<>(pendingActivitySamples.values());
+        pendingActivitySamples.clear();
+        try (DBHandler dbHandler = GBApplication.acquireDB()) {
+            final Long userId = getUser(dbHandler.getDaoSession()).getId();
+            final Long deviceId = DBHelper.getDevice(getDevice(), dbHandler.getDaoSession()).getId();
+            BangleJSSampleProvider provider = new BangleJSSampleProvider(getDevice(), dbHandler.getDaoSession());
+            for (BangleJSActivitySample sample : samples) {
+                sample.setDeviceId(deviceId);
+                sample.setUserId(userId);
+            }
+            provider.upsertSamples(samples);
+            LOG.debug("Saved {} activity samples", samples.size());
+        } catch (final Exception ex) {
+            LOG.warn("Error saving activity: " + ex.getLocalizedMessage());
         }
     }
 
@@ -1219,14 +1265,19 @@ public class BangleJSDeviceSupport extends AbstractBTLEDeviceSupport {
             LOG.debug("RX: " + packetStr);
             // logging
             addReceiveHistory(packetStr);
-            // split into input lines
-            receivedLine += packetStr;
-            while (receivedLine.contains("\n")) {
-                int p = receivedLine.indexOf("\n");
-                String line = receivedLine.substring(0,(p>0) ? (p-1) : 0);
-                receivedLine = receivedLine.substring(p+1);
+            // split into input lines - only the new characters need to be scanned for newlines
+            int lineStart = 0;
+            for (int i = 0; i < packetStr.length(); i++) {
+                if (packetStr.charAt(i) != '\n') continue;
+                receivedLine.append(packetStr, lineStart, i);
+                // drop the character before the newline ('\r')
+                int lineLength = receivedLine.length();
+                String line = receivedLine.substring(0, (lineLength>0) ? (lineLength-1) : 0);
+                receivedLine.setLength(0);
+                lineStart = i + 1;
                 handleUartRxLine(line);
             }
+            receivedLine.append(packetStr, lineStart, packetStr.length());
             // Send an intent with new data
             Intent intent = new Intent(BangleJSDeviceSupport.BANGLEJS_COMMAND_RX);
             intent.putExtra("DATA", packetStr);
@@ -2,10 +2,8 @@ package nodomain.freeyourgadget.gadgetbridge.service.devices.cycling_sensor.supp
 
 import android.bluetooth.BluetoothGatt;
 import android.bluetooth.BluetoothGattCharacteristic;
-import android.content.Intent;
 
 import androidx.annotation.NonNull;
-import androidx.localbroadcastmanager.content.LocalBroadcastManager;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -25,13 +23,13 @@ import nodomain.freeyourgadget.gadgetbridge.entities.DaoSession;
 import nodomain.freeyourgadget.gadgetbridge.entities.Device;
 import nodomain.freeyourgadget.gadgetbridge.entities.User;
 import nodomain.freeyourgadget.gadgetbridge.impl.GBDevice;
-import nodomain.freeyourgadget.gadgetbridge.model.DeviceService;
 import nodomain.freeyourgadget.gadgetbridge.service.btle.TransactionBuilder;
 import nodomain.freeyourgadget.gadgetbridge.service.btle.actions.NotifyAction;
 import nodomain.freeyourgadget.gadgetbridge.service.btle.actions.ReadAction;
 import nodomain.freeyourgadget.gadgetbridge.service.btle.actions.SetDeviceStateAction;
 import nodomain.freeyourgadget.gadgetbridge.service.btle.profiles.battery.BatteryInfoProfile;
 import nodomain.freeyourgadget.gadgetbridge.util.Prefs;
+import nodomain.freeyourgadget.gadgetbridge.util.RealtimeSampleStream;
 
 public class CyclingSensorSupport extends CyclingSensorBaseSupport {
     static class CyclingSpeedCadenceMeasurement {
@@ -211,12 +209,7 @@ public class CyclingSensorSupport extends CyclingSensorBaseSupport {
 
         sample.setTimestamp(now);
 
-        Intent liveIntent = new Intent(DeviceService.ACTION_REALTIME_SAMPLES);
-        liveIntent.putExtra(GBDevice.EXTRA_DEVICE, getDevice());
-        liveIntent.putExtra(DeviceService.EXTRA_REALTIME_SAMPLE, sample);
-        liveIntent.putExtra("EXTRA_DEVICE_ADDRESS", getDevice().getAddress());
-        LocalBroadcastManager.getInstance(getContext())
-                .sendBroadcast(liveIntent);
+        RealtimeSampleStream.publish(getDevice(), sample);
 
 
         if(now < nextPersistenceTimestamp){
@@ -91,8 +91,6 @@ import android.bluetooth.BluetoothGattCharacteristic;
 import android.content.Intent;
 import android.widget.Toast;
 
-import androidx.localbroadcastmanager.content.LocalBroadcastManager;
-
 import org.apache.commons.lang3.ArrayUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -134,7 +132,6 @@ import nodomain.freeyourgadget.gadgetbridge.model.ActivitySample;
 import nodomain.freeyourgadget.gadgetbridge.model.ActivityUser;
 import nodomain.freeyourgadget.gadgetbridge.model.Alarm;
 import nodomain.freeyourgadget.gadgetbridge.model.CallSpec;
-import nodomain.freeyourgadget.gadgetbridge.model.DeviceService;
 import nodomain.freeyourgadget.gadgetbridge.model.NotificationSpec;
 import nodomain.freeyourgadget.gadgetbridge.model.Weather;
 import nodomain.freeyourgadget.gadgetbridge.model.WeatherSpec;
@@ -150,6 +147,7 @@ import nodomain.freeyourgadget.gadgetbridge.service.btle.profiles.deviceinfo.Dev
 import nodomain.freeyourgadget.gadgetbridge.util.AlarmUtils;
 import nodomain.freeyourgadget.gadgetbridge.util.DateTimeUtils;
 import nodomain.freeyourgadget.gadgetbridge.util.GB;
+import nodomain.freeyourgadget.gadgetbridge.util.RealtimeSampleStream;
 
 public class FitProDeviceSupport extends AbstractBTLEDeviceSupport {
     private static final Logger LOG = LoggerFactory.getLogger(FitProDeviceSupport.class);
@@ -1327,10 +1325,7 @@ public class FitProDeviceSupport extends AbstractBTLEDeviceSupport {
     }
 
     public void broadcastSample(FitProActivitySample sample) {
-        Intent intent = new Intent(DeviceService.ACTION_REALTIME_SAMPLES)
-                .putExtra(GBDevice.EXTRA_DEVICE, getDevice())
-                .putExtra(DeviceService.EXTRA_REALTIME_SAMPLE, sample);
-        LocalBroadcastManager.getInstance(getContext()).sendBroadcast(intent);
+        RealtimeSampleStream.publish(getDevice(), sample);
     }
 
     public void handleHR(int seconds, int heartRate, int pressureLow, int pressureHigh, int spo2) {
@@ -5,9 +5,13 @@ import androidx.annotation.NonNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.ByteArrayInputStream;
+import java.io.BufferedOutputStream;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.text.SimpleDateFormat;
@@ -27,7 +31,6 @@ import nodomain.freeyourgadget.gadgetbridge.service.devices.garmin.messages.stat
 import nodomain.freeyourgadget.gadgetbridge.service.devices.garmin.messages.status.DownloadRequestStatusMessage;
 import nodomain.freeyourgadget.gadgetbridge.service.devices.garmin.messages.status.FileTransferDataStatusMessage;
 import nodomain.freeyourgadget.gadgetbridge.service.devices.garmin.messages.status.UploadRequestStatusMessage;
-import nodomain.freeyourgadget.gadgetbridge.util.FileUtils;
 
 public class FileTransferHandler implements MessageHandler {
     private static final Logger LOG = LoggerFactory.getLogger(FileTransferHandler.class);
@@ -76,10 +79,40 @@ public class FileTransferHandler implements MessageHandler {
     }
 
     public DownloadRequestMessage downloadDirectoryEntry(DirectoryEntry directoryEntry) {
-        download.setCurrentlyDownloading(new FileFragment(directoryEntry));
+        final FileFragment fileFragment = new FileFragment(directoryEntry);
+        download.setCurrentlyDownloading(fileFragment);
+
+        // resume a previously interrupted download of this file, if any
+        final File partialFile = download.getPartialFile(directoryEntry);
+        if (partialFile != null && partialFile.length() > 0) {
+            if (partialFile.length() < directoryEntry.fileSize) {
+                try {
+                    fileFragment.resumeFrom(partialFile);
+                    LOG.info("Resuming download of {} at offset {}", directoryEntry.getFileName(), fileFragment.resumeOffset);
+                    return new DownloadRequestMessage(directoryEntry.getFileIndex(), 0, DownloadRequestMessage.REQUEST_TYPE.CONTINUE, fileFragment.getRunningCrc(), fileFragment.resumeOffset);
+                } catch (final IOException e) {
+                    LOG.error("Failed to read partial download {}", partialFile, e);
+                    fileFragment.resetResume();
+                }
+            }
+            //noinspection ResultOfMethodCallIgnored
+            partialFile.delete();
+        }
+
         return new DownloadRequestMessage(directoryEntry.getFileIndex(), 0, DownloadRequestMessage.REQUEST_TYPE.NEW, 0, 0);
     }
 
+    /**
+     * Release the file of a download in progress, keeping it so that the download can be resumed.
+     */
+    public void dispose() {
+        final FileFragment fileFragment = download.getCurrentlyDownloading();
+        if (fileFragment != null) {
+            fileFragment.closeOutput();
+            download.setCurrentlyDownloading(null);
+        }
+    }
+
     public DownloadRequestMessage initiateDownload() {
         download.setCurrentlyDownloading(new FileFragment(new DirectoryEntry(0, FileType.FILETYPE.DIRECTORY, 0, 0, 0, 0, null)));
         return new DownloadRequestMessage(0, 0, DownloadRequestMessage.REQUEST_TYPE.NEW, 0, 0);
@@ -110,15 +143,32 @@ public CreateFileMessage initiateUpload(byte[] fileAsByteArray, FileType.FILETYP
             if (!isDownloading())
                 throw new IllegalStateException("Received file transfer of unknown file");
 
-            currentlyDownloading.append(fileTransferDataMessage);
-            if (!currentlyDownloading.dataHolder.hasRemaining())
+            boolean appended = false;
+            try {
+                currentlyDownloading.append(fileTransferDataMessage);
+                appended = true;
+            } catch (final IOException e) {
+                LOG.error("Failed to write downloaded chunk", e);
+            } finally {
+                // also when the chunk was rejected, so that the file is not left open
+                if (!appended) {
+                    currentlyDownloading.closeOutput();
+                    if (currentlyDownloading.received == currentlyDownloading.resumeOffset) {
+                        // the first chunk after the partial file did not match it
+                        discardResume();
+                    }
+                    currentlyDownloading = null;
+                }
+            }
+            if (!appended)
+                return;
+            if (currentlyDownloading.isComplete())
                 processCompleteDownload();
         }
 
         private void processCompleteDownload() {
-            currentlyDownloading.dataHolder.flip();
-
             if (FileType.FILETYPE.DIRECTORY.equals(currentlyDownloading.directoryEntry.filetype)) { //is a directory
+                currentlyDownloading.dataHolder.flip();
                 parseDirectoryEntries();
             } else {
                 saveFileToExternalStorage();
@@ -130,24 +180,68 @@ public CreateFileMessage initiateUpload(byte[] fileAsByteArray, FileType.FILETYP
         public void processDownloadRequestStatusMessage(DownloadRequestStatusMessage downloadRequestStatusMessage) {
             if (null == currentlyDownloading)
                 throw new IllegalStateException("Received file transfer of unknown file");
-            if (downloadRequestStatusMessage.canProceed())
-                currentlyDownloading.setSize(downloadRequestStatusMessage);
-            else
+            if (downloadRequestStatusMessage.canProceed()) {
+                try {
+                    currentlyDownloading.setSize(downloadRequestStatusMessage, getPartialFile(currentlyDownloading.directoryEntry));
+                } catch (final IOException e) {
+                    LOG.error("Failed to start download", e);
+                    currentlyDownloading.closeOutput();
+                    discardResume();
+                    currentlyDownloading = null;
+                }
+            } else {
+                discardResume();
                 currentlyDownloading = null;
+            }
+        }
+
+        /**
+         * The watch did not accept the resume - start from scratch next time.
+         */
+        private void discardResume() {
+            if (currentlyDownloading.resumeOffset == 0) {
+                return;
+            }
+            final File partialFile = getPartialFile(currentlyDownloading.directoryEntry);
+            if (partialFile != null) {
+                //noinspection ResultOfMethodCallIgnored
+                partialFile.delete();
+            }
+        }
+
+        /**
+         * The file the download is written to until it is complete. Null for directories, which
+         * are kept in memory.
+         */
+        private File getPartialFile(final DirectoryEntry directoryEntry) {
+            if (FileType.FILETYPE.DIRECTORY.equals(directoryEntry.filetype)) {
+                return null;
+            }
+            try {
+                return new File(deviceSupport.getWritableExportDirectory(), directoryEntry.getFileName() + ".part");
+            } catch (final IOException e) {
+                LOG.error("Failed to get export directory", e);
+                return null;
+            }
         }
 
         private void saveFileToExternalStorage() {
-            File dir;
-            File outputFile;
+            final File partialFile = getPartialFile(currentlyDownloading.directoryEntry);
+            currentlyDownloading.closeOutput();
+
+            final File outputFile;
             try {
-                dir = deviceSupport.getWritableExportDirectory();
-                outputFile = new File(dir, currentlyDownloading.getFileName());
-                FileUtils.copyStreamToFile(new ByteArrayInputStream(currentlyDownloading.dataHolder.array()), outputFile);
-                outputFile.setLastModified(currentlyDownloading.directoryEntry.fileDate.getTime());
+                outputFile = new File(deviceSupport.getWritableExportDirectory(), currentlyDownloading.getFileName());
             } catch (final IOException e) {
                 LOG.error("Failed to save file", e);
                 return; // do not signal file as saved
             }
+            if (partialFile == null || !partialFile.renameTo(outputFile)) {
+                LOG.error("Failed to move {} to {}", partialFile, outputFile);
+                return; // do not signal file as saved
+            }
+            //noinspection ResultOfMethodCallIgnored
+            outputFile.setLastModified(currentlyDownloading.directoryEntry.fileDate.getTime());
 
             FileDownloadedDeviceEvent fileDownloadedDeviceEvent = new FileDownloadedDeviceEvent();
             fileDownloadedDeviceEvent.directoryEntry = currentlyDownloading.directoryEntry;
@@ -162,6 +256,7 @@ public CreateFileMessage initiateUpload(byte[] fileAsByteArray, FileType.FILETYP
             final GarminByteBufferReader reader = new GarminByteBufferReader(currentlyDownloading.dataHolder.array());
             reader.setByteOrder(ByteOrder.LITTLE_ENDIAN);
             final boolean fetchUnknownFiles = deviceSupport.getDevicePrefs().getFetchUnknownFiles();
+            final Set<String> partialFileNames = new HashSet<>();
             while (reader.remaining() > 0) {
                 final int fileIndex = reader.readShort();//2
                 final int fileDataType = reader.readByte();//3
@@ -183,9 +278,35 @@ public CreateFileMessage initiateUpload(byte[] fileAsByteArray, FileType.FILETYP
                 }
                 LOG.debug("Queueing {} for download", directoryEntry);
                 deviceSupport.addFileToDownloadList(directoryEntry);
+                partialFileNames.add(directoryEntry.getFileName() + ".part");
             }
+            deleteStalePartialFiles(partialFileNames);
             currentlyDownloading = null;
         }
+
+        /**
+         * Delete the partial downloads of files that are not going to be downloaded again, such as
+         * files that were deleted from the watch, as they could never be resumed.
+         */
+        private void deleteStalePartialFiles(final Set<String> partialFileNames) {
+            final File[] files;
+            try {
+                files = deviceSupport.getWritableExportDirectory().listFiles();
+            } catch (final IOException e) {
+                LOG.error("Failed to get export directory", e);
+                return;
+            }
+            if (files == null) {
+                return;
+            }
+            for (final File file : files) {
+                if (file.getName().endsWith(".part") && !partialFileNames.contains(file.getName())) {
+                    LOG.info("Deleting stale partial download {}", file);
+                    //noinspection ResultOfMethodCallIgnored
+                    file.delete();
+                }
+            }
+        }
     }
 
     public static class Upload {
@@ -254,6 +375,11 @@ public CreateFileMessage initiateUpload(byte[] fileAsByteArray, FileType.FILETYP
         private ByteBuffer dataHolder;
         private int runningCrc;
 
+        // downloads of files other than directories are written to disk as they arrive
+        private OutputStream output;
+        private int received;
+        private int resumeOffset;
+
         FileFragment(DirectoryEntry directoryEntry) {
             this.directoryEntry = directoryEntry;
             this.setRunningCrc(0);
@@ -276,24 +402,91 @@ public CreateFileMessage initiateUpload(byte[] fileAsByteArray, FileType.FILETYP
             return directoryEntry.getFileName();
         }
 
-        private void setSize(DownloadRequestStatusMessage downloadRequestStatusMessage) {
+        /**
+         * Prepare to continue the download after the bytes already in partialFile, whose CRC is
+         * needed as the seed for the download request.
+         */
+        private void resumeFrom(final File partialFile) throws IOException {
+            int crc = 0;
+            int length = 0;
+            try (InputStream in = new FileInputStream(partialFile)) {
+                final byte[] buffer = new byte[8192];
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    crc = ChecksumCalculator.computeCrc(crc, buffer, 0, read);
+                    length += read;
+                }
+            }
+            this.resumeOffset = length;
+            this.received = length;
+            setRunningCrc(crc);
+        }
+
+        private void resetResume() {
+            this.resumeOffset = 0;
+            this.received = 0;
+            setRunningCrc(0);
+        }
+
+        private void setSize(DownloadRequestStatusMessage downloadRequestStatusMessage, File partialFile) throws IOException {
             if (0 != getDataSize())
                 throw new IllegalStateException("Data size already set");
 
-            this.setDataSize(downloadRequestStatusMessage.getMaxFileSize());
-            this.dataHolder = ByteBuffer.allocate(getDataSize());
+            final int maxFileSize = downloadRequestStatusMessage.getMaxFileSize();
+            if (resumeOffset > 0) {
+                // the watch may report either the remaining or the total size, anything else means
+                // the partial file does not belong to the file on the watch
+                if (maxFileSize + resumeOffset != directoryEntry.fileSize && maxFileSize != directoryEntry.fileSize) {
+                    throw new IOException("Resumed download of " + directoryEntry.fileSize + " bytes at offset "
+                            + resumeOffset + " reported an unexpected size of " + maxFileSize);
+                }
+                this.setDataSize(directoryEntry.fileSize);
+            } else {
+                if (!FileType.FILETYPE.DIRECTORY.equals(directoryEntry.filetype) && maxFileSize != directoryEntry.fileSize) {
+                    LOG.warn("Download of {} reported a size of {}, expected {}", directoryEntry.getFileName(), maxFileSize, directoryEntry.fileSize);
+                }
+                this.setDataSize(maxFileSize);
+            }
+
+            if (partialFile == null) {
+                this.dataHolder = ByteBuffer.allocate(getDataSize());
+            } else {
+                this.output = new BufferedOutputStream(new FileOutputStream(partialFile, resumeOffset > 0));
+            }
         }
 
-        private void append(FileTransferDataMessage fileTransferDataMessage) {
-            if (fileTransferDataMessage.getDataOffset() != dataHolder.position())
+        private void append(FileTransferDataMessage fileTransferDataMessage) throws IOException {
+            if (fileTransferDataMessage.getDataOffset() != received)
                 throw new IllegalStateException("Received message that was already received");
 
-            final int dataCrc = ChecksumCalculator.computeCrc(getRunningCrc(), fileTransferDataMessage.getMessage(), 0, fileTransferDataMessage.getMessage().length);
+            final byte[] data = fileTransferDataMessage.getMessage();
+            final int dataCrc = ChecksumCalculator.computeCrc(getRunningCrc(), data, 0, data.length);
             if (fileTransferDataMessage.getCrc() != dataCrc)
                 throw new IllegalStateException("Received message with invalid CRC");
             setRunningCrc(dataCrc);
 
-            this.dataHolder.put(fileTransferDataMessage.getMessage());
+            if (output != null) {
+                output.write(data);
+            } else {
+                this.dataHolder.put(data);
+            }
+            received += data.length;
+        }
+
+        private boolean isComplete() {
+            return received >= getDataSize();
+        }
+
+        private void closeOutput() {
+            if (output == null) {
+                return;
+            }
+            try {
+                output.close();
+            } catch (final IOException e) {
+                LOG.error("Failed to close downloaded file", e);
+            }
+            output = null;
         }
 
         private FileTransferDataMessage take() {
@@ -101,6 +101,13 @@ public class GarminSupport extends AbstractBTLEDeviceSupport implements ICommuni
     private boolean mFirstConnect = false;
     private boolean isBusyFetching;
 
+    // files are imported while the remaining ones are still being downloaded - stop requesting
+    // new files while this many are waiting to be imported
+    private static final int MAX_IMPORT_BACKLOG = 4;
+    private FitAsyncProcessor fitImportProcessor;
+    private int filesDownloaded;
+    private long lastTransferNotificationTs;
+
     public GarminSupport() {
         super(LOG);
         addSupportedService(CommunicatorV1.UUID_SERVICE_GARMIN_GFDI);
@@ -125,10 +132,19 @@ public class GarminSupport extends AbstractBTLEDeviceSupport implements ICommuni
     public void dispose() {
         LOG.info("Garmin dispose()");
         GBLocationService.stop(getContext(), getDevice());
+        fileTransferHandler.dispose();
+        synchronized (this) {
+            if (fitImportProcessor != null) {
+                // the files already queued are still imported, but the sync does not continue
+                fitImportProcessor.finish();
+                fitImportProcessor = null;
+                GB.updateTransferNotification(null, "", false, 100, getContext());
+            }
+        }
         super.dispose();
     }
 
-    public void addFileToDownloadList(FileTransferHandler.DirectoryEntry directoryEntry) {
+    public synchronized void addFileToDownloadList(FileTransferHandler.DirectoryEntry directoryEntry) {
         filesToDownload.add(directoryEntry);
     }
 
@@ -301,7 +317,15 @@ public class GarminSupport extends AbstractBTLEDeviceSupport implements ICommuni
                 } catch (final Exception e) {
                     GB.toast(getContext(), "Error saving pending file", Toast.LENGTH_LONG, GB.ERROR, e);
                 }
+
+                // start importing right away, while the next files are downloaded
+                getFitImportProcessor().submit(new File(((FileDownloadedDeviceEvent) deviceEvent).localPath));
+            }
+
+            synchronized (this) {
+                filesDownloaded++;
             }
+            updateFetchNotification();
 
             if (!getKeepActivityDataOnDevice()) { // delete file from watch upon successful download
                 sendOutgoingMessage("archive file " + entry.getFileIndex(), new SetFileFlagsMessage(entry.getFileIndex(), SetFileFlagsMessage.FileFlags.ARCHIVE));
@@ -491,15 +515,22 @@ public class GarminSupport extends AbstractBTLEDeviceSupport implements ICommuni
         }
     }
 
-    private void processDownloadQueue() {
+    private synchronized void processDownloadQueue() {
         if (!filesToDownload.isEmpty() && !fileTransferHandler.isDownloading()) {
             if (!gbDevice.isBusy()) {
                 isBusyFetching = true;
+                filesDownloaded = 0;
                 GB.updateTransferNotification(getContext().getString(R.string.busy_task_fetch_activity_data), "", true, 0, getContext());
                 getDevice().setBusyTask(getContext().getString(R.string.busy_task_fetch_activity_data));
                 getDevice().sendDeviceUpdateIntent(getContext());
             }
 
+            if (fitImportProcessor != null && fitImportProcessor.getQueuedCount() >= MAX_IMPORT_BACKLOG) {
+                // resumed once the importer catches up
+                LOG.debug("Import backlog full, pausing download");
+                return;
+            }
+
             while (!filesToDownload.isEmpty()) {
                 final FileTransferHandler.DirectoryEntry directoryEntry = filesToDownload.remove();
                 if (alreadyDownloaded(directoryEntry)) {
@@ -533,48 +564,103 @@ public class GarminSupport extends AbstractBTLEDeviceSupport implements ICommuni
                 return;
             }
 
-            if (filesToProcess.isEmpty()) {
+            // Keep the device marked as busy while the remaining files are imported, but unset
+            // isBusyFetching so we do not finish the processor multiple times
+            isBusyFetching = false;
+
+            if (filesToProcess.isEmpty() && (fitImportProcessor == null || fitImportProcessor.isFinished())) {
                 LOG.debug("No pending files to process");
                 // No downloaded fit files to process
-                if (gbDevice.isBusy() && isBusyFetching) {
+                if (gbDevice.isBusy()) {
                     getDevice().unsetBusyTask();
                     GB.signalActivityDataFinish(getDevice());
                     GB.updateTransferNotification(null, "", false, 100, getContext());
                     getDevice().sendDeviceUpdateIntent(getContext());
                 }
-                isBusyFetching = false;
                 return;
             }
 
-            // Keep the device marked as busy while we process the files asynchronously, but unset
-            // isBusyFetching so we do not start multiple processors
-            isBusyFetching = false;
+            // Pending files left over from previous syncs (eg. if the app was killed while importing)
+            // are picked up as well - files already submitted in this sync are skipped
+            final FitAsyncProcessor processor = getFitImportProcessor();
+            for (final File file : filesToProcess) {
+                processor.submit(file);
+            }
+            processor.finish();
+        }
+    }
 
-            final FitAsyncProcessor fitAsyncProcessor = new FitAsyncProcessor(getContext(), getDevice());
-            final long[] lastNotificationUpdateTs = new long[]{System.currentTimeMillis()};
-            fitAsyncProcessor.process(filesToProcess, new FitAsyncProcessor.Callback() {
-                @Override
-                public void onProgress(final int i) {
-                    final long now = System.currentTimeMillis();
-                    if (now - lastNotificationUpdateTs[0] > 1500L) {
-                        lastNotificationUpdateTs[0] = now;
-                        GB.updateTransferNotification(
-                                "Parsing fit files", "File " + i + " of " + filesToProcess.size(),
-                                true,
-                                (i * 100) / filesToProcess.size(), getContext()
-                        );
-                    }
+    private synchronized FitAsyncProcessor getFitImportProcessor() {
+        if (fitImportProcessor != null && !fitImportProcessor.isFinished()) {
+            return fitImportProcessor;
+        }
+
+        final FitAsyncProcessor processor = new FitAsyncProcessor(getContext(), getDevice());
+        processor.start(new FitAsyncProcessor.Callback() {
+            @Override
+            public void onProgress(final int i) {
+                if (!isCurrentImportProcessor(processor)) {
+                    return;
                 }
+                updateFetchNotification();
+                // a file was taken from the import queue, so the download may resume
+                processDownloadQueue();
+            }
 
-                @Override
-                public void onFinish() {
-                    getDevice().unsetBusyTask();
-                    GB.signalActivityDataFinish(getDevice());
-                    GB.updateTransferNotification(null, "", false, 100, getContext());
-                    getDevice().sendDeviceUpdateIntent(getContext());
+            @Override
+            public void onFinish() {
+                synchronized (GarminSupport.this) {
+                    if (fitImportProcessor != processor) {
+                        // replaced, or the device was disposed - only announce the imported data
+                        GB.signalActivityDataFinish(getDevice());
+                        return;
+                    }
+                    fitImportProcessor = null;
                 }
-            });
+                getDevice().unsetBusyTask();
+                GB.signalActivityDataFinish(getDevice());
+                GB.updateTransferNotification(null, "", false, 100, getContext());
+                getDevice().sendDeviceUpdateIntent(getContext());
+            }
+        });
+        fitImportProcessor = processor;
+        return processor;
+    }
+
+    private synchronized boolean isCurrentImportProcessor(final FitAsyncProcessor processor) {
+        return fitImportProcessor == processor;
+    }
+
+    /**
+     * Show the download and import progress of the current sync, rate-limited.
+     */
+    private synchronized void updateFetchNotification() {
+        final long now = System.currentTimeMillis();
+        if (now - lastTransferNotificationTs < 1500L) {
+            return;
         }
+        lastTransferNotificationTs = now;
+
+        final String downloaded = getContext().getResources().getQuantityString(R.plurals.fetch_files_downloaded, filesDownloaded, filesDownloaded);
+        final String text;
+        final int percentage;
+        if (fitImportProcessor != null) {
+            final int submitted = fitImportProcessor.getSubmittedCount();
+            final int imported = fitImportProcessor.getProcessedCount();
+            text = getContext().getString(R.string.fetch_files_downloaded_imported, downloaded, imported, submitted);
+            percentage = submitted > 0 ? (imported * 100) / submitted : 0;
+        } else {
+            text = downloaded;
+            percentage = 0;
+        }
+
+        GB.updateTransferNotification(
+                getContext().getString(R.string.busy_task_fetch_activity_data),
+                text,
+                true,
+                percentage,
+                getContext()
+        );
     }
 
     private void enableBatteryLevelUpdate() {
@@ -1,128 +1,213 @@
 package nodomain.freeyourgadget.gadgetbridge.service.devices.garmin.communicator;
 
-import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Queue;
 
 public class CobsCoDec {
     private static final long BUFFER_TIMEOUT = 1500L; // turn this value up while debugging
-    private final ByteBuffer byteBuffer = ByteBuffer.allocate(10_000);
+    private static final int INITIAL_BUFFER_SIZE = 1024;
+
+    private enum State {
+        /** waiting for the leading 0x00 of a frame */
+        IDLE,
+        /** inside a frame, the next byte is a COBS code byte (or the trailing 0x00) */
+        CODE,
+        /** inside a frame, reading the data bytes of a block */
+        DATA,
+    }
+
+    private final Queue<byte[]> decodedMessages = new ArrayDeque<>();
     private long lastUpdate;
-    private byte[] cobsDecodedMessage;
+
+    // decoder state, kept across calls so frames may be split over any number of chunks
+    private State state = State.IDLE;
+    private byte[] decodeBuffer = new byte[INITIAL_BUFFER_SIZE];
+    private int decodedLength = 0;
+    private int blockRemaining = 0;
+    private boolean blockSeen = false;
+    private boolean pendingZero = false;
 
     /**
-     * Accumulates received bytes in a local buffer, clearing it after a timeout, and attempts to
-     * parse it.
+     * Decodes received bytes, keeping incomplete frames across calls and clearing them after a
+     * timeout. Every frame completed by these bytes can then be fetched with {@link #retrieveMessage()}.
      *
      * @param bytes
      */
     public void receivedBytes(byte[] bytes) {
+        receivedBytes(bytes, 0, bytes.length);
+    }
+
+    public void receivedBytes(final byte[] bytes, final int offset, final int length) {
         final long now = System.currentTimeMillis();
         if ((now - lastUpdate) > BUFFER_TIMEOUT) {
             reset();
         }
         lastUpdate = now;
 
-        byteBuffer.put(bytes);
-        decode();
+        decode(bytes, offset, length);
     }
 
     private void reset() {
-        cobsDecodedMessage = null;
-        byteBuffer.clear();
+        state = State.IDLE;
+        resetFrame();
+    }
+
+    private void resetFrame() {
+        decodedLength = 0;
+        blockRemaining = 0;
+        blockSeen = false;
+        pendingZero = false;
     }
 
+    /**
+     * @return the oldest decoded message which was not retrieved yet, or null if there is none
+     */
     public byte[] retrieveMessage() {
-        final byte[] resultPacket = cobsDecodedMessage;
-        cobsDecodedMessage = null;
-        return resultPacket;
+        return decodedMessages.poll();
     }
 
     /**
      * COBS decoding algorithm variant, which relies on a leading and a trailing 0 byte (the former
      * is not part of default implementations).
-     * This function removes the complete message from the internal buffer, if it could be decoded.
+     * The bytes are decoded as they arrive, so every complete frame is emitted regardless of how
+     * the frames are split across chunks.
      */
-    private void decode() {
-        if (cobsDecodedMessage != null) {
-            // packet is waiting, unable to parse more
-            return;
-        }
-        if (byteBuffer.position() < 4) {
-            // minimal payload length including the padding
-            return;
-        }
-        if (0 != byteBuffer.get(byteBuffer.position() - 1))
-            return; //no 0x00 at the end, hence no full packet
-        byteBuffer.position(byteBuffer.position() - 1); //don't process the trailing 0
-        byteBuffer.flip();
-        if (0 != byteBuffer.get())
-            return; //no 0x00 at the start
-        ByteBuffer decodedBytesBuffer = ByteBuffer.allocate(byteBuffer.limit()); //leading and trailing 0x00 bytes
-        while (byteBuffer.hasRemaining()) {
-            byte code = byteBuffer.get();
-            if (code == 0) {
-                break;
-            }
-            int codeValue = code & 0xFF;
-            int payloadSize = codeValue - 1;
-            for (int i = 0; i < payloadSize; i++) {
-                decodedBytesBuffer.put(byteBuffer.get());
-            }
-            if (codeValue != 0xFF && byteBuffer.hasRemaining()) {
-                decodedBytesBuffer.put((byte) 0); // Append a zero byte after the payload
+    private void decode(final byte[] bytes, final int offset, final int length) {
+        final int end = offset + length;
+        for (int i = offset; i < end; i++) {
+            final byte b = bytes[i];
+            switch (state) {
+                case IDLE:
+                    if (b == 0) {
+                        state = State.CODE;
+                        resetFrame();
+                    }
+                    break;
+                case CODE:
+                    if (b == 0) {
+                        if (blockSeen) {
+                            // trailing 0x00 - the frame is complete
+                            if (decodedLength > 0) {
+                                decodedMessages.add(Arrays.copyOf(decodeBuffer, decodedLength));
+                            }
+                            state = State.IDLE;
+                        }
+                        // otherwise, this is just another leading 0x00
+                        resetFrame();
+                        break;
+                    }
+                    if (pendingZero) {
+                        appendDecoded((byte) 0);
+                    }
+                    final int codeValue = b & 0xFF;
+                    blockSeen = true;
+                    blockRemaining = codeValue - 1;
+                    pendingZero = codeValue != 0xFF;
+                    if (blockRemaining > 0) {
+                        ensureDecodeCapacity(blockRemaining);
+                        state = State.DATA;
+                    }
+                    break;
+                case DATA:
+                    if (b == 0) {
+                        // unexpected 0x00 inside a block - drop the partial frame, and treat it as a new start
+                        state = State.CODE;
+                        resetFrame();
+                        break;
+                    }
+                    // copy as much of the block as is available in this chunk
+                    final int count = Math.min(blockRemaining, end - i);
+                    int copied = 0;
+                    while (copied < count && bytes[i + copied] != 0) {
+                        copied++;
+                    }
+                    System.arraycopy(bytes, i, decodeBuffer, decodedLength, copied);
+                    decodedLength += copied;
+                    blockRemaining -= copied;
+                    i += copied - 1;
+                    if (blockRemaining == 0) {
+                        state = State.CODE;
+                    }
+                    break;
             }
         }
+    }
 
-        decodedBytesBuffer.flip();
-        cobsDecodedMessage = new byte[decodedBytesBuffer.remaining()];
-        decodedBytesBuffer.get(cobsDecodedMessage);
-        byteBuffer.compact();
+    private void appendDecoded(final byte b) {
+        ensureDecodeCapacity(1);
+        decodeBuffer[decodedLength++] = b;
+    }
+
+    private void ensureDecodeCapacity(final int count) {
+        if (decodedLength + count > decodeBuffer.length) {
+            decodeBuffer = Arrays.copyOf(decodeBuffer, Math.max(decodeBuffer.length * 2, decodedLength + count));
+        }
+    }
+
+    /**
+     * @return the maximum size of the encoding of a message with the given length, including the
+     * leading and trailing 0 bytes
+     */
+    public static int maxEncodedLength(final int length) {
+        return length + (length / 0xFE) + 3;
     }
 
     // this implementation of COBS relies on a leading and a trailing 0 byte (the former is not part of default implementations)
     public byte[] encode(byte[] data) {
-        ByteBuffer encodedBytesBuffer = ByteBuffer.allocate((data.length * 2) + 1); // Maximum expansion
+        final byte[] encodedBytes = new byte[maxEncodedLength(data.length)];
+        final int encodedLength = encode(data, 0, data.length, encodedBytes, 0);
+        return Arrays.copyOf(encodedBytes, encodedLength);
+    }
 
-        encodedBytesBuffer.put((byte) 0);// Garmin initial padding
-        ByteBuffer buffer = ByteBuffer.wrap(data);
+    /**
+     * Encodes data[offset, offset + length) into out, starting at outOffset. The output buffer
+     * must have room for at least {@link #maxEncodedLength(int)} bytes.
+     *
+     * @return the number of bytes written to out
+     */
+    public int encode(final byte[] data, final int offset, final int length, final byte[] out, final int outOffset) {
+        final int end = offset + length;
+        int outPos = outOffset;
+        int pos = offset;
 
-        while (buffer.position() < buffer.limit()) {
-            int startPos = buffer.position();
-            int zeroIndex = buffer.position();
+        out[outPos++] = 0; // Garmin initial padding
 
-            while (buffer.hasRemaining() && buffer.get() != 0) {
+        while (pos < end) {
+            int startPos = pos;
+            int zeroIndex = pos;
+
+            while (pos < end && data[pos++] != 0) {
                 zeroIndex++;
             }
 
             int payloadSize = zeroIndex - startPos;
 
             while (payloadSize >= 0xFE) {
-                encodedBytesBuffer.put((byte) 0xFF); // Maximum payload size indicator
-                encodedBytesBuffer.put(data, startPos, 0xFE);
+                out[outPos++] = (byte) 0xFF; // Maximum payload size indicator
+                System.arraycopy(data, startPos, out, outPos, 0xFE);
+                outPos += 0xFE;
                 payloadSize -= 0xFE;
                 startPos += 0xFE;
             }
 
-            encodedBytesBuffer.put((byte) (payloadSize + 1));
-            encodedBytesBuffer.put(data, startPos, payloadSize);
+            out[outPos++] = (byte) (payloadSize + 1);
+            System.arraycopy(data, startPos, out, outPos, payloadSize);
+            outPos += payloadSize;
 
-            if (buffer.hasRemaining()) {
+            if (pos < end) {
                 zeroIndex++; // Include the zero byte in the next block
             }
 
-            if (!buffer.hasRemaining() && payloadSize == 0) {
+            if (pos >= end && payloadSize == 0) {
                 break;
             }
 
-            buffer.position(zeroIndex);
+            pos = zeroIndex;
         }
 
-        encodedBytesBuffer.put((byte) 0); // Append a zero byte to indicate end of encoding
-        encodedBytesBuffer.flip();
-
-        byte[] encodedBytes = new byte[encodedBytesBuffer.remaining()];
-        encodedBytesBuffer.get(encodedBytes);
+        out[outPos++] = 0; // Append a zero byte to indicate end of encoding
 
-        return encodedBytes;
+        return outPos - outOffset;
     }
-
 }
@@ -2,18 +2,14 @@ package nodomain.freeyourgadget.gadgetbridge.service.devices.garmin.communicator
 
 import android.bluetooth.BluetoothGatt;
 import android.bluetooth.BluetoothGattCharacteristic;
-import android.content.Intent;
 
 import androidx.annotation.Nullable;
-import androidx.localbroadcastmanager.content.LocalBroadcastManager;
 
-import org.apache.commons.lang3.ArrayUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
-import java.util.Arrays;
 import java.util.Date;
 import java.util.UUID;
 
@@ -28,7 +24,6 @@ import nodomain.freeyourgadget.gadgetbridge.entities.User;
 import nodomain.freeyourgadget.gadgetbridge.impl.GBDevice;
 import nodomain.freeyourgadget.gadgetbridge.model.ActivityKind;
 import nodomain.freeyourgadget.gadgetbridge.model.ActivitySample;
-import nodomain.freeyourgadget.gadgetbridge.model.DeviceService;
 import nodomain.freeyourgadget.gadgetbridge.service.btle.TransactionBuilder;
 import nodomain.freeyourgadget.gadgetbridge.service.btle.actions.SetDeviceStateAction;
 import nodomain.freeyourgadget.gadgetbridge.service.devices.garmin.GarminSupport;
@@ -36,6 +31,7 @@ import nodomain.freeyourgadget.gadgetbridge.service.devices.garmin.GarminTimeUti
 import nodomain.freeyourgadget.gadgetbridge.service.devices.garmin.communicator.CobsCoDec;
 import nodomain.freeyourgadget.gadgetbridge.service.devices.garmin.communicator.ICommunicator;
 import nodomain.freeyourgadget.gadgetbridge.util.GB;
+import nodomain.freeyourgadget.gadgetbridge.util.RealtimeSampleStream;
 
 public class CommunicatorV2 implements ICommunicator {
     private static final Logger LOG = LoggerFactory.getLogger(CommunicatorV2.class);
@@ -107,20 +103,20 @@ public class CommunicatorV2 implements ICommunicator {
             LOG.error("CANNOT SENT GFDI MESSAGE, HANDLE NOT YET SET. MESSAGE {}", message);
             return;
         }
-        final byte[] payload = cobsCoDec.encode(message);
-//        LOG.debug("SENDING MESSAGE: {} - COBS ENCODED: {}", GB.hexdump(message), GB.hexdump(payload));
+        final byte[] payload = new byte[CobsCoDec.maxEncodedLength(message.length)];
+        final int payloadLength = cobsCoDec.encode(message, 0, message.length, payload, 0);
+//        LOG.debug("SENDING MESSAGE: {} - COBS ENCODED: {}", GB.hexdump(message), GB.hexdump(payload, 0, payloadLength));
         final TransactionBuilder builder = new TransactionBuilder(taskName);
-        int remainingBytes = payload.length;
-        if (remainingBytes > maxWriteSize - 1) {
-            int position = 0;
-            while (remainingBytes > 0) {
-                final byte[] fragment = Arrays.copyOfRange(payload, position, position + Math.min(remainingBytes, maxWriteSize - 1));
-                builder.write(characteristicSend, ArrayUtils.addAll(new byte[]{(byte) gfdiHandle}, fragment));
-                position += fragment.length;
-                remainingBytes -= fragment.length;
-            }
-        } else {
-            builder.write(characteristicSend, ArrayUtils.addAll(new byte[]{(byte) gfdiHandle}, payload));
+        int remainingBytes = payloadLength;
+        int position = 0;
+        while (remainingBytes > 0) {
+            final int fragmentLength = Math.min(remainingBytes, maxWriteSize - 1);
+            final byte[] fragment = new byte[fragmentLength + 1];
+            fragment[0] = (byte) gfdiHandle;
+            System.arraycopy(payload, position, fragment, 1, fragmentLength);
+            builder.write(characteristicSend, fragment);
+            position += fragmentLength;
+            remainingBytes -= fragmentLength;
         }
         builder.queue(this.mSupport.getQueue());
     }
@@ -319,7 +315,11 @@ public class CommunicatorV2 implements ICommunicator {
         message.get(partial);
         this.cobsCoDec.receivedBytes(partial);
 
-        this.mSupport.onMessage(this.cobsCoDec.retrieveMessage());
+        // a single chunk may complete several messages
+        byte[] decodedMessage;
+        while ((decodedMessage = this.cobsCoDec.retrieveMessage()) != null) {
+            this.mSupport.onMessage(decodedMessage);
+        }
     }
 
     private void processRealtimeHeartRate(final ByteBuffer buf) {
@@ -432,10 +432,7 @@ public class CommunicatorV2 implements ICommunicator {
             return;
         }
 
-        final Intent intent = new Intent(DeviceService.ACTION_REALTIME_SAMPLES)
-                .putExtra(GBDevice.EXTRA_DEVICE, mSupport.getDevice())
-                .putExtra(DeviceService.EXTRA_REALTIME_SAMPLE, sample);
-        LocalBroadcastManager.getInstance(mSupport.getContext()).sendBroadcast(intent);
+        RealtimeSampleStream.publish(mSupport.getDevice(), sample);
     }
 
     private enum RequestType {
@@ -7,7 +7,11 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
+import java.util.ArrayDeque;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Queue;
+import java.util.Set;
 
 import nodomain.freeyourgadget.gadgetbridge.GBApplication;
 import nodomain.freeyourgadget.gadgetbridge.database.DBHandler;
@@ -22,6 +26,12 @@ public class FitAsyncProcessor {
     private final GBDevice gbDevice;
     private final Handler handler;
 
+    private final Queue<File> queue = new ArrayDeque<>();
+    private final Set<String> submittedPaths = new HashSet<>();
+    private Callback callback;
+    private boolean finished = false;
+    private int processed = 0;
+
     public FitAsyncProcessor(final Context context, final GBDevice gbDevice) {
         this.context = context;
         this.gbDevice = gbDevice;
@@ -34,40 +44,120 @@ public class FitAsyncProcessor {
     public void process(final List<File> files, final Callback callback) {
         LOG.debug("Starting processor for {} files", files.size());
 
-        new Thread(() -> {
-            try {
-                int i = 0;
-                for (final File file : files) {
-                    i++;
-                    LOG.debug("Parsing {}", file);
-
-                    final int finalI = i;
-                    FitAsyncProcessor.this.handler.post(() -> callback.onProgress(finalI));
-
-                    try {
-                        final FitImporter fitImporter = new FitImporter(context, gbDevice);
-                        fitImporter.importFile(file);
-                    } catch (final Exception ex) {
-                        LOG.error("Exception while importing {}", file, ex);
-                        continue; // do not remove from pending files
-                    }
-
-                    try (DBHandler handler = GBApplication.acquireDB()) {
-                        final DaoSession session = handler.getDaoSession();
-
-                        final PendingFileProvider pendingFileProvider = new PendingFileProvider(gbDevice, session);
-
-                        pendingFileProvider.removePendingFile(file.getPath());
-                    } catch (final Exception e) {
-                        LOG.error("Exception while removing pending file {}", file, e);
-                    }
-                }
-            } catch (final Exception e) {
-                LOG.error("Failed to parse from storage", e);
+        start(callback);
+        for (final File file : files) {
+            submit(file);
+        }
+        finish();
+    }
+
+    /**
+     * Start processing files as they are {@link #submit(File) submitted}, until {@link #finish()}
+     * is called and all of them were processed. Callback is executed on the UI thread.
+     */
+    public synchronized void start(final Callback callback) {
+        if (this.callback != null) {
+            throw new IllegalStateException("Processor already started");
+        }
+        this.callback = callback;
+
+        new Thread(this::run, "FitAsyncProcessor").start();
+    }
+
+    /**
+     * Queue a file for processing. Files that were already submitted to this processor are ignored.
+     *
+     * @return whether the file was queued
+     */
+    public synchronized boolean submit(final File file) {
+        if (finished) {
+            throw new IllegalStateException("Processor already finished");
+        }
+        if (!submittedPaths.add(file.getPath())) {
+            return false;
+        }
+        queue.add(file);
+        notifyAll();
+        return true;
+    }
+
+    /**
+     * No more files will be submitted - the callback is notified once the queued ones are processed.
+     */
+    public synchronized void finish() {
+        finished = true;
+        notifyAll();
+    }
+
+    public synchronized boolean isFinished() {
+        return finished;
+    }
+
+    /**
+     * @return the number of files that were submitted but are not being processed yet
+     */
+    public synchronized int getQueuedCount() {
+        return queue.size();
+    }
+
+    public synchronized int getSubmittedCount() {
+        return submittedPaths.size();
+    }
+
+    public synchronized int getProcessedCount() {
+        return processed;
+    }
+
+    private synchronized File takeNext() throws InterruptedException {
+        while (queue.isEmpty() && !finished) {
+            wait();
+        }
+        return queue.poll();
+    }
+
+    private synchronized void markProcessed() {
+        processed++;
+    }
+
+    private void run() {
+        try {
+            File file;
+            int i = 0;
+            while ((file = takeNext()) != null) {
+                i++;
+                LOG.debug("Parsing {}", file);
+
+                final int finalI = i;
+                FitAsyncProcessor.this.handler.post(() -> callback.onProgress(finalI));
+
+                processFile(file);
+                markProcessed();
             }
+        } catch (final Exception e) {
+            LOG.error("Failed to parse from storage", e);
+        }
+
+        FitAsyncProcessor.this.handler.post(callback::onFinish);
+    }
+
+    private void processFile(final File file) {
+        try {
+            final FitImporter fitImporter = new FitImporter(context, gbDevice);
+            fitImporter.importFile(file);
+        } catch (final Exception ex) {
+            LOG.error("Exception while importing {}", file, ex);
+            return; // do not remove from pending files
+        }
+
+        try (DBHandler handler = GBApplication.acquireDB()) {
+            final DaoSession session = handler.getDaoSession();
+
+            final PendingFileProvider pendingFileProvider = new PendingFileProvider(gbDevice, session);
 
-            FitAsyncProcessor.this.handler.post(callback::onFinish);
-        }).start();
+            pendingFileProvider.removePendingFile(file.getPath());
+        } catch (final Exception e) {
+            LOG.error("Exception while removing pending file {}", file, e);
+        }
     }
 
     public interface Callback {
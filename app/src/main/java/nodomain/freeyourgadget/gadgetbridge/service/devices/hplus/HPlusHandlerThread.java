@@ -18,9 +18,6 @@
 package nodomain.freeyourgadget.gadgetbridge.service.devices.hplus;
 
 import android.content.Context;
-import android.content.Intent;
-
-import androidx.localbroadcastmanager.content.LocalBroadcastManager;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -46,9 +43,10 @@ import nodomain.freeyourgadget.gadgetbridge.entities.HPlusHealthActivitySample;
 import nodomain.freeyourgadget.gadgetbridge.impl.GBDevice;
 import nodomain.freeyourgadget.gadgetbridge.model.ActivityKind;
 import nodomain.freeyourgadget.gadgetbridge.model.ActivitySample;
-import nodomain.freeyourgadget.gadgetbridge.model.DeviceService;
+import nodomain.freeyourgadget.gadgetbridge.model.SampleCaches;
 import nodomain.freeyourgadget.gadgetbridge.service.btle.TransactionBuilder;
 import nodomain.freeyourgadget.gadgetbridge.service.serial.GBDeviceIoThread;
+import nodomain.freeyourgadget.gadgetbridge.util.RealtimeSampleStream;
 
 
 class HPlusHandlerThread extends GBDeviceIoThread {
@@ -335,6 +333,10 @@ class HPlusHandlerThread extends GBDeviceIoThread {
                     overlayDao.insertOrReplaceInTx(overlayList);
                 }
 
+                // the samples and overlays are written directly, not through the sample provider
+                if (!samples.isEmpty()) {
+                    SampleCaches.onSamplesWritten(getDevice(), samples.get(0).getTimestamp(), samples.get(samples.size() - 1).getTimestamp() + 10 * 60);
+                }
             } catch (GBException ex) {
                 LOG.info((ex.getMessage()));
             } catch (Exception ex) {
@@ -383,6 +385,9 @@ class HPlusHandlerThread extends GBDeviceIoThread {
             }
 
             overlayDao.insertOrReplaceInTx(overlayList);
+            for (HPlusDataRecord.RecordInterval interval : intervals) {
+                SampleCaches.onSamplesWritten(getDevice(), interval.timestampFrom, interval.timestampTo);
+            }
 
             //Store the data
             HPlusHealthActivitySample sample = createSample(dbHandler, record.timestamp);
@@ -445,11 +450,7 @@ class HPlusHandlerThread extends GBDeviceIoThread {
 
             sample.setSteps(sample.getSteps() - prevRealTimeRecord.steps);
 
-            Intent intent = new Intent(DeviceService.ACTION_REALTIME_SAMPLES)
-                    .putExtra(GBDevice.EXTRA_DEVICE, getDevice())
-                    .putExtra(DeviceService.EXTRA_REALTIME_SAMPLE, sample)
-                    .putExtra(DeviceService.EXTRA_TIMESTAMP, System.currentTimeMillis());
-            LocalBroadcastManager.getInstance(getContext()).sendBroadcast(intent);
+            RealtimeSampleStream.publish(getDevice(), sample);
 
 
             //TODO: Handle Active Time. With Overlay?
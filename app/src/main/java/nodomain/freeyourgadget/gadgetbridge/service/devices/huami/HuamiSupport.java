@@ -188,6 +188,7 @@ import nodomain.freeyourgadget.gadgetbridge.util.AlarmUtils;
 import nodomain.freeyourgadget.gadgetbridge.util.GB;
 import nodomain.freeyourgadget.gadgetbridge.util.NotificationUtils;
 import nodomain.freeyourgadget.gadgetbridge.util.Prefs;
+import nodomain.freeyourgadget.gadgetbridge.util.RealtimeSampleStream;
 import nodomain.freeyourgadget.gadgetbridge.util.StringUtils;
 import nodomain.freeyourgadget.gadgetbridge.util.Version;
 
@@ -2615,10 +2616,7 @@ public abstract class HuamiSupport extends AbstractBTLEDeviceSupport implements
                             LOG.debug("realtime sample: " + sample);
                         }
 
-                        Intent intent = new Intent(DeviceService.ACTION_REALTIME_SAMPLES)
-                                .putExtra(GBDevice.EXTRA_DEVICE, getDevice())
-                                .putExtra(DeviceService.EXTRA_REALTIME_SAMPLE, sample);
-                        LocalBroadcastManager.getInstance(getContext()).sendBroadcast(intent);
+                        RealtimeSampleStream.publish(getDevice(), sample);
 
                     } catch (Exception e) {
                         LOG.warn("Unable to acquire db for saving realtime samples", e);
@@ -3110,9 +3108,6 @@ public abstract class HuamiSupport extends AbstractBTLEDeviceSupport implements
         MiBandConst.DistanceUnit unit = HuamiCoordinator.getDistanceUnit();
         int tz_offset_hours = SimpleTimeZone.getDefault().getOffset(weatherSpec.timestamp * 1000L) / (1000 * 60 * 60);
         try {
-            TransactionBuilder builder;
-            builder = performInitialized("Sending current temp");
-
             byte condition = HuamiWeatherConditions.mapToAmazfitBipWeatherCode(weatherSpec.currentConditionCode);
 
             int length = 8;
@@ -3138,20 +3133,12 @@ public abstract class HuamiSupport extends AbstractBTLEDeviceSupport implements
                 buf.put((byte) 0);
             }
 
-            if (characteristicChunked != null) {
-                writeToChunked(builder, 1, buf.array());
-            } else {
-                builder.write(getCharacteristic(AmazfitBipService.UUID_CHARACTERISTIC_WEATHER), buf.array());
-            }
-
-            builder.queue(getQueue());
+            writeWeather("Sending current temp", buf.array(), false);
         } catch (Exception ex) {
             LOG.error("Error sending current weather", ex);
         }
 
         try {
-            TransactionBuilder builder;
-            builder = performInitialized("Sending air quality index");
             int length = 8;
             String aqiString = "(n/a)";
             if (supportsConditionString) {
@@ -3168,19 +3155,12 @@ public abstract class HuamiSupport extends AbstractBTLEDeviceSupport implements
                 buf.put((byte) 0);
             }
 
-            if (characteristicChunked != null) {
-                writeToChunked(builder, 1, buf.array());
-            } else {
-                builder.write(getCharacteristic(AmazfitBipService.UUID_CHARACTERISTIC_WEATHER), buf.array());
-            }
-
-            builder.queue(getQueue());
+            writeWeather("Sending air quality index", buf.array(), false);
         } catch (IOException ex) {
             LOG.error("Error sending air quality");
         }
 
         try {
-            TransactionBuilder builder = performInitialized("Sending weather forecast");
             if (weatherSpec.forecasts.size() > 6) { //TDOD: find out the limits for each device
                 weatherSpec.forecasts.subList(6, weatherSpec.forecasts.size()).clear();
             }
@@ -3244,21 +3224,12 @@ public abstract class HuamiSupport extends AbstractBTLEDeviceSupport implements
                 }
             }
 
-            if (characteristicChunked != null) {
-                writeToChunked(builder, 1, buf.array());
-            } else {
-                builder.write(getCharacteristic(AmazfitBipService.UUID_CHARACTERISTIC_WEATHER), buf.array());
-            }
-
-            builder.queue(getQueue());
+            writeWeather("Sending weather forecast", buf.array(), false);
         } catch (Exception ex) {
             LOG.error("Error sending weather forecast", ex);
         }
 
         try {
-            TransactionBuilder builder;
-            builder = performInitialized("Sending forecast location");
-
             int length = 2 + weatherSpec.location.getBytes().length;
             ByteBuffer buf = ByteBuffer.allocate(length);
             buf.order(ByteOrder.LITTLE_ENDIAN);
@@ -3267,22 +3238,13 @@ public abstract class HuamiSupport extends AbstractBTLEDeviceSupport implements
             buf.put((byte) 0);
 
 
-            if (characteristicChunked != null) {
-                writeToChunked(builder, 1, buf.array());
-            } else {
-                builder.write(getCharacteristic(AmazfitBipService.UUID_CHARACTERISTIC_WEATHER), buf.array());
-            }
-
-            builder.queue(getQueue());
+            writeWeather("Sending forecast location", buf.array(), false);
         } catch (Exception ex) {
             LOG.error("Error sending current forecast location", ex);
         }
 
         if (supportsSunriseSunsetWindHumidity()) {
             try {
-                TransactionBuilder builder;
-                builder = performInitialized("Sending wind/humidity");
-
                 String windString = this.windSpeedString(weatherSpec);
                 String humidityString = weatherSpec.currentHumidity + "%";
 
@@ -3297,8 +3259,7 @@ public abstract class HuamiSupport extends AbstractBTLEDeviceSupport implements
                 buf.put((byte) 0);
                 buf.put(humidityString.getBytes());
                 buf.put((byte) 0);
-                writeToChunked(builder, 1, buf.array());
-                builder.queue(getQueue());
+                writeWeather("Sending wind/humidity", buf.array(), true);
             } catch (Exception ex) {
                 LOG.error("Error sending wind/humidity", ex);
             }
@@ -3318,9 +3279,6 @@ public abstract class HuamiSupport extends AbstractBTLEDeviceSupport implements
 
                 if (sunriseTransitSet.getSunrise() != null && sunriseTransitSet.getSunset() != null) {
                     try {
-                        TransactionBuilder builder;
-                        builder = performInitialized("Sending sunrise/sunset");
-
                         ByteBuffer buf = ByteBuffer.allocate(10);
                         buf.order(ByteOrder.LITTLE_ENDIAN);
                         buf.put((byte) 16);
@@ -3331,14 +3289,34 @@ public abstract class HuamiSupport extends AbstractBTLEDeviceSupport implements
                         buf.put((byte) sunriseTransitSet.getSunset().getHour());
                         buf.put((byte) sunriseTransitSet.getSunset().getMinute());
 
-                        writeToChunked(builder, 1, buf.array());
-                        builder.queue(getQueue());
+                        writeWeather("Sending sunrise/sunset", buf.array(), true);
                     } catch (Exception ex) {
                         LOG.error("Error sending sunset/sunrise", ex);
                     }
                 }
             }
         }
+
+        getWeatherSendCache().logStats();
+    }
+
+    /**
+     * Write a weather section to the device, unless the exact same bytes were already sent.
+     */
+    private void writeWeather(final String taskName, final byte[] payload, final boolean chunkedOnly) throws IOException {
+        if (getWeatherSendCache().isUnchanged(taskName, payload)) {
+            return;
+        }
+
+        final TransactionBuilder builder = performInitialized(taskName);
+        if (chunkedOnly || characteristicChunked != null) {
+            writeToChunked(builder, 1, payload);
+        } else {
+            builder.write(getCharacteristic(AmazfitBipService.UUID_CHARACTERISTIC_WEATHER), payload);
+        }
+        builder.queue(getQueue());
+
+        getWeatherSendCache().markSent(taskName, payload);
     }
 
     protected HuamiSupport setDateDisplay(TransactionBuilder builder) {
@@ -102,6 +102,7 @@ import nodomain.freeyourgadget.gadgetbridge.model.NotificationSpec;
 import nodomain.freeyourgadget.gadgetbridge.model.RecordedDataTypes;
 import nodomain.freeyourgadget.gadgetbridge.model.WeatherSpec;
 
+import nodomain.freeyourgadget.gadgetbridge.service.WeatherSendCache;
 import nodomain.freeyourgadget.gadgetbridge.service.btle.actions.SetDeviceStateAction;
 import nodomain.freeyourgadget.gadgetbridge.service.devices.huawei.p2p.HuaweiP2PCalendarService;
 import nodomain.freeyourgadget.gadgetbridge.service.devices.huawei.p2p.HuaweiP2PTrackService;
@@ -443,6 +444,7 @@ public class HuaweiSupportProvider {
 
     protected void initializeDevice(final Request linkParamsReq) {
         deviceMac = this.gbDevice.getAddress();
+        getWeatherSendCache().clear();
         createRandomMacAddress();
         createAndroidID();
         try {
@@ -1677,6 +1679,7 @@ public class HuaweiSupportProvider {
         try (DBHandler db = GBApplication.acquireDB()) {
             HuaweiWorkoutDataSampleDao dao = db.getDaoSession().getHuaweiWorkoutDataSampleDao();
 
+            List<HuaweiWorkoutDataSample> dataSamples = new ArrayList<>(dataList.size());
             for (Workout.WorkoutData.Response.Data data : dataList) {
                 byte[] unknown;
                 if (data.unknownData == null)
@@ -1707,8 +1710,9 @@ public class HuaweiSupportProvider {
                         data.frequency,
                         data.altitude
                 );
-                dao.insertOrReplace(dataSample);
+                dataSamples.add(dataSample);
             }
+            dao.insertOrReplaceInTx(dataSamples);
         } catch (Exception e) {
             LOG.error("Failed to add workout data to database", e);
         }
@@ -1729,6 +1733,7 @@ public class HuaweiSupportProvider {
             }
 
             int paceIndex = (int) dao.queryBuilder().where(HuaweiWorkoutPaceSampleDao.Properties.WorkoutId.eq(workoutId)).count();
+            List<HuaweiWorkoutPaceSample> paceSamples = new ArrayList<>(paceList.size());
             for (Workout.WorkoutPace.Response.Block block : paceList) {
 
                 Integer correction = block.hasCorrection ? (int) block.correction : null;
@@ -1741,8 +1746,9 @@ public class HuaweiSupportProvider {
                         block.pointIndex,
                         correction
                 );
-                dao.insertOrReplace(paceSample);
+                paceSamples.add(paceSample);
             }
+            dao.insertOrReplaceInTx(paceSamples);
         } catch (Exception e) {
             LOG.error("Failed to add workout pace data to database", e);
         }
@@ -1764,6 +1770,7 @@ public class HuaweiSupportProvider {
             }
 
             int paceIndex = (int) dao.queryBuilder().where(HuaweiWorkoutSwimSegmentsSampleDao.Properties.WorkoutId.eq(workoutId)).count();
+            List<HuaweiWorkoutSwimSegmentsSample> swimSegmentsSamples = new ArrayList<>(paceList.size());
             for (Workout.WorkoutSwimSegments.Response.Block block : paceList) {
                 HuaweiWorkoutSwimSegmentsSample swimSectionSample = new HuaweiWorkoutSwimSegmentsSample(
                         workoutId,
@@ -1778,8 +1785,9 @@ public class HuaweiSupportProvider {
                         block.avgSwolf,
                         block.time
                 );
-                dao.insertOrReplace(swimSectionSample);
+                swimSegmentsSamples.add(swimSectionSample);
             }
+            dao.insertOrReplaceInTx(swimSegmentsSamples);
         } catch (Exception e) {
             LOG.error("Failed to add workout swim section data to database", e);
         }
@@ -1987,6 +1995,14 @@ public class HuaweiSupportProvider {
         return huaweiWeatherManager.openWeatherMapConditionCodeToHuaweiIcon(conditionCode);
     }
 
+    public WeatherSendCache getWeatherSendCache() {
+        if (isBLE()) {
+            return leSupport.getWeatherSendCache();
+        } else {
+            return brSupport.getWeatherSendCache();
+        }
+    }
+
     public void onSendWeather(ArrayList<WeatherSpec> weatherSpecs) {
         huaweiWeatherManager.sendWeather(weatherSpecs.get(0));
     }
@@ -21,6 +21,7 @@ import android.widget.Toast;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Date;
@@ -44,8 +45,11 @@ import nodomain.freeyourgadget.gadgetbridge.util.GB;
 public class HuaweiWeatherManager {
     private static final Logger LOG = LoggerFactory.getLogger(HuaweiWeatherManager.class);
 
+    private static final String WEATHER_CACHE_SECTION = "weather";
+
     private final HuaweiSupportProvider supportProvider;
     private boolean syncInProgress;
+    private byte[] pendingWeatherPayload;
 
     public HuaweiWeatherManager(HuaweiSupportProvider supportProvider) {
         this.supportProvider = supportProvider;
@@ -126,6 +130,12 @@ public class HuaweiWeatherManager {
     private final Request.RequestCallback lastHandler = new Request.RequestCallback() {
         @Override
         public void call() {
+            final byte[] payload = pendingWeatherPayload;
+            if (payload != null) {
+                supportProvider.getWeatherSendCache().markSent(WEATHER_CACHE_SECTION, payload);
+                supportProvider.getWeatherSendCache().logStats();
+            }
+
             synchronized (this) {
                 HuaweiWeatherManager.this.syncInProgress = false;
             }
@@ -191,6 +201,38 @@ public class HuaweiWeatherManager {
         }
     }
 
+    /**
+     * The plaintext of the weather packets, to compare with what was sent last. The packets are
+     * built with every field enabled, as the settings are only known after the watch responded,
+     * and the encrypted packets cannot be compared as the IV changes for every packet.
+     */
+    private byte[] encodeWeatherPayload(WeatherSpec weatherSpec) {
+        Weather.Settings allFields = new Weather.Settings();
+        allFields.weatherSupported = true;
+        allFields.windSupported = true;
+        allFields.pm25Supported = true;
+        allFields.temperatureSupported = true;
+        allFields.locationNameSupported = true;
+        allFields.currentTemperatureSupported = true;
+        allFields.unitSupported = true;
+        allFields.airQualityIndexSupported = true;
+        allFields.timeSupported = true;
+        allFields.sourceSupported = true;
+        allFields.weatherIconSupported = true;
+        allFields.sunRiseSetSupported = true;
+        allFields.moonPhaseSupported = true;
+        allFields.uvIndexSupported = true;
+
+        ByteArrayOutputStream payload = new ByteArrayOutputStream();
+        byte[] current = SendWeatherCurrentRequest.createPacket(supportProvider, allFields, weatherSpec).getTlv().serialize();
+        payload.write(current, 0, current.length);
+        if (supportProvider.getHuaweiCoordinator().supportsWeatherForecasts()) {
+            byte[] forecast = SendWeatherForecastRequest.createPacket(supportProvider, allFields, weatherSpec).getTlv().serialize();
+            payload.write(forecast, 0, forecast.length);
+        }
+        return payload.toByteArray();
+    }
+
     public void sendWeather(WeatherSpec weatherSpec) {
         // Initialize weather settings and send weather
         if (!supportProvider.getHuaweiCoordinator().supportsWeather()) {
@@ -209,6 +251,16 @@ public class HuaweiWeatherManager {
 
         fixupWeather(weatherSpec);
 
+        // The whole weather sequence is needed for the watch to accept the weather, so it is sent
+        // or skipped as a whole
+        byte[] payload = encodeWeatherPayload(weatherSpec);
+        if (supportProvider.getWeatherSendCache().isUnchanged(WEATHER_CACHE_SECTION, payload)) {
+            supportProvider.getWeatherSendCache().logStats();
+            sendGpsAndTime();
+            return;
+        }
+        pendingWeatherPayload = payload;
+
         Weather.Settings weatherSettings = new Weather.Settings();
         weatherSettings.uvIndexSupported = supportProvider.getHuaweiCoordinator().supportsWeatherUvIndex();
 
@@ -273,9 +325,29 @@ public class HuaweiWeatherManager {
         }
     }
 
+    /**
+     * Only sends the time and location, which are not part of the weather and always need to be
+     * refreshed, if the weather itself did not change.
+     */
+    private void sendGpsAndTime() {
+        pendingWeatherPayload = null;
+
+        SendGpsAndTimeToDeviceRequest sendGpsAndTimeToDeviceRequest = new SendGpsAndTimeToDeviceRequest(supportProvider);
+        sendGpsAndTimeToDeviceRequest.setFinalizeReq(lastHandler);
+        try {
+            sendGpsAndTimeToDeviceRequest.doPerform();
+        } catch (IOException e) {
+            LOG.error("Failed to send time and location", e);
+            synchronized (this) {
+                syncInProgress = false;
+            }
+        }
+    }
+
     public void handleAsyncMessage(HuaweiPacket response) {
         if (response.getTlv().getInteger(0x7f, -1) == 0x000186AA) {
-            // Send weather
+            // Send weather, the watch asks for it when it has none to show
+            supportProvider.getWeatherSendCache().remove(WEATHER_CACHE_SECTION);
             final ArrayList<WeatherSpec> specs = new ArrayList<>(nodomain.freeyourgadget.gadgetbridge.model.Weather.getInstance().getWeatherSpecs());
             this.sendWeather(specs.get(0));
             return;
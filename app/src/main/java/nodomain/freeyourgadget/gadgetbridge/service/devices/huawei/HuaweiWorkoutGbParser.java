@@ -21,15 +21,19 @@ import android.widget.Toast;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import de.greenrobot.dao.query.CloseableListIterator;
 import de.greenrobot.dao.query.QueryBuilder;
@@ -59,6 +63,7 @@ import nodomain.freeyourgadget.gadgetbridge.model.ActivitySummaryData;
 import nodomain.freeyourgadget.gadgetbridge.model.ActivitySummaryEntries;
 import nodomain.freeyourgadget.gadgetbridge.model.ActivitySummaryParser;
 import nodomain.freeyourgadget.gadgetbridge.util.GB;
+import nodomain.freeyourgadget.gadgetbridge.util.Prefs;
 import nodomain.freeyourgadget.gadgetbridge.util.StringUtils;
 
 /**
@@ -69,6 +74,13 @@ import nodomain.freeyourgadget.gadgetbridge.util.StringUtils;
 public class HuaweiWorkoutGbParser implements ActivitySummaryParser {
     private static final Logger LOG = LoggerFactory.getLogger(HuaweiWorkoutGbParser.class);
 
+    /**
+     * Increase when the parsing of the workouts changes, so that the existing workouts are parsed
+     * again on the next reparse.
+     */
+    public static final int PARSER_VERSION = 1;
+    private static final String PREF_PARSER_VERSION = "huawei_workout_parser_version";
+
     // TODO: Might be nicer to propagate the exceptions, so they can be handled upstream
 
     private final GBDevice gbDevice;
@@ -238,14 +250,34 @@ public class HuaweiWorkoutGbParser implements ActivitySummaryParser {
         }
     }
 
+    /**
+     * Parses the workouts that do not have a summary yet. If the parser version changed since the
+     * last run, all the workouts are parsed again, along with the workout data that was previously
+     * not understood.
+     */
     public void parseAllWorkouts() {
-        parseUnknownWorkoutData();
+        final Prefs prefs = GBApplication.getPrefs();
+        final boolean parserChanged = prefs.getInt(PREF_PARSER_VERSION, 0) != PARSER_VERSION;
+
+        // if this fails, try again on the next run instead of saving the new parser version
+        final boolean unknownDataParsed = !parserChanged || parseUnknownWorkoutData();
 
         try (DBHandler db = GBApplication.acquireDB()) {
             final DaoSession session = db.getDaoSession();
+            final Set<String> parsedWorkouts = parserChanged ? Collections.emptySet() : getParsedWorkouts(session);
+
+            int parsed = 0;
             QueryBuilder<HuaweiWorkoutSummarySample> qb = session.getHuaweiWorkoutSummarySampleDao().queryBuilder();
             for (HuaweiWorkoutSummarySample summary : qb.listLazy()) {
-                parseWorkout(session, summary.getWorkoutId(), summary.getDeviceId());
+                if (parsedWorkouts.contains(summaryKey(summary.getDeviceId(), summary.getStartTimestamp() * 1000L)))
+                    continue;
+                session.runInTx(() -> parseWorkout(session, summary.getWorkoutId(), summary.getDeviceId()));
+                parsed++;
+            }
+            LOG.debug("Parsed {} workouts, parser changed: {}", parsed, parserChanged);
+
+            if (unknownDataParsed) {
+                prefs.getPreferences().edit().putInt(PREF_PARSER_VERSION, PARSER_VERSION).apply();
             }
         } catch (Exception e) {
             GB.toast("Exception parsing workouts", Toast.LENGTH_SHORT, GB.ERROR, e);
@@ -253,15 +285,43 @@ public class HuaweiWorkoutGbParser implements ActivitySummaryParser {
         }
     }
 
+    private static Set<String> getParsedWorkouts(final DaoSession session) {
+        final Set<String> parsedWorkouts = new HashSet<>();
+        try (CloseableListIterator<BaseActivitySummary> it = session.getBaseActivitySummaryDao().queryBuilder().listIterator()) {
+            while (it.hasNext()) {
+                final BaseActivitySummary summary = it.next();
+                parsedWorkouts.add(summaryKey(summary.getDeviceId(), summary.getStartTime().getTime()));
+            }
+        } catch (final IOException e) {
+            LOG.warn("Failed to close summary iterator", e);
+        }
+        return parsedWorkouts;
+    }
+
+    private static String summaryKey(final long deviceId, final long startTimeMillis) {
+        return deviceId + "/" + startTimeMillis;
+    }
+
     /**
      * Parses the unknown data from the workout data table
+     *
+     * @return whether all the data was parsed
      */
-    private static void parseUnknownWorkoutData() {
+    private static boolean parseUnknownWorkoutData() {
         try (DBHandler dbHandler = GBApplication.acquireDB()) {
-            QueryBuilder<HuaweiWorkoutDataSample> qb = dbHandler.getDaoSession().getHuaweiWorkoutDataSampleDao().queryBuilder().where(
+            final HuaweiWorkoutDataSampleDao dao = dbHandler.getDaoSession().getHuaweiWorkoutDataSampleDao();
+            QueryBuilder<HuaweiWorkoutDataSample> qb = dao.queryBuilder().where(
                     HuaweiWorkoutDataSampleDao.Properties.DataErrorHex.notEq("")
-            );
+            ).orderAsc(HuaweiWorkoutDataSampleDao.Properties.WorkoutId);
+
+            // The samples of each workout are written in a single transaction
+            final List<HuaweiWorkoutDataSample> workoutSamples = new ArrayList<>();
             for (HuaweiWorkoutDataSample sample : qb.build().listLazy()) {
+                if (!workoutSamples.isEmpty() && workoutSamples.get(0).getWorkoutId() != sample.getWorkoutId()) {
+                    dao.insertOrReplaceInTx(workoutSamples);
+                    workoutSamples.clear();
+                }
+
                 byte[] data = GB.hexStringToByteArray(new String(sample.getDataErrorHex()));
                 Workout.WorkoutData.Response response = new Workout.WorkoutData.Response(data);
 
@@ -296,12 +356,17 @@ public class HuaweiWorkoutGbParser implements ActivitySummaryParser {
                             responseData.altitude
                     );
 
-                    dbHandler.getDaoSession().getHuaweiWorkoutDataSampleDao().insertOrReplace(dataSample);
+                    workoutSamples.add(dataSample);
                 }
             }
+            if (!workoutSamples.isEmpty()) {
+                dao.insertOrReplaceInTx(workoutSamples);
+            }
+            return true;
         } catch (Exception e) {
             GB.toast("Exception parsing unknown workout data", Toast.LENGTH_SHORT, GB.ERROR, e);
             LOG.error("Exception parsing unknown workout data", e);
+            return false;
         }
     }
 
@@ -41,36 +41,40 @@ public class SendWeatherCurrentRequest extends Request {
 
     @Override
     protected List<byte[]> createRequest() throws RequestCreationException {
+        try {
+            return createPacket(supportProvider, settings, weatherSpec).serialize();
+        } catch (HuaweiPacket.CryptoException e) {
+            throw new RequestCreationException(e);
+        }
+    }
+
+    public static HuaweiPacket createPacket(HuaweiSupportProvider supportProvider, Weather.Settings settings, WeatherSpec weatherSpec) {
         Weather.HuaweiTemperatureFormat temperatureFormat = Weather.HuaweiTemperatureFormat.CELSIUS;
         String unit = GBApplication.getPrefs().getString(SettingsActivity.PREF_MEASUREMENT_SYSTEM, GBApplication.getContext().getString(R.string.p_unit_metric));
         if (unit.equals(GBApplication.getContext().getString(R.string.p_unit_imperial)))
             temperatureFormat = Weather.HuaweiTemperatureFormat.FAHRENHEIT;
-        try {
-            Short pm25 = null;
-            Short aqi = null;
-            if (weatherSpec.airQuality != null) {
-                pm25 = (short) weatherSpec.airQuality.pm25; // TODO: does this work?
-                aqi = (short) weatherSpec.airQuality.aqi;
-            }
-            return new Weather.CurrentWeatherRequest(
-                    this.paramsProvider,
-                    settings,
-                    supportProvider.openWeatherMapConditionCodeToHuaweiIcon(weatherSpec.currentConditionCode),
-                    (byte) weatherSpec.windDirection,
-                    (byte) weatherSpec.windSpeedAsBeaufort(),
-                    (byte) (weatherSpec.todayMinTemp - 273),
-                    (byte) (weatherSpec.todayMaxTemp - 273),
-                    pm25,
-                    weatherSpec.location,
-                    (byte) (weatherSpec.currentTemp - 273),
-                    temperatureFormat,
-                    aqi,
-                    weatherSpec.timestamp,
-                    weatherSpec.uvIndex,
-                    "Gadgetbridge"
-                ).serialize();
-        } catch (HuaweiPacket.CryptoException e) {
-            throw new RequestCreationException(e);
+        Short pm25 = null;
+        Short aqi = null;
+        if (weatherSpec.airQuality != null) {
+            pm25 = (short) weatherSpec.airQuality.pm25; // TODO: does this work?
+            aqi = (short) weatherSpec.airQuality.aqi;
         }
+        return new Weather.CurrentWeatherRequest(
+                supportProvider.getParamsProvider(),
+                settings,
+                supportProvider.openWeatherMapConditionCodeToHuaweiIcon(weatherSpec.currentConditionCode),
+                (byte) weatherSpec.windDirection,
+                (byte) weatherSpec.windSpeedAsBeaufort(),
+                (byte) (weatherSpec.todayMinTemp - 273),
+                (byte) (weatherSpec.todayMaxTemp - 273),
+                pm25,
+                weatherSpec.location,
+                (byte) (weatherSpec.currentTemp - 273),
+                temperatureFormat,
+                aqi,
+                weatherSpec.timestamp,
+                weatherSpec.uvIndex,
+                "Gadgetbridge"
+        );
     }
 }
@@ -39,6 +39,14 @@ public class SendWeatherForecastRequest extends Request {
 
     @Override
     protected List<byte[]> createRequest() throws RequestCreationException {
+        try {
+            return createPacket(supportProvider, weatherSettings, weatherSpec).serialize();
+        } catch (HuaweiPacket.CryptoException e) {
+            throw new RequestCreationException(e);
+        }
+    }
+
+    public static HuaweiPacket createPacket(HuaweiSupportProvider supportProvider, Weather.Settings weatherSettings, WeatherSpec weatherSpec) {
         int hourlyCount = Math.min(weatherSpec.hourly.size(), 24);
         int dayCount = Math.min(weatherSpec.forecasts.size() + 1, 8); // We add today as well
 
@@ -80,15 +88,11 @@ public class SendWeatherForecastRequest extends Request {
             dayData.moonPhase = Weather.degreesToMoonPhase(daily.moonPhase);
             dayDataArrayList.add(dayData);
         }
-        try {
-            return new WeatherForecastData.Request(
-                    this.paramsProvider,
-                    this.weatherSettings,
-                    timeDataArrayList,
-                    dayDataArrayList
-            ).serialize();
-        } catch (HuaweiPacket.CryptoException e) {
-            throw new RequestCreationException(e);
-        }
+        return new WeatherForecastData.Request(
+                supportProvider.getParamsProvider(),
+                weatherSettings,
+                timeDataArrayList,
+                dayDataArrayList
+        );
     }
 }
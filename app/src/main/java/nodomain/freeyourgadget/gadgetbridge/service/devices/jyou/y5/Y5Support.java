@@ -18,8 +18,6 @@ package nodomain.freeyourgadget.gadgetbridge.service.devices.jyou.y5;
 
 import android.bluetooth.BluetoothGatt;
 import android.bluetooth.BluetoothGattCharacteristic;
-import android.content.Intent;
-import androidx.localbroadcastmanager.content.LocalBroadcastManager;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -37,12 +35,11 @@ import nodomain.freeyourgadget.gadgetbridge.entities.DaoSession;
 import nodomain.freeyourgadget.gadgetbridge.entities.Device;
 import nodomain.freeyourgadget.gadgetbridge.entities.JYouActivitySample;
 import nodomain.freeyourgadget.gadgetbridge.entities.User;
-import nodomain.freeyourgadget.gadgetbridge.impl.GBDevice;
 import nodomain.freeyourgadget.gadgetbridge.model.ActivitySample;
-import nodomain.freeyourgadget.gadgetbridge.model.DeviceService;
 import nodomain.freeyourgadget.gadgetbridge.service.btle.TransactionBuilder;
 import nodomain.freeyourgadget.gadgetbridge.service.devices.jyou.JYouSupport;
 import nodomain.freeyourgadget.gadgetbridge.service.devices.jyou.RealtimeSamplesSupport;
+import nodomain.freeyourgadget.gadgetbridge.util.RealtimeSampleStream;
 
 public class Y5Support extends JYouSupport {
     private static final Logger LOG = LoggerFactory.getLogger(Y5Support.class);
@@ -178,10 +175,7 @@ public class Y5Support extends JYouSupport {
                             LOG.debug("realtime sample: " + sample);
                         }
 
-                        Intent intent = new Intent(DeviceService.ACTION_REALTIME_SAMPLES)
-                                .putExtra(GBDevice.EXTRA_DEVICE, getDevice())
-                                .putExtra(DeviceService.EXTRA_REALTIME_SAMPLE, sample);
-                        LocalBroadcastManager.getInstance(getContext()).sendBroadcast(intent);
+                        RealtimeSampleStream.publish(getDevice(), sample);
 
                     } catch (Exception e) {
                         LOG.warn("Unable to acquire db for saving realtime samples", e);
@@ -19,13 +19,10 @@ package nodomain.freeyourgadget.gadgetbridge.service.devices.lefun;
 
 import android.bluetooth.BluetoothGatt;
 import android.bluetooth.BluetoothGattCharacteristic;
-import android.content.Intent;
 import android.content.SharedPreferences;
 import android.text.format.DateFormat;
 import android.widget.Toast;
 
-import androidx.localbroadcastmanager.content.LocalBroadcastManager;
-
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -63,9 +60,9 @@ import nodomain.freeyourgadget.gadgetbridge.impl.GBDevice;
 import nodomain.freeyourgadget.gadgetbridge.model.ActivityUser;
 import nodomain.freeyourgadget.gadgetbridge.model.Alarm;
 import nodomain.freeyourgadget.gadgetbridge.model.CallSpec;
-import nodomain.freeyourgadget.gadgetbridge.model.DeviceService;
 import nodomain.freeyourgadget.gadgetbridge.model.NotificationSpec;
 import nodomain.freeyourgadget.gadgetbridge.model.RecordedDataTypes;
+import nodomain.freeyourgadget.gadgetbridge.model.SampleCaches;
 import nodomain.freeyourgadget.gadgetbridge.service.btle.AbstractBTLEDeviceSupport;
 import nodomain.freeyourgadget.gadgetbridge.service.btle.GattService;
 import nodomain.freeyourgadget.gadgetbridge.service.btle.TransactionBuilder;
@@ -94,6 +91,7 @@ import nodomain.freeyourgadget.gadgetbridge.service.devices.lefun.requests.SetTi
 import nodomain.freeyourgadget.gadgetbridge.service.devices.lefun.requests.StartPpgRequest;
 import nodomain.freeyourgadget.gadgetbridge.util.GB;
 import nodomain.freeyourgadget.gadgetbridge.util.Prefs;
+import nodomain.freeyourgadget.gadgetbridge.util.RealtimeSampleStream;
 
 /**
  * Device support class for Lefun devices
@@ -755,11 +753,7 @@ public class LefunDeviceSupport extends AbstractBTLEDeviceSupport {
         int diff = command.getSteps() - lastStepsCount;
         sample.setSteps(diff);
         lastStepsCount = command.getSteps();
-        Intent intent = new Intent(DeviceService.ACTION_REALTIME_SAMPLES)
-                .putExtra(GBDevice.EXTRA_DEVICE, getDevice())
-                .putExtra(DeviceService.EXTRA_REALTIME_SAMPLE, sample)
-                .putExtra(DeviceService.EXTRA_TIMESTAMP, sample.getTimestamp());
-        LocalBroadcastManager.getInstance(getContext()).sendBroadcast(intent);
+        RealtimeSampleStream.publish(getDevice(), sample);
     }
 
     /**
@@ -878,6 +872,7 @@ public class LefunDeviceSupport extends AbstractBTLEDeviceSupport {
             sample.setRawIntensity(LefunConstants.INTENSITY_AWAKE);
 
             session.getLefunActivitySampleDao().insertOrReplace(sample);
+            SampleCaches.onSamplesWritten(getDevice(), timestamp, timestamp);
         } catch (Exception e) {
             LOG.error("Error handling activity data", e);
         }
@@ -909,11 +904,9 @@ public class LefunDeviceSupport extends AbstractBTLEDeviceSupport {
                 sample.setHeartRate(ppgData0);
 
                 session.getLefunActivitySampleDao().insertOrReplace(sample);
+                SampleCaches.onSamplesWritten(getDevice(), timestamp, timestamp);
 
-                final Intent intent = new Intent(DeviceService.ACTION_REALTIME_SAMPLES)
-                        .putExtra(GBDevice.EXTRA_DEVICE, getDevice())
-                        .putExtra(DeviceService.EXTRA_REALTIME_SAMPLE, sample);
-                LocalBroadcastManager.getInstance(getContext()).sendBroadcast(intent);
+                RealtimeSampleStream.publish(getDevice(), sample);
             }
 
             LefunBiometricSample bioSample = new LefunBiometricSample(timestamp,
@@ -996,6 +989,7 @@ public class LefunDeviceSupport extends AbstractBTLEDeviceSupport {
             sample.setRawIntensity(intensity);
 
             session.getLefunActivitySampleDao().insertOrReplace(sample);
+            SampleCaches.onSamplesWritten(getDevice(), timestamp, timestamp);
 
             LefunSleepSample sleepSample = new LefunSleepSample(timestamp,
                     DBHelper.getDevice(getDevice(), session).getId());
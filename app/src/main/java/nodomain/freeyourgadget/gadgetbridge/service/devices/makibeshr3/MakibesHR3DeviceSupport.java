@@ -30,14 +30,11 @@ package nodomain.freeyourgadget.gadgetbridge.service.devices.makibeshr3;
 
 import android.bluetooth.BluetoothGatt;
 import android.bluetooth.BluetoothGattCharacteristic;
-import android.content.Intent;
 import android.content.SharedPreferences;
 import android.os.CountDownTimer;
 import android.os.Handler;
 import android.widget.Toast;
 
-import androidx.localbroadcastmanager.content.LocalBroadcastManager;
-
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -70,12 +67,12 @@ import nodomain.freeyourgadget.gadgetbridge.model.ActivityUser;
 import nodomain.freeyourgadget.gadgetbridge.model.Alarm;
 import nodomain.freeyourgadget.gadgetbridge.model.BatteryState;
 import nodomain.freeyourgadget.gadgetbridge.model.CallSpec;
-import nodomain.freeyourgadget.gadgetbridge.model.DeviceService;
 import nodomain.freeyourgadget.gadgetbridge.model.NotificationSpec;
 import nodomain.freeyourgadget.gadgetbridge.service.btle.AbstractBTLEDeviceSupport;
 import nodomain.freeyourgadget.gadgetbridge.service.btle.TransactionBuilder;
 import nodomain.freeyourgadget.gadgetbridge.service.serial.GBDeviceProtocol;
 import nodomain.freeyourgadget.gadgetbridge.util.GB;
+import nodomain.freeyourgadget.gadgetbridge.util.RealtimeSampleStream;
 import nodomain.freeyourgadget.gadgetbridge.util.preferences.DevicePrefs;
 
 public class MakibesHR3DeviceSupport extends AbstractBTLEDeviceSupport implements SharedPreferences.OnSharedPreferenceChangeListener {
@@ -556,11 +553,7 @@ public class MakibesHR3DeviceSupport extends AbstractBTLEDeviceSupport implement
      * {@link MakibesHR3DeviceSupport#addGBActivitySamples}
      */
     private void broadcastSample(MakibesHR3ActivitySample sample) {
-        Intent intent = new Intent(DeviceService.ACTION_REALTIME_SAMPLES)
-                .putExtra(GBDevice.EXTRA_DEVICE, getDevice())
-                .putExtra(DeviceService.EXTRA_REALTIME_SAMPLE, sample)
-                .putExtra(DeviceService.EXTRA_TIMESTAMP, sample.getTimestamp());
-        LocalBroadcastManager.getInstance(getContext()).sendBroadcast(intent);
+        RealtimeSampleStream.publish(getDevice(), sample);
     }
 
     private void onReceiveFitness(int steps) {
@@ -81,7 +81,6 @@ import nodomain.freeyourgadget.gadgetbridge.impl.GBDevice;
 import nodomain.freeyourgadget.gadgetbridge.model.ActivityKind;
 import nodomain.freeyourgadget.gadgetbridge.model.ActivitySample;
 import nodomain.freeyourgadget.gadgetbridge.model.CallSpec;
-import nodomain.freeyourgadget.gadgetbridge.model.DeviceService;
 import nodomain.freeyourgadget.gadgetbridge.model.MusicSpec;
 import nodomain.freeyourgadget.gadgetbridge.model.MusicStateSpec;
 import nodomain.freeyourgadget.gadgetbridge.model.NavigationInfoSpec;
@@ -103,6 +102,7 @@ import nodomain.freeyourgadget.gadgetbridge.service.btle.profiles.alertnotificat
 import nodomain.freeyourgadget.gadgetbridge.service.btle.profiles.battery.BatteryInfoProfile;
 import nodomain.freeyourgadget.gadgetbridge.service.btle.profiles.deviceinfo.DeviceInfoProfile;
 import nodomain.freeyourgadget.gadgetbridge.util.GB;
+import nodomain.freeyourgadget.gadgetbridge.util.RealtimeSampleStream;
 
 public class PineTimeJFSupport extends AbstractBTLEDeviceSupport implements DfuLogListener {
     private static final Logger LOG = LoggerFactory.getLogger(PineTimeJFSupport.class);
@@ -1130,11 +1130,7 @@ public class PineTimeJFSupport extends AbstractBTLEDeviceSupport implements DfuL
 
             this.addGBActivitySample(sample);
 
-            Intent intent = new Intent(DeviceService.ACTION_REALTIME_SAMPLES)
-                    .putExtra(GBDevice.EXTRA_DEVICE, getDevice())
-                    .putExtra(DeviceService.EXTRA_REALTIME_SAMPLE, sample)
-                    .putExtra(DeviceService.EXTRA_TIMESTAMP, sample.getTimestamp());
-            LocalBroadcastManager.getInstance(getContext()).sendBroadcast(intent);
+            RealtimeSampleStream.publish(getDevice(), sample);
         } else {
             logDebug("ignoring " + diff + " steps");
         }
@@ -1157,11 +1153,7 @@ public class PineTimeJFSupport extends AbstractBTLEDeviceSupport implements DfuL
 
             this.addGBActivitySample(sample);
 
-            Intent intent = new Intent(DeviceService.ACTION_REALTIME_SAMPLES)
-                    .putExtra(GBDevice.EXTRA_DEVICE, getDevice())
-                    .putExtra(DeviceService.EXTRA_REALTIME_SAMPLE, sample)
-                    .putExtra(DeviceService.EXTRA_TIMESTAMP, sample.getTimestamp());
-            LocalBroadcastManager.getInstance(getContext()).sendBroadcast(intent);
+            RealtimeSampleStream.publish(getDevice(), sample);
         } else {
             logDebug("ignoring heartrate of 0");
         }
@@ -0,0 +1,117 @@
+/*  Copyright (C) 2026 agent
+
+    This file is part of Gadgetbridge.
+
+    Gadgetbridge is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published
+    by the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    Gadgetbridge is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>. */
+package nodomain.freeyourgadget.gadgetbridge.service.devices.qhybrid.requests.fossil.file;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.zip.CRC32;
+
+import nodomain.freeyourgadget.gadgetbridge.util.CRC32C;
+
+/**
+ * Splits a file into the packets of a file upload. The file is only read as the packets are
+ * requested, so that only the packets in flight are kept in memory. The CRC32 of the file, which
+ * the watch sends back once it received all the packets, is computed along the way.
+ */
+public class FilePacketizer {
+    private final InputStream file;
+    private final int fileLength;
+    private final int maxPacketSize;
+
+    private final CRC32 crc = new CRC32();
+
+    private int offset = 0;
+    private int packetIndex = 0;
+
+    public FilePacketizer(final InputStream file, final int fileLength, final int maxPacketSize) {
+        this.file = file;
+        this.fileLength = fileLength;
+        this.maxPacketSize = maxPacketSize;
+    }
+
+    public int getPacketCount() {
+        return (fileLength + maxPacketSize - 1) / maxPacketSize;
+    }
+
+    /**
+     * The index of the packet that will be returned by the next call to {@link #next()}.
+     */
+    public int getPacketIndex() {
+        return packetIndex;
+    }
+
+    public boolean hasNext() {
+        return offset < fileLength;
+    }
+
+    /**
+     * Reads the next packet from the file, prefixed with the packet index.
+     */
+    public byte[] next() throws IOException {
+        final int packetLength = Math.min(maxPacketSize, fileLength - offset);
+        final byte[] packet = new byte[packetLength + 1];
+        packet[0] = (byte) packetIndex;
+
+        int read = 0;
+        while (read < packetLength) {
+            final int count = file.read(packet, 1 + read, packetLength - read);
+            if (count < 0) {
+                throw new EOFException("File ended at " + (offset + read) + " of " + fileLength + " bytes");
+            }
+            read += count;
+        }
+
+        crc.update(packet, 1, packetLength);
+        offset += packetLength;
+        packetIndex++;
+
+        return packet;
+    }
+
+    /**
+     * The CRC32 of the file, once all the packets were read.
+     */
+    public int getCrc() {
+        return (int) crc.getValue();
+    }
+
+    /**
+     * The header, followed by the file and its CRC32C, without copying the file.
+     */
+    public static InputStream withCrc32c(final byte[] header, final byte[] file) {
+        final CRC32C crc = new CRC32C();
+        crc.update(file, 0, file.length);
+
+        final byte[] trailer = ByteBuffer.allocate(4)
+                .order(ByteOrder.LITTLE_ENDIAN)
+                .putInt((int) crc.getValue())
+                .array();
+
+        return new SequenceInputStream(Collections.enumeration(Arrays.asList(
+                new ByteArrayInputStream(header),
+                new ByteArrayInputStream(file),
+                new ByteArrayInputStream(trailer)
+        )));
+    }
+}
@@ -17,39 +17,50 @@
 package nodomain.freeyourgadget.gadgetbridge.service.devices.qhybrid.requests.fossil.file;
 
 import android.bluetooth.BluetoothGattCharacteristic;
+import android.widget.Toast;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
-import java.util.ArrayList;
 import java.util.UUID;
-import java.util.zip.CRC32;
 
 import nodomain.freeyourgadget.gadgetbridge.service.btle.TransactionBuilder;
 import nodomain.freeyourgadget.gadgetbridge.service.devices.qhybrid.adapter.fossil.FossilWatchAdapter;
 import nodomain.freeyourgadget.gadgetbridge.service.devices.qhybrid.file.FileHandle;
 import nodomain.freeyourgadget.gadgetbridge.service.devices.qhybrid.requests.fossil.FossilRequest;
 import nodomain.freeyourgadget.gadgetbridge.service.devices.qhybrid.requests.fossil_hr.file.ResultCode;
+import nodomain.freeyourgadget.gadgetbridge.util.GB;
 
 public class FilePutRawRequest extends FossilRequest {
     public enum UploadState {INITIALIZED, UPLOADING, CLOSING, UPLOADED}
 
     public UploadState state;
 
-    public ArrayList<byte[]> packets = new ArrayList<>();
+    // packets queued per transaction, the next ones are only read once these were written
+    private static final int UPLOAD_WINDOW_PACKETS = 32;
 
     private short handle;
 
     private FossilWatchAdapter adapter;
 
-    byte[] file;
+    private final InputStream file;
 
-    int fullCRC;
+    private final int fileLength;
+
+    private FilePacketizer packetizer;
+
+    private BluetoothGattCharacteristic uploadCharacteristic;
 
     public FilePutRawRequest(short handle, byte[] file, FossilWatchAdapter adapter) {
+        this(handle, new ByteArrayInputStream(file), file.length, adapter);
+    }
+
+    public FilePutRawRequest(short handle, InputStream file, int fileLength, FossilWatchAdapter adapter) {
         this.handle = handle;
         this.adapter = adapter;
 
-        int fileLength = file.length;
         ByteBuffer buffer = this.createBuffer();
         buffer.putShort(1, handle);
         buffer.putInt(3, 0);
@@ -59,6 +70,7 @@ public class FilePutRawRequest extends FossilRequest {
         this.data = buffer.array();
 
         this.file = file;
+        this.fileLength = fileLength;
 
         state = UploadState.INITIALIZED;
     }
@@ -84,18 +96,10 @@ public class FilePutRawRequest extends FossilRequest {
                     }
                     state = UploadState.UPLOADING;
 
-                    TransactionBuilder transactionBuilder = new TransactionBuilder("file upload");
-                    BluetoothGattCharacteristic uploadCharacteristic = adapter.getDeviceSupport().getCharacteristic(UUID.fromString("3dda0004-957f-7d4a-34a6-74696673696d"));
-
-                    this.prepareFilePackets(this.file);
-
-                    for (int i = 0, packetCount = packets.size(); i < packetCount; i++) {
-                        byte[] packet = packets.get(i);
-                        transactionBuilder.write(uploadCharacteristic, packet);
-                        onPacketWritten(transactionBuilder, i, packetCount);
-                    }
+                    uploadCharacteristic = adapter.getDeviceSupport().getCharacteristic(UUID.fromString("3dda0004-957f-7d4a-34a6-74696673696d"));
+                    packetizer = new FilePacketizer(this.file, this.fileLength, adapter.getMTU() - 4);
 
-                    transactionBuilder.queue(adapter.getDeviceSupport().getQueue());
+                    queueNextPackets();
                     break;
                 }
                 case 8: {
@@ -115,7 +119,7 @@ public class FilePutRawRequest extends FossilRequest {
                         throw new RuntimeException("wrong response handle");
                     }
 
-                    if (crc != this.fullCRC) {
+                    if (crc != packetizer.getCrc()) {
                         throw new RuntimeException("file upload exception: wrong crc");
                     }
 
@@ -194,26 +198,27 @@ public class FilePutRawRequest extends FossilRequest {
         return this.state == UploadState.UPLOADED;
     }
 
-    private void prepareFilePackets(byte[] file) {
-        int maxPacketSize = adapter.getMTU() - 4;
+    private void queueNextPackets() {
+        TransactionBuilder transactionBuilder = new TransactionBuilder("file upload");
+        int packetCount = packetizer.getPacketCount();
 
-        byte[] data = file;
-
-        CRC32 fullCRC = new CRC32();
-
-        fullCRC.update(data);
-        this.fullCRC = (int) fullCRC.getValue();
-
-        int packetCount = (int) Math.ceil(data.length / (float) maxPacketSize);
-
-        for (int i = 0; i < packetCount; i++) {
-            int currentPacketLength = Math.min(maxPacketSize, data.length - i * maxPacketSize);
-            byte[] packet = new byte[currentPacketLength + 1];
-            packet[0] = (byte) i;
-            System.arraycopy(data, i * maxPacketSize, packet, 1, currentPacketLength);
+        try {
+            for (int i = 0; i < UPLOAD_WINDOW_PACKETS && packetizer.hasNext(); i++) {
+                int packetNr = packetizer.getPacketIndex();
+                transactionBuilder.write(uploadCharacteristic, packetizer.next());
+                onPacketWritten(transactionBuilder, packetNr, packetCount);
+            }
+        } catch (IOException e) {
+            GB.toast("error reading file", Toast.LENGTH_LONG, GB.ERROR, e);
+            onFilePut(false);
+            return;
+        }
 
-            packets.add(packet);
+        if (packetizer.hasNext()) {
+            transactionBuilder.run(gatt -> queueNextPackets());
         }
+
+        transactionBuilder.queue(adapter.getDeviceSupport().getQueue());
     }
 
     public void onFilePut(boolean success) {
@@ -18,6 +18,7 @@ package nodomain.freeyourgadget.gadgetbridge.service.devices.qhybrid.requests.fo
 
 import android.bluetooth.BluetoothGattCharacteristic;
 
+import java.io.InputStream;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.util.ArrayList;
@@ -29,15 +30,14 @@ import nodomain.freeyourgadget.gadgetbridge.service.devices.qhybrid.adapter.foss
 import nodomain.freeyourgadget.gadgetbridge.service.devices.qhybrid.file.FileHandle;
 import nodomain.freeyourgadget.gadgetbridge.service.devices.qhybrid.requests.fossil.FossilRequest;
 import nodomain.freeyourgadget.gadgetbridge.service.devices.qhybrid.requests.fossil_hr.file.ResultCode;
-import nodomain.freeyourgadget.gadgetbridge.util.CRC32C;
 
 public class FilePutRequest extends FilePutRawRequest {
     public FilePutRequest(FileHandle fileHandle, byte[] file, FossilWatchAdapter adapter) {
-        super(fileHandle, createFilePayload(fileHandle, file, adapter.getSupportedFileVersion(fileHandle)), adapter);
+        super(fileHandle.getHandle(), createFilePayload(fileHandle, file, adapter.getSupportedFileVersion(fileHandle)), file.length + 12 + 4, adapter);
     }
 
-    private static byte[] createFilePayload(FileHandle fileHandle, byte[] file, short fileVersion){
-        ByteBuffer buffer = ByteBuffer.allocate(file.length + 12 + 4);
+    private static InputStream createFilePayload(FileHandle fileHandle, byte[] file, short fileVersion){
+        ByteBuffer buffer = ByteBuffer.allocate(12);
         buffer.order(ByteOrder.LITTLE_ENDIAN);
 
         buffer.putShort(fileHandle.getHandle());
@@ -49,13 +49,6 @@ public class FilePutRequest extends FilePutRawRequest {
         }
         buffer.putInt(file.length);
 
-        buffer.put(file);
-
-        CRC32C crc = new CRC32C();
-
-        crc.update(file,0,file.length);
-        buffer.putInt((int) crc.getValue());
-
-        return buffer.array();
+        return FilePacketizer.withCrc32c(buffer.array(), file);
     }
 }
@@ -21,9 +21,7 @@ import android.widget.Toast;
 
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
-import java.util.ArrayList;
 import java.util.UUID;
-import java.util.zip.CRC32;
 
 import javax.crypto.Cipher;
 import javax.crypto.spec.IvParameterSpec;
@@ -33,7 +31,7 @@ import nodomain.freeyourgadget.gadgetbridge.service.btle.TransactionBuilder;
 import nodomain.freeyourgadget.gadgetbridge.service.devices.qhybrid.adapter.fossil.FossilWatchAdapter;
 import nodomain.freeyourgadget.gadgetbridge.service.devices.qhybrid.adapter.fossil_hr.FossilHRWatchAdapter;
 import nodomain.freeyourgadget.gadgetbridge.service.devices.qhybrid.requests.fossil.FossilRequest;
-import nodomain.freeyourgadget.gadgetbridge.util.CRC32C;
+import nodomain.freeyourgadget.gadgetbridge.service.devices.qhybrid.requests.fossil.file.FilePacketizer;
 import nodomain.freeyourgadget.gadgetbridge.util.GB;
 
 public class FileEncryptedPutRequest extends FossilRequest implements FileEncryptedInterface {
@@ -41,7 +39,8 @@ public class FileEncryptedPutRequest extends FossilRequest implements FileEncryp
 
     public UploadState state;
 
-    private ArrayList<byte[]> packets = new ArrayList<>();
+    // packets queued per transaction, the next ones are only read once these were written
+    private static final int UPLOAD_WINDOW_PACKETS = 32;
 
     private short handle;
 
@@ -49,7 +48,11 @@ public class FileEncryptedPutRequest extends FossilRequest implements FileEncryp
 
     private byte[] file;
 
-    private int fullCRC;
+    private FilePacketizer packetizer;
+
+    private BluetoothGattCharacteristic uploadCharacteristic;
+
+    private Cipher cipher;
 
     public FileEncryptedPutRequest(short handle, byte[] file, FossilHRWatchAdapter adapter) {
         this.handle = handle;
@@ -86,10 +89,8 @@ public class FileEncryptedPutRequest extends FossilRequest implements FileEncryp
                     }
                     state = UploadState.UPLOADING;
 
-                    TransactionBuilder transactionBuilder = new TransactionBuilder("file upload");
-                    BluetoothGattCharacteristic uploadCharacteristic = adapter.getDeviceSupport().getCharacteristic(UUID.fromString("3dda0004-957f-7d4a-34a6-74696673696d"));
-
-                    this.prepareFilePackets(this.file);
+                    uploadCharacteristic = adapter.getDeviceSupport().getCharacteristic(UUID.fromString("3dda0004-957f-7d4a-34a6-74696673696d"));
+                    packetizer = createPacketizer(this.handle, this.file, adapter.getMTU() - 4);
 
                     SecretKeySpec keySpec = null;
                     try {
@@ -99,7 +100,7 @@ public class FileEncryptedPutRequest extends FossilRequest implements FileEncryp
                         return;
                     }
                     try {
-                        Cipher cipher = Cipher.getInstance("AES/CTR/NoPadding");
+                        cipher = Cipher.getInstance("AES/CTR/NoPadding");
 
                         byte[] fileIV = new byte[16];
 
@@ -113,16 +114,12 @@ public class FileEncryptedPutRequest extends FossilRequest implements FileEncryp
                         fileIV[7]++;
 
                         cipher.init(Cipher.ENCRYPT_MODE, keySpec, new IvParameterSpec(fileIV));
-
-                        for (byte[] packet : packets) {
-                            byte[] result = cipher.doFinal(packet);
-                            transactionBuilder.write(uploadCharacteristic, result);
-                        }
                     }catch (Exception e){
                         GB.toast("error encrypting file", Toast.LENGTH_LONG, GB.ERROR, e);
+                        return;
                     }
 
-                    transactionBuilder.queue(adapter.getDeviceSupport().getQueue());
+                    queueNextPackets();
                     break;
                 }
                 case 8: {
@@ -142,7 +139,7 @@ public class FileEncryptedPutRequest extends FossilRequest implements FileEncryp
                         throw new RuntimeException("wrong response handle");
                     }
 
-                    if (crc != this.fullCRC) {
+                    if (crc != packetizer.getCrc()) {
                         throw new RuntimeException("file upload exception: wrong crc");
                     }
 
@@ -221,42 +218,38 @@ public class FileEncryptedPutRequest extends FossilRequest implements FileEncryp
         return this.state == UploadState.UPLOADED;
     }
 
-    private void prepareFilePackets(byte[] file) {
-        int maxPacketSize = adapter.getMTU() - 4;
-
-        ByteBuffer buffer = ByteBuffer.allocate(file.length + 12 + 4);
-        buffer.order(ByteOrder.LITTLE_ENDIAN);
-
-        buffer.putShort(handle);
-        buffer.put((byte) 2);
-        buffer.put((byte) 0);
-        buffer.putInt(0);
-        buffer.putInt(file.length);
-
-        buffer.put(file);
+    private void queueNextPackets() {
+        TransactionBuilder transactionBuilder = new TransactionBuilder("file upload");
 
-        CRC32C crc = new CRC32C();
-
-        crc.update(file,0,file.length);
-        buffer.putInt((int) crc.getValue());
-
-        byte[] data = buffer.array();
+        try {
+            for (int i = 0; i < UPLOAD_WINDOW_PACKETS && packetizer.hasNext(); i++) {
+                byte[] result = cipher.doFinal(packetizer.next());
+                transactionBuilder.write(uploadCharacteristic, result);
+            }
+        } catch (Exception e) {
+            GB.toast("error encrypting file", Toast.LENGTH_LONG, GB.ERROR, e);
+            onFilePut(false);
+            return;
+        }
 
-        CRC32 fullCRC = new CRC32();
+        if (packetizer.hasNext()) {
+            transactionBuilder.run(gatt -> queueNextPackets());
+        }
 
-        fullCRC.update(data);
-        this.fullCRC = (int) fullCRC.getValue();
+        transactionBuilder.queue(adapter.getDeviceSupport().getQueue());
+    }
 
-        int packetCount = (int) Math.ceil(data.length / (float) maxPacketSize);
+    static FilePacketizer createPacketizer(short handle, byte[] file, int maxPacketSize) {
+        ByteBuffer header = ByteBuffer.allocate(12);
+        header.order(ByteOrder.LITTLE_ENDIAN);
 
-        for (int i = 0; i < packetCount; i++) {
-            int currentPacketLength = Math.min(maxPacketSize, data.length - i * maxPacketSize);
-            byte[] packet = new byte[currentPacketLength + 1];
-            packet[0] = (byte) i;
-            System.arraycopy(data, i * maxPacketSize, packet, 1, currentPacketLength);
+        header.putShort(handle);
+        header.put((byte) 2);
+        header.put((byte) 0);
+        header.putInt(0);
+        header.putInt(file.length);
 
-            packets.add(packet);
-        }
+        return new FilePacketizer(FilePacketizer.withCrc32c(header.array(), file), file.length + 12 + 4, maxPacketSize);
     }
 
     public void onFilePut(boolean success) {
@@ -16,9 +16,7 @@
     along with this program.  If not, see <https://www.gnu.org/licenses/>. */
 package nodomain.freeyourgadget.gadgetbridge.service.devices.withingssteelhr.communication.conversation;
 
-import android.content.Intent;
 
-import androidx.localbroadcastmanager.content.LocalBroadcastManager;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -30,14 +28,13 @@ import nodomain.freeyourgadget.gadgetbridge.database.DBHandler;
 import nodomain.freeyourgadget.gadgetbridge.database.DBHelper;
 import nodomain.freeyourgadget.gadgetbridge.devices.withingssteelhr.WithingsSteelHRSampleProvider;
 import nodomain.freeyourgadget.gadgetbridge.entities.WithingsSteelHRActivitySample;
-import nodomain.freeyourgadget.gadgetbridge.impl.GBDevice;
-import nodomain.freeyourgadget.gadgetbridge.model.DeviceService;
 import nodomain.freeyourgadget.gadgetbridge.service.devices.withingssteelhr.WithingsSteelHRDeviceSupport;
 import nodomain.freeyourgadget.gadgetbridge.service.devices.withingssteelhr.activity.SleepActivitySampleHelper;
 import nodomain.freeyourgadget.gadgetbridge.service.devices.withingssteelhr.communication.datastructures.HeartRate;
 import nodomain.freeyourgadget.gadgetbridge.service.devices.withingssteelhr.communication.datastructures.LiveHeartRate;
 import nodomain.freeyourgadget.gadgetbridge.service.devices.withingssteelhr.communication.datastructures.WithingsStructure;
 import nodomain.freeyourgadget.gadgetbridge.service.devices.withingssteelhr.communication.message.Message;
+import nodomain.freeyourgadget.gadgetbridge.util.RealtimeSampleStream;
 
 public class HeartRateHandler extends AbstractResponseHandler {
     private static final Logger logger = LoggerFactory.getLogger(HeartRateHandler.class);
@@ -78,10 +75,7 @@ public class HeartRateHandler extends AbstractResponseHandler {
             sample.setUserId(userId);
             sample = SleepActivitySampleHelper.mergeIfNecessary(provider, sample);
             provider.addGBActivitySample(sample);
-            Intent intent = new Intent(DeviceService.ACTION_REALTIME_SAMPLES)
-                    .putExtra(GBDevice.EXTRA_DEVICE, support.getDevice())
-                    .putExtra(DeviceService.EXTRA_REALTIME_SAMPLE, sample);
-            LocalBroadcastManager.getInstance(support.getContext()).sendBroadcast(intent);
+            RealtimeSampleStream.publish(support.getDevice(), sample);
         } catch (Exception ex) {
             logger.warn("Error saving current heart rate: " + ex.getLocalizedMessage());
         }
@@ -40,8 +40,18 @@ public abstract class AbstractXiaomiSppProtocol {
         }
     };
 
-    public abstract int findNextPacketOffset(final byte[] buffer);
-    public abstract ParseResult processPacket(final byte[] buffer);
+    /**
+     * Find the start of the next candidate packet in buffer[offset, offset + length).
+     *
+     * @return the position of the next candidate relative to offset, or -1 if none was found
+     */
+    public abstract int findNextPacketOffset(final byte[] buffer, final int offset, final int length);
+
+    /**
+     * Parse a single packet starting at buffer[offset], without reading past offset + length.
+     */
+    public abstract ParseResult processPacket(final byte[] buffer, final int offset, final int length);
+
     public abstract byte[] encodePacket(Channel channel, byte[] chunk);
     public boolean initializeSession() {
         return true;
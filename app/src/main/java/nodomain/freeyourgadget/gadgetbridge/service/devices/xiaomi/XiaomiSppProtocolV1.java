@@ -42,10 +42,10 @@ public class XiaomiSppProtocolV1 extends AbstractXiaomiSppProtocol {
     }
 
     @Override
-    public int findNextPacketOffset(byte[] buffer) {
-        for (int i = 1; i < buffer.length; i++) {
+    public int findNextPacketOffset(final byte[] buffer, final int offset, final int length) {
+        for (int i = 1; i < length; i++) {
             // just check for the first byte, the processPacket method checks the full magic
-            if (buffer[i] == PACKET_PREAMBLE[0]) {
+            if (buffer[offset + i] == PACKET_PREAMBLE[0]) {
                 return i;
             }
         }
@@ -54,26 +54,27 @@ public class XiaomiSppProtocolV1 extends AbstractXiaomiSppProtocol {
     }
 
     @Override
-    public ParseResult processPacket(byte[] buffer) {
-        if (buffer.length < 11) {
+    public ParseResult processPacket(final byte[] buffer, final int offset, final int length) {
+        if (length < 11) {
             LOG.debug("processPacket(): not enough bytes in rx buffer to decode packet header");
             return new ParseResult(ParseResult.Status.Incomplete);
         }
 
-        final ByteBuffer headerBuffer = ByteBuffer.wrap(buffer).order(ByteOrder.LITTLE_ENDIAN);
+        final ByteBuffer headerBuffer = ByteBuffer.wrap(buffer, offset, length).order(ByteOrder.LITTLE_ENDIAN);
         final int packetSize;
 
         // verify preamble
         {
-            byte[] preamble = new byte[PACKET_PREAMBLE.length];
-            headerBuffer.get(preamble);
-
-            if (!Arrays.equals(PACKET_PREAMBLE, preamble)) {
-                LOG.debug("processPacket(): header mismatch, expected {}, got {}",
-                        GB.hexdump(PACKET_PREAMBLE),
-                        GB.hexdump(preamble));
-                return new ParseResult(ParseResult.Status.Invalid);
+            for (int i = 0; i < PACKET_PREAMBLE.length; i++) {
+                if (buffer[offset + i] != PACKET_PREAMBLE[i]) {
+                    LOG.debug("processPacket(): header mismatch, expected {}, got {}",
+                            GB.hexdump(PACKET_PREAMBLE),
+                            GB.hexdump(buffer, offset, PACKET_PREAMBLE.length));
+                    return new ParseResult(ParseResult.Status.Invalid);
+                }
             }
+
+            headerBuffer.position(offset + PACKET_PREAMBLE.length);
         }
 
         // verify packet size
@@ -82,10 +83,10 @@ public class XiaomiSppProtocolV1 extends AbstractXiaomiSppProtocol {
             int payloadSize = headerBuffer.getShort() & 0xffff;
             packetSize = payloadSize + 8; // payload size includes payload header
 
-            if (buffer.length < packetSize) {
+            if (length < packetSize) {
                 LOG.debug("processPacket(): received {}, missing {}/{} packet bytes",
-                        buffer.length,
-                        packetSize - buffer.length,
+                        length,
+                        packetSize - length,
                         packetSize);
                 return new ParseResult(ParseResult.Status.Incomplete);
             }
@@ -93,7 +94,8 @@ public class XiaomiSppProtocolV1 extends AbstractXiaomiSppProtocol {
             LOG.debug("processPacket(): all bytes for packet of {} bytes in buffer", packetSize);
         }
 
-        XiaomiSppPacketV1 receivedPacket = XiaomiSppPacketV1.decode(buffer);
+        // only the bytes of this packet are copied, the rest of the buffer stays in place
+        XiaomiSppPacketV1 receivedPacket = XiaomiSppPacketV1.decode(Arrays.copyOfRange(buffer, offset, offset + packetSize));
 
         if (receivedPacket == null) {
             LOG.debug("processPacket(): decoded packet is null");
@@ -53,9 +53,9 @@ public class XiaomiSppProtocolV2 extends AbstractXiaomiSppProtocol {
     }
 
     @Override
-    public int findNextPacketOffset(byte[] buffer) {
-        for (int i = 1; i < buffer.length; i++) {
-            if (buffer[i] == PACKET_PREAMBLE[0])
+    public int findNextPacketOffset(final byte[] buffer, final int offset, final int length) {
+        for (int i = 1; i < length; i++) {
+            if (buffer[offset + i] == PACKET_PREAMBLE[0])
                 return i;
         }
 
@@ -63,39 +63,41 @@ public class XiaomiSppProtocolV2 extends AbstractXiaomiSppProtocol {
     }
 
     @Override
-    public ParseResult processPacket(byte[] rxBuf) {
-        if (rxBuf.length < 8) {
+    public ParseResult processPacket(final byte[] rxBuf, final int offset, final int length) {
+        if (length < 8) {
             LOG.debug("processPacket(): not enough bytes in buffer to process packet (got {} of required {} bytes)",
-                    rxBuf.length,
+                    length,
                     8);
             return new ParseResult(ParseResult.Status.Incomplete);
         }
 
-        final ByteBuffer buffer = ByteBuffer.wrap(rxBuf).order(ByteOrder.LITTLE_ENDIAN);
-        final byte[] headerMagic = new byte[PACKET_PREAMBLE.length];
-        buffer.get(headerMagic);
+        final ByteBuffer buffer = ByteBuffer.wrap(rxBuf, offset, length).order(ByteOrder.LITTLE_ENDIAN);
 
-        if (!Arrays.equals(PACKET_PREAMBLE, headerMagic)) {
-            LOG.warn("processPacket(): invalid header magic (expected {}, got {})",
-                    GB.hexdump(PACKET_PREAMBLE),
-                    GB.hexdump(headerMagic));
-            return new ParseResult(ParseResult.Status.Invalid);
+        for (int i = 0; i < PACKET_PREAMBLE.length; i++) {
+            if (rxBuf[offset + i] != PACKET_PREAMBLE[i]) {
+                LOG.warn("processPacket(): invalid header magic (expected {}, got {})",
+                        GB.hexdump(PACKET_PREAMBLE),
+                        GB.hexdump(rxBuf, offset, PACKET_PREAMBLE.length));
+                return new ParseResult(ParseResult.Status.Invalid);
+            }
         }
 
+        buffer.position(offset + PACKET_PREAMBLE.length);
+
         buffer.get(); // flags and packet type
         buffer.get(); // packet sequence number
         final int packetSize = 8 + (buffer.getShort() & 0xffff);
         buffer.getShort(); // checksum
 
-        if (rxBuf.length < packetSize) {
+        if (length < packetSize) {
             LOG.debug("processPacket(): missing {} bytes (got {}/{} bytes)",
-                    packetSize - rxBuf.length,
-                    rxBuf.length,
+                    packetSize - length,
+                    length,
                     packetSize);
             return new ParseResult(ParseResult.Status.Incomplete);
         }
 
-        final XiaomiSppPacketV2 decodedPacket = XiaomiSppPacketV2.decode(rxBuf);
+        final XiaomiSppPacketV2 decodedPacket = XiaomiSppPacketV2.decode(Arrays.copyOfRange(rxBuf, offset, offset + packetSize));
         if (decodedPacket != null) {
             switch (decodedPacket.getPacketType()) {
                 case PACKET_TYPE_SESSION_CONFIG:
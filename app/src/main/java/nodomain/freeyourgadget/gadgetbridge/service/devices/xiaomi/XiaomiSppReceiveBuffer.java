@@ -0,0 +1,157 @@
+/*  Copyright (C) 2026 agent
+
+    This file is part of Gadgetbridge.
+
+    Gadgetbridge is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published
+    by the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    Gadgetbridge is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>. */
+package nodomain.freeyourgadget.gadgetbridge.service.devices.xiaomi;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+/**
+ * Receive buffer for the SPP transport. Bytes are appended at the end and consumed from the
+ * front by moving a read cursor, so that the protocol can parse packets in place without
+ * copying the remaining bytes after every packet. The consumed prefix is only discarded when
+ * new data needs the space, which keeps the total copying linear in the number of bytes received.
+ */
+public class XiaomiSppReceiveBuffer {
+    private static final Logger LOG = LoggerFactory.getLogger(XiaomiSppReceiveBuffer.class);
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private byte[] data;
+    private int readPos = 0;
+    private int writePos = 0;
+
+    public XiaomiSppReceiveBuffer() {
+        this(INITIAL_CAPACITY);
+    }
+
+    public XiaomiSppReceiveBuffer(final int initialCapacity) {
+        this.data = new byte[Math.max(16, initialCapacity)];
+    }
+
+    public void append(final byte[] bytes) {
+        append(bytes, 0, bytes.length);
+    }
+
+    public void append(final byte[] bytes, final int offset, final int length) {
+        ensureWritable(length);
+        System.arraycopy(bytes, offset, data, writePos, length);
+        writePos += length;
+    }
+
+    /**
+     * @return the backing array - valid bytes are in [{@link #offset()}, {@link #offset()} + {@link #length()})
+     */
+    public byte[] array() {
+        return data;
+    }
+
+    public int offset() {
+        return readPos;
+    }
+
+    public int length() {
+        return writePos - readPos;
+    }
+
+    /**
+     * Consume bytes from the front of the buffer. Negative values or values past the end
+     * consume everything.
+     */
+    public void skip(final int count) {
+        if (count < 0 || count >= length()) {
+            clear();
+            return;
+        }
+
+        readPos += count;
+    }
+
+    public void clear() {
+        readPos = 0;
+        writePos = 0;
+    }
+
+    private void ensureWritable(final int count) {
+        if (data.length - writePos >= count) {
+            return;
+        }
+
+        final int remaining = length();
+
+        // compact in place only if that leaves at least half of the buffer free, otherwise grow,
+        // so that each compaction is paid for by at least as many appended bytes
+        if (remaining + count <= data.length / 2) {
+            System.arraycopy(data, readPos, data, 0, remaining);
+        } else {
+            int newCapacity = data.length;
+            while (newCapacity / 2 < remaining + count) {
+                newCapacity *= 2;
+            }
+
+            final byte[] newData = new byte[newCapacity];
+            System.arraycopy(data, readPos, newData, 0, remaining);
+            data = newData;
+        }
+
+        readPos = 0;
+        writePos = remaining;
+    }
+
+    /**
+     * Parse all complete packets in the buffer, skipping invalid bytes up to the next candidate
+     * packet. The protocol is requested again for each packet, since a packet may switch it.
+     */
+    public void process(final Supplier<AbstractXiaomiSppProtocol> protocolSupplier) {
+        boolean shouldProcess = true;
+        while (shouldProcess && length() > 0) {
+            final AbstractXiaomiSppProtocol protocol = protocolSupplier.get();
+            final AbstractXiaomiSppProtocol.ParseResult parseResult = protocol.processPacket(data, readPos, length());
+            LOG.debug("process(): protocol.processPacket() returned status {}", parseResult.status);
+            int skipBytes;
+
+            switch (parseResult.status) {
+                case Incomplete:
+                    skipBytes = 0;
+                    shouldProcess = false;
+                    break;
+                case Complete:
+                    skipBytes = parseResult.packetSize;
+                    break;
+                case Invalid:
+                    skipBytes = protocol.findNextPacketOffset(data, readPos, length());
+                    if (skipBytes < 0) {
+                        skipBytes = length();
+                    }
+                    break;
+                default:
+                    throw new IllegalStateException(String.format("Unhandled parse state %s", parseResult.status));
+            }
+
+            if (skipBytes > 0) {
+                LOG.debug("process(): skipping {} bytes for state {}", skipBytes, parseResult.status);
+                skip(skipBytes);
+            }
+        }
+    }
+
+    public byte[] toByteArray() {
+        return Arrays.copyOfRange(data, readPos, writePos);
+    }
+}
@@ -30,8 +30,6 @@ import androidx.annotation.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
@@ -103,7 +101,7 @@ public class XiaomiSppSupport extends XiaomiConnectionSupport {
         }
     };
 
-    ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    final XiaomiSppReceiveBuffer buffer = new XiaomiSppReceiveBuffer();
     private final XiaomiSupport mXiaomiSupport;
     private final Map<Channel, XiaomiChannelHandler> mChannelHandlers = new HashMap<>();
     private final Handler mVersionResponseTimeoutHandler = new Handler(Looper.getMainLooper());
@@ -170,62 +168,9 @@ public class XiaomiSppSupport extends XiaomiConnectionSupport {
         b.queue(commsSupport.getQueue());
     }
 
-    private void skipBuffer(int newStart) {
-        final byte[] bufferState = buffer.toByteArray();
-        buffer.reset();
-
-        if (newStart < 0) {
-            newStart = bufferState.length;
-        }
-
-        if (newStart >= bufferState.length) {
-            return;
-        }
-
-        buffer.write(bufferState, newStart, bufferState.length - newStart);
-    }
-
-    private void processBuffer() {
-        boolean shouldProcess = true;
-        while (shouldProcess) {
-            final byte[] bufferState = buffer.toByteArray();
-            final AbstractXiaomiSppProtocol.ParseResult parseResult = mProtocol.processPacket(bufferState);
-            LOG.debug("processBuffer(): protocol.processPacket() returned status {}", parseResult.status);
-            int skipBytes;
-
-            switch (parseResult.status) {
-                case Incomplete:
-                    skipBytes = 0;
-                    shouldProcess = false;
-                    break;
-                case Complete:
-                    skipBytes = parseResult.packetSize;
-                    break;
-                case Invalid:
-                    skipBytes = mProtocol.findNextPacketOffset(bufferState);
-                    if (skipBytes < 0) {
-                        skipBytes = bufferState.length;
-                    }
-                    break;
-                default:
-                    throw new IllegalStateException(String.format("Unhandled parse state %s", parseResult.status));
-            }
-
-            if (skipBytes > 0) {
-                LOG.debug("processBuffer(): skipping {} bytes for state {}", skipBytes, parseResult.status);
-                skipBuffer(skipBytes);
-            }
-        }
-    }
-
     public void onSocketRead(byte[] data) {
-        try {
-            buffer.write(data);
-        } catch (IOException ex) {
-            LOG.error("Exception while writing buffer: ", ex);
-        }
-
-        processBuffer();
+        buffer.append(data);
+        buffer.process(() -> mProtocol);
     }
 
     protected void onPacketReceived(final Channel channel, final byte[] payload) {
@@ -175,6 +175,8 @@ public class XiaomiSupport extends AbstractDeviceSupport {
 
     @Override
     public void dispose() {
+        healthService.getActivityFetcher().dispose();
+
         if (this.connectionSupport != null) {
             XiaomiConnectionSupport connectionSupport = this.connectionSupport;
             this.connectionSupport = null;
@@ -29,6 +29,9 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.PriorityQueue;
 import java.util.Queue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import nodomain.freeyourgadget.gadgetbridge.R;
 import nodomain.freeyourgadget.gadgetbridge.impl.GBDevice;
@@ -42,16 +45,75 @@ import nodomain.freeyourgadget.gadgetbridge.util.GB;
 public class XiaomiActivityFileFetcher {
     private static final Logger LOG = LoggerFactory.getLogger(XiaomiActivityFileFetcher.class);
 
+    /**
+     * Maximum number of validated files waiting to be parsed. When the parser falls behind,
+     * the next file is only requested once the worker parsed one of them.
+     */
+    private static final int MAX_PENDING_PARSES = 8;
+
     private final XiaomiHealthService mHealthService;
 
     private final Queue<XiaomiActivityFileId> mFetchQueue = new PriorityQueue<>();
     private ByteArrayOutputStream mBuffer = new ByteArrayOutputStream();
     private boolean isFetching = false;
 
+    // A single worker keeps the files parsed in the order they were fetched
+    private ThreadPoolExecutor mParseExecutor;
+    private int mPendingParses = 0;
+    private boolean mFetchDeferred = false;
+    private int mFetchedFiles = 0;
+    private long mFetchStartTime = 0;
+    private long mFetchEndTime = 0;
+
     public XiaomiActivityFileFetcher(final XiaomiHealthService healthService) {
         this.mHealthService = healthService;
     }
 
+    private synchronized ThreadPoolExecutor getParseExecutor() {
+        if (mParseExecutor == null) {
+            mParseExecutor = new ThreadPoolExecutor(
+                    1, 1,
+                    30, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(),
+                    r -> new Thread(r, "XiaomiActivityParser")
+            );
+            mParseExecutor.allowCoreThreadTimeOut(true);
+        }
+        return mParseExecutor;
+    }
+
+    /**
+     * Stops the parser worker and forgets the pending fetches, once the device disconnected.
+     */
+    public void dispose() {
+        final ThreadPoolExecutor parseExecutor;
+        final boolean wasSyncing;
+        synchronized (this) {
+            wasSyncing = mFetchStartTime != 0;
+            parseExecutor = mParseExecutor;
+            mParseExecutor = null;
+            mFetchQueue.clear();
+            isFetching = false;
+            mPendingParses = 0;
+            mFetchDeferred = false;
+            mFetchStartTime = 0;
+        }
+        mBuffer = new ByteArrayOutputStream();
+
+        if (parseExecutor != null) {
+            parseExecutor.shutdownNow();
+        }
+
+        if (wasSyncing) {
+            // finishIfDone will not run for the abandoned sync
+            LOG.info("Activity sync aborted");
+            final XiaomiSupport support = mHealthService.getSupport();
+            support.getDevice().unsetBusyTask();
+            GB.updateTransferNotification(null, "", false, 100, support.getContext());
+            support.getDevice().sendDeviceUpdateIntent(support.getContext());
+        }
+    }
+
     public void addChunk(final byte[] chunk) {
         final int total = BLETypeConversions.toUint16(chunk, 0);
         final int num = BLETypeConversions.toUint16(chunk, 2);
@@ -95,40 +157,86 @@ public class XiaomiActivityFileFetcher {
             final byte[] fileIdBytes = Arrays.copyOfRange(data, 0, 7);
             final XiaomiActivityFileId fileId = XiaomiActivityFileId.from(fileIdBytes);
 
-            dumpBytesToExternalStorage(fileId, data);
-
             if (!XiaomiPreferences.keepActivityDataOnDevice(mHealthService.getSupport().getDevice())) {
                 LOG.debug("Acking recorded data {}", fileId);
                 // TODO is this too early?
                 mHealthService.ackRecordedData(fileId);
             }
 
-            final XiaomiActivityParser activityParser = XiaomiActivityParser.create(fileId);
-            if (activityParser == null) {
-                LOG.warn("Failed to find parser for {}", fileId);
-                triggerNextFetch();
-                return;
+            final ThreadPoolExecutor parseExecutor;
+            final boolean fetchNext;
+            synchronized (this) {
+                parseExecutor = getParseExecutor();
+                mPendingParses++;
+                mFetchedFiles++;
+                fetchNext = mPendingParses < MAX_PENDING_PARSES;
+                mFetchDeferred = !fetchNext;
             }
 
-            try {
-                if (activityParser.parse(mHealthService.getSupport(), fileId, data)) {
-                    LOG.info("Successfully parsed {}", fileId);
-                } else {
-                    LOG.warn("Failed to parse {}", fileId);
+            parseExecutor.execute(() -> {
+                try {
+                    parse(fileId, data);
+                } finally {
+                    final boolean resumeFetch;
+                    synchronized (XiaomiActivityFileFetcher.this) {
+                        if (parseExecutor != mParseExecutor) {
+                            // disposed while parsing
+                            return;
+                        }
+                        mPendingParses--;
+                        resumeFetch = mFetchDeferred;
+                        mFetchDeferred = false;
+                    }
+                    if (resumeFetch) {
+                        triggerNextFetch();
+                    }
+                    finishIfDone();
                 }
-            } catch (final Exception ex) {
-                LOG.error("Exception while parsing {}", fileId, ex);
+            });
+
+            // The bytes are valid - request the next file while this one is being parsed, unless
+            // the parser fell behind, in which case the worker requests it once it catches up
+            if (fetchNext) {
+                triggerNextFetch();
+            } else {
+                LOG.debug("{} files waiting to be parsed, deferring the next fetch", MAX_PENDING_PARSES);
             }
+        }
+    }
 
-            triggerNextFetch();
+    private void parse(final XiaomiActivityFileId fileId, final byte[] data) {
+        dumpBytesToExternalStorage(fileId, data);
+
+        final XiaomiActivityParser activityParser = XiaomiActivityParser.create(fileId);
+        if (activityParser == null) {
+            LOG.warn("Failed to find parser for {}", fileId);
+            return;
+        }
+
+        try {
+            if (activityParser.parse(mHealthService.getSupport(), fileId, data)) {
+                LOG.info("Successfully parsed {}", fileId);
+            } else {
+                LOG.warn("Failed to parse {}", fileId);
+            }
+        } catch (final Exception ex) {
+            LOG.error("Exception while parsing {}", fileId, ex);
         }
     }
 
     public void fetch(final List<XiaomiActivityFileId> fileIds) {
-        mFetchQueue.addAll(fileIds);
-        if (!isFetching) {
-            // Currently not fetching anything, fetch the next
+        final boolean wasFetching;
+        synchronized (this) {
+            mFetchQueue.addAll(fileIds);
+            wasFetching = isFetching;
             isFetching = true;
+            if (!wasFetching && mPendingParses == 0) {
+                mFetchedFiles = 0;
+                mFetchStartTime = System.currentTimeMillis();
+            }
+        }
+        if (!wasFetching) {
+            // Currently not fetching anything, fetch the next
             final XiaomiSupport support = mHealthService.getSupport();
             final Context context = support.getContext();
             GB.updateTransferNotification(context.getString(R.string.busy_task_fetch_activity_data), "", true, 0, context);
@@ -139,15 +247,18 @@ public class XiaomiActivityFileFetcher {
     }
 
     private void triggerNextFetch() {
-        final XiaomiActivityFileId fileId = mFetchQueue.poll();
+        final XiaomiActivityFileId fileId;
+        synchronized (this) {
+            fileId = mFetchQueue.poll();
+            if (fileId == null) {
+                isFetching = false;
+                mFetchEndTime = System.currentTimeMillis();
+            }
+        }
 
         if (fileId == null) {
             LOG.debug("Nothing more to fetch");
-            isFetching = false;
-            mHealthService.getSupport().getDevice().unsetBusyTask();
-            GB.signalActivityDataFinish(mHealthService.getSupport().getDevice());
-            GB.updateTransferNotification(null, "", false, 100, mHealthService.getSupport().getContext());
-            mHealthService.getSupport().getDevice().sendDeviceUpdateIntent(mHealthService.getSupport().getContext());
+            finishIfDone();
             return;
         }
 
@@ -156,6 +267,37 @@ public class XiaomiActivityFileFetcher {
         mHealthService.requestRecordedData(fileId);
     }
 
+    /**
+     * Signal the end of the sync once nothing is left to fetch and all fetched files were parsed.
+     */
+    private void finishIfDone() {
+        final int fetchedFiles;
+        final long fetchDuration;
+        final long totalDuration;
+        synchronized (this) {
+            if (isFetching || mPendingParses > 0 || mFetchStartTime == 0) {
+                return;
+            }
+            final long now = System.currentTimeMillis();
+            fetchedFiles = mFetchedFiles;
+            fetchDuration = mFetchEndTime - mFetchStartTime;
+            totalDuration = now - mFetchStartTime;
+            mFetchStartTime = 0;
+        }
+
+        LOG.info(
+                "Activity sync finished: {} files, fetch took {}ms, total {}ms",
+                fetchedFiles,
+                fetchDuration,
+                totalDuration
+        );
+
+        mHealthService.getSupport().getDevice().unsetBusyTask();
+        GB.signalActivityDataFinish(mHealthService.getSupport().getDevice());
+        GB.updateTransferNotification(null, "", false, 100, mHealthService.getSupport().getContext());
+        mHealthService.getSupport().getDevice().sendDeviceUpdateIntent(mHealthService.getSupport().getContext());
+    }
+
     protected void dumpBytesToExternalStorage(final XiaomiActivityFileId fileId, final byte[] bytes) {
         try {
             final GBDevice device = mHealthService.getSupport().getDevice();
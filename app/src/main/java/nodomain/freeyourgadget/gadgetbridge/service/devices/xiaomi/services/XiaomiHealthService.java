@@ -16,12 +16,9 @@
     along with this program.  If not, see <https://www.gnu.org/licenses/>. */
 package nodomain.freeyourgadget.gadgetbridge.service.devices.xiaomi.services;
 
-import android.content.Intent;
 import android.location.Location;
 import android.os.Handler;
 
-import androidx.localbroadcastmanager.content.LocalBroadcastManager;
-
 import com.google.protobuf.ByteString;
 
 import org.slf4j.Logger;
@@ -54,7 +51,6 @@ import nodomain.freeyourgadget.gadgetbridge.impl.GBDevice;
 import nodomain.freeyourgadget.gadgetbridge.model.ActivityKind;
 import nodomain.freeyourgadget.gadgetbridge.model.ActivitySample;
 import nodomain.freeyourgadget.gadgetbridge.model.ActivityUser;
-import nodomain.freeyourgadget.gadgetbridge.model.DeviceService;
 import nodomain.freeyourgadget.gadgetbridge.proto.xiaomi.XiaomiProto;
 import nodomain.freeyourgadget.gadgetbridge.service.devices.xiaomi.XiaomiPreferences;
 import nodomain.freeyourgadget.gadgetbridge.service.devices.xiaomi.XiaomiSupport;
@@ -62,6 +58,7 @@ import nodomain.freeyourgadget.gadgetbridge.service.devices.xiaomi.activity.Xiao
 import nodomain.freeyourgadget.gadgetbridge.service.devices.xiaomi.activity.XiaomiActivityFileId;
 import nodomain.freeyourgadget.gadgetbridge.util.GB;
 import nodomain.freeyourgadget.gadgetbridge.util.Prefs;
+import nodomain.freeyourgadget.gadgetbridge.util.RealtimeSampleStream;
 
 public class XiaomiHealthService extends AbstractXiaomiService {
     private static final Logger LOG = LoggerFactory.getLogger(XiaomiHealthService.class);
@@ -770,6 +767,11 @@ public class XiaomiHealthService extends AbstractXiaomiService {
         return ActivityKind.UNKNOWN;
     }
 
+    @Override
+    public void onDisconnect() {
+        activityFetcher.dispose();
+    }
+
     public XiaomiActivityFileFetcher getActivityFetcher() {
         return activityFetcher;
     }
@@ -939,9 +941,6 @@ public class XiaomiHealthService extends AbstractXiaomiService {
 
         previousSteps = realTimeStats.getSteps();
 
-        final Intent intent = new Intent(DeviceService.ACTION_REALTIME_SAMPLES)
-                .putExtra(GBDevice.EXTRA_DEVICE, getSupport().getDevice())
-                .putExtra(DeviceService.EXTRA_REALTIME_SAMPLE, sample);
-        LocalBroadcastManager.getInstance(getSupport().getContext()).sendBroadcast(intent);
+        RealtimeSampleStream.publish(getSupport().getDevice(), sample);
     }
 }
@@ -40,6 +40,7 @@ import nodomain.freeyourgadget.gadgetbridge.devices.xiaomi.XiaomiWeatherConditio
 import nodomain.freeyourgadget.gadgetbridge.model.Weather;
 import nodomain.freeyourgadget.gadgetbridge.model.WeatherSpec;
 import nodomain.freeyourgadget.gadgetbridge.proto.xiaomi.XiaomiProto;
+import nodomain.freeyourgadget.gadgetbridge.service.WeatherSendCache;
 import nodomain.freeyourgadget.gadgetbridge.service.devices.xiaomi.XiaomiPreferences;
 import nodomain.freeyourgadget.gadgetbridge.service.devices.xiaomi.XiaomiSupport;
 import nodomain.freeyourgadget.gadgetbridge.util.Prefs;
@@ -72,6 +73,8 @@ public class XiaomiWeatherService extends AbstractXiaomiService {
 
     @Override
     public void initialize() {
+        getSupport().getWeatherSendCache().clear();
+
         // since temperature unit is app-wide instead of device-specific, update device setting during init
         setMeasurementSystem();
 
@@ -80,6 +83,11 @@ public class XiaomiWeatherService extends AbstractXiaomiService {
         getSupport().sendCommand("get weather locations", COMMAND_TYPE, CMD_GET_LOCATIONS);
     }
 
+    @Override
+    public void onDisconnect() {
+        getSupport().getWeatherSendCache().clear();
+    }
+
     @Override
     public void handleCommand(final XiaomiProto.Command cmd) {
         if (cmd.hasStatus() && cmd.getStatus() != 0) {
@@ -306,7 +314,7 @@ public class XiaomiWeatherService extends AbstractXiaomiService {
                 ))
                 .build();
 
-        getSupport().sendCommand("set current weather", command);
+        sendWeatherCommand("set current weather", "current " + getLocationKey(weatherSpec.location), command);
     }
 
     public void sendDailyForecast(final WeatherSpec weatherSpec) {
@@ -365,7 +373,7 @@ public class XiaomiWeatherService extends AbstractXiaomiService {
                                 .setEntries(entryListBuilder)))
                 .build();
 
-        getSupport().sendCommand("set daily forecast", command);
+        sendWeatherCommand("set daily forecast", "daily " + getLocationKey(weatherSpec.location), command);
     }
 
     public void sendHourlyForecast(final WeatherSpec weatherSpec) {
@@ -396,7 +404,21 @@ public class XiaomiWeatherService extends AbstractXiaomiService {
                                 .setEntries(entriesBuilder)))
                 .build();
 
-        getSupport().sendCommand("update hourly forecast", command);
+        sendWeatherCommand("update hourly forecast", "hourly " + getLocationKey(weatherSpec.location), command);
+    }
+
+    /**
+     * Send a weather command, unless the exact same command was already sent for this section.
+     */
+    private void sendWeatherCommand(final String taskName, final String section, final XiaomiProto.Command command) {
+        final WeatherSendCache weatherSendCache = getSupport().getWeatherSendCache();
+        final byte[] payload = command.toByteArray();
+        if (weatherSendCache.isUnchanged(section, payload)) {
+            return;
+        }
+
+        getSupport().sendCommand(taskName, command);
+        weatherSendCache.markSent(section, payload);
     }
 
     private boolean supportsMultipleWeatherLocations() {
@@ -413,6 +435,8 @@ public class XiaomiWeatherService extends AbstractXiaomiService {
                 sendWeatherSpec(specToSend);
             }
         }
+
+        getSupport().getWeatherSendCache().logStats();
     }
 
     private void sendWeatherSpecList(@NonNull final List<WeatherSpec> weatherSpecs) {
@@ -431,6 +455,11 @@ public class XiaomiWeatherService extends AbstractXiaomiService {
                 if (!cachedWeatherLocations.contains(location)) {
                     addWeatherLocation(location);
 
+                    // the weather for this location needs to be sent again
+                    getSupport().getWeatherSendCache().remove("current " + location.getCode());
+                    getSupport().getWeatherSendCache().remove("daily " + location.getCode());
+                    getSupport().getWeatherSendCache().remove("hourly " + location.getCode());
+
                     // assume adding location goes according to plan
                     cachedWeatherLocations.add(location);
                 }
@@ -441,7 +470,7 @@ public class XiaomiWeatherService extends AbstractXiaomiService {
 
         // update order of locations list on device
         {
-            getSupport().sendCommand("set weather locations order", XiaomiProto.Command.newBuilder()
+            sendWeatherCommand("set weather locations order", "locations", XiaomiProto.Command.newBuilder()
                     .setType(COMMAND_TYPE)
                     .setSubtype(CMD_SET_LOCATIONS)
                     .setWeather(XiaomiProto.Weather.newBuilder()
@@ -554,6 +583,7 @@ public class XiaomiWeatherService extends AbstractXiaomiService {
             getSupport().setFeatureSupported(XiaomiPreferences.FEAT_MULTIPLE_WEATHER_LOCATIONS, false);
 
             // now that the feature flag has been updated, send cached weather
+            getSupport().getWeatherSendCache().clear();
             onSendWeather(Weather.getInstance().getWeatherSpecs());
 
             return;
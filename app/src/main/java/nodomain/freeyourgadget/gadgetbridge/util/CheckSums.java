@@ -26,6 +26,7 @@ import java.io.ByteArrayOutputStream;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
@@ -36,58 +37,31 @@ public class CheckSums {
     private static final Logger LOG = LoggerFactory.getLogger(CheckSums.class);
 
     public static int getCRC8(byte[] seq) {
-        int len = seq.length;
-        int i = 0;
-        byte crc = 0x00;
-
-        while (len-- > 0) {
-            byte extract = seq[i++];
-            for (byte tempI = 8; tempI != 0; tempI--) {
-                byte sum = (byte) ((crc & 0xff) ^ (extract & 0xff));
-                sum = (byte) ((sum & 0xff) & 0x01);
-                crc = (byte) ((crc & 0xff) >>> 1);
-                if (sum != 0) {
-                    crc = (byte) ((crc & 0xff) ^ 0x8c);
-                }
-                extract = (byte) ((extract & 0xff) >>> 1);
-            }
-        }
-        return (crc & 0xff);
+        return Crc.CRC8_MAXIM.compute(seq);
     }
 
-    //thanks http://stackoverflow.com/questions/13209364/convert-c-crc16-to-java-crc16
     public static int getCRC16(byte[] seq) {
         return getCRC16(seq, 0xFFFF);
     }
-    
+
     public static int getCRC16(byte[] seq, int crc) {
-        for (byte b : seq) {
-            crc = ((crc >>> 8) | (crc << 8)) & 0xffff;
-            crc ^= (b & 0xff);//byte to int, trunc sign
-            crc ^= ((crc & 0xff) >> 4);
-            crc ^= (crc << 12) & 0xffff;
-            crc ^= ((crc & 0xFF) << 5) & 0xffff;
-        }
-        crc &= 0xffff;
-        return crc;
+        return getCRC16(seq, 0, seq.length, crc);
     }
-    
+
+    public static int getCRC16(byte[] seq, int offset, int length, int crc) {
+        return Crc.CRC16_CCITT_FALSE.update(crc, seq, offset, length);
+    }
+
+    public static int getCRC16(ByteBuffer buffer, int crc) {
+        return Crc.CRC16_CCITT_FALSE.update(crc, buffer);
+    }
+
     public static int getCRC16ansi(byte[] seq) {
-        int crc = 0xffff;
-        int polynomial = 0xA001;
-
-        for (int i = 0; i < seq.length; i++) {
-            crc ^= seq[i] & 0xFF;
-            for (int j = 0; j < 8; j++) {
-                if ((crc & 1) != 0) {
-                    crc = (crc >>> 1) ^ polynomial;
-                } else {
-                    crc = crc >>> 1;
-                }
-            }
-        }
+        return Crc.CRC16_MODBUS.compute(seq);
+    }
 
-        return crc & 0xFFFF;
+    public static int getCRC16ansi(byte[] seq, int offset, int length) {
+        return Crc.CRC16_MODBUS.compute(seq, offset, length);
     }
 
     public static int getCRC32(byte[] seq) {
@@ -102,6 +76,10 @@ public class CheckSums {
         return (int) (crc.getValue());
     }
 
+    public static int getCRC32(ByteBuffer buffer) {
+        return Crc.CRC32.compute(buffer);
+    }
+
     public static void main(String[] args) throws IOException {
         if (args == null || args.length == 0) {
             throw new IllegalArgumentException("Pass the files to be checksummed as arguments");
@@ -131,38 +109,8 @@ public class CheckSums {
     }
 
     // https://github.com/ThePBone/GalaxyBudsClient/blob/master/GalaxyBudsClient/Utils/CRC16.cs
-
-    private static int[] Crc16Tab =
-            {0, 4129, 8258, 12387, 16516, 20645, 24774, 28903, 33032, 37161, 41290,
-                    45419, 49548, 53677, 57806, 61935, 4657, 528, 12915, 8786, 21173, 17044, 29431, 25302,
-                    37689, 33560, 45947, 41818, 54205, 50076, 62463, 58334, 9314, 13379, 1056, 5121, 25830,
-                    29895, 17572, 21637, 42346, 46411, 34088, 38153, 58862, 62927, 50604, 54669, 13907,
-                    9842, 5649, 1584, 30423, 26358, 22165, 18100, 46939, 42874, 38681, 34616, 63455, 59390,
-                    55197, 51132, 18628, 22757, 26758, 30887, 2112, 6241, 10242, 14371, 51660, 55789,
-                    59790, 63919, 35144, 39273, 43274, 47403, 23285, 19156, 31415, 27286, 6769, 2640,
-                    14899, 10770, 56317, 52188, 64447, 60318, 39801, 35672, 47931, 43802, 27814, 31879,
-                    19684, 23749, 11298, 15363, 3168, 7233, 60846, 64911, 52716, 56781, 44330, 48395,
-                    36200, 40265, 32407, 28342, 24277, 20212, 15891, 11826, 7761, 3696, 65439, 61374,
-                    57309, 53244, 48923, 44858, 40793, 36728, 37256, 33193, 45514, 41451, 53516, 49453,
-                    61774, 57711, 4224, 161, 12482, 8419, 20484, 16421, 28742, 24679, 33721, 37784, 41979,
-                    46042, 49981, 54044, 58239, 62302, 689, 4752, 8947, 13010, 16949, 21012, 25207, 29270,
-                    46570, 42443, 38312, 34185, 62830, 58703, 54572, 50445, 13538, 9411, 5280, 1153, 29798,
-                    25671, 21540, 17413, 42971, 47098, 34713, 38840, 59231, 63358, 50973, 55100, 9939,
-                    14066, 1681, 5808, 26199, 30326, 17941, 22068, 55628, 51565, 63758, 59695, 39368,
-                    35305, 47498, 43435, 22596, 18533, 30726, 26663, 6336, 2273, 14466, 10403, 52093,
-                    56156, 60223, 64286, 35833, 39896, 43963, 48026, 19061, 23124, 27191, 31254, 2801,
-                    6864, 10931, 14994, 64814, 60687, 56684, 52557, 48554, 44427, 40424, 36297, 31782,
-                    27655, 23652, 19525, 15522, 11395, 7392, 3265, 61215, 65342, 53085, 57212, 44955,
-                    49082, 36825, 40952, 28183, 32310, 20053, 24180, 11923, 16050, 3793, 7920};
-
-    // // https://github.com/ThePBone/GalaxyBudsClient/blob/master/GalaxyBudsClient/Utils/CRC16.cs
     public static int crc16_ccitt(byte[] data) {
-
-        int i2 = 0;
-        for (int i3 = 0; i3 < data.length; i3++)
-            i2 = Crc16Tab[((i2 >> 8) ^ data[i3]) & 255] ^ (i2 << 8);
-
-        return 65535 & i2;
+        return Crc.CRC16_XMODEM.compute(data);
     }
 
     @Nullable
@@ -0,0 +1,204 @@
+/*  Copyright (C) 2026 agent
+
+    This file is part of Gadgetbridge.
+
+    Gadgetbridge is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published
+    by the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    Gadgetbridge is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>. */
+package nodomain.freeyourgadget.gadgetbridge.util;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Table-driven CRC of up to 32 bits, processing one byte per table lookup. The algorithms are
+ * described by their parameters, as in the catalogue of parametrised CRC algorithms
+ * (https://reveng.sourceforge.io/crc-catalogue/).
+ * <p>
+ * The instances are immutable and thread-safe. Use {@link #newState()} to compute a CRC
+ * incrementally, or {@link #update} to continue from a raw CRC register value.
+ */
+public final class Crc {
+    /**
+     * Dallas / Maxim 1-Wire, as used by Mi Band 1.
+     */
+    public static final Crc CRC8_MAXIM = new Crc(8, 0x31, 0x00, true, 0x00);
+
+    /**
+     * CCITT polynomial, initialized to 0xFFFF, as used by Huami / Mi Band firmware updates.
+     */
+    public static final Crc CRC16_CCITT_FALSE = new Crc(16, 0x1021, 0xFFFF, false, 0x0000);
+
+    /**
+     * CCITT polynomial, initialized to 0, as used by Huawei, VESC and Galaxy Buds.
+     */
+    public static final Crc CRC16_XMODEM = new Crc(16, 0x1021, 0x0000, false, 0x0000);
+
+    /**
+     * ANSI polynomial, initialized to 0xFFFF, as used by Nothing.
+     */
+    public static final Crc CRC16_MODBUS = new Crc(16, 0x8005, 0xFFFF, true, 0x0000);
+
+    /**
+     * ANSI polynomial, initialized to 0, as used by Garmin.
+     */
+    public static final Crc CRC16_ARC = new Crc(16, 0x8005, 0x0000, true, 0x0000);
+
+    /**
+     * The usual zlib / Ethernet CRC32. Prefer {@link java.util.zip.CRC32} for byte arrays, which
+     * is intrinsified - this one is here for {@link ByteBuffer}s and for completeness.
+     */
+    public static final Crc CRC32 = new Crc(32, 0x04C11DB7, 0xFFFFFFFF, true, 0xFFFFFFFF);
+
+    private final int width;
+    private final int mask;
+    private final int init;
+    private final boolean reflected;
+    private final int xorOut;
+    private final int[] table = new int[256];
+
+    private Crc(final int width, final int polynomial, final int init, final boolean reflected, final int xorOut) {
+        this.width = width;
+        this.mask = width == 32 ? 0xFFFFFFFF : (1 << width) - 1;
+        this.init = init;
+        this.reflected = reflected;
+        this.xorOut = xorOut;
+
+        if (reflected) {
+            final int reflectedPolynomial = Integer.reverse(polynomial) >>> (32 - width);
+            for (int i = 0; i < 256; i++) {
+                int crc = i;
+                for (int bit = 0; bit < 8; bit++) {
+                    crc = (crc & 1) != 0 ? (crc >>> 1) ^ reflectedPolynomial : crc >>> 1;
+                }
+                table[i] = crc;
+            }
+        } else {
+            final int topBit = 1 << (width - 1);
+            for (int i = 0; i < 256; i++) {
+                int crc = i << (width - 8);
+                for (int bit = 0; bit < 8; bit++) {
+                    crc = (crc & topBit) != 0 ? (crc << 1) ^ polynomial : crc << 1;
+                }
+                table[i] = crc & mask;
+            }
+        }
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int compute(final byte[] data) {
+        return compute(data, 0, data.length);
+    }
+
+    public int compute(final byte[] data, final int offset, final int length) {
+        return (update(init, data, offset, length) ^ xorOut) & mask;
+    }
+
+    /**
+     * Compute the CRC of the remaining bytes of the buffer, without changing its position.
+     */
+    public int compute(final ByteBuffer buffer) {
+        return (update(init, buffer) ^ xorOut) & mask;
+    }
+
+    /**
+     * Continue the computation from a raw CRC register value, before the final xor. For the
+     * algorithms without a final xor, this is the same as the CRC computed so far.
+     */
+    public int update(int crc, final byte[] data, final int offset, final int length) {
+        final int end = offset + length;
+        if (reflected) {
+            for (int i = offset; i < end; i++) {
+                crc = (crc >>> 8) ^ table[(crc ^ data[i]) & 0xff];
+            }
+        } else {
+            final int shift = width - 8;
+            for (int i = offset; i < end; i++) {
+                crc = (crc << 8) ^ table[((crc >>> shift) ^ data[i]) & 0xff];
+            }
+        }
+        return crc & mask;
+    }
+
+    /**
+     * Continue the computation over the remaining bytes of the buffer, without changing its position.
+     */
+    public int update(int crc, final ByteBuffer buffer) {
+        if (buffer.hasArray()) {
+            return update(crc, buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+        }
+
+        final int end = buffer.limit();
+        if (reflected) {
+            for (int i = buffer.position(); i < end; i++) {
+                crc = (crc >>> 8) ^ table[(crc ^ buffer.get(i)) & 0xff];
+            }
+        } else {
+            final int shift = width - 8;
+            for (int i = buffer.position(); i < end; i++) {
+                crc = (crc << 8) ^ table[((crc >>> shift) ^ buffer.get(i)) & 0xff];
+            }
+        }
+        return crc & mask;
+    }
+
+    public State newState() {
+        return new State();
+    }
+
+    /**
+     * Incremental CRC computation, which can be reused after {@link #reset()}.
+     */
+    public final class State {
+        private int crc = init;
+
+        private State() {
+        }
+
+        public State update(final byte b) {
+            if (reflected) {
+                crc = (crc >>> 8) ^ table[(crc ^ b) & 0xff];
+            } else {
+                crc = ((crc << 8) ^ table[((crc >>> (width - 8)) ^ b) & 0xff]) & mask;
+            }
+            return this;
+        }
+
+        public State update(final byte[] data) {
+            return update(data, 0, data.length);
+        }
+
+        public State update(final byte[] data, final int offset, final int length) {
+            crc = Crc.this.update(crc, data, offset, length);
+            return this;
+        }
+
+        /**
+         * Consume the remaining bytes of the buffer.
+         */
+        public State update(final ByteBuffer buffer) {
+            crc = Crc.this.update(crc, buffer);
+            buffer.position(buffer.limit());
+            return this;
+        }
+
+        public int getValue() {
+            return (crc ^ xorOut) & mask;
+        }
+
+        public void reset() {
+            crc = init;
+        }
+    }
+}
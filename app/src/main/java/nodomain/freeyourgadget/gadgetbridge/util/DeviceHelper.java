@@ -50,6 +50,7 @@ import nodomain.freeyourgadget.gadgetbridge.R;
 import nodomain.freeyourgadget.gadgetbridge.database.DBHandler;
 import nodomain.freeyourgadget.gadgetbridge.database.DBHelper;
 import nodomain.freeyourgadget.gadgetbridge.devices.DeviceCoordinator;
+import nodomain.freeyourgadget.gadgetbridge.devices.DeviceTypeIndex;
 import nodomain.freeyourgadget.gadgetbridge.devices.miband.MiBandConst;
 import nodomain.freeyourgadget.gadgetbridge.entities.Device;
 import nodomain.freeyourgadget.gadgetbridge.entities.DeviceAttributes;
@@ -64,6 +65,7 @@ public class DeviceHelper {
     private static final DeviceHelper instance = new DeviceHelper();
 
     private DeviceType[] orderedDeviceTypes = null;
+    private DeviceTypeIndex deviceTypeIndex = null;
 
     public static DeviceHelper getInstance() {
         return instance;
@@ -125,6 +127,15 @@ public class DeviceHelper {
 
         return orderedDeviceTypes;
     }
+
+    private DeviceTypeIndex getDeviceTypeIndex() {
+        if (deviceTypeIndex == null) {
+            deviceTypeIndex = new DeviceTypeIndex(getOrderedDeviceTypes());
+        }
+
+        return deviceTypeIndex;
+    }
+
     public DeviceType resolveDeviceType(GBDeviceCandidate deviceCandidate) {
         return resolveDeviceType(deviceCandidate, true);
     }
@@ -139,15 +150,10 @@ public class DeviceHelper {
                 }
             }
 
-            for (DeviceType type : getOrderedDeviceTypes()) {
-                if (type.getDeviceCoordinator().supports(deviceCandidate)) {
-                    deviceTypeCache.put(deviceCandidate.getMacAddress().toLowerCase(), type);
-                    return type;
-                }
-            }
-            deviceTypeCache.put(deviceCandidate.getMacAddress().toLowerCase(), DeviceType.UNKNOWN);
+            final DeviceType type = getDeviceTypeIndex().resolve(deviceCandidate);
+            deviceTypeCache.put(deviceCandidate.getMacAddress().toLowerCase(), type);
+            return type;
         }
-        return DeviceType.UNKNOWN;
     }
 
     public DeviceCoordinator resolveCoordinator(GBDeviceCandidate device) {
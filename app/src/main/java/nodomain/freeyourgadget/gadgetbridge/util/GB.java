@@ -64,6 +64,7 @@ import nodomain.freeyourgadget.gadgetbridge.deviceevents.GBDeviceEventScreenshot
 import nodomain.freeyourgadget.gadgetbridge.impl.GBDevice;
 import nodomain.freeyourgadget.gadgetbridge.model.ActivityKind;
 import nodomain.freeyourgadget.gadgetbridge.model.DeviceService;
+import nodomain.freeyourgadget.gadgetbridge.model.SampleCaches;
 import nodomain.freeyourgadget.gadgetbridge.service.DeviceCommunicationService;
 import nodomain.freeyourgadget.gadgetbridge.util.preferences.DevicePrefs;
 
@@ -679,6 +680,8 @@ public class GB {
     }
 
     public static void signalActivityDataFinish(final GBDevice device) {
+        SampleCaches.onSyncFinished(device);
+
         final Intent intent = new Intent(GBApplication.ACTION_NEW_DATA);
         intent.putExtra(GBDevice.EXTRA_DEVICE, device);
 
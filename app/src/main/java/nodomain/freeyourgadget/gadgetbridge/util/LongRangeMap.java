@@ -0,0 +1,177 @@
+/*  Copyright (C) 2026 agent
+
+    This file is part of Gadgetbridge.
+
+    Gadgetbridge is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published
+    by the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    Gadgetbridge is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>. */
+package nodomain.freeyourgadget.gadgetbridge.util;
+
+import androidx.annotation.Nullable;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.ToLongFunction;
+
+/**
+ * A {@link RangeMap} with primitive long keys, such as timestamps. Lookups are done by binary
+ * search, and {@link #sweep} annotates a sorted list in a single pass.
+ * <p>
+ * If the same key is put more than once, the last value wins.
+ */
+public class LongRangeMap<V> {
+    private final RangeMap.Mode mode;
+
+    private long[] keys = new long[16];
+    private Object[] values = new Object[16];
+    private int size = 0;
+    private boolean isSorted = true;
+
+    public LongRangeMap() {
+        this(RangeMap.Mode.LOWER_BOUND);
+    }
+
+    public LongRangeMap(final RangeMap.Mode mode) {
+        this.mode = mode;
+    }
+
+    public void put(final long key, final V value) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            values = Arrays.copyOf(values, size * 2);
+        }
+        if (size > 0 && key <= keys[size - 1]) {
+            isSorted = false;
+        }
+        keys[size] = key;
+        values[size] = value;
+        size++;
+    }
+
+    @Nullable
+    public V get(final long key) {
+        sort();
+        return valueAt(indexOf(key));
+    }
+
+    /**
+     * Call the consumer for each item that has a value, with the value for the key of the item.
+     * The items are expected to be sorted by key - if they are not, this falls back to a binary
+     * search for each out-of-order item.
+     */
+    public <T> void sweep(final List<T> items, final ToLongFunction<T> keyFunction, final BiConsumer<T, V> consumer) {
+        sort();
+        if (size == 0) {
+            return;
+        }
+
+        // number of keys strictly below (upper bound) or up to (lower bound) the current item key
+        int position = 0;
+        long previousKey = Long.MIN_VALUE;
+        for (final T item : items) {
+            final long key = keyFunction.applyAsLong(item);
+            if (key < previousKey) {
+                position = insertionPoint(key);
+            }
+            previousKey = key;
+
+            if (mode == RangeMap.Mode.LOWER_BOUND) {
+                while (position < size && keys[position] <= key) {
+                    position++;
+                }
+            } else {
+                while (position < size && keys[position] < key) {
+                    position++;
+                }
+            }
+
+            final V value = valueAt(mode == RangeMap.Mode.LOWER_BOUND ? position - 1 : position);
+            if (value != null) {
+                consumer.accept(item, value);
+            }
+        }
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    @Nullable
+    @SuppressWarnings("unchecked")
+    private V valueAt(final int index) {
+        if (index < 0 || index >= size) {
+            return null;
+        }
+        return (V) values[index];
+    }
+
+    /**
+     * The index of the value for a key, which may be out of bounds if there is none.
+     */
+    private int indexOf(final long key) {
+        final int index = Arrays.binarySearch(keys, 0, size, key);
+        if (index >= 0) {
+            return index;
+        }
+        final int insertionPoint = -index - 1;
+        return mode == RangeMap.Mode.LOWER_BOUND ? insertionPoint - 1 : insertionPoint;
+    }
+
+    /**
+     * The sweep position for a key, see {@link #sweep}.
+     */
+    private int insertionPoint(final long key) {
+        final int index = Arrays.binarySearch(keys, 0, size, key);
+        if (index < 0) {
+            return -index - 1;
+        }
+        return mode == RangeMap.Mode.LOWER_BOUND ? index + 1 : index;
+    }
+
+    /**
+     * Sort by key, keeping only the last value put for each key.
+     */
+    private void sort() {
+        if (isSorted) {
+            return;
+        }
+
+        // stable sort, so that the last value for duplicate keys stays last
+        final Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Long.compare(keys[a], keys[b]));
+
+        final long[] sortedKeys = new long[keys.length];
+        final Object[] sortedValues = new Object[values.length];
+        int sortedSize = 0;
+        for (final int i : order) {
+            if (sortedSize > 0 && sortedKeys[sortedSize - 1] == keys[i]) {
+                sortedSize--;
+            }
+            sortedKeys[sortedSize] = keys[i];
+            sortedValues[sortedSize] = values[i];
+            sortedSize++;
+        }
+
+        keys = sortedKeys;
+        values = sortedValues;
+        size = sortedSize;
+        isSorted = true;
+    }
+}
@@ -0,0 +1,205 @@
+/*  Copyright (C) 2026 agent
+
+    This file is part of Gadgetbridge.
+
+    Gadgetbridge is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published
+    by the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    Gadgetbridge is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>. */
+package nodomain.freeyourgadget.gadgetbridge.util;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+
+import androidx.annotation.MainThread;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import nodomain.freeyourgadget.gadgetbridge.impl.GBDevice;
+
+/**
+ * Delivers the realtime samples of the devices (heart rate, steps, cycling data...) to the UI.
+ * <p>
+ * Samples can be published from any thread, and are passed by reference. Subscribers are called on
+ * the main thread at most once per {@link #FRAME_INTERVAL_MILLIS}, with the latest sample of each
+ * device that published since the previous frame. Subscribers that need every sample, such as live
+ * charts, can subscribe with history, to also get all the samples that arrived between frames.
+ */
+public final class RealtimeSampleStream {
+    public static final long FRAME_INTERVAL_MILLIS = 100;
+
+    // per device and frame, in case the main thread is blocked for a while
+    private static final int MAX_HISTORY = 256;
+
+    private static final RealtimeSampleStream INSTANCE = new RealtimeSampleStream();
+
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+
+    private final Object lock = new Object();
+    private Map<String, Pending> pending = new LinkedHashMap<>();
+    private boolean frameScheduled = false;
+    private long lastFrameMillis = 0;
+    private Handler handler;
+
+    private final Runnable frameRunnable = this::deliverFrame;
+
+    public interface Subscriber {
+        /**
+         * Called on the main thread, with one update per device that published samples since the last frame.
+         */
+        void onRealtimeSamples(List<Update> updates);
+    }
+
+    public static final class Update {
+        private final GBDevice device;
+        private final List<Object> samples;
+
+        private Update(final GBDevice device, final List<Object> samples) {
+            this.device = device;
+            this.samples = samples;
+        }
+
+        public GBDevice getDevice() {
+            return device;
+        }
+
+        public Object getLatestSample() {
+            return samples.get(samples.size() - 1);
+        }
+
+        /**
+         * The samples that arrived since the last frame, oldest first, if subscribed with history.
+         * Otherwise, only the latest sample.
+         */
+        public List<Object> getSamples() {
+            return samples;
+        }
+    }
+
+    private static final class Subscription {
+        private final Subscriber subscriber;
+        private final boolean withHistory;
+
+        private Subscription(final Subscriber subscriber, final boolean withHistory) {
+            this.subscriber = subscriber;
+            this.withHistory = withHistory;
+        }
+    }
+
+    private static final class Pending {
+        private GBDevice device;
+        private Object latest;
+        private final List<Object> history = new ArrayList<>();
+    }
+
+    private RealtimeSampleStream() {
+    }
+
+    public static RealtimeSampleStream getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Publish a realtime sample of a device. Can be called from any thread.
+     */
+    public static void publish(final GBDevice device, final Object sample) {
+        INSTANCE.publishSample(device, sample);
+    }
+
+    @MainThread
+    public void subscribe(final Subscriber subscriber) {
+        subscribe(subscriber, false);
+    }
+
+    @MainThread
+    public void subscribe(final Subscriber subscriber, final boolean withHistory) {
+        subscriptions.add(new Subscription(subscriber, withHistory));
+    }
+
+    @MainThread
+    public void unsubscribe(final Subscriber subscriber) {
+        for (final Subscription subscription : subscriptions) {
+            if (subscription.subscriber == subscriber) {
+                subscriptions.remove(subscription);
+            }
+        }
+    }
+
+    private void publishSample(final GBDevice device, final Object sample) {
+        if (subscriptions.isEmpty()) {
+            return;
+        }
+
+        final boolean keepHistory = hasHistorySubscription();
+
+        synchronized (lock) {
+            Pending devicePending = pending.get(device.getAddress());
+            if (devicePending == null) {
+                devicePending = new Pending();
+                pending.put(device.getAddress(), devicePending);
+            }
+            devicePending.device = device;
+            devicePending.latest = sample;
+            if (keepHistory) {
+                if (devicePending.history.size() >= MAX_HISTORY) {
+                    devicePending.history.remove(0);
+                }
+                devicePending.history.add(sample);
+            }
+
+            if (!frameScheduled) {
+                frameScheduled = true;
+                if (handler == null) {
+                    handler = new Handler(Looper.getMainLooper());
+                }
+                final long delay = lastFrameMillis + FRAME_INTERVAL_MILLIS - SystemClock.uptimeMillis();
+                handler.postDelayed(frameRunnable, Math.max(0, delay));
+            }
+        }
+    }
+
+    private void deliverFrame() {
+        final Map<String, Pending> frame;
+        synchronized (lock) {
+            frame = pending;
+            pending = new LinkedHashMap<>();
+            frameScheduled = false;
+            lastFrameMillis = SystemClock.uptimeMillis();
+        }
+
+        final List<Update> latestUpdates = new ArrayList<>(frame.size());
+        final List<Update> historyUpdates = new ArrayList<>(frame.size());
+        for (final Pending devicePending : frame.values()) {
+            final List<Object> latest = Collections.singletonList(devicePending.latest);
+            latestUpdates.add(new Update(devicePending.device, latest));
+            historyUpdates.add(new Update(devicePending.device, devicePending.history.isEmpty() ? latest : Collections.unmodifiableList(devicePending.history)));
+        }
+
+        for (final Subscription subscription : subscriptions) {
+            subscription.subscriber.onRealtimeSamples(subscription.withHistory ? historyUpdates : latestUpdates);
+        }
+    }
+
+    private boolean hasHistorySubscription() {
+        for (final Subscription subscription : subscriptions) {
+            if (subscription.withHistory) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
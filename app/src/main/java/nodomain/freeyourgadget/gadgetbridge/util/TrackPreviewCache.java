@@ -0,0 +1,419 @@
+/*  Copyright (C) 2026 agent
+
+    This file is part of Gadgetbridge.
+
+    Gadgetbridge is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published
+    by the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    Gadgetbridge is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>. */
+package nodomain.freeyourgadget.gadgetbridge.util;
+
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+import nodomain.freeyourgadget.gadgetbridge.GBApplication;
+import nodomain.freeyourgadget.gadgetbridge.activities.ActivitySummariesGpsFragment;
+import nodomain.freeyourgadget.gadgetbridge.model.ActivityPoint;
+import nodomain.freeyourgadget.gadgetbridge.model.GPSCoordinate;
+import nodomain.freeyourgadget.gadgetbridge.util.gpx.GpxParseException;
+import nodomain.freeyourgadget.gadgetbridge.util.gpx.GpxPointReader;
+
+/**
+ * Simplified versions of the workout tracks, to draw their thumbnails without parsing the whole
+ * track file every time.
+ * <p>
+ * Each track segment is simplified with Douglas-Peucker, so that no point of the original track is
+ * further than {@link #TOLERANCE} of the track size from the preview. Previews are kept in the cache
+ * directory, keyed by the path, size and modification time of the track file, so they are computed
+ * again if the track changes.
+ */
+public final class TrackPreviewCache {
+    private static final Logger LOG = LoggerFactory.getLogger(TrackPreviewCache.class);
+
+    private static final int MAGIC = 0x47425450; // GBTP
+    private static final int VERSION = 2;
+
+    /**
+     * Maximum distance of the original points to the preview, relative to the largest side of the
+     * track bounding box - well below a pixel for the thumbnail sizes.
+     */
+    static final double TOLERANCE = 0.001;
+
+    private static final int MAX_MEMORY_ENTRIES = 8;
+    private static final int MAX_COUNT = 1_000_000;
+
+    private static final Map<String, Entry> MEMORY_CACHE = new LinkedHashMap<String, Entry>(MAX_MEMORY_ENTRIES, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<String, Entry> eldest) {
+            return size() > MAX_MEMORY_ENTRIES;
+        }
+    };
+
+    private TrackPreviewCache() {
+    }
+
+    /**
+     * Get the preview of a track file, computing and persisting it if needed. The preview has one
+     * list of points per track segment, and is empty if the track has no locations.
+     *
+     * @throws IOException if the track could not be read, in which case nothing is cached
+     */
+    @WorkerThread
+    public static List<List<GPSCoordinate>> getPreview(final File trackFile) throws IOException {
+        final String path = trackFile.getAbsolutePath();
+        final long lastModified = trackFile.lastModified();
+        final long length = trackFile.length();
+
+        synchronized (MEMORY_CACHE) {
+            final Entry entry = MEMORY_CACHE.get(path);
+            if (entry != null && entry.matches(lastModified, length)) {
+                return entry.segments;
+            }
+        }
+
+        final File previewFile = getPreviewFile(path);
+        List<List<GPSCoordinate>> segments = null;
+        if (previewFile != null) {
+            try {
+                segments = read(previewFile, path, lastModified, length);
+            } catch (final FileNotFoundException ignored) {
+                // not computed yet
+            } catch (final IOException e) {
+                LOG.warn("Failed to read track preview {}", previewFile, e);
+            }
+        }
+
+        if (segments == null) {
+            if (trackFile.getName().endsWith(".gpx")) {
+                try {
+                    segments = computeGpxPreview(trackFile);
+                } catch (final GpxParseException e) {
+                    throw new IOException("Failed to parse gpx file " + trackFile, e);
+                }
+            } else {
+                // only gpx files have track segments
+                final List<GPSCoordinate> trackPoints = ActivitySummariesGpsFragment.readActivityPoints(trackFile)
+                        .stream()
+                        .map(ActivityPoint::getLocation)
+                        .filter(Objects::nonNull)
+                        .collect(Collectors.toList());
+
+                // plain coordinates, the same as the ones read from the preview file
+                final List<GPSCoordinate> points = simplify(trackPoints, TOLERANCE)
+                        .stream()
+                        .map(p -> new GPSCoordinate(p.getLongitude(), p.getLatitude(), p.getAltitude()))
+                        .collect(Collectors.toList());
+                LOG.debug("Simplified track {} from {} to {} points", trackFile, trackPoints.size(), points.size());
+                segments = points.isEmpty() ? Collections.emptyList() : Collections.singletonList(points);
+            }
+
+            if (previewFile != null) {
+                try {
+                    write(previewFile, path, lastModified, length, segments);
+                } catch (final IOException e) {
+                    LOG.warn("Failed to write track preview {}", previewFile, e);
+                }
+            }
+        }
+
+        final Entry entry = new Entry(lastModified, length, segments);
+        synchronized (MEMORY_CACHE) {
+            MEMORY_CACHE.put(path, entry);
+        }
+
+        return entry.segments;
+    }
+
+    /**
+     * Computes the preview of a gpx track without loading the whole track in memory. The first pass
+     * finds the bounds of the track. The second one drops the points close to the previous one,
+     * within half the tolerance, and the remaining ones of each segment are simplified with the
+     * other half.
+     */
+    static List<List<GPSCoordinate>> computeGpxPreview(final File trackFile) throws IOException, GpxParseException {
+        final double maxDistance;
+        try (InputStream inputStream = new BufferedInputStream(new FileInputStream(trackFile))) {
+            final GpxPointReader reader = new GpxPointReader(inputStream);
+            //noinspection StatementWithEmptyBody
+            while (reader.next()) {
+            }
+            if (reader.getPointCount() == 0) {
+                return Collections.emptyList();
+            }
+            maxDistance = TOLERANCE * Math.max(
+                    reader.getMaxLatitude() - reader.getMinLatitude(),
+                    reader.getMaxLongitude() - reader.getMinLongitude()
+            );
+        }
+
+        final List<List<GPSCoordinate>> segments = new ArrayList<>();
+        try (InputStream inputStream = new BufferedInputStream(new FileInputStream(trackFile))) {
+            final GpxPointReader reader = new GpxPointReader(inputStream);
+            final GpxPointReader.Point point = reader.getPoint();
+            List<GPSCoordinate> points = null;
+            // the last point, if it was dropped
+            GPSCoordinate lastPoint = null;
+            while (reader.next()) {
+                if (points == null || point.isSegmentStart()) {
+                    if (points != null) {
+                        segments.add(finishSegment(points, lastPoint, maxDistance / 2));
+                    }
+                    points = new ArrayList<>();
+                    lastPoint = null;
+                }
+                final boolean add = points.isEmpty() || Math.hypot(
+                        point.getLongitude() - points.get(points.size() - 1).getLongitude(),
+                        point.getLatitude() - points.get(points.size() - 1).getLatitude()
+                ) > maxDistance / 2;
+                final GPSCoordinate coordinate = new GPSCoordinate(point.getLongitude(), point.getLatitude(), point.getAltitude());
+                if (add) {
+                    points.add(coordinate);
+                    lastPoint = null;
+                } else {
+                    lastPoint = coordinate;
+                }
+            }
+            if (points != null) {
+                segments.add(finishSegment(points, lastPoint, maxDistance / 2));
+            }
+            LOG.debug("Simplified track {} from {} points to {} segments", trackFile, reader.getPointCount(), segments.size());
+        }
+
+        return segments;
+    }
+
+    /**
+     * Simplifies the points kept from a segment. If the last point of the segment was dropped, as
+     * it was too close to the previous one, it is added back: the segment always ends there.
+     */
+    private static List<GPSCoordinate> finishSegment(final List<GPSCoordinate> points,
+                                                     @Nullable final GPSCoordinate lastPoint,
+                                                     final double maxDistance) {
+        if (lastPoint != null) {
+            points.add(lastPoint);
+        }
+        return simplifyWithin(points, maxDistance);
+    }
+
+    static void clearMemoryCache() {
+        synchronized (MEMORY_CACHE) {
+            MEMORY_CACHE.clear();
+        }
+    }
+
+    /**
+     * Douglas-Peucker simplification of the track, keeping the points further than the tolerance
+     * (relative to the largest side of the bounding box) from the simplified line.
+     */
+    static List<GPSCoordinate> simplify(final List<GPSCoordinate> points, final double tolerance) {
+        if (points.size() <= 2) {
+            return new ArrayList<>(points);
+        }
+
+        double minLat = Double.MAX_VALUE, maxLat = -Double.MAX_VALUE;
+        double minLon = Double.MAX_VALUE, maxLon = -Double.MAX_VALUE;
+        for (final GPSCoordinate point : points) {
+            minLat = Math.min(minLat, point.getLatitude());
+            maxLat = Math.max(maxLat, point.getLatitude());
+            minLon = Math.min(minLon, point.getLongitude());
+            maxLon = Math.max(maxLon, point.getLongitude());
+        }
+
+        return simplifyWithin(points, tolerance * Math.max(maxLat - minLat, maxLon - minLon));
+    }
+
+    /**
+     * Douglas-Peucker simplification of the track, keeping the points further than maxDistance
+     * degrees from the simplified line.
+     */
+    private static List<GPSCoordinate> simplifyWithin(final List<GPSCoordinate> points, final double maxDistance) {
+        if (points.size() <= 2) {
+            return new ArrayList<>(points);
+        }
+
+        final boolean[] keep = new boolean[points.size()];
+        keep[0] = true;
+        keep[points.size() - 1] = true;
+
+        // iterative, long tracks would overflow the stack
+        final Deque<int[]> ranges = new ArrayDeque<>();
+        ranges.push(new int[]{0, points.size() - 1});
+        while (!ranges.isEmpty()) {
+            final int[] range = ranges.pop();
+            final GPSCoordinate start = points.get(range[0]);
+            final GPSCoordinate end = points.get(range[1]);
+
+            int furthest = -1;
+            double furthestDistance = maxDistance;
+            for (int i = range[0] + 1; i < range[1]; i++) {
+                final double distance = segmentDistance(points.get(i), start, end);
+                if (distance > furthestDistance) {
+                    furthest = i;
+                    furthestDistance = distance;
+                }
+            }
+
+            if (furthest != -1) {
+                keep[furthest] = true;
+                ranges.push(new int[]{range[0], furthest});
+                ranges.push(new int[]{furthest, range[1]});
+            }
+        }
+
+        final List<GPSCoordinate> simplified = new ArrayList<>();
+        for (int i = 0; i < points.size(); i++) {
+            if (keep[i]) {
+                simplified.add(points.get(i));
+            }
+        }
+        return simplified;
+    }
+
+    /**
+     * Distance of a point to the segment between start and end, in degrees, as drawn on the thumbnail.
+     */
+    static double segmentDistance(final GPSCoordinate point, final GPSCoordinate start, final GPSCoordinate end) {
+        final double dx = end.getLongitude() - start.getLongitude();
+        final double dy = end.getLatitude() - start.getLatitude();
+        final double px = point.getLongitude() - start.getLongitude();
+        final double py = point.getLatitude() - start.getLatitude();
+
+        final double lengthSquared = dx * dx + dy * dy;
+        double t = lengthSquared == 0 ? 0 : (px * dx + py * dy) / lengthSquared;
+        t = Math.max(0, Math.min(1, t));
+
+        return Math.hypot(px - t * dx, py - t * dy);
+    }
+
+    private static File getPreviewFile(final String path) {
+        final File cacheDir = GBApplication.getContext().getCacheDir();
+        if (cacheDir == null) {
+            return null;
+        }
+        final File previewDir = new File(cacheDir, "track_previews");
+        //noinspection ResultOfMethodCallIgnored
+        previewDir.mkdir();
+        // the path is also stored in the file, in case of collisions
+        return new File(previewDir, Integer.toHexString(path.hashCode()) + ".bin");
+    }
+
+    private static List<List<GPSCoordinate>> read(final File previewFile,
+                                                  final String path,
+                                                  final long lastModified,
+                                                  final long length) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(previewFile)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                return null;
+            }
+            if (!path.equals(in.readUTF()) || in.readLong() != lastModified || in.readLong() != length) {
+                // a different track, or it was changed
+                return null;
+            }
+            final int segmentCount = in.readInt();
+            if (segmentCount < 0 || segmentCount > MAX_COUNT) {
+                throw new IOException("Invalid segment count " + segmentCount);
+            }
+            final List<List<GPSCoordinate>> segments = new ArrayList<>(segmentCount);
+            int totalCount = 0;
+            for (int s = 0; s < segmentCount; s++) {
+                final int count = in.readInt();
+                totalCount += count;
+                if (count < 0 || totalCount > MAX_COUNT) {
+                    throw new IOException("Invalid point count " + count);
+                }
+                final List<GPSCoordinate> points = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    final double longitude = in.readDouble();
+                    final double latitude = in.readDouble();
+                    final double altitude = in.readDouble();
+                    points.add(new GPSCoordinate(longitude, latitude, altitude));
+                }
+                segments.add(points);
+            }
+            return segments;
+        } catch (final EOFException e) {
+            throw new IOException("Truncated track preview", e);
+        }
+    }
+
+    private static void write(final File previewFile,
+                              final String path,
+                              final long lastModified,
+                              final long length,
+                              final List<List<GPSCoordinate>> segments) throws IOException {
+        final File tmpFile = new File(previewFile.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmpFile)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeUTF(path);
+            out.writeLong(lastModified);
+            out.writeLong(length);
+            out.writeInt(segments.size());
+            for (final List<GPSCoordinate> points : segments) {
+                out.writeInt(points.size());
+                for (final GPSCoordinate point : points) {
+                    out.writeDouble(point.getLongitude());
+                    out.writeDouble(point.getLatitude());
+                    out.writeDouble(point.getAltitude());
+                }
+            }
+        }
+        if (!tmpFile.renameTo(previewFile)) {
+            //noinspection ResultOfMethodCallIgnored
+            tmpFile.delete();
+            throw new IOException("Failed to rename " + tmpFile + " to " + previewFile);
+        }
+    }
+
+    private static final class Entry {
+        private final long lastModified;
+        private final long length;
+        private final List<List<GPSCoordinate>> segments;
+
+        private Entry(final long lastModified, final long length, final List<List<GPSCoordinate>> segments) {
+            this.lastModified = lastModified;
+            this.length = length;
+            final List<List<GPSCoordinate>> unmodifiableSegments = new ArrayList<>(segments.size());
+            for (final List<GPSCoordinate> points : segments) {
+                unmodifiableSegments.add(Collections.unmodifiableList(points));
+            }
+            this.segments = Collections.unmodifiableList(unmodifiableSegments);
+        }
+
+        private boolean matches(final long lastModified, final long length) {
+            return this.lastModified == lastModified && this.length == length;
+        }
+    }
+}
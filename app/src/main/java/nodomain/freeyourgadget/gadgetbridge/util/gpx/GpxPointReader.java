@@ -0,0 +1,315 @@
+/*  Copyright (C) 2026 agent
+
+    This file is part of Gadgetbridge.
+
+    Gadgetbridge is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published
+    by the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    Gadgetbridge is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>. */
+package nodomain.freeyourgadget.gadgetbridge.util.gpx;
+
+import android.location.Location;
+
+import com.google.gson.internal.bind.util.ISO8601Utils;
+
+import org.xmlpull.v1.XmlPullParser;
+import org.xmlpull.v1.XmlPullParserFactory;
+
+import java.io.InputStream;
+import java.text.ParsePosition;
+import java.util.Date;
+
+import nodomain.freeyourgadget.gadgetbridge.util.gpx.model.GpxTrackPoint;
+
+/**
+ * Reads the track points of a gpx file one at a time, without keeping the whole track in memory,
+ * unlike {@link GpxParser}. Waypoints and metadata are ignored.
+ * <p>
+ * The current point is kept in a holder that is reused for every point, so it must be copied if
+ * it is needed after the next call to {@link #next()}. The bounds and distance of the points read
+ * so far are computed along the way.
+ */
+public class GpxPointReader {
+    private final XmlPullParser parser;
+
+    private final Point point = new Point();
+
+    // empty tracks and segments are not counted, as GpxParser drops them
+    private int trackIndex = -1;
+    private int segmentIndex = -1;
+    private boolean newTrack = false;
+    private boolean newSegment = false;
+
+    private int pointCount = 0;
+    private double minLatitude = Double.MAX_VALUE;
+    private double maxLatitude = -Double.MAX_VALUE;
+    private double minLongitude = Double.MAX_VALUE;
+    private double maxLongitude = -Double.MAX_VALUE;
+    private double minAltitude = Double.MAX_VALUE;
+    private double maxAltitude = -Double.MAX_VALUE;
+    private double distance = 0;
+
+    private final float[] distanceResult = new float[1];
+
+    public GpxPointReader(final InputStream stream) throws GpxParseException {
+        try {
+            final XmlPullParserFactory factory = XmlPullParserFactory.newInstance();
+            factory.setNamespaceAware(true);
+            parser = factory.newPullParser();
+            parser.setInput(stream, null);
+        } catch (final Exception e) {
+            throw new GpxParseException("Failed to parse gpx", e);
+        }
+    }
+
+    /**
+     * Reads the next track point into {@link #getPoint()}.
+     *
+     * @return false if there are no more track points
+     */
+    public boolean next() throws GpxParseException {
+        try {
+            int eventType = parser.next();
+            while (eventType != XmlPullParser.END_DOCUMENT) {
+                if (eventType == XmlPullParser.START_TAG) {
+                    switch (parser.getName()) {
+                        case "trk":
+                            newTrack = true;
+                            break;
+                        case "trkseg":
+                            newSegment = true;
+                            break;
+                        case "trkpt":
+                            readTrackPoint();
+                            return true;
+                    }
+                }
+
+                eventType = parser.next();
+            }
+        } catch (final Exception e) {
+            throw new GpxParseException("Failed to parse gpx", e);
+        }
+
+        return false;
+    }
+
+    public Point getPoint() {
+        return point;
+    }
+
+    public int getPointCount() {
+        return pointCount;
+    }
+
+    public double getMinLatitude() {
+        return minLatitude;
+    }
+
+    public double getMaxLatitude() {
+        return maxLatitude;
+    }
+
+    public double getMinLongitude() {
+        return minLongitude;
+    }
+
+    public double getMaxLongitude() {
+        return maxLongitude;
+    }
+
+    /**
+     * The minimum altitude of the points that have one, or {@link Double#MAX_VALUE} if none has.
+     */
+    public double getMinAltitude() {
+        return minAltitude;
+    }
+
+    /**
+     * The maximum altitude of the points that have one, or -{@link Double#MAX_VALUE} if none has.
+     */
+    public double getMaxAltitude() {
+        return maxAltitude;
+    }
+
+    /**
+     * The distance in meters between the points read so far, within each track segment.
+     */
+    public double getDistance() {
+        return distance;
+    }
+
+    private void readTrackPoint() throws Exception {
+        final double previousLatitude = point.latitude;
+        final double previousLongitude = point.longitude;
+
+        if (newTrack || pointCount == 0) {
+            trackIndex++;
+            segmentIndex = -1;
+            newSegment = true;
+        }
+        if (newSegment) {
+            segmentIndex++;
+        }
+
+        point.reset();
+        point.trackIndex = trackIndex;
+        point.segmentIndex = segmentIndex;
+        point.segmentStart = newSegment;
+        newTrack = false;
+        newSegment = false;
+
+        final String latString = parser.getAttributeValue(null, "lat");
+        final String lonString = parser.getAttributeValue(null, "lon");
+        point.latitude = latString != null ? Double.parseDouble(latString) : 0;
+        point.longitude = lonString != null ? Double.parseDouble(lonString) : 0;
+
+        boolean inExtensions = false;
+        boolean inTrackPointExtension = false;
+        int eventType = parser.next();
+        while (eventType != XmlPullParser.END_TAG || !parser.getName().equals("trkpt")) {
+            if (eventType == XmlPullParser.START_TAG) {
+                switch (parser.getName()) {
+                    case "ele":
+                        if (!inExtensions) {
+                            point.altitude = Double.parseDouble(parser.nextText().trim());
+                            point.hasAltitude = true;
+                        }
+                        break;
+                    case "time":
+                        if (!inExtensions) {
+                            final Date time = ISO8601Utils.parse(parser.nextText().trim(), new ParsePosition(0));
+                            point.time = time.getTime();
+                            point.hasTime = true;
+                        }
+                        break;
+                    case "extensions":
+                        inExtensions = true;
+                        break;
+                    case "TrackPointExtension":
+                        inTrackPointExtension = inExtensions;
+                        break;
+                    case "hr":
+                        if (inTrackPointExtension) {
+                            point.heartRate = Integer.parseInt(parser.nextText().trim());
+                        }
+                        break;
+                }
+            } else if (eventType == XmlPullParser.END_TAG) {
+                switch (parser.getName()) {
+                    case "extensions":
+                        inExtensions = false;
+                        break;
+                    case "TrackPointExtension":
+                        inTrackPointExtension = false;
+                        break;
+                }
+            }
+
+            eventType = parser.next();
+        }
+
+        if (!point.segmentStart) {
+            Location.distanceBetween(previousLatitude, previousLongitude, point.latitude, point.longitude, distanceResult);
+            distance += distanceResult[0];
+        }
+
+        pointCount++;
+        minLatitude = Math.min(minLatitude, point.latitude);
+        maxLatitude = Math.max(maxLatitude, point.latitude);
+        minLongitude = Math.min(minLongitude, point.longitude);
+        maxLongitude = Math.max(maxLongitude, point.longitude);
+        if (point.hasAltitude) {
+            minAltitude = Math.min(minAltitude, point.altitude);
+            maxAltitude = Math.max(maxAltitude, point.altitude);
+        }
+    }
+
+    /**
+     * A track point, reused for every point read.
+     */
+    public static class Point {
+        private int trackIndex;
+        private int segmentIndex;
+        private boolean segmentStart;
+        private double latitude;
+        private double longitude;
+        private double altitude;
+        private boolean hasAltitude;
+        private long time;
+        private boolean hasTime;
+        private int heartRate;
+
+        private void reset() {
+            altitude = 0;
+            hasAltitude = false;
+            time = 0;
+            hasTime = false;
+            heartRate = -1;
+        }
+
+        public int getTrackIndex() {
+            return trackIndex;
+        }
+
+        public int getSegmentIndex() {
+            return segmentIndex;
+        }
+
+        /**
+         * Whether this is the first point of a track segment.
+         */
+        public boolean isSegmentStart() {
+            return segmentStart;
+        }
+
+        public double getLatitude() {
+            return latitude;
+        }
+
+        public double getLongitude() {
+            return longitude;
+        }
+
+        /**
+         * The altitude, or 0 if the point has none, as {@link GpxParser} does.
+         */
+        public double getAltitude() {
+            return altitude;
+        }
+
+        public boolean hasAltitude() {
+            return hasAltitude;
+        }
+
+        /**
+         * The time in milliseconds, or 0 if the point has none.
+         */
+        public long getTime() {
+            return time;
+        }
+
+        public boolean hasTime() {
+            return hasTime;
+        }
+
+        public int getHeartRate() {
+            return heartRate;
+        }
+
+        /**
+         * Copies the point, equal to the one that {@link GpxParser} would return.
+         */
+        public GpxTrackPoint toTrackPoint() {
+            return new GpxTrackPoint(longitude, latitude, altitude, hasTime ? new Date(time) : null, heartRate);
+        }
+    }
+}
@@ -0,0 +1,326 @@
+/*  Copyright (C) 2026 agent
+
+    This file is part of Gadgetbridge.
+
+    Gadgetbridge is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published
+    by the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    Gadgetbridge is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>. */
+package nodomain.freeyourgadget.gadgetbridge.util.logging;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.OutputStreamAppender;
+import ch.qos.logback.core.UnsynchronizedAppenderBase;
+
+/**
+ * Appender that hands the events over to a background thread, which writes them to the delegate
+ * appender (usually the file appender), so that logging never blocks on disk I/O.
+ * <p>
+ * Events are kept in a fixed-size ring buffer. When it is full, new events below {@link Level#WARN}
+ * are dropped, while warnings and errors evict the oldest event in the buffer instead. Dropped
+ * events are counted, and a warning with the number of dropped events is written once the buffer
+ * has room again.
+ */
+public class AsyncRingBufferAppender extends UnsynchronizedAppenderBase<ILoggingEvent> {
+    public static final int DEFAULT_CAPACITY = 2048;
+
+    private static final long STOP_TIMEOUT_MILLIS = 2000;
+
+    private final Appender<ILoggingEvent> delegate;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition flushed = lock.newCondition();
+
+    private final ILoggingEvent[] ring;
+    private final ILoggingEvent[] batch;
+    private int head = 0;
+    private int size = 0;
+    private boolean running = false;
+    private boolean flushRequested = false;
+
+    // indexed by level, see levelIndex
+    private final long[] droppedCounts = new long[5];
+    private long droppedSinceLastReport = 0;
+
+    private Thread worker;
+
+    public AsyncRingBufferAppender(final Appender<ILoggingEvent> delegate) {
+        this(delegate, DEFAULT_CAPACITY);
+    }
+
+    public AsyncRingBufferAppender(final Appender<ILoggingEvent> delegate, final int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.delegate = delegate;
+        this.ring = new ILoggingEvent[capacity];
+        this.batch = new ILoggingEvent[capacity];
+    }
+
+    public Appender<ILoggingEvent> getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public void start() {
+        if (isStarted()) {
+            return;
+        }
+        if (!delegate.isStarted()) {
+            delegate.start();
+        }
+
+        lock.lock();
+        try {
+            running = true;
+        } finally {
+            lock.unlock();
+        }
+
+        worker = new Thread(this::run, "Logging");
+        worker.setDaemon(true);
+        worker.start();
+        super.start();
+    }
+
+    @Override
+    public void stop() {
+        if (!isStarted()) {
+            return;
+        }
+        super.stop();
+
+        lock.lock();
+        try {
+            running = false;
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+
+        try {
+            // the worker drains the remaining events before exiting
+            worker.join(STOP_TIMEOUT_MILLIS);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        worker = null;
+
+        delegate.stop();
+    }
+
+    @Override
+    protected void append(final ILoggingEvent event) {
+        // format the message and capture the thread name while still on the caller thread
+        event.prepareForDeferredProcessing();
+
+        lock.lock();
+        try {
+            if (size == ring.length) {
+                if (event.getLevel().toInt() < Level.WARN_INT) {
+                    countDropped(event);
+                    return;
+                }
+                // make room for warnings and errors by dropping the oldest event
+                countDropped(ring[head]);
+                ring[head] = null;
+                head = (head + 1) % ring.length;
+                size--;
+            }
+
+            ring[(head + size) % ring.length] = event;
+            size++;
+            if (size == 1) {
+                notEmpty.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Wait until all events appended so far were written, and flush the delegate appender.
+     *
+     * @return false if the events could not be written before the timeout
+     */
+    public boolean flush(final long timeoutMillis) {
+        if (!isStarted()) {
+            return false;
+        }
+
+        long remainingNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        lock.lock();
+        try {
+            flushRequested = true;
+            notEmpty.signal();
+            while (flushRequested) {
+                if (remainingNanos <= 0) {
+                    return false;
+                }
+                remainingNanos = flushed.awaitNanos(remainingNanos);
+            }
+            return true;
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the total number of events dropped because the buffer was full
+     */
+    public long getDroppedCount() {
+        lock.lock();
+        try {
+            long total = 0;
+            for (final long count : droppedCounts) {
+                total += count;
+            }
+            return total;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the number of events of the given level dropped because the buffer was full
+     */
+    public long getDroppedCount(final Level level) {
+        lock.lock();
+        try {
+            return droppedCounts[levelIndex(level)];
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getCapacity() {
+        return ring.length;
+    }
+
+    private void run() {
+        while (true) {
+            final int count;
+            final long dropped;
+            final boolean flush;
+
+            lock.lock();
+            try {
+                while (size == 0 && running && !flushRequested) {
+                    notEmpty.awaitUninterruptibly();
+                }
+                if (size == 0 && !running && !flushRequested) {
+                    return;
+                }
+
+                count = size;
+                for (int i = 0; i < count; i++) {
+                    final int index = (head + i) % ring.length;
+                    batch[i] = ring[index];
+                    ring[index] = null;
+                }
+                head = (head + count) % ring.length;
+                size = 0;
+
+                dropped = droppedSinceLastReport;
+                droppedSinceLastReport = 0;
+                flush = flushRequested;
+            } finally {
+                lock.unlock();
+            }
+
+            for (int i = 0; i < count; i++) {
+                delegate.doAppend(batch[i]);
+                batch[i] = null;
+            }
+
+            if (dropped > 0) {
+                delegate.doAppend(createDroppedEvent(dropped));
+            }
+
+            if (flush) {
+                flushDelegate();
+
+                lock.lock();
+                try {
+                    if (size == 0) {
+                        flushRequested = false;
+                        flushed.signalAll();
+                    }
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+    }
+
+    private void flushDelegate() {
+        if (!(delegate instanceof OutputStreamAppender)) {
+            return;
+        }
+        final OutputStream outputStream = ((OutputStreamAppender<ILoggingEvent>) delegate).getOutputStream();
+        if (outputStream == null) {
+            // lazy appender, nothing written yet
+            return;
+        }
+        try {
+            outputStream.flush();
+        } catch (final IOException e) {
+            addError("Failed to flush " + delegate.getName(), e);
+        }
+    }
+
+    private ILoggingEvent createDroppedEvent(final long dropped) {
+        final LoggingEvent event = new LoggingEvent(
+                AsyncRingBufferAppender.class.getName(),
+                ((LoggerContext) getContext()).getLogger(AsyncRingBufferAppender.class),
+                Level.WARN,
+                "Log buffer full, dropped {} events",
+                null,
+                new Object[]{dropped}
+        );
+        event.prepareForDeferredProcessing();
+        return event;
+    }
+
+    private void countDropped(final ILoggingEvent event) {
+        droppedCounts[levelIndex(event.getLevel())]++;
+        droppedSinceLastReport++;
+    }
+
+    private static int levelIndex(final Level level) {
+        switch (level.toInt()) {
+            case Level.TRACE_INT:
+                return 0;
+            case Level.DEBUG_INT:
+                return 1;
+            case Level.INFO_INT:
+                return 2;
+            case Level.WARN_INT:
+                return 3;
+            default:
+                return 4;
+        }
+    }
+}
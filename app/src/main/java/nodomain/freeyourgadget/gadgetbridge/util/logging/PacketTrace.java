@@ -0,0 +1,433 @@
+/*  Copyright (C) 2026 agent
+
+    This file is part of Gadgetbridge.
+
+    Gadgetbridge is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published
+    by the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    Gadgetbridge is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>. */
+package nodomain.freeyourgadget.gadgetbridge.util.logging;
+
+import androidx.annotation.Nullable;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.UUID;
+
+import nodomain.freeyourgadget.gadgetbridge.util.GB;
+
+/**
+ * Binary trace of the raw packets exchanged with devices. Packets are copied into a fixed-size
+ * ring buffer and written to disk by a background thread, instead of being hex-formatted into the
+ * log on the bluetooth callback threads. The trace can be decoded offline with {@link #decode}.
+ * <p>
+ * File format, big endian: the magic "GBPT" and an int version, followed by records of
+ * <ul>
+ *     <li>long - timestamp, in milliseconds</li>
+ *     <li>byte - one of the TYPE_ constants</li>
+ *     <li>2 longs - characteristic uuid (most and least significant bits), 0 if not applicable</li>
+ *     <li>int - length of the data</li>
+ *     <li>the data</li>
+ * </ul>
+ * Packets that do not fit in the buffer, or are larger than {@link #MAX_PACKET_SIZE}, are dropped
+ * and counted. When the file grows over 10MB it is moved to a ".1" file, always after a complete
+ * record, and a new one is started.
+ */
+public class PacketTrace {
+    private static final Logger LOG = LoggerFactory.getLogger(PacketTrace.class);
+
+    public static final int MAGIC = 0x47425054; // GBPT
+    public static final int VERSION = 1;
+
+    public static final byte TYPE_CHARACTERISTIC_WRITE = 1;
+    public static final byte TYPE_CHARACTERISTIC_READ = 2;
+    public static final byte TYPE_CHARACTERISTIC_CHANGED = 3;
+    public static final byte TYPE_SERVER_RESPONSE = 4;
+    public static final byte TYPE_SOCKET_WRITE = 5;
+    public static final byte TYPE_SOCKET_READ = 6;
+
+    public static final int DEFAULT_BUFFER_SIZE = 256 * 1024;
+    public static final int MAX_PACKET_SIZE = 64 * 1024;
+    private static final long DEFAULT_MAX_FILE_SIZE = 10 * 1024 * 1024;
+    private static final int RECORD_HEADER_SIZE = 8 + 1 + 16 + 4;
+
+    private final File file;
+    private final long maxFileSize;
+    private final byte[] ring;
+    private final byte[] chunk = new byte[8192];
+    private int readPos = 0;
+    private int size = 0;
+    private int recordRemaining = 0;
+    private boolean running = false;
+    private boolean flushRequested = false;
+
+    private long recordedCount = 0;
+    private long droppedCount = 0;
+    private long droppedBytes = 0;
+
+    private Thread worker;
+    private OutputStream outputStream;
+    private long fileSize;
+
+    public PacketTrace(final File file) {
+        this(file, DEFAULT_BUFFER_SIZE);
+    }
+
+    public PacketTrace(final File file, final int bufferSize) {
+        this(file, bufferSize, DEFAULT_MAX_FILE_SIZE);
+    }
+
+    PacketTrace(final File file, final int bufferSize, final long maxFileSize) {
+        this.file = file;
+        this.maxFileSize = maxFileSize;
+        this.ring = new byte[bufferSize];
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * @return the file the previous trace is moved to when the current one gets too large
+     */
+    public static File getPreviousFile(final File file) {
+        return new File(file.getPath() + ".1");
+    }
+
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        worker = new Thread(this::run, "PacketTrace");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    public void stop() {
+        final Thread thread;
+        synchronized (this) {
+            if (!running) {
+                return;
+            }
+            running = false;
+            thread = worker;
+            worker = null;
+            notifyAll();
+        }
+
+        try {
+            thread.join(2000);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        LOG.info("Packet trace stopped, recorded {} packets, dropped {} ({} bytes)", recordedCount, droppedCount, droppedBytes);
+    }
+
+    public void record(final byte type, @Nullable final UUID uuid, @Nullable final byte[] data) {
+        if (data == null) {
+            return;
+        }
+        record(type, uuid, data, 0, data.length);
+    }
+
+    /**
+     * Record a packet. Never blocks on I/O - if the buffer is full, the packet is dropped.
+     */
+    public synchronized void record(final byte type, @Nullable final UUID uuid, final byte[] data, final int offset, final int length) {
+        if (!running) {
+            return;
+        }
+
+        final int recordSize = RECORD_HEADER_SIZE + length;
+        if (length > MAX_PACKET_SIZE || recordSize > ring.length - size) {
+            droppedCount++;
+            droppedBytes += length;
+            return;
+        }
+
+        putLong(System.currentTimeMillis());
+        put(type);
+        putLong(uuid != null ? uuid.getMostSignificantBits() : 0);
+        putLong(uuid != null ? uuid.getLeastSignificantBits() : 0);
+        putInt(length);
+        final int writePos = (readPos + size) % ring.length;
+        final int firstPart = Math.min(length, ring.length - writePos);
+        System.arraycopy(data, offset, ring, writePos, firstPart);
+        System.arraycopy(data, offset + firstPart, ring, 0, length - firstPart);
+        size += length;
+
+        recordedCount++;
+        if (size == recordSize) {
+            // buffer was empty
+            notifyAll();
+        }
+    }
+
+    /**
+     * Wait until all packets recorded so far were written to disk.
+     */
+    public synchronized boolean flush(final long timeoutMillis) {
+        if (!running) {
+            return false;
+        }
+        final long deadline = System.currentTimeMillis() + timeoutMillis;
+        flushRequested = true;
+        notifyAll();
+        try {
+            while (flushRequested) {
+                final long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    return false;
+                }
+                wait(remaining);
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        return true;
+    }
+
+    public synchronized long getRecordedCount() {
+        return recordedCount;
+    }
+
+    public synchronized long getDroppedCount() {
+        return droppedCount;
+    }
+
+    public synchronized long getDroppedBytes() {
+        return droppedBytes;
+    }
+
+    private void put(final byte b) {
+        ring[(readPos + size) % ring.length] = b;
+        size++;
+    }
+
+    private void putInt(final int value) {
+        put((byte) (value >> 24));
+        put((byte) (value >> 16));
+        put((byte) (value >> 8));
+        put((byte) value);
+    }
+
+    private void putLong(final long value) {
+        putInt((int) (value >> 32));
+        putInt((int) value);
+    }
+
+    private int getInt(final int pos) {
+        int value = 0;
+        for (int i = 0; i < 4; i++) {
+            value = (value << 8) | (ring[(pos + i) % ring.length] & 0xff);
+        }
+        return value;
+    }
+
+    private void run() {
+        try {
+            while (true) {
+                final int count;
+                final boolean recordStart;
+                final boolean drained;
+                synchronized (this) {
+                    while (size == 0 && running) {
+                        if (flushRequested) {
+                            flushOutput();
+                            flushRequested = false;
+                            notifyAll();
+                        }
+                        wait();
+                    }
+                    if (size == 0) {
+                        break;
+                    }
+
+                    // records are added as a whole, so a new one is always complete in the ring
+                    recordStart = recordRemaining == 0;
+                    if (recordStart) {
+                        recordRemaining = RECORD_HEADER_SIZE + getInt(readPos + RECORD_HEADER_SIZE - 4);
+                    }
+
+                    // the ring is only modified under the lock, so copy a chunk out of it, without
+                    // going past the current record
+                    count = Math.min(recordRemaining, Math.min(size, Math.min(chunk.length, ring.length - readPos)));
+                    System.arraycopy(ring, readPos, chunk, 0, count);
+                    readPos = (readPos + count) % ring.length;
+                    size -= count;
+                    recordRemaining -= count;
+                    drained = size == 0;
+                }
+
+                write(chunk, count, recordStart);
+                if (drained) {
+                    // nothing else to write for now, do not keep the packets in the buffer
+                    outputStream.flush();
+                }
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (final IOException e) {
+            LOG.error("Failed to write packet trace", e);
+        } finally {
+            closeOutput();
+            synchronized (this) {
+                running = false;
+                flushRequested = false;
+                notifyAll();
+            }
+        }
+    }
+
+    private void write(final byte[] bytes, final int count, final boolean recordStart) throws IOException {
+        // only rotate between records, so that no record is split across files
+        if (outputStream == null || (recordStart && fileSize >= maxFileSize)) {
+            openOutput();
+        }
+        outputStream.write(bytes, 0, count);
+        fileSize += count;
+    }
+
+    private void openOutput() throws IOException {
+        closeOutput();
+
+        if (file.length() >= maxFileSize) {
+            // keep the previous trace, replacing an older one
+            final File previous = getPreviousFile(file);
+            if (previous.exists() && !previous.delete()) {
+                LOG.warn("Failed to delete {}", previous);
+            }
+            if (!file.renameTo(previous)) {
+                LOG.warn("Failed to rotate {}", file);
+            }
+        }
+
+        final boolean append = file.exists() && file.length() > 0;
+        outputStream = new BufferedOutputStream(new FileOutputStream(file, append), chunk.length);
+        fileSize = append ? file.length() : 0;
+        if (!append) {
+            final byte[] header = new byte[]{
+                    (byte) (MAGIC >> 24), (byte) (MAGIC >> 16), (byte) (MAGIC >> 8), (byte) MAGIC,
+                    (byte) (VERSION >> 24), (byte) (VERSION >> 16), (byte) (VERSION >> 8), (byte) VERSION,
+            };
+            outputStream.write(header);
+            fileSize += header.length;
+        }
+    }
+
+    private void flushOutput() {
+        if (outputStream == null) {
+            return;
+        }
+        try {
+            outputStream.flush();
+        } catch (final IOException e) {
+            LOG.warn("Failed to flush packet trace", e);
+        }
+    }
+
+    private void closeOutput() {
+        if (outputStream == null) {
+            return;
+        }
+        try {
+            outputStream.close();
+        } catch (final IOException e) {
+            LOG.warn("Failed to close packet trace", e);
+        }
+        outputStream = null;
+    }
+
+    /**
+     * Decode a packet trace into a human-readable hex dump, one packet per line. A truncated record
+     * at the end, from a trace that is still being written, is ignored.
+     */
+    public static void decode(final InputStream inputStream, final Writer writer) throws IOException {
+        final DataInputStream in = new DataInputStream(inputStream);
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a packet trace");
+        }
+        final int version = in.readInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported packet trace version " + version);
+        }
+
+        final SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS", Locale.ROOT);
+        while (true) {
+            final long timestamp;
+            final byte type;
+            final long uuidMsb;
+            final long uuidLsb;
+            final byte[] data;
+            try {
+                timestamp = in.readLong();
+                type = in.readByte();
+                uuidMsb = in.readLong();
+                uuidLsb = in.readLong();
+                final int length = in.readInt();
+                if (length < 0 || length > MAX_PACKET_SIZE) {
+                    throw new IOException("Invalid packet length " + length);
+                }
+                data = new byte[length];
+                in.readFully(data);
+            } catch (final EOFException e) {
+                break;
+            }
+
+            writer.write(sdf.format(new Date(timestamp)));
+            writer.write(' ');
+            writer.write(typeToString(type));
+            if (uuidMsb != 0 || uuidLsb != 0) {
+                writer.write(' ');
+                writer.write(new UUID(uuidMsb, uuidLsb).toString());
+            }
+            writer.write(": ");
+            writer.write(GB.hexdump(data));
+            writer.write('\n');
+        }
+        writer.flush();
+    }
+
+    private static String typeToString(final byte type) {
+        switch (type) {
+            case TYPE_CHARACTERISTIC_WRITE:
+                return "write";
+            case TYPE_CHARACTERISTIC_READ:
+                return "read";
+            case TYPE_CHARACTERISTIC_CHANGED:
+                return "changed";
+            case TYPE_SERVER_RESPONSE:
+                return "server_response";
+            case TYPE_SOCKET_WRITE:
+                return "socket_write";
+            case TYPE_SOCKET_READ:
+                return "socket_read";
+            default:
+                return "unknown_" + type;
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package nodomain.freeyourgadget.gadgetbridge.activities.dashboard.data;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import nodomain.freeyourgadget.gadgetbridge.activities.DashboardFragment.DashboardData.GeneralizedActivity;
+import nodomain.freeyourgadget.gadgetbridge.model.ActivityKind;
+
+public class ActivityTimelineTest {
+    private static final Logger LOG = LoggerFactory.getLogger(ActivityTimelineTest.class);
+
+    private static final long DAY_END = 1718060400L;
+    private static final long DAY_START = DAY_END - 86400;
+
+    private static final ActivityKind[] SAMPLE_KINDS = {
+            ActivityKind.NOT_WORN,
+            ActivityKind.SLEEP_ANY,
+            ActivityKind.LIGHT_SLEEP,
+            ActivityKind.DEEP_SLEEP,
+            ActivityKind.REM_SLEEP,
+            ActivityKind.AWAKE_SLEEP,
+    };
+
+    @Test
+    public void testPriority() {
+        final ActivityTimeline timeline = new ActivityTimeline();
+        timeline.add(0, 999, ActivityKind.NOT_MEASURED);
+        timeline.add(100, 199, ActivityKind.LIGHT_SLEEP);
+        timeline.add(150, 249, ActivityKind.DEEP_SLEEP);
+        timeline.add(400, 499, ActivityKind.NOT_WORN);
+        timeline.add(900, 1099, ActivityKind.NOT_WORN);
+        timeline.add(600, 699, ActivityKind.EXERCISE);
+        timeline.add(650, 749, ActivityKind.ACTIVITY);
+
+        assertEquals(
+                "NOT_MEASURED 0-99, LIGHT_SLEEP 100-149, DEEP_SLEEP 150-249, NOT_MEASURED 250-599, " +
+                        "EXERCISE 600-699, ACTIVITY 700-749, NOT_MEASURED 750-999, NOT_WORN 1000-1099",
+                toString(timeline.toGeneralizedActivities())
+        );
+    }
+
+    @Test
+    public void testSplits() {
+        final ActivityTimeline timeline = new ActivityTimeline();
+        timeline.add(0, 99, ActivityKind.ACTIVITY);
+        // gaps of up to a minute are merged
+        timeline.add(159, 199, ActivityKind.ACTIVITY);
+        timeline.add(261, 299, ActivityKind.ACTIVITY);
+
+        assertEquals(
+                "ACTIVITY 0-49, ACTIVITY 50-199, ACTIVITY 261-299",
+                toString(timeline.toGeneralizedActivities(50, 50, 261, 1000))
+        );
+    }
+
+    @Test
+    public void testMatchesPerSecondMerge() {
+        final Random random = new Random(42);
+        final long currentTime = DAY_END - 3 * 3600;
+        final long midDay = DAY_END - 12 * 3600;
+        final long[] splits = {midDay, midDay - 86400, DAY_END - 86400, currentTime - 86400};
+
+        long timelineNanos = 0;
+        long perSecondNanos = 0;
+        for (int i = 0; i < 20; i++) {
+            final List<long[]> ranges = randomDay(random);
+
+            long start = System.nanoTime();
+            final ActivityTimeline timeline = new ActivityTimeline();
+            for (final long[] range : ranges) {
+                timeline.add(range[0], range[1], ActivityKind.values()[(int) range[2]]);
+            }
+            final List<GeneralizedActivity> actual = timeline.toGeneralizedActivities(splits);
+            timelineNanos += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            final List<GeneralizedActivity> expected = perSecondMerge(ranges, splits);
+            perSecondNanos += System.nanoTime() - start;
+
+            assertEquals(toString(expected), toString(actual));
+        }
+
+        LOG.info("Merged 20 days - per second: {}ms, timeline: {}ms", perSecondNanos / 1000000, timelineNanos / 1000000);
+    }
+
+    /**
+     * Ranges in the order the dashboard adds them: worn sessions, samples, workouts, step sessions.
+     */
+    private static List<long[]> randomDay(final Random random) {
+        final List<long[]> ranges = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            final long from = DAY_START + random.nextInt(86400);
+            ranges.add(new long[]{from, from + random.nextInt(4 * 3600), ActivityKind.NOT_MEASURED.ordinal()});
+        }
+        for (long ts = DAY_START; ts < DAY_END; ts += 60) {
+            if (random.nextInt(3) == 0) {
+                final ActivityKind kind = SAMPLE_KINDS[random.nextInt(SAMPLE_KINDS.length)];
+                ranges.add(new long[]{ts, ts + 60, kind.ordinal()});
+            }
+        }
+        for (int i = 0; i < 2; i++) {
+            final long from = DAY_START + random.nextInt(86400);
+            ranges.add(new long[]{from, from + random.nextInt(2 * 3600), ActivityKind.EXERCISE.ordinal()});
+        }
+        for (int i = 0; i < 30; i++) {
+            final long from = DAY_START + random.nextInt(86400);
+            ranges.add(new long[]{from, from + random.nextInt(1800), ActivityKind.ACTIVITY.ordinal()});
+        }
+        return ranges;
+    }
+
+    /**
+     * The previous implementation of the dashboard, which merged the ranges second by second.
+     */
+    private static List<GeneralizedActivity> perSecondMerge(final List<long[]> ranges, final long[] splits) {
+        final TreeMap<Long, ActivityKind> activityTimestamps = new TreeMap<>();
+        for (final long[] range : ranges) {
+            final ActivityKind activityKind = ActivityKind.values()[(int) range[2]];
+            for (long i = range[0]; i <= range[1]; i++) {
+                final ActivityKind existing = activityTimestamps.get(i);
+                if (existing == null || replaces(existing, activityKind)) {
+                    activityTimestamps.put(i, activityKind);
+                }
+            }
+        }
+
+        final List<GeneralizedActivity> result = new ArrayList<>();
+        GeneralizedActivity previous = null;
+        for (final Map.Entry<Long, ActivityKind> activity : activityTimestamps.entrySet()) {
+            final long timestamp = activity.getKey();
+            boolean split = false;
+            for (final long s : splits) {
+                split |= timestamp == s;
+            }
+            if (previous == null || previous.activityKind != activity.getValue() || split || previous.timeTo < timestamp - 60) {
+                previous = new GeneralizedActivity(activity.getValue(), timestamp, timestamp);
+                result.add(previous);
+            } else {
+                previous.timeTo = timestamp;
+            }
+        }
+        return result;
+    }
+
+    private static boolean replaces(final ActivityKind existing, final ActivityKind activityKind) {
+        switch (existing) {
+            case EXERCISE:
+                return false;
+            case ACTIVITY:
+                return activityKind == ActivityKind.EXERCISE;
+            case DEEP_SLEEP:
+                return activityKind == ActivityKind.EXERCISE ||
+                        activityKind == ActivityKind.ACTIVITY;
+            case LIGHT_SLEEP:
+                return activityKind == ActivityKind.EXERCISE ||
+                        activityKind == ActivityKind.ACTIVITY ||
+                        activityKind == ActivityKind.DEEP_SLEEP;
+            case REM_SLEEP:
+                return activityKind == ActivityKind.EXERCISE ||
+                        activityKind == ActivityKind.ACTIVITY ||
+                        activityKind == ActivityKind.DEEP_SLEEP ||
+                        activityKind == ActivityKind.LIGHT_SLEEP;
+            case AWAKE_SLEEP:
+                return activityKind == ActivityKind.EXERCISE ||
+                        activityKind == ActivityKind.ACTIVITY ||
+                        activityKind == ActivityKind.DEEP_SLEEP ||
+                        activityKind == ActivityKind.LIGHT_SLEEP ||
+                        activityKind == ActivityKind.REM_SLEEP;
+            case SLEEP_ANY:
+            case NOT_MEASURED:
+                return activityKind == ActivityKind.EXERCISE ||
+                        activityKind == ActivityKind.ACTIVITY ||
+                        activityKind == ActivityKind.DEEP_SLEEP ||
+                        activityKind == ActivityKind.LIGHT_SLEEP ||
+                        activityKind == ActivityKind.REM_SLEEP ||
+                        activityKind == ActivityKind.AWAKE_SLEEP;
+            default:
+                return true;
+        }
+    }
+
+    private static String toString(final List<GeneralizedActivity> activities) {
+        final StringBuilder sb = new StringBuilder();
+        for (final GeneralizedActivity activity : activities) {
+            if (sb.length() > 0) {
+                sb.append(", ");
+            }
+            sb.append(activity.activityKind).append(' ').append(activity.timeFrom).append('-').append(activity.timeTo);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,150 @@
+package nodomain.freeyourgadget.gadgetbridge.database;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+import nodomain.freeyourgadget.gadgetbridge.database.schema.GadgetbridgeUpdate_86;
+import nodomain.freeyourgadget.gadgetbridge.entities.BaseActivitySummaryDao;
+import nodomain.freeyourgadget.gadgetbridge.entities.HuaweiWorkoutSummarySampleDao;
+import nodomain.freeyourgadget.gadgetbridge.entities.PebbleHealthActivityOverlayDao;
+import nodomain.freeyourgadget.gadgetbridge.test.TestBase;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class DatabaseIndexTest extends TestBase {
+    /**
+     * The query shapes of AbstractSampleProvider and AbstractTimeSampleProvider, for every table
+     * keyed by device and timestamp.
+     */
+    @Test
+    public void testSampleQueriesUseIndex() {
+        final SQLiteDatabase db = daoSession.getDatabase();
+
+        int sampleTables = 0;
+        for (final String table : DBHelper.getTableNames(db)) {
+            if (!DBHelper.existsColumn(table, "DEVICE_ID", db) || !DBHelper.existsColumn(table, "TIMESTAMP", db)) {
+                continue;
+            }
+            sampleTables++;
+
+            // range
+            assertNoTableScan(db, "SELECT * FROM \"" + table + "\" T WHERE T.\"DEVICE_ID\"=1 AND T.\"TIMESTAMP\">=1000 AND T.\"TIMESTAMP\"<=2000");
+            // latest / first sample
+            assertNoTableScan(db, "SELECT * FROM \"" + table + "\" T WHERE T.\"DEVICE_ID\"=1 ORDER BY T.\"TIMESTAMP\" DESC LIMIT 1");
+            assertNoTableScan(db, "SELECT * FROM \"" + table + "\" T WHERE T.\"DEVICE_ID\"=1 ORDER BY T.\"TIMESTAMP\" ASC LIMIT 1");
+            // latest sample before
+            assertNoTableScan(db, "SELECT * FROM \"" + table + "\" T WHERE T.\"DEVICE_ID\"=1 AND T.\"TIMESTAMP\"<=2000 ORDER BY T.\"TIMESTAMP\" DESC LIMIT 1");
+        }
+
+        assertTrue("Found only " + sampleTables + " sample tables", sampleTables > 50);
+    }
+
+    @Test
+    public void testOverlayQueriesUseIndex() {
+        final SQLiteDatabase db = daoSession.getDatabase();
+
+        assertNoTableScan(db, String.format(Locale.ROOT, "SELECT * FROM \"%s\" T WHERE T.\"%s\"=1 AND T.\"%s\">=1000 AND T.\"%s\"<=2000",
+                PebbleHealthActivityOverlayDao.TABLENAME,
+                PebbleHealthActivityOverlayDao.Properties.DeviceId.columnName,
+                PebbleHealthActivityOverlayDao.Properties.TimestampTo.columnName,
+                PebbleHealthActivityOverlayDao.Properties.TimestampFrom.columnName
+        ));
+    }
+
+    @Test
+    public void testSummaryQueriesUseIndex() {
+        final SQLiteDatabase db = daoSession.getDatabase();
+
+        // by device, newest first
+        assertNoTableScan(db, String.format(Locale.ROOT, "SELECT * FROM \"%s\" T WHERE T.\"%s\"=1 ORDER BY T.\"%s\" DESC",
+                BaseActivitySummaryDao.TABLENAME,
+                BaseActivitySummaryDao.Properties.DeviceId.columnName,
+                BaseActivitySummaryDao.Properties.StartTime.columnName
+        ));
+        // by start time only
+        assertNoTableScan(db, String.format(Locale.ROOT, "SELECT * FROM \"%s\" T WHERE T.\"%s\">1000 AND T.\"%s\"<2000",
+                BaseActivitySummaryDao.TABLENAME,
+                BaseActivitySummaryDao.Properties.StartTime.columnName,
+                BaseActivitySummaryDao.Properties.EndTime.columnName
+        ));
+        assertNoTableScan(db, String.format(Locale.ROOT, "SELECT * FROM \"%s\" T WHERE T.\"%s\"=1000 AND T.\"%s\"=1",
+                BaseActivitySummaryDao.TABLENAME,
+                BaseActivitySummaryDao.Properties.StartTime.columnName,
+                BaseActivitySummaryDao.Properties.DeviceId.columnName
+        ));
+        assertNoTableScan(db, String.format(Locale.ROOT, "SELECT * FROM \"%s\" T WHERE T.\"%s\"=1 AND T.\"%s\"=1000",
+                HuaweiWorkoutSummarySampleDao.TABLENAME,
+                HuaweiWorkoutSummarySampleDao.Properties.DeviceId.columnName,
+                HuaweiWorkoutSummarySampleDao.Properties.StartTimestamp.columnName
+        ));
+    }
+
+    @Test
+    public void testMigrationDoesNotDuplicateIndexes() {
+        final SQLiteDatabase db = daoSession.getDatabase();
+
+        final int before = countIndexes(db);
+        new GadgetbridgeUpdate_86().upgradeSchema(db);
+        assertEquals(before, countIndexes(db));
+    }
+
+    @Test
+    public void testMigrationCreatesMissingIndex() {
+        final SQLiteDatabase db = daoSession.getDatabase();
+        final List<String> columns = Arrays.asList(
+                BaseActivitySummaryDao.Properties.DeviceId.columnName,
+                BaseActivitySummaryDao.Properties.StartTime.columnName
+        );
+
+        for (final String index : getIndexNames(db, BaseActivitySummaryDao.TABLENAME)) {
+            if (!index.startsWith("sqlite_")) {
+                db.execSQL("DROP INDEX \"" + index + "\"");
+            }
+        }
+        assertFalse(DBHelper.existsIndex(BaseActivitySummaryDao.TABLENAME, columns, db));
+
+        new GadgetbridgeUpdate_86().upgradeSchema(db);
+        assertTrue(DBHelper.existsIndex(BaseActivitySummaryDao.TABLENAME, columns, db));
+    }
+
+    private static void assertNoTableScan(final SQLiteDatabase db, final String query) {
+        try (Cursor res = db.rawQuery("EXPLAIN QUERY PLAN " + query, null)) {
+            final int detailIndex = res.getColumnIndex("detail");
+            while (res.moveToNext()) {
+                final String detail = res.getString(detailIndex);
+                if (detail.startsWith("SCAN") || detail.contains("TEMP B-TREE")) {
+                    fail(detail + " for " + query);
+                }
+            }
+        }
+    }
+
+    private static int countIndexes(final SQLiteDatabase db) {
+        int count = 0;
+        for (final String table : DBHelper.getTableNames(db)) {
+            count += getIndexNames(db, table).size();
+        }
+        return count;
+    }
+
+    private static List<String> getIndexNames(final SQLiteDatabase db, final String table) {
+        final List<String> names = new ArrayList<>();
+        try (Cursor res = db.rawQuery("PRAGMA index_list('" + table + "')", null)) {
+            final int nameIndex = res.getColumnIndex("name");
+            while (res.moveToNext()) {
+                names.add(res.getString(nameIndex));
+            }
+        }
+        return names;
+    }
+}
@@ -0,0 +1,151 @@
+package nodomain.freeyourgadget.gadgetbridge.devices;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Mockito.when;
+
+import android.bluetooth.BluetoothDevice;
+
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+import nodomain.freeyourgadget.gadgetbridge.impl.GBDevice;
+import nodomain.freeyourgadget.gadgetbridge.impl.GBDeviceCandidate;
+import nodomain.freeyourgadget.gadgetbridge.model.DeviceType;
+import nodomain.freeyourgadget.gadgetbridge.test.TestBase;
+
+public class DeviceTypeIndexTest extends TestBase {
+    private static final Logger LOG = LoggerFactory.getLogger(DeviceTypeIndexTest.class);
+
+    // names as seen during discovery
+    private static final String[] SCAN_NAMES = {
+            "Amazfit GTS 2",
+            "Amazfit Bip U Pro",
+            "Amazfit T-Rex",
+            "Bangle.js 1a2b",
+            "Forerunner 255S Music",
+            "Instinct 2X Solar",
+            "vívoactive 3",
+            "fenix 7",
+            "Xiaomi Smart Band 8 1A2B",
+            "Xiaomi Band 8 Active 1A2B",
+            "Redmi Watch 3 Active 1A2B",
+            "Mi Smart Band 4",
+            "MI Band 2",
+            "HUAWEI Band 4-1A2",
+            "Pebble Time 1A2B",
+            "PineTime",
+            "InfiniTime",
+            "WH-1000XM4",
+            "LE_WH-1000XM4",
+            "Galaxy Buds2 (1A2B)",
+            "Galaxy Buds Pro (1A2B)",
+            "R02_1A2B",
+            "LYWSD03MMC",
+            "[TV] Samsung 7 Series",
+            "JBL Flip 5",
+            "Pixel Buds",
+            "Unknown",
+            "",
+    };
+
+    @Test
+    public void testExtractPrefixes() {
+        assertEquals(Collections.singletonList("Amazfit GTS"), DeviceTypeIndex.extractPrefixes(Pattern.compile("Amazfit GTS")));
+        assertEquals(Collections.singletonList("Amazfit Bip 3"), DeviceTypeIndex.extractPrefixes(Pattern.compile("^Amazfit Bip 3$")));
+        assertEquals(Collections.singletonList("Ear (2)"), DeviceTypeIndex.extractPrefixes(Pattern.compile("Ear (2)", Pattern.LITERAL)));
+        assertEquals(Arrays.asList("Bangle.js", "Pixl.js"), DeviceTypeIndex.extractPrefixes(Pattern.compile("Bangle\\.js.*|Pixl\\.js.*")));
+        assertEquals(Arrays.asList("HUAWEI Band 4-", "HUAWEI Band 4 Pro-"), DeviceTypeIndex.extractPrefixes(Pattern.compile("(HUAWEI Band 4-|HUAWEI Band 4 Pro-).*", Pattern.CASE_INSENSITIVE)));
+        assertEquals(Collections.singletonList("Galaxy Buds ("), DeviceTypeIndex.extractPrefixes(Pattern.compile("Galaxy Buds \\(.*")));
+        assertEquals(Collections.singletonList("Redmi Watch 4 "), DeviceTypeIndex.extractPrefixes(Pattern.compile("^Redmi Watch 4 [0-9A-F]{4}$")));
+        assertEquals(Collections.singletonList("Instinct 2X Sol"), DeviceTypeIndex.extractPrefixes(Pattern.compile("^Instinct 2X Sol(ar)?$")));
+        assertEquals(Collections.singletonList("Xiaomi"), DeviceTypeIndex.extractPrefixes(Pattern.compile("^Xiaomi( Smart)? Band 8 Active [A-Z0-9]{4}$")));
+        assertEquals(Collections.singletonList("vívoactive"), DeviceTypeIndex.extractPrefixes(Pattern.compile("^vívoactive *3$")));
+
+        // a match may start with anything
+        assertNull(DeviceTypeIndex.extractPrefixes(Pattern.compile(".*WH-1000XM4.*")));
+        assertNull(DeviceTypeIndex.extractPrefixes(Pattern.compile("(Galaxy )?Buds2( \\(.*)?")));
+        assertNull(DeviceTypeIndex.extractPrefixes(Pattern.compile("[Ll]61.*")));
+        assertNull(DeviceTypeIndex.extractPrefixes(Pattern.compile("\\d+ Watch")));
+        assertNull(DeviceTypeIndex.extractPrefixes(Pattern.compile("(?i)amazfit gts")));
+        assertNull(DeviceTypeIndex.extractPrefixes(Pattern.compile("Amazfit GTS", Pattern.COMMENTS)));
+    }
+
+    @Test
+    public void testResolveMatchesLinearScan() {
+        final DeviceType[] orderedTypes = getOrderedDeviceTypes();
+        final DeviceTypeIndex index = new DeviceTypeIndex(orderedTypes);
+
+        final List<GBDeviceCandidate> candidates = new ArrayList<>();
+        for (int i = 0; i < SCAN_NAMES.length; i++) {
+            candidates.add(createCandidate(SCAN_NAMES[i], i));
+            // names are case-insensitive in some coordinators
+            candidates.add(createCandidate(SCAN_NAMES[i].toUpperCase(Locale.ROOT), i));
+        }
+
+        for (final GBDeviceCandidate candidate : candidates) {
+            assertEquals(candidate.getName(), resolveLinear(orderedTypes, candidate), index.resolve(candidate));
+        }
+
+        // replay the scan a few times, as discovery reports the same devices repeatedly
+        final int iterations = 50;
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            for (final GBDeviceCandidate candidate : candidates) {
+                resolveLinear(orderedTypes, candidate);
+            }
+        }
+        final long linearNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            for (final GBDeviceCandidate candidate : candidates) {
+                index.resolve(candidate);
+            }
+        }
+        final long indexNanos = System.nanoTime() - start;
+
+        final int resolutions = iterations * candidates.size();
+        LOG.info(
+                "Resolved {} candidates against {} device types - linear: {}us/candidate, index: {}us/candidate",
+                resolutions,
+                orderedTypes.length,
+                linearNanos / resolutions / 1000f,
+                indexNanos / resolutions / 1000f
+        );
+    }
+
+    private static DeviceType[] getOrderedDeviceTypes() {
+        final List<DeviceType> orderedDevices = new ArrayList<>(Arrays.asList(DeviceType.values()));
+        orderedDevices.sort(Comparator.comparingInt(dc -> dc.getDeviceCoordinator().getOrderPriority()));
+        return orderedDevices.toArray(new DeviceType[0]);
+    }
+
+    private static DeviceType resolveLinear(final DeviceType[] orderedTypes, final GBDeviceCandidate candidate) {
+        for (final DeviceType type : orderedTypes) {
+            if (type.getDeviceCoordinator().supports(candidate)) {
+                return type;
+            }
+        }
+        return DeviceType.UNKNOWN;
+    }
+
+    private static GBDeviceCandidate createCandidate(final String name, final int seed) {
+        final BluetoothDevice device = Mockito.mock(BluetoothDevice.class);
+        when(device.getName()).thenReturn(name);
+        when(device.getAddress()).thenReturn(String.format(Locale.ROOT, "00:11:22:33:44:%02X", seed));
+        final GBDeviceCandidate candidate = new GBDeviceCandidate(device, GBDevice.RSSI_UNKNOWN, null);
+        candidate.refreshNameIfUnknown();
+        return candidate;
+    }
+}
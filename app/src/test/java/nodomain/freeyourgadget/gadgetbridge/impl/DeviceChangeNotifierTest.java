@@ -0,0 +1,171 @@
+package nodomain.freeyourgadget.gadgetbridge.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.robolectric.Shadows.shadowOf;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.os.Looper;
+
+import androidx.localbroadcastmanager.content.LocalBroadcastManager;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import nodomain.freeyourgadget.gadgetbridge.test.TestBase;
+
+public class DeviceChangeNotifierTest extends TestBase {
+    private final List<Intent> intents = new ArrayList<>();
+
+    private final BroadcastReceiver receiver = new BroadcastReceiver() {
+        @Override
+        public void onReceive(final Context context, final Intent intent) {
+            intents.add(intent);
+        }
+    };
+
+    @Before
+    public void registerReceiver() {
+        LocalBroadcastManager.getInstance(getContext()).registerReceiver(receiver, new IntentFilter(GBDevice.ACTION_DEVICE_CHANGED));
+    }
+
+    @After
+    public void unregisterReceiver() {
+        LocalBroadcastManager.getInstance(getContext()).unregisterReceiver(receiver);
+    }
+
+    @Test
+    public void testConnectionSequence() {
+        final GBDevice device = createDummyGDevice("00:00:00:00:40");
+
+        // state changes are sent right away
+        device.setState(GBDevice.State.CONNECTING);
+        device.sendDeviceUpdateIntent(getContext());
+        device.setState(GBDevice.State.CONNECTED);
+        device.sendDeviceUpdateIntent(getContext(), GBDevice.DeviceUpdateSubject.CONNECTION_STATE);
+        device.setState(GBDevice.State.INITIALIZING);
+        device.sendDeviceUpdateIntent(getContext());
+        idle();
+        assertEquals(3, intents.size());
+        assertEquals(GBDevice.DeviceUpdateSubject.CONNECTION_STATE, intents.get(1).getSerializableExtra(GBDevice.EXTRA_UPDATE_SUBJECT));
+
+        // the initialization is merged
+        device.setBusyTask("Initializing");
+        device.sendDeviceUpdateIntent(getContext());
+        device.setFirmwareVersion("1.2.4");
+        device.sendDeviceUpdateIntent(getContext());
+        device.setBatteryLevel(80);
+        device.sendDeviceUpdateIntent(getContext());
+        device.setBatteryLevel(80);
+        device.sendDeviceUpdateIntent(getContext());
+        device.setRssi((short) 50);
+        device.sendDeviceUpdateIntent(getContext());
+        device.unsetBusyTask();
+        device.sendDeviceUpdateIntent(getContext());
+        idle();
+        assertEquals(4, intents.size());
+        assertEquals(
+                EnumSet.of(GBDevice.Change.BUSY_TASK, GBDevice.Change.DEVICE_INFO, GBDevice.Change.BATTERY, GBDevice.Change.RSSI),
+                GBDevice.getChanges(intents.get(3))
+        );
+
+        device.setState(GBDevice.State.INITIALIZED);
+        device.sendDeviceUpdateIntent(getContext(), GBDevice.DeviceUpdateSubject.DEVICE_STATE);
+        idle();
+        assertEquals(5, intents.size());
+        assertEquals(EnumSet.of(GBDevice.Change.STATE), GBDevice.getChanges(intents.get(4)));
+
+        // battery updates while connected
+        for (int level = 79; level >= 70; level--) {
+            device.setBatteryLevel(level);
+            device.sendDeviceUpdateIntent(getContext());
+        }
+        idle();
+        assertEquals(6, intents.size());
+        assertEquals(EnumSet.of(GBDevice.Change.BATTERY), GBDevice.getChanges(intents.get(5)));
+
+        // nothing changed
+        device.sendDeviceUpdateIntent(getContext());
+        idle();
+        assertEquals(6, intents.size());
+
+        // explicit requests are always sent
+        device.sendDeviceUpdateIntent(getContext(), GBDevice.DeviceUpdateSubject.NOTHING);
+        idle();
+        assertEquals(7, intents.size());
+        assertEquals(EnumSet.allOf(GBDevice.Change.class), GBDevice.getChanges(intents.get(6)));
+    }
+
+    @Test
+    public void testStateChangeFlushesPendingChanges() {
+        final GBDevice device = createDummyGDevice("00:00:00:00:41");
+        device.setState(GBDevice.State.INITIALIZED);
+        device.sendDeviceUpdateIntent(getContext());
+        idle();
+        intents.clear();
+
+        device.setBatteryLevel(50);
+        device.sendDeviceUpdateIntent(getContext());
+        device.setState(GBDevice.State.NOT_CONNECTED);
+        device.sendDeviceUpdateIntent(getContext());
+        shadowOf(Looper.getMainLooper()).idle();
+
+        assertEquals(1, intents.size());
+        assertTrue(GBDevice.getChanges(intents.get(0)).contains(GBDevice.Change.STATE));
+        assertTrue(GBDevice.getChanges(intents.get(0)).contains(GBDevice.Change.BATTERY));
+
+        // the merged changes are not sent again
+        idle();
+        assertEquals(1, intents.size());
+        assertFalse(device.isConnected());
+    }
+
+    @Test
+    public void testFirstAnnouncement() {
+        // a device that was just created, e.g. while pairing, without any tracked change
+        final GBDevice device = createDummyGDevice("00:00:00:00:43");
+        device.sendDeviceUpdateIntent(getContext());
+        idle();
+
+        assertEquals(1, intents.size());
+        assertEquals(EnumSet.allOf(GBDevice.Change.class), GBDevice.getChanges(intents.get(0)));
+
+        // afterwards, only the changes are sent
+        device.setNotificationIconConnected(0);
+        device.sendDeviceUpdateIntent(getContext());
+        idle();
+
+        assertEquals(2, intents.size());
+        assertEquals(EnumSet.of(GBDevice.Change.NOTIFICATION_ICONS), GBDevice.getChanges(intents.get(1)));
+    }
+
+    @Test
+    public void testPreferencesUpdate() {
+        final GBDevice device = createDummyGDevice("00:00:00:00:42");
+        device.setState(GBDevice.State.INITIALIZED);
+        device.sendDeviceUpdateIntent(getContext());
+        idle();
+        intents.clear();
+
+        // nothing of the device itself changed, but the preferences did
+        device.sendPreferencesUpdateIntent(getContext());
+        idle();
+
+        assertEquals(1, intents.size());
+        assertEquals(EnumSet.of(GBDevice.Change.PREFERENCES), GBDevice.getChanges(intents.get(0)));
+    }
+
+    private static void idle() {
+        shadowOf(Looper.getMainLooper()).idleFor(DeviceChangeNotifier.COALESCE_WINDOW_MILLIS, TimeUnit.MILLISECONDS);
+    }
+}
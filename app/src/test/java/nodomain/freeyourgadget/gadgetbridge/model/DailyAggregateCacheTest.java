@@ -0,0 +1,160 @@
+package nodomain.freeyourgadget.gadgetbridge.model;
+
+import androidx.annotation.Nullable;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import nodomain.freeyourgadget.gadgetbridge.activities.charts.ActivityAnalysis;
+import nodomain.freeyourgadget.gadgetbridge.database.DBHelper;
+import nodomain.freeyourgadget.gadgetbridge.devices.miband.MiBandSampleProvider;
+import nodomain.freeyourgadget.gadgetbridge.entities.Device;
+import nodomain.freeyourgadget.gadgetbridge.entities.MiBandActivitySample;
+import nodomain.freeyourgadget.gadgetbridge.entities.User;
+import nodomain.freeyourgadget.gadgetbridge.impl.GBDevice;
+import nodomain.freeyourgadget.gadgetbridge.test.TestBase;
+
+import static org.junit.Assert.assertEquals;
+
+public class DailyAggregateCacheTest extends TestBase {
+    private static final int DAY = 24 * 60 * 60;
+    private static final int DAY_1 = 1700000000 - 1700000000 % DAY;
+    private static final int DAY_2 = DAY_1 + DAY;
+
+    private final AtomicInteger computations = new AtomicInteger();
+
+    @Test
+    public void testMatchesComputationAfterWrites() {
+        final GBDevice gbDevice = createDummyGDevice("00:00:00:00:20");
+        final MiBandSampleProvider provider = new MiBandSampleProvider(gbDevice, daoSession);
+
+        addSample(provider, DAY_1 + 60, 100);
+        addSample(provider, DAY_1 + 120, 0);
+        addSample(provider, DAY_2 + 60, 1000);
+        addSample(provider, DAY_2 + 120, 0);
+
+        assertEquals(100, getSteps(provider, DAY_1));
+        assertEquals(1000, getSteps(provider, DAY_2));
+        assertEquals(2, computations.get());
+
+        // cached
+        assertEquals(100, getSteps(provider, DAY_1));
+        assertEquals(1000, getSteps(provider, DAY_2));
+        assertEquals(2, computations.get());
+
+        // only the day that got new samples is computed again
+        addSample(provider, DAY_2 + 180, 20);
+        assertEquals(100, getSteps(provider, DAY_1));
+        assertEquals(1020, getSteps(provider, DAY_2));
+        assertEquals(3, computations.get());
+        assertEquals(computeSteps(provider, DAY_2), getSteps(provider, DAY_2));
+
+        // other devices are not affected
+        final GBDevice otherDevice = createDummyGDevice("00:00:00:00:21");
+        addSample(new MiBandSampleProvider(otherDevice, daoSession), DAY_1 + 180, 5);
+        assertEquals(100, getSteps(provider, DAY_1));
+        assertEquals(3, computations.get());
+    }
+
+    @Test
+    public void testSyncWithoutProviderWrites() {
+        final GBDevice gbDevice = createDummyGDevice("00:00:00:00:22");
+        final MiBandSampleProvider provider = new MiBandSampleProvider(gbDevice, daoSession);
+
+        addSample(provider, DAY_1 + 60, 100);
+        addSample(provider, DAY_1 + 120, 0);
+        DailyAggregateCache.onSyncFinished(gbDevice);
+        assertEquals(100, getSteps(provider, DAY_1));
+        assertEquals(1, computations.get());
+
+        // written directly to the database, bypassing the provider
+        provider.getSampleDao().insertOrReplace(createSample(provider, DAY_1 + 180, 50));
+        assertEquals(100, getSteps(provider, DAY_1));
+
+        DailyAggregateCache.onSyncFinished(gbDevice);
+        assertEquals(150, getSteps(provider, DAY_1));
+        assertEquals(2, computations.get());
+    }
+
+    @Test
+    public void testSampleCachesListeners() {
+        final GBDevice gbDevice = createDummyGDevice("00:00:00:00:23");
+        final MiBandSampleProvider provider = new MiBandSampleProvider(gbDevice, daoSession);
+
+        final List<String> events = new ArrayList<>();
+        final SampleCaches.Listener listener = new SampleCaches.Listener() {
+            @Override
+            public void onSamplesWritten(final GBDevice device, final int tsFrom, final int tsTo) {
+                events.add(device.getAddress() + " " + tsFrom + "-" + tsTo);
+            }
+
+            @Override
+            public void onSyncFinished(@Nullable final GBDevice device) {
+                events.add("sync " + (device != null ? device.getAddress() : null));
+            }
+        };
+        SampleCaches.addListener(listener);
+        try {
+            addSample(provider, DAY_1 + 60, 100);
+            addSample(provider, DAY_1 + 120, 0);
+            assertEquals(100, getSteps(provider, DAY_1));
+
+            // a sync of an unknown device drops everything
+            SampleCaches.onSyncFinished(null);
+            assertEquals(100, getSteps(provider, DAY_1));
+            assertEquals(2, computations.get());
+        } finally {
+            SampleCaches.removeListener(listener);
+        }
+
+        assertEquals(Arrays.asList(
+                "00:00:00:00:23 " + (DAY_1 + 60) + "-" + (DAY_1 + 60),
+                "00:00:00:00:23 " + (DAY_1 + 120) + "-" + (DAY_1 + 120),
+                "sync null"
+        ), events);
+    }
+
+    private long getSteps(final MiBandSampleProvider provider, final int dayStart) {
+        final ActivityAmounts amounts = DailyAggregateCache.get(provider.getDevice(), DailyAggregateCache.KIND_ACTIVITY_AMOUNTS, dayStart, dayStart + DAY - 1, () -> {
+            computations.incrementAndGet();
+            return new ActivityAnalysis().calculateActivityAmounts(provider.getAllActivitySamples(dayStart, dayStart + DAY - 1));
+        });
+        return getTotalSteps(amounts);
+    }
+
+    private long computeSteps(final MiBandSampleProvider provider, final int dayStart) {
+        return getTotalSteps(new ActivityAnalysis().calculateActivityAmounts(provider.getAllActivitySamples(dayStart, dayStart + DAY - 1)));
+    }
+
+    private static long getTotalSteps(final ActivityAmounts amounts) {
+        long steps = 0;
+        for (final ActivityAmount amount : amounts.getAmounts()) {
+            steps += amount.getTotalSteps();
+        }
+        return steps;
+    }
+
+    private void addSample(final MiBandSampleProvider provider, final int timestamp, final int steps) {
+        provider.addGBActivitySample(createSample(provider, timestamp, steps));
+    }
+
+    private MiBandActivitySample createSample(final MiBandSampleProvider provider, final int timestamp, final int steps) {
+        final User user = DBHelper.getUser(daoSession);
+        final Device device = DBHelper.getDevice(provider.getDevice(), daoSession);
+
+        final MiBandActivitySample sample = provider.createActivitySample();
+        sample.setProvider(provider);
+        sample.setRawKind(MiBandSampleProvider.TYPE_ACTIVITY);
+        sample.setTimestamp(timestamp);
+        sample.setRawIntensity(10);
+        sample.setHeartRate(70);
+        sample.setSteps(steps);
+        sample.setUserId(user.getId());
+        sample.setDeviceId(device.getId());
+        return sample;
+    }
+}
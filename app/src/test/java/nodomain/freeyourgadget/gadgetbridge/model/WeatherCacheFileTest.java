@@ -0,0 +1,252 @@
+package nodomain.freeyourgadget.gadgetbridge.model;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class WeatherCacheFileTest {
+    private static final Logger LOG = LoggerFactory.getLogger(WeatherCacheFileTest.class);
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        final List<WeatherSpec> specs = new ArrayList<>();
+        specs.add(createWeatherSpec(0));
+        final WeatherSpec secondary = createWeatherSpec(1);
+        secondary.location = null;
+        secondary.airQuality = null;
+        secondary.hourly.clear();
+        specs.add(secondary);
+
+        final List<WeatherSpec> read = WeatherCacheFile.read(new ByteArrayInputStream(write(specs)));
+
+        assertEquals(2, read.size());
+        assertWeatherSpecEquals(specs.get(0), read.get(0));
+        assertWeatherSpecEquals(specs.get(1), read.get(1));
+    }
+
+    @Test
+    public void testEmpty() throws IOException {
+        final List<WeatherSpec> read = WeatherCacheFile.read(new ByteArrayInputStream(write(Collections.emptyList())));
+        assertTrue(read.isEmpty());
+    }
+
+    @Test(expected = IOException.class)
+    public void testUnsupportedVersion() throws IOException {
+        final byte[] bytes = write(Collections.singletonList(createWeatherSpec(0)));
+        bytes[7]++; // version
+        WeatherCacheFile.read(new ByteArrayInputStream(bytes));
+    }
+
+    @Test(expected = IOException.class)
+    public void testTruncated() throws IOException {
+        final byte[] bytes = write(Collections.singletonList(createWeatherSpec(0)));
+        final byte[] truncated = new byte[bytes.length - 10];
+        System.arraycopy(bytes, 0, truncated, 0, truncated.length);
+        WeatherCacheFile.read(new ByteArrayInputStream(truncated));
+    }
+
+    @Test
+    public void benchmarkAgainstSerialization() throws Exception {
+        final ArrayList<WeatherSpec> specs = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            specs.add(createWeatherSpec(i));
+        }
+
+        final byte[] binary = write(specs);
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (ObjectOutputStream o = new ObjectOutputStream(baos)) {
+            o.writeObject(specs);
+        }
+        final byte[] serialized = baos.toByteArray();
+
+        final int iterations = 200;
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            WeatherCacheFile.read(new ByteArrayInputStream(binary));
+        }
+        final long binaryNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            try (ObjectInputStream o = new ObjectInputStream(new ByteArrayInputStream(serialized))) {
+                o.readObject();
+            }
+        }
+        final long serializedNanos = System.nanoTime() - start;
+
+        LOG.info(
+                "Weather cache: binary {} bytes, {}us/read - serialized {} bytes, {}us/read",
+                binary.length,
+                binaryNanos / iterations / 1000,
+                serialized.length,
+                serializedNanos / iterations / 1000
+        );
+
+        assertTrue(binary.length < serialized.length);
+    }
+
+    private static byte[] write(final List<WeatherSpec> specs) throws IOException {
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        WeatherCacheFile.write(baos, specs);
+        return baos.toByteArray();
+    }
+
+    private static WeatherSpec createWeatherSpec(final int seed) {
+        final WeatherSpec spec = new WeatherSpec();
+        spec.timestamp = 1700000000 + seed;
+        spec.location = "Location " + seed;
+        spec.currentTemp = 290 + seed;
+        spec.currentConditionCode = 800;
+        spec.currentCondition = "Clear sky";
+        spec.currentHumidity = 40;
+        spec.todayMaxTemp = 295;
+        spec.todayMinTemp = 280;
+        spec.windSpeed = 12.5f;
+        spec.windDirection = 180;
+        spec.uvIndex = 3.5f;
+        spec.precipProbability = 10;
+        spec.dewPoint = 275;
+        spec.pressure = 1013.25f;
+        spec.cloudCover = 20;
+        spec.visibility = 10000f;
+        spec.sunRise = 1700020000;
+        spec.sunSet = 1700060000;
+        spec.moonRise = 1700030000;
+        spec.moonSet = 1700070000;
+        spec.moonPhase = 90;
+        spec.latitude = 38.7f;
+        spec.longitude = -9.1f;
+        spec.feelsLikeTemp = 288;
+        spec.isCurrentLocation = 1;
+        spec.airQuality = new WeatherSpec.AirQuality();
+        spec.airQuality.aqi = 42;
+        spec.airQuality.pm25 = 12.3f;
+        spec.airQuality.pm25Aqi = 42;
+
+        for (int i = 0; i < 7; i++) {
+            final WeatherSpec.Daily daily = new WeatherSpec.Daily();
+            daily.minTemp = 280 + i;
+            daily.maxTemp = 295 + i;
+            daily.conditionCode = 500 + i;
+            daily.humidity = 50 + i;
+            daily.windSpeed = i;
+            daily.sunRise = 1700020000 + i * 86400;
+            daily.sunSet = 1700060000 + i * 86400;
+            if (i % 2 == 0) {
+                daily.airQuality = new WeatherSpec.AirQuality();
+                daily.airQuality.aqi = i;
+            }
+            spec.forecasts.add(daily);
+        }
+
+        for (int i = 0; i < 24; i++) {
+            final WeatherSpec.Hourly hourly = new WeatherSpec.Hourly();
+            hourly.timestamp = 1700000000 + i * 3600;
+            hourly.temp = 285 + i % 5;
+            hourly.conditionCode = 801;
+            hourly.humidity = 60;
+            hourly.windSpeed = 5.5f;
+            hourly.windDirection = 90;
+            hourly.uvIndex = 1.0f;
+            hourly.precipProbability = i;
+            spec.hourly.add(hourly);
+        }
+
+        return spec;
+    }
+
+    private static void assertWeatherSpecEquals(final WeatherSpec expected, final WeatherSpec actual) {
+        assertEquals(expected.timestamp, actual.timestamp);
+        assertEquals(expected.location, actual.location);
+        assertEquals(expected.currentTemp, actual.currentTemp);
+        assertEquals(expected.currentConditionCode, actual.currentConditionCode);
+        assertEquals(expected.currentCondition, actual.currentCondition);
+        assertEquals(expected.currentHumidity, actual.currentHumidity);
+        assertEquals(expected.todayMaxTemp, actual.todayMaxTemp);
+        assertEquals(expected.todayMinTemp, actual.todayMinTemp);
+        assertEquals(expected.windSpeed, actual.windSpeed, 0);
+        assertEquals(expected.windDirection, actual.windDirection);
+        assertEquals(expected.uvIndex, actual.uvIndex, 0);
+        assertEquals(expected.precipProbability, actual.precipProbability);
+        assertEquals(expected.dewPoint, actual.dewPoint);
+        assertEquals(expected.pressure, actual.pressure, 0);
+        assertEquals(expected.cloudCover, actual.cloudCover);
+        assertEquals(expected.visibility, actual.visibility, 0);
+        assertEquals(expected.sunRise, actual.sunRise);
+        assertEquals(expected.sunSet, actual.sunSet);
+        assertEquals(expected.moonRise, actual.moonRise);
+        assertEquals(expected.moonSet, actual.moonSet);
+        assertEquals(expected.moonPhase, actual.moonPhase);
+        assertEquals(expected.latitude, actual.latitude, 0);
+        assertEquals(expected.longitude, actual.longitude, 0);
+        assertEquals(expected.feelsLikeTemp, actual.feelsLikeTemp);
+        assertEquals(expected.isCurrentLocation, actual.isCurrentLocation);
+        assertAirQualityEquals(expected.airQuality, actual.airQuality);
+
+        assertEquals(expected.forecasts.size(), actual.forecasts.size());
+        for (int i = 0; i < expected.forecasts.size(); i++) {
+            final WeatherSpec.Daily e = expected.forecasts.get(i);
+            final WeatherSpec.Daily a = actual.forecasts.get(i);
+            assertEquals(e.minTemp, a.minTemp);
+            assertEquals(e.maxTemp, a.maxTemp);
+            assertEquals(e.conditionCode, a.conditionCode);
+            assertEquals(e.humidity, a.humidity);
+            assertEquals(e.windSpeed, a.windSpeed, 0);
+            assertEquals(e.windDirection, a.windDirection);
+            assertEquals(e.uvIndex, a.uvIndex, 0);
+            assertEquals(e.precipProbability, a.precipProbability);
+            assertEquals(e.sunRise, a.sunRise);
+            assertEquals(e.sunSet, a.sunSet);
+            assertEquals(e.moonRise, a.moonRise);
+            assertEquals(e.moonSet, a.moonSet);
+            assertEquals(e.moonPhase, a.moonPhase);
+            assertAirQualityEquals(e.airQuality, a.airQuality);
+        }
+
+        assertEquals(expected.hourly.size(), actual.hourly.size());
+        for (int i = 0; i < expected.hourly.size(); i++) {
+            final WeatherSpec.Hourly e = expected.hourly.get(i);
+            final WeatherSpec.Hourly a = actual.hourly.get(i);
+            assertEquals(e.timestamp, a.timestamp);
+            assertEquals(e.temp, a.temp);
+            assertEquals(e.conditionCode, a.conditionCode);
+            assertEquals(e.humidity, a.humidity);
+            assertEquals(e.windSpeed, a.windSpeed, 0);
+            assertEquals(e.windDirection, a.windDirection);
+            assertEquals(e.uvIndex, a.uvIndex, 0);
+            assertEquals(e.precipProbability, a.precipProbability);
+        }
+    }
+
+    private static void assertAirQualityEquals(final WeatherSpec.AirQuality expected, final WeatherSpec.AirQuality actual) {
+        if (expected == null) {
+            assertNull(actual);
+            return;
+        }
+        assertNotNull(actual);
+        assertEquals(expected.aqi, actual.aqi);
+        assertEquals(expected.co, actual.co, 0);
+        assertEquals(expected.no2, actual.no2, 0);
+        assertEquals(expected.o3, actual.o3, 0);
+        assertEquals(expected.pm10, actual.pm10, 0);
+        assertEquals(expected.pm25, actual.pm25, 0);
+        assertEquals(expected.so2, actual.so2, 0);
+        assertEquals(expected.coAqi, actual.coAqi);
+        assertEquals(expected.no2Aqi, actual.no2Aqi);
+        assertEquals(expected.o3Aqi, actual.o3Aqi);
+        assertEquals(expected.pm10Aqi, actual.pm10Aqi);
+        assertEquals(expected.pm25Aqi, actual.pm25Aqi);
+        assertEquals(expected.so2Aqi, actual.so2Aqi);
+    }
+}
@@ -0,0 +1,194 @@
+package nodomain.freeyourgadget.gadgetbridge.service.devices.garmin;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Date;
+
+import nodomain.freeyourgadget.gadgetbridge.deviceevents.GBDeviceEvent;
+import nodomain.freeyourgadget.gadgetbridge.service.devices.garmin.deviceevents.FileDownloadedDeviceEvent;
+import nodomain.freeyourgadget.gadgetbridge.service.devices.garmin.messages.DownloadRequestMessage;
+import nodomain.freeyourgadget.gadgetbridge.service.devices.garmin.messages.FileTransferDataMessage;
+import nodomain.freeyourgadget.gadgetbridge.service.devices.garmin.messages.GFDIMessage;
+import nodomain.freeyourgadget.gadgetbridge.service.devices.garmin.messages.status.DownloadRequestStatusMessage;
+import nodomain.freeyourgadget.gadgetbridge.test.TestBase;
+
+public class FileTransferHandlerTest extends TestBase {
+    private static final byte[] FILE_CONTENTS = {0, 1, 2, 3, 4, 5, 6, 7, 8, 9};
+
+    private final FileTransferHandler.DirectoryEntry directoryEntry = new FileTransferHandler.DirectoryEntry(
+            5, FileType.FILETYPE.ACTIVITY, 0, 0, 0, FILE_CONTENTS.length, new Date(1700000000000L)
+    );
+
+    private File exportDirectory;
+    private GarminSupport support;
+
+    @Before
+    public void createSupport() throws IOException {
+        exportDirectory = Files.createTempDirectory("garmin-download-test").toFile();
+        support = Mockito.mock(GarminSupport.class);
+        Mockito.when(support.getWritableExportDirectory()).thenReturn(exportDirectory);
+    }
+
+    @After
+    public void deleteExportDirectory() {
+        final File[] files = exportDirectory.listFiles();
+        if (files != null) {
+            for (final File file : files) {
+                file.delete();
+            }
+        }
+        exportDirectory.delete();
+    }
+
+    @Test
+    public void testStreamedDownload() throws IOException {
+        final FileTransferHandler handler = new FileTransferHandler(support);
+
+        final DownloadRequestMessage request = handler.downloadDirectoryEntry(directoryEntry);
+        assertEquals(DownloadRequestMessage.REQUEST_TYPE.NEW, getRequestType(request));
+        assertEquals(0, getRequestOffset(request));
+
+        handler.handle(statusMessage(FILE_CONTENTS.length));
+        handler.handle(chunk(0, 4));
+        handler.handle(chunk(4, FILE_CONTENTS.length));
+
+        assertFalse(handler.isDownloading());
+        assertDownloaded();
+    }
+
+    @Test
+    public void testResumeAfterPartialTransfer() throws IOException {
+        final FileTransferHandler handler = new FileTransferHandler(support);
+        handler.downloadDirectoryEntry(directoryEntry);
+        handler.handle(statusMessage(FILE_CONTENTS.length));
+        handler.handle(chunk(0, 4));
+
+        // disconnected mid-transfer, the partial file is kept
+        handler.dispose();
+        final File partialFile = new File(exportDirectory, directoryEntry.getFileName() + ".part");
+        assertArrayEquals(Arrays.copyOfRange(FILE_CONTENTS, 0, 4), Files.readAllBytes(partialFile.toPath()));
+
+        final FileTransferHandler resumedHandler = new FileTransferHandler(support);
+        final DownloadRequestMessage request = resumedHandler.downloadDirectoryEntry(directoryEntry);
+        assertEquals(DownloadRequestMessage.REQUEST_TYPE.CONTINUE, getRequestType(request));
+        assertEquals(4, getRequestOffset(request));
+        assertEquals(crc(4), getRequestCrcSeed(request));
+
+        // the watch reports the remaining size
+        resumedHandler.handle(statusMessage(FILE_CONTENTS.length - 4));
+        resumedHandler.handle(chunk(4, FILE_CONTENTS.length));
+
+        assertFalse(resumedHandler.isDownloading());
+        assertFalse(partialFile.exists());
+        assertDownloaded();
+    }
+
+    @Test
+    public void testResumeWithUnexpectedSize() throws IOException {
+        final File partialFile = new File(exportDirectory, directoryEntry.getFileName() + ".part");
+        try (OutputStream out = new FileOutputStream(partialFile)) {
+            out.write(FILE_CONTENTS, 0, 4);
+        }
+
+        final FileTransferHandler handler = new FileTransferHandler(support);
+        assertEquals(DownloadRequestMessage.REQUEST_TYPE.CONTINUE, getRequestType(handler.downloadDirectoryEntry(directoryEntry)));
+
+        // neither the remaining nor the total size - the partial file does not match
+        handler.handle(statusMessage(3));
+
+        assertFalse(handler.isDownloading());
+        assertFalse(partialFile.exists());
+        Mockito.verify(support, Mockito.never()).evaluateGBDeviceEvent(Mockito.any());
+
+        // the next attempt starts from scratch
+        assertEquals(DownloadRequestMessage.REQUEST_TYPE.NEW, getRequestType(handler.downloadDirectoryEntry(directoryEntry)));
+    }
+
+    @Test
+    public void testResumeWithMismatchingPartialFile() throws IOException {
+        final File partialFile = new File(exportDirectory, directoryEntry.getFileName() + ".part");
+        try (OutputStream out = new FileOutputStream(partialFile)) {
+            out.write(new byte[]{9, 9, 9, 9});
+        }
+
+        final FileTransferHandler handler = new FileTransferHandler(support);
+        assertEquals(DownloadRequestMessage.REQUEST_TYPE.CONTINUE, getRequestType(handler.downloadDirectoryEntry(directoryEntry)));
+        handler.handle(statusMessage(FILE_CONTENTS.length - 4));
+
+        // the crc of the first chunk does not match the partial file
+        try {
+            handler.handle(chunk(4, FILE_CONTENTS.length));
+            fail("Expected the chunk to be rejected");
+        } catch (final IllegalStateException e) {
+            // expected
+        }
+
+        assertFalse(handler.isDownloading());
+        assertFalse(partialFile.exists());
+        Mockito.verify(support, Mockito.never()).evaluateGBDeviceEvent(Mockito.any());
+
+        // the next attempt starts from scratch
+        assertEquals(DownloadRequestMessage.REQUEST_TYPE.NEW, getRequestType(handler.downloadDirectoryEntry(directoryEntry)));
+    }
+
+    private void assertDownloaded() throws IOException {
+        final ArgumentCaptor<GBDeviceEvent> captor = ArgumentCaptor.forClass(GBDeviceEvent.class);
+        Mockito.verify(support).evaluateGBDeviceEvent(captor.capture());
+        assertTrue(captor.getValue() instanceof FileDownloadedDeviceEvent);
+
+        final File outputFile = new File(((FileDownloadedDeviceEvent) captor.getValue()).localPath);
+        assertEquals(new File(exportDirectory, directoryEntry.getFileName()), outputFile);
+        assertArrayEquals(FILE_CONTENTS, Files.readAllBytes(outputFile.toPath()));
+    }
+
+    private static DownloadRequestStatusMessage statusMessage(final int maxFileSize) {
+        return new DownloadRequestStatusMessage(
+                GFDIMessage.GarminMessage.DOWNLOAD_REQUEST,
+                GFDIMessage.Status.ACK,
+                DownloadRequestStatusMessage.DownloadStatus.OK,
+                maxFileSize
+        );
+    }
+
+    private static FileTransferDataMessage chunk(final int from, final int to) {
+        return new FileTransferDataMessage(Arrays.copyOfRange(FILE_CONTENTS, from, to), from, crc(to), false);
+    }
+
+    private static int crc(final int length) {
+        return ChecksumCalculator.computeCrc(0, FILE_CONTENTS, 0, length);
+    }
+
+    private static ByteBuffer outgoing(final DownloadRequestMessage request) {
+        return ByteBuffer.wrap(request.getOutgoingMessage()).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static DownloadRequestMessage.REQUEST_TYPE getRequestType(final DownloadRequestMessage request) {
+        return DownloadRequestMessage.REQUEST_TYPE.values()[outgoing(request).get(10)];
+    }
+
+    private static int getRequestOffset(final DownloadRequestMessage request) {
+        return outgoing(request).getInt(6);
+    }
+
+    private static int getRequestCrcSeed(final DownloadRequestMessage request) {
+        return outgoing(request).getShort(11) & 0xffff;
+    }
+}
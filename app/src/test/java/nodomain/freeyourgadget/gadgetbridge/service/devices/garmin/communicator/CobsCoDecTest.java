@@ -2,10 +2,16 @@ package nodomain.freeyourgadget.gadgetbridge.service.devices.garmin.communicator
 
 import org.junit.Assert;
 import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Random;
 
 import nodomain.freeyourgadget.gadgetbridge.util.GB;
 
 public class CobsCoDecTest {
+    private static final Logger LOG = LoggerFactory.getLogger(CobsCoDecTest.class);
+
     final CobsCoDec cobsCoDec = new CobsCoDec();
 
     @Test
@@ -110,4 +116,108 @@ public class CobsCoDecTest {
             Assert.assertArrayEquals(payload, decodedData);
         }
     }
+
+    @Test
+    public void testCobsDecoderMultipleFramesInOneChunk() {
+        cobsCoDec.receivedBytes(GB.hexStringToByteArray(
+                "00022C04A0139623310F684C1BCA840508020B496E7374696E637420325308496E7374696E6374023253010304B800" +
+                "00022C04A0139623310F684C1BCA840508020B496E7374696E637420325308496E7374696E6374023253010304B800" +
+                "00022C04A0"
+        ));
+        final byte[] expected = GB.hexStringToByteArray("2C00A0139600310F684C1BCA840508020B496E7374696E637420325308496E7374696E6374023253000004B8");
+        Assert.assertArrayEquals(expected, cobsCoDec.retrieveMessage());
+        Assert.assertArrayEquals(expected, cobsCoDec.retrieveMessage());
+        Assert.assertNull(cobsCoDec.retrieveMessage());
+
+        cobsCoDec.receivedBytes(GB.hexStringToByteArray("139623310F684C1BCA840508020B496E7374696E637420325308496E7374696E6374023253010304B800"));
+        Assert.assertArrayEquals(expected, cobsCoDec.retrieveMessage());
+        Assert.assertNull(cobsCoDec.retrieveMessage());
+    }
+
+    @Test
+    public void testCobsDecoderLargeFrame() {
+        final byte[] payload = randomPayload(new Random(42), 100_000);
+        final byte[] encoded = cobsCoDec.encode(payload);
+        for (int i = 0; i < encoded.length; i += 20) {
+            cobsCoDec.receivedBytes(encoded, i, Math.min(20, encoded.length - i));
+        }
+        Assert.assertArrayEquals(payload, cobsCoDec.retrieveMessage());
+        Assert.assertNull(cobsCoDec.retrieveMessage());
+    }
+
+    @Test
+    public void testCobsEncoderIntoBuffer() {
+        final byte[] payload = GB.hexStringToByteArray("2C00A0139600310F684C1BCA840508020B496E7374696E637420325308496E7374696E6374023253000004B8");
+        final byte[] out = new byte[CobsCoDec.maxEncodedLength(payload.length) + 2];
+        final int length = cobsCoDec.encode(payload, 0, payload.length, out, 2);
+        final byte[] encoded = new byte[length];
+        System.arraycopy(out, 2, encoded, 0, length);
+        Assert.assertArrayEquals(cobsCoDec.encode(payload), encoded);
+    }
+
+    @Test
+    public void benchmarkEncode() {
+        final Random random = new Random(0);
+        final byte[][] payloads = new byte[1000][];
+        int totalBytes = 0;
+        for (int i = 0; i < payloads.length; i++) {
+            payloads[i] = randomPayload(random, 20 + random.nextInt(2000));
+            totalBytes += payloads[i].length;
+        }
+        final byte[] out = new byte[CobsCoDec.maxEncodedLength(2020)];
+
+        final int iterations = 20;
+        final long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            for (final byte[] payload : payloads) {
+                cobsCoDec.encode(payload, 0, payload.length, out, 0);
+            }
+        }
+        logThroughput("encode", (long) totalBytes * iterations, System.nanoTime() - start);
+    }
+
+    @Test
+    public void benchmarkDecode() {
+        final Random random = new Random(0);
+        final byte[][] encoded = new byte[1000][];
+        int totalBytes = 0;
+        for (int i = 0; i < encoded.length; i++) {
+            encoded[i] = cobsCoDec.encode(randomPayload(random, 20 + random.nextInt(2000)));
+            totalBytes += encoded[i].length;
+        }
+
+        // deliver the frames in 20-byte chunks, as received over BLE
+        final byte[] stream = new byte[totalBytes];
+        int pos = 0;
+        for (final byte[] frame : encoded) {
+            System.arraycopy(frame, 0, stream, pos, frame.length);
+            pos += frame.length;
+        }
+
+        final int iterations = 20;
+        int messages = 0;
+        final long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            for (int offset = 0; offset < stream.length; offset += 20) {
+                cobsCoDec.receivedBytes(stream, offset, Math.min(20, stream.length - offset));
+                while (cobsCoDec.retrieveMessage() != null) {
+                    messages++;
+                }
+            }
+        }
+        logThroughput("decode", (long) totalBytes * iterations, System.nanoTime() - start);
+        Assert.assertEquals(encoded.length * iterations, messages);
+    }
+
+    private static byte[] randomPayload(final Random random, final int length) {
+        final byte[] payload = new byte[length];
+        random.nextBytes(payload);
+        // the encoder drops a trailing 0, avoid it to compare payloads
+        payload[length - 1] = 1;
+        return payload;
+    }
+
+    private static void logThroughput(final String operation, final long bytes, final long nanos) {
+        LOG.info("COBS {}: {} bytes in {}ms ({} MB/s)", operation, bytes, nanos / 1_000_000, String.format("%.1f", bytes * 1000.0 / nanos));
+    }
 }
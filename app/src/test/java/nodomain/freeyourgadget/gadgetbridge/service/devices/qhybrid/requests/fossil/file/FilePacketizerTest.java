@@ -0,0 +1,95 @@
+package nodomain.freeyourgadget.gadgetbridge.service.devices.qhybrid.requests.fossil.file;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.CRC32;
+
+import nodomain.freeyourgadget.gadgetbridge.util.CRC32C;
+
+public class FilePacketizerTest {
+    private static final int[] FILE_LENGTHS = {0, 1, 239, 240, 241, 480, 4096, 100000};
+    private static final int[] MAX_PACKET_SIZES = {16, 240, 508};
+
+    @Test
+    public void testPacketsMatchFullBuffer() throws IOException {
+        final Random random = new Random(0);
+
+        for (final int fileLength : FILE_LENGTHS) {
+            for (final int maxPacketSize : MAX_PACKET_SIZES) {
+                final byte[] file = new byte[fileLength];
+                random.nextBytes(file);
+
+                final FilePacketizer packetizer = new FilePacketizer(new ByteArrayInputStream(file), file.length, maxPacketSize);
+                assertPackets(file, maxPacketSize, packetizer);
+            }
+        }
+    }
+
+    @Test
+    public void testPayloadWithCrc32c() throws IOException {
+        final Random random = new Random(1);
+
+        for (final int fileLength : FILE_LENGTHS) {
+            final byte[] header = new byte[12];
+            final byte[] file = new byte[fileLength];
+            random.nextBytes(header);
+            random.nextBytes(file);
+
+            final ByteBuffer buffer = ByteBuffer.allocate(file.length + 12 + 4);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            buffer.put(header);
+            buffer.put(file);
+            final CRC32C crc = new CRC32C();
+            crc.update(file, 0, file.length);
+            buffer.putInt((int) crc.getValue());
+
+            final FilePacketizer packetizer = new FilePacketizer(FilePacketizer.withCrc32c(header, file), file.length + 12 + 4, 240);
+            assertPackets(buffer.array(), 240, packetizer);
+        }
+    }
+
+    @Test(expected = EOFException.class)
+    public void testShortFile() throws IOException {
+        final FilePacketizer packetizer = new FilePacketizer(new ByteArrayInputStream(new byte[100]), 200, 240);
+        packetizer.next();
+    }
+
+    /**
+     * Compares the packets with the ones built from the full file, as they were before the
+     * packetizer.
+     */
+    private static void assertPackets(final byte[] data, final int maxPacketSize, final FilePacketizer packetizer) throws IOException {
+        final CRC32 fullCRC = new CRC32();
+        fullCRC.update(data);
+
+        final List<byte[]> expectedPackets = new ArrayList<>();
+        final int packetCount = (int) Math.ceil(data.length / (float) maxPacketSize);
+        for (int i = 0; i < packetCount; i++) {
+            final int currentPacketLength = Math.min(maxPacketSize, data.length - i * maxPacketSize);
+            final byte[] packet = new byte[currentPacketLength + 1];
+            packet[0] = (byte) i;
+            System.arraycopy(data, i * maxPacketSize, packet, 1, currentPacketLength);
+            expectedPackets.add(packet);
+        }
+
+        assertEquals(expectedPackets.size(), packetizer.getPacketCount());
+        for (int i = 0; i < expectedPackets.size(); i++) {
+            assertEquals(i, packetizer.getPacketIndex());
+            assertArrayEquals(expectedPackets.get(i), packetizer.next());
+        }
+        assertFalse(packetizer.hasNext());
+        assertEquals((int) fullCRC.getValue(), packetizer.getCrc());
+    }
+}
@@ -0,0 +1,96 @@
+package nodomain.freeyourgadget.gadgetbridge.service.devices.qhybrid.requests.fossil_hr.file;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.CRC32;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+
+import nodomain.freeyourgadget.gadgetbridge.service.devices.qhybrid.requests.fossil.file.FilePacketizer;
+import nodomain.freeyourgadget.gadgetbridge.util.CRC32C;
+
+public class FileEncryptedPutRequestTest {
+    @Test
+    public void testEncryptedPacketsMatchFullBuffer() throws Exception {
+        final Random random = new Random(2);
+        final byte[] key = new byte[16];
+        final byte[] iv = new byte[16];
+        random.nextBytes(key);
+        random.nextBytes(iv);
+
+        for (final int fileLength : new int[]{0, 1, 223, 224, 4000, 65536}) {
+            final byte[] file = new byte[fileLength];
+            random.nextBytes(file);
+            final short handle = (short) 0x1500;
+            final int maxPacketSize = 240;
+
+            final List<byte[]> expected = new ArrayList<>();
+            final int expectedCrc = buildExpectedPackets(handle, file, maxPacketSize, createCipher(key, iv), expected);
+
+            final Cipher cipher = createCipher(key, iv);
+            final FilePacketizer packetizer = FileEncryptedPutRequest.createPacketizer(handle, file, maxPacketSize);
+            for (final byte[] expectedPacket : expected) {
+                assertArrayEquals(expectedPacket, cipher.doFinal(packetizer.next()));
+            }
+            assertFalse(packetizer.hasNext());
+            assertEquals(expectedCrc, packetizer.getCrc());
+        }
+    }
+
+    private static Cipher createCipher(final byte[] key, final byte[] iv) throws Exception {
+        final Cipher cipher = Cipher.getInstance("AES/CTR/NoPadding");
+        cipher.init(Cipher.ENCRYPT_MODE, new SecretKeySpec(key, "AES"), new IvParameterSpec(iv));
+        return cipher;
+    }
+
+    /**
+     * The packets as they were built before the packetizer, from the full file.
+     */
+    private static int buildExpectedPackets(final short handle,
+                                            final byte[] file,
+                                            final int maxPacketSize,
+                                            final Cipher cipher,
+                                            final List<byte[]> packets) throws Exception {
+        final ByteBuffer buffer = ByteBuffer.allocate(file.length + 12 + 4);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+        buffer.putShort(handle);
+        buffer.put((byte) 2);
+        buffer.put((byte) 0);
+        buffer.putInt(0);
+        buffer.putInt(file.length);
+
+        buffer.put(file);
+
+        final CRC32C crc = new CRC32C();
+        crc.update(file, 0, file.length);
+        buffer.putInt((int) crc.getValue());
+
+        final byte[] data = buffer.array();
+
+        final CRC32 fullCRC = new CRC32();
+        fullCRC.update(data);
+
+        final int packetCount = (int) Math.ceil(data.length / (float) maxPacketSize);
+        for (int i = 0; i < packetCount; i++) {
+            final int currentPacketLength = Math.min(maxPacketSize, data.length - i * maxPacketSize);
+            final byte[] packet = new byte[currentPacketLength + 1];
+            packet[0] = (byte) i;
+            System.arraycopy(data, i * maxPacketSize, packet, 1, currentPacketLength);
+            packets.add(cipher.doFinal(packet));
+        }
+
+        return (int) fullCRC.getValue();
+    }
+}
@@ -0,0 +1,156 @@
+package nodomain.freeyourgadget.gadgetbridge.service.devices.xiaomi;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class XiaomiSppReceiveBufferTest {
+    private final TestProtocol protocol = new TestProtocol();
+
+    @Test
+    public void testSplitHeader() {
+        final XiaomiSppReceiveBuffer buffer = new XiaomiSppReceiveBuffer();
+
+        buffer.append(new byte[]{TestProtocol.PREAMBLE});
+        buffer.process(() -> protocol);
+        assertEquals(0, protocol.packets.size());
+        assertEquals(1, buffer.length());
+
+        buffer.append(new byte[]{3, 1, 2});
+        buffer.process(() -> protocol);
+        assertEquals(0, protocol.packets.size());
+        assertEquals(4, buffer.length());
+
+        buffer.append(new byte[]{3});
+        buffer.process(() -> protocol);
+        assertEquals(1, protocol.packets.size());
+        assertArrayEquals(new byte[]{1, 2, 3}, protocol.packets.get(0));
+        assertEquals(0, buffer.length());
+    }
+
+    @Test
+    public void testMultiplePacketsInOneChunk() {
+        final XiaomiSppReceiveBuffer buffer = new XiaomiSppReceiveBuffer();
+
+        buffer.append(new byte[]{
+                TestProtocol.PREAMBLE, 1, 10,
+                TestProtocol.PREAMBLE, 2, 11, 12,
+                TestProtocol.PREAMBLE, 3, 13,
+        });
+        buffer.process(() -> protocol);
+
+        assertEquals(2, protocol.packets.size());
+        assertArrayEquals(new byte[]{10}, protocol.packets.get(0));
+        assertArrayEquals(new byte[]{11, 12}, protocol.packets.get(1));
+
+        // the incomplete packet stays in place
+        assertEquals(7, buffer.offset());
+        assertArrayEquals(new byte[]{TestProtocol.PREAMBLE, 3, 13}, buffer.toByteArray());
+    }
+
+    @Test
+    public void testResyncAfterBadPreamble() {
+        final XiaomiSppReceiveBuffer buffer = new XiaomiSppReceiveBuffer();
+
+        buffer.append(new byte[]{0, 1, 2, TestProtocol.PREAMBLE, 1, 10, 5, 6});
+        buffer.process(() -> protocol);
+
+        assertEquals(1, protocol.packets.size());
+        assertArrayEquals(new byte[]{10}, protocol.packets.get(0));
+
+        // no candidate packet after the trailing bytes, they are dropped
+        assertEquals(0, buffer.length());
+
+        buffer.append(new byte[]{TestProtocol.PREAMBLE, 1, 20});
+        buffer.process(() -> protocol);
+        assertEquals(2, protocol.packets.size());
+        assertArrayEquals(new byte[]{20}, protocol.packets.get(1));
+    }
+
+    @Test
+    public void testCompaction() {
+        final XiaomiSppReceiveBuffer buffer = new XiaomiSppReceiveBuffer(16);
+        final byte[] array = buffer.array();
+
+        // a 12 byte packet, followed by the start of the next one
+        buffer.append(new byte[]{TestProtocol.PREAMBLE, 10, 0, 1, 2, 3, 4, 5, 6, 7, 8, 9, TestProtocol.PREAMBLE, 5});
+        buffer.process(() -> protocol);
+        assertEquals(1, protocol.packets.size());
+        assertEquals(12, buffer.offset());
+        assertEquals(2, buffer.length());
+
+        // the remaining bytes are moved to the front, without growing the buffer
+        buffer.append(new byte[]{1, 2, 3, 4, 5});
+        assertSame(array, buffer.array());
+        assertEquals(0, buffer.offset());
+        buffer.process(() -> protocol);
+        assertEquals(2, protocol.packets.size());
+        assertArrayEquals(new byte[]{1, 2, 3, 4, 5}, protocol.packets.get(1));
+
+        // more than half of the buffer is needed, it grows and keeps the pending bytes
+        final byte[] payload = new byte[20];
+        for (int i = 0; i < payload.length; i++) {
+            payload[i] = (byte) i;
+        }
+        buffer.append(new byte[]{TestProtocol.PREAMBLE, (byte) payload.length});
+        buffer.append(payload, 0, 6);
+        buffer.process(() -> protocol);
+        buffer.append(payload, 6, payload.length - 6);
+        assertNotSame(array, buffer.array());
+        assertEquals(0, buffer.offset());
+        buffer.process(() -> protocol);
+        assertEquals(3, protocol.packets.size());
+        assertArrayEquals(payload, protocol.packets.get(2));
+        assertEquals(0, buffer.length());
+    }
+
+    /**
+     * Packets made of a preamble byte, the payload length and the payload.
+     */
+    private static class TestProtocol extends AbstractXiaomiSppProtocol {
+        private static final byte PREAMBLE = (byte) 0xa5;
+
+        private final List<byte[]> packets = new ArrayList<>();
+
+        @Override
+        public int findNextPacketOffset(final byte[] buffer, final int offset, final int length) {
+            for (int i = 1; i < length; i++) {
+                if (buffer[offset + i] == PREAMBLE) {
+                    return i;
+                }
+            }
+
+            return -1;
+        }
+
+        @Override
+        public ParseResult processPacket(final byte[] buffer, final int offset, final int length) {
+            if (length < 2) {
+                return new ParseResult(ParseResult.Status.Incomplete);
+            }
+            if (buffer[offset] != PREAMBLE) {
+                return new ParseResult(ParseResult.Status.Invalid);
+            }
+
+            final int packetSize = 2 + (buffer[offset + 1] & 0xff);
+            if (length < packetSize) {
+                return new ParseResult(ParseResult.Status.Incomplete);
+            }
+
+            packets.add(Arrays.copyOfRange(buffer, offset + 2, offset + packetSize));
+            return new ParseResult(ParseResult.Status.Complete, packetSize);
+        }
+
+        @Override
+        public byte[] encodePacket(final XiaomiChannelHandler.Channel channel, final byte[] chunk) {
+            return chunk;
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package nodomain.freeyourgadget.gadgetbridge.util;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.zip.CRC32;
+
+import nodomain.freeyourgadget.gadgetbridge.service.devices.garmin.ChecksumCalculator;
+
+public class CrcTest {
+    private static final byte[] CHECK = "123456789".getBytes(StandardCharsets.US_ASCII);
+
+    @Test
+    public void testCheckValues() {
+        assertEquals(0xA1, Crc.CRC8_MAXIM.compute(CHECK));
+        assertEquals(0x29B1, Crc.CRC16_CCITT_FALSE.compute(CHECK));
+        assertEquals(0x31C3, Crc.CRC16_XMODEM.compute(CHECK));
+        assertEquals(0x4B37, Crc.CRC16_MODBUS.compute(CHECK));
+        assertEquals(0xBB3D, Crc.CRC16_ARC.compute(CHECK));
+        assertEquals(0xCBF43926, Crc.CRC32.compute(CHECK));
+    }
+
+    @Test
+    public void testEmpty() {
+        assertEquals(0x00, Crc.CRC8_MAXIM.compute(new byte[0]));
+        assertEquals(0xFFFF, Crc.CRC16_CCITT_FALSE.compute(new byte[0]));
+        assertEquals(0x0000, Crc.CRC32.compute(new byte[0]));
+    }
+
+    @Test
+    public void testMatchesReferenceImplementations() {
+        final Random random = new Random(1234);
+        for (int i = 0; i < 200; i++) {
+            final byte[] data = new byte[random.nextInt(300)];
+            random.nextBytes(data);
+
+            assertEquals(referenceCrc8(data), CheckSums.getCRC8(data));
+            assertEquals(referenceCrc16(data, 0xFFFF), CheckSums.getCRC16(data));
+            assertEquals(referenceCrc16(data, 0x0000), CheckSums.getCRC16(data, 0x0000));
+            assertEquals(referenceCrc16(data, 0x1D0F), CheckSums.getCRC16(data, 0x1D0F));
+            assertEquals(referenceCrc16ansi(data), CheckSums.getCRC16ansi(data));
+            assertEquals(referenceCrc16Ccitt(data), CheckSums.crc16_ccitt(data));
+            assertEquals(referenceGarmin(0, data, 0, data.length), ChecksumCalculator.computeCrc(data, 0, data.length));
+            assertEquals(referenceGarmin(0, data, 0, data.length), ChecksumCalculator.computeCrc(ByteBuffer.wrap(data), 0, data.length));
+
+            final CRC32 crc32 = new CRC32();
+            crc32.update(data);
+            assertEquals((int) crc32.getValue(), Crc.CRC32.compute(data));
+            assertEquals((int) crc32.getValue(), CheckSums.getCRC32(ByteBuffer.wrap(data)));
+        }
+    }
+
+    @Test
+    public void testOffsets() {
+        final Random random = new Random(5678);
+        for (int i = 0; i < 100; i++) {
+            final byte[] data = new byte[1 + random.nextInt(300)];
+            random.nextBytes(data);
+            final int offset = random.nextInt(data.length);
+            final int length = random.nextInt(data.length - offset + 1);
+            final byte[] slice = new byte[length];
+            System.arraycopy(data, offset, slice, 0, length);
+
+            assertEquals(referenceCrc16(slice, 0x0000), CheckSums.getCRC16(data, offset, length, 0x0000));
+            assertEquals(referenceCrc16ansi(slice), CheckSums.getCRC16ansi(data, offset, length));
+            assertEquals(referenceGarmin(0, slice, 0, length), ChecksumCalculator.computeCrc(data, offset, length));
+            assertEquals(referenceGarmin(0, slice, 0, length), ChecksumCalculator.computeCrc(ByteBuffer.wrap(data), offset, length));
+            assertEquals(referenceGarmin(0x1234, slice, 0, length), ChecksumCalculator.computeCrc(0x1234, data, offset, length));
+            assertEquals(CheckSums.getCRC32(slice), CheckSums.getCRC32(data, offset, length));
+            assertEquals(CheckSums.getCRC32(slice), Crc.CRC32.compute(data, offset, length));
+        }
+    }
+
+    @Test
+    public void testByteBuffers() {
+        final Random random = new Random(9012);
+        final byte[] data = new byte[500];
+        random.nextBytes(data);
+
+        for (final Crc crc : new Crc[]{Crc.CRC8_MAXIM, Crc.CRC16_CCITT_FALSE, Crc.CRC16_XMODEM, Crc.CRC16_MODBUS, Crc.CRC16_ARC, Crc.CRC32}) {
+            final int expected = crc.compute(data, 100, 300);
+
+            final ByteBuffer heap = ByteBuffer.wrap(data);
+            heap.position(100).limit(400);
+            assertEquals(expected, crc.compute(heap));
+            assertEquals(expected, crc.compute(heap.slice()));
+            assertEquals(expected, crc.compute(heap.asReadOnlyBuffer()));
+            assertEquals(100, heap.position());
+
+            final ByteBuffer direct = ByteBuffer.allocateDirect(data.length);
+            direct.put(data);
+            direct.position(100).limit(400);
+            assertEquals(expected, crc.compute(direct));
+            assertEquals(100, direct.position());
+        }
+    }
+
+    @Test
+    public void testState() {
+        final Random random = new Random(3456);
+        final byte[] data = new byte[1000];
+        random.nextBytes(data);
+
+        for (final Crc crc : new Crc[]{Crc.CRC8_MAXIM, Crc.CRC16_CCITT_FALSE, Crc.CRC16_XMODEM, Crc.CRC16_MODBUS, Crc.CRC16_ARC, Crc.CRC32}) {
+            final int expected = crc.compute(data);
+            final Crc.State state = crc.newState();
+
+            for (int i = 0; i < 20; i++) {
+                state.reset();
+                final int split1 = random.nextInt(data.length);
+                final int split2 = split1 + random.nextInt(data.length - split1);
+                state.update(data, 0, split1);
+                for (int j = split1; j < split2; j++) {
+                    state.update(data[j]);
+                }
+                final ByteBuffer rest = ByteBuffer.wrap(data, split2, data.length - split2);
+                state.update(rest);
+                assertEquals(0, rest.remaining());
+                assertEquals(expected, state.getValue());
+            }
+
+            state.reset();
+            assertEquals(crc.compute(new byte[0]), state.getValue());
+            assertEquals(expected, state.update(data).getValue());
+        }
+    }
+
+    private static int referenceCrc8(final byte[] seq) {
+        int len = seq.length;
+        int i = 0;
+        byte crc = 0x00;
+
+        while (len-- > 0) {
+            byte extract = seq[i++];
+            for (byte tempI = 8; tempI != 0; tempI--) {
+                byte sum = (byte) ((crc & 0xff) ^ (extract & 0xff));
+                sum = (byte) ((sum & 0xff) & 0x01);
+                crc = (byte) ((crc & 0xff) >>> 1);
+                if (sum != 0) {
+                    crc = (byte) ((crc & 0xff) ^ 0x8c);
+                }
+                extract = (byte) ((extract & 0xff) >>> 1);
+            }
+        }
+        return (crc & 0xff);
+    }
+
+    private static int referenceCrc16(final byte[] seq, int crc) {
+        for (byte b : seq) {
+            crc = ((crc >>> 8) | (crc << 8)) & 0xffff;
+            crc ^= (b & 0xff);
+            crc ^= ((crc & 0xff) >> 4);
+            crc ^= (crc << 12) & 0xffff;
+            crc ^= ((crc & 0xFF) << 5) & 0xffff;
+        }
+        crc &= 0xffff;
+        return crc;
+    }
+
+    private static int referenceCrc16ansi(final byte[] seq) {
+        int crc = 0xffff;
+        int polynomial = 0xA001;
+
+        for (int i = 0; i < seq.length; i++) {
+            crc ^= seq[i] & 0xFF;
+            for (int j = 0; j < 8; j++) {
+                if ((crc & 1) != 0) {
+                    crc = (crc >>> 1) ^ polynomial;
+                } else {
+                    crc = crc >>> 1;
+                }
+            }
+        }
+
+        return crc & 0xFFFF;
+    }
+
+    private static int referenceCrc16Ccitt(final byte[] data) {
+        int crc = 0;
+        for (final byte b : data) {
+            crc ^= (b & 0xff) << 8;
+            for (int j = 0; j < 8; j++) {
+                crc = (crc & 0x8000) != 0 ? (crc << 1) ^ 0x1021 : crc << 1;
+            }
+        }
+        return crc & 0xffff;
+    }
+
+    private static final int[] GARMIN_CONSTANTS = {
+            0x0000, 0xCC01, 0xD801, 0x1400, 0xF001, 0x3C00, 0x2800, 0xE401,
+            0xA001, 0x6C00, 0x7800, 0xB401, 0x5000, 0x9C01, 0x8801, 0x4400
+    };
+
+    private static int referenceGarmin(final int initialCrc, final byte[] data, final int offset, final int length) {
+        int crc = initialCrc;
+        for (int i = offset; i < offset + length; ++i) {
+            int b = data[i];
+            crc = (((crc >> 4) & 4095) ^ GARMIN_CONSTANTS[crc & 15]) ^ GARMIN_CONSTANTS[b & 15];
+            crc = (((crc >> 4) & 4095) ^ GARMIN_CONSTANTS[crc & 15]) ^ GARMIN_CONSTANTS[(b >> 4) & 15];
+        }
+        return crc;
+    }
+}
@@ -0,0 +1,102 @@
+package nodomain.freeyourgadget.gadgetbridge.util;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import nodomain.freeyourgadget.gadgetbridge.test.TestBase;
+
+public class LongRangeMapTest extends TestBase {
+    @Test
+    public void testLowerBound() {
+        final LongRangeMap<Integer> map = new LongRangeMap<>();
+        assertEquals(0, map.size());
+        assertNull(map.get(0));
+
+        map.put(10, 20);
+        assertNull(map.get(0));
+        assertEquals(20, map.get(10).intValue());
+        assertEquals(20, map.get(20).intValue());
+
+        map.put(30, 40);
+        map.put(20, 30);
+        assertNull(map.get(0));
+        assertEquals(20, map.get(10).intValue());
+        assertEquals(20, map.get(15).intValue());
+        assertEquals(30, map.get(20).intValue());
+        assertEquals(30, map.get(25).intValue());
+        assertEquals(40, map.get(30).intValue());
+    }
+
+    @Test
+    public void testUpperBound() {
+        final LongRangeMap<Integer> map = new LongRangeMap<>(RangeMap.Mode.UPPER_BOUND);
+        assertEquals(0, map.size());
+        assertNull(map.get(0));
+
+        map.put(10, 20);
+        assertNull(map.get(20));
+        assertEquals(20, map.get(10).intValue());
+        assertEquals(20, map.get(0).intValue());
+
+        map.put(30, 40);
+        map.put(20, 30);
+        assertNull(map.get(50));
+        assertEquals(40, map.get(30).intValue());
+        assertEquals(40, map.get(25).intValue());
+        assertEquals(30, map.get(20).intValue());
+        assertEquals(30, map.get(15).intValue());
+        assertEquals(20, map.get(10).intValue());
+    }
+
+    @Test
+    public void testDuplicateKeys() {
+        final LongRangeMap<Integer> map = new LongRangeMap<>();
+        map.put(20, 1);
+        map.put(10, 2);
+        map.put(20, 3);
+        map.put(10, 4);
+        assertEquals(4, map.get(15).intValue());
+        assertEquals(3, map.get(20).intValue());
+        assertEquals(2, map.size());
+    }
+
+    @Test
+    public void testSweepMatchesRangeMap() {
+        final Random random = new Random(42);
+        for (final RangeMap.Mode mode : RangeMap.Mode.values()) {
+            final RangeMap<Long, Integer> expected = new RangeMap<>(mode);
+            final LongRangeMap<Integer> actual = new LongRangeMap<>(mode);
+            for (int i = 0; i < 200; i++) {
+                final long key = random.nextInt(10000);
+                expected.put(key, i);
+                actual.put(key, i);
+            }
+
+            final List<Long> keys = new ArrayList<>();
+            for (long key = -10; key < 10010; key += 7) {
+                keys.add(key);
+            }
+            // out of order items fall back to a lookup
+            keys.addAll(Arrays.asList(5000L, 20L, 9999L, -1L, 10000L));
+
+            final List<Integer> swept = new ArrayList<>(Collections.nCopies(keys.size(), null));
+            final List<Integer> indexes = new ArrayList<>();
+            for (int i = 0; i < keys.size(); i++) {
+                indexes.add(i);
+            }
+            actual.sweep(indexes, keys::get, (index, value) -> swept.set(index, value));
+
+            for (int i = 0; i < keys.size(); i++) {
+                assertEquals(mode + " " + keys.get(i), expected.get(keys.get(i)), actual.get(keys.get(i)));
+                assertEquals(mode + " " + keys.get(i), expected.get(keys.get(i)), swept.get(i));
+            }
+        }
+    }
+}
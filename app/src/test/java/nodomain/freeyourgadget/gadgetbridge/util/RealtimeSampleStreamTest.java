@@ -0,0 +1,83 @@
+package nodomain.freeyourgadget.gadgetbridge.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.robolectric.Shadows.shadowOf;
+
+import android.os.Looper;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import nodomain.freeyourgadget.gadgetbridge.impl.GBDevice;
+import nodomain.freeyourgadget.gadgetbridge.test.TestBase;
+
+public class RealtimeSampleStreamTest extends TestBase {
+    private final List<List<RealtimeSampleStream.Update>> latestFrames = new ArrayList<>();
+    private final List<List<RealtimeSampleStream.Update>> historyFrames = new ArrayList<>();
+
+    private final RealtimeSampleStream.Subscriber latestSubscriber = latestFrames::add;
+    private final RealtimeSampleStream.Subscriber historySubscriber = historyFrames::add;
+
+    @After
+    public void unsubscribe() {
+        RealtimeSampleStream.getInstance().unsubscribe(latestSubscriber);
+        RealtimeSampleStream.getInstance().unsubscribe(historySubscriber);
+    }
+
+    @Test
+    public void testCoalescesPerDevice() {
+        final GBDevice device1 = createDummyGDevice("00:00:00:00:30");
+        final GBDevice device2 = createDummyGDevice("00:00:00:00:31");
+
+        RealtimeSampleStream.getInstance().subscribe(latestSubscriber);
+        RealtimeSampleStream.getInstance().subscribe(historySubscriber, true);
+
+        RealtimeSampleStream.publish(device1, "a1");
+        RealtimeSampleStream.publish(device2, "b1");
+        RealtimeSampleStream.publish(device1, "a2");
+        RealtimeSampleStream.publish(device1, "a3");
+        idle();
+
+        assertEquals(1, latestFrames.size());
+        assertEquals(2, latestFrames.get(0).size());
+        assertEquals(device1, latestFrames.get(0).get(0).getDevice());
+        assertEquals("a3", latestFrames.get(0).get(0).getLatestSample());
+        assertEquals(Arrays.asList("a3"), latestFrames.get(0).get(0).getSamples());
+        assertEquals("b1", latestFrames.get(0).get(1).getLatestSample());
+
+        assertEquals(1, historyFrames.size());
+        assertEquals(Arrays.asList("a1", "a2", "a3"), historyFrames.get(0).get(0).getSamples());
+        assertEquals(Arrays.asList("b1"), historyFrames.get(0).get(1).getSamples());
+
+        // nothing published, no frame
+        idle();
+        assertEquals(1, latestFrames.size());
+
+        RealtimeSampleStream.publish(device2, "b2");
+        idle();
+        assertEquals(2, latestFrames.size());
+        assertEquals(1, latestFrames.get(1).size());
+        assertEquals("b2", latestFrames.get(1).get(0).getLatestSample());
+    }
+
+    @Test
+    public void testUnsubscribe() {
+        final GBDevice device = createDummyGDevice("00:00:00:00:32");
+
+        RealtimeSampleStream.getInstance().subscribe(latestSubscriber);
+        RealtimeSampleStream.publish(device, "a1");
+        RealtimeSampleStream.getInstance().unsubscribe(latestSubscriber);
+        idle();
+
+        assertEquals(0, latestFrames.size());
+    }
+
+    private static void idle() {
+        shadowOf(Looper.getMainLooper()).idleFor(RealtimeSampleStream.FRAME_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+}
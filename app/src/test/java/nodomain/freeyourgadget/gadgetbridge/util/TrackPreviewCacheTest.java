@@ -0,0 +1,192 @@
+package nodomain.freeyourgadget.gadgetbridge.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import nodomain.freeyourgadget.gadgetbridge.model.GPSCoordinate;
+import nodomain.freeyourgadget.gadgetbridge.test.TestBase;
+
+public class TrackPreviewCacheTest extends TestBase {
+    @Test
+    public void testSimplifyStraightLine() {
+        final List<GPSCoordinate> points = new ArrayList<>();
+        for (int i = 0; i <= 100; i++) {
+            points.add(new GPSCoordinate(8 + i * 0.0001, 50 + i * 0.0001, 100));
+        }
+
+        assertEquals(Arrays.asList(points.get(0), points.get(100)), TrackPreviewCache.simplify(points, TrackPreviewCache.TOLERANCE));
+    }
+
+    @Test
+    public void testSimplifyKeepsCorners() {
+        final List<GPSCoordinate> points = new ArrayList<>();
+        for (int i = 0; i <= 50; i++) {
+            points.add(new GPSCoordinate(8 + i * 0.0001, 50, 100));
+        }
+        for (int i = 1; i <= 50; i++) {
+            points.add(new GPSCoordinate(8.005, 50 + i * 0.0001, 100));
+        }
+
+        assertEquals(
+                Arrays.asList(points.get(0), points.get(50), points.get(100)),
+                TrackPreviewCache.simplify(points, TrackPreviewCache.TOLERANCE)
+        );
+    }
+
+    @Test
+    public void testSimplifyErrorIsBounded() {
+        final Random random = new Random(0);
+        final List<GPSCoordinate> points = new ArrayList<>();
+        double lon = 8, lat = 50;
+        for (int i = 0; i < 5000; i++) {
+            lon += (random.nextDouble() - 0.4) * 0.0002;
+            lat += (random.nextDouble() - 0.5) * 0.0002;
+            points.add(new GPSCoordinate(lon, lat, 100));
+        }
+
+        final List<GPSCoordinate> simplified = TrackPreviewCache.simplify(points, TrackPreviewCache.TOLERANCE);
+        assertTrue(simplified.size() < points.size());
+
+        double minLat = Double.MAX_VALUE, maxLat = -Double.MAX_VALUE, minLon = Double.MAX_VALUE, maxLon = -Double.MAX_VALUE;
+        for (final GPSCoordinate point : points) {
+            minLat = Math.min(minLat, point.getLatitude());
+            maxLat = Math.max(maxLat, point.getLatitude());
+            minLon = Math.min(minLon, point.getLongitude());
+            maxLon = Math.max(maxLon, point.getLongitude());
+        }
+        final double maxDistance = TrackPreviewCache.TOLERANCE * Math.max(maxLat - minLat, maxLon - minLon);
+
+        // every point is within the tolerance of the segment of the preview that replaced it
+        int segment = 0;
+        for (final GPSCoordinate point : points) {
+            assertTrue(TrackPreviewCache.segmentDistance(point, simplified.get(segment), simplified.get(segment + 1)) <= maxDistance);
+            if (point == simplified.get(segment + 1) && segment + 2 < simplified.size()) {
+                segment++;
+            }
+        }
+    }
+
+    @Test
+    public void testPreviewIsPersisted() throws IOException {
+        final File trackFile = File.createTempFile("track-preview-test", ".gpx");
+        trackFile.deleteOnExit();
+
+        writeGpx(trackFile, 0.0001);
+        final List<List<GPSCoordinate>> preview = TrackPreviewCache.getPreview(trackFile);
+        assertEquals(1, preview.size());
+        assertEquals(2, preview.get(0).size());
+        assertEquals(new GPSCoordinate(8, 50, 100), preview.get(0).get(0));
+
+        // read back from the cache directory
+        TrackPreviewCache.clearMemoryCache();
+        assertEquals(preview, TrackPreviewCache.getPreview(trackFile));
+
+        // the track changed
+        writeGpx(trackFile, 0.0002);
+        assertTrue(trackFile.setLastModified(trackFile.lastModified() + 2000));
+        final List<List<GPSCoordinate>> newPreview = TrackPreviewCache.getPreview(trackFile);
+        assertEquals(1, newPreview.size());
+        assertEquals(2, newPreview.get(0).size());
+        assertEquals(new GPSCoordinate(8 + 99 * 0.0002, 50, 100), newPreview.get(0).get(1));
+    }
+
+    @Test
+    public void testSegmentsAreKeptApart() throws IOException {
+        final File trackFile = File.createTempFile("track-preview-test", ".gpx");
+        trackFile.deleteOnExit();
+
+        final StringBuilder sb = new StringBuilder();
+        sb.append("<trk><trkseg>\n");
+        appendPoints(sb, 8, 0.0001);
+        sb.append("</trkseg><trkseg>\n");
+        appendPoints(sb, 9, 0.0001);
+        sb.append("</trkseg></trk>\n");
+        writeGpx(trackFile, sb);
+
+        final List<List<GPSCoordinate>> preview = TrackPreviewCache.getPreview(trackFile);
+        assertEquals(2, preview.size());
+        assertEquals(Arrays.asList(new GPSCoordinate(8, 50, 100), new GPSCoordinate(8 + 99 * 0.0001, 50, 100)), preview.get(0));
+        assertEquals(Arrays.asList(new GPSCoordinate(9, 50, 100), new GPSCoordinate(9 + 99 * 0.0001, 50, 100)), preview.get(1));
+
+        TrackPreviewCache.clearMemoryCache();
+        assertEquals(preview, TrackPreviewCache.getPreview(trackFile));
+    }
+
+    @Test
+    public void testUnreadableTrackIsNotCached() throws IOException {
+        final File trackFile = File.createTempFile("track-preview-test", ".fit");
+        trackFile.deleteOnExit();
+        try (FileOutputStream fos = new FileOutputStream(trackFile)) {
+            fos.write("not a fit file".getBytes(StandardCharsets.UTF_8));
+        }
+
+        // fails every time, instead of caching an empty preview
+        for (int i = 0; i < 2; i++) {
+            try {
+                TrackPreviewCache.getPreview(trackFile);
+                fail("Expected the track to fail parsing");
+            } catch (final IOException ignored) {
+            }
+            TrackPreviewCache.clearMemoryCache();
+        }
+    }
+
+    @Test
+    public void testInvalidGpxIsNotCached() throws IOException {
+        final File trackFile = File.createTempFile("track-preview-test", ".gpx");
+        trackFile.deleteOnExit();
+        writeGpx(trackFile, "<trk><trkseg><trkpt lon=\"8\" lat=\"50\"><ele>100</ele>");
+
+        for (int i = 0; i < 2; i++) {
+            try {
+                TrackPreviewCache.getPreview(trackFile);
+                fail("Expected the track to fail parsing");
+            } catch (final IOException ignored) {
+            }
+            TrackPreviewCache.clearMemoryCache();
+        }
+
+        // the track was fixed
+        writeGpx(trackFile, 0.0001);
+        assertTrue(trackFile.setLastModified(trackFile.lastModified() + 2000));
+        assertEquals(1, TrackPreviewCache.getPreview(trackFile).size());
+    }
+
+    private static void writeGpx(final File file, final double step) throws IOException {
+        final StringBuilder sb = new StringBuilder();
+        sb.append("<trk><trkseg>\n");
+        appendPoints(sb, 8, step);
+        sb.append("</trkseg></trk>\n");
+        writeGpx(file, sb);
+    }
+
+    private static void appendPoints(final StringBuilder sb, final double lon, final double step) {
+        for (int i = 0; i < 100; i++) {
+            sb.append("<trkpt lon=\"").append(lon + i * step).append("\" lat=\"50\"><ele>100</ele></trkpt>\n");
+        }
+    }
+
+    private static void writeGpx(final File file, final CharSequence tracks) throws IOException {
+        final StringBuilder sb = new StringBuilder();
+        sb.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        sb.append("<gpx version=\"1.1\" creator=\"test\" xmlns=\"http://www.topografix.com/GPX/1/1\">\n");
+        sb.append(tracks);
+        sb.append("</gpx>\n");
+
+        try (FileOutputStream fos = new FileOutputStream(file)) {
+            fos.write(sb.toString().getBytes(StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package nodomain.freeyourgadget.gadgetbridge.util.gpx;
+
+import android.location.Location;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import nodomain.freeyourgadget.gadgetbridge.test.TestBase;
+import nodomain.freeyourgadget.gadgetbridge.util.gpx.model.GpxTrackPoint;
+
+public class GpxPointReaderTest extends TestBase {
+    private static final String[] GPX_FILES = {
+            "/gpx-exporter-test-SampleTrack.gpx",
+            "/gpx-parser-test-multiple-segments.gpx",
+            "/gpx-parser-test-order.gpx",
+    };
+
+    @Test
+    public void shouldReadSamePointsAsParser() throws IOException, GpxParseException {
+        for (final String gpxFile : GPX_FILES) {
+            final List<GpxTrackPoint> expected;
+            try (final InputStream inputStream = getClass().getResourceAsStream(gpxFile)) {
+                expected = new GpxParser(inputStream).getGpxFile().getPoints();
+            }
+
+            final List<GpxTrackPoint> points = new ArrayList<>();
+            try (final InputStream inputStream = getClass().getResourceAsStream(gpxFile)) {
+                final GpxPointReader reader = new GpxPointReader(inputStream);
+                while (reader.next()) {
+                    points.add(reader.getPoint().toTrackPoint());
+                }
+                Assert.assertFalse(reader.next());
+                Assert.assertEquals(expected.size(), reader.getPointCount());
+            }
+
+            Assert.assertEquals(expected, points);
+        }
+    }
+
+    @Test
+    public void shouldTrackSegmentsAndAccumulators() throws IOException, GpxParseException {
+        try (final InputStream inputStream = getClass().getResourceAsStream("/gpx-parser-test-multiple-segments.gpx")) {
+            final GpxPointReader reader = new GpxPointReader(inputStream);
+            final GpxPointReader.Point point = reader.getPoint();
+
+            final boolean[] expectedSegmentStarts = {true, false, true, false};
+            final int[] expectedSegments = {0, 0, 1, 1};
+            for (int i = 0; i < 4; i++) {
+                Assert.assertTrue(reader.next());
+                Assert.assertSame(point, reader.getPoint());
+                Assert.assertEquals(0, point.getTrackIndex());
+                Assert.assertEquals(expectedSegments[i], point.getSegmentIndex());
+                Assert.assertEquals(expectedSegmentStarts[i], point.isSegmentStart());
+            }
+            Assert.assertFalse(reader.next());
+
+            Assert.assertEquals(-70.6670617, reader.getMinLatitude(), 0);
+            Assert.assertEquals(-70.6666343, reader.getMaxLatitude(), 0);
+            Assert.assertEquals(-8.2695876, reader.getMinLongitude(), 0);
+            Assert.assertEquals(-8.2653274, reader.getMaxLongitude(), 0);
+            Assert.assertEquals(205.0, reader.getMinAltitude(), 0);
+            Assert.assertEquals(790.0, reader.getMaxAltitude(), 0);
+
+            // the same distance in both segments, but not between them
+            final float[] results = new float[1];
+            Location.distanceBetween(-70.6666343, -8.2695876, -70.6670617, -8.2653274, results);
+            Assert.assertEquals(2 * results[0], reader.getDistance(), 0.01);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package nodomain.freeyourgadget.gadgetbridge.util.logging;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.AppenderBase;
+
+public class AsyncRingBufferAppenderTest {
+    private final LoggerContext context = new LoggerContext();
+    private final Logger logger = context.getLogger(AsyncRingBufferAppenderTest.class);
+
+    @Test
+    public void testWritesInOrder() {
+        final BlockingListAppender delegate = new BlockingListAppender();
+        delegate.release.countDown();
+        final AsyncRingBufferAppender appender = createAppender(delegate, 128);
+
+        for (int i = 0; i < 100; i++) {
+            appender.doAppend(createEvent(Level.DEBUG, i));
+        }
+
+        assertTrue(appender.flush(5000));
+        assertEquals(100, delegate.messages.size());
+        for (int i = 0; i < 100; i++) {
+            assertEquals("event " + i, delegate.messages.get(i));
+        }
+
+        appender.stop();
+    }
+
+    @Test
+    public void testDropPolicy() throws InterruptedException {
+        final BlockingListAppender delegate = new BlockingListAppender();
+        final AsyncRingBufferAppender appender = createAppender(delegate, 4);
+
+        // the worker takes this one, and blocks writing it
+        appender.doAppend(createEvent(Level.DEBUG, 0));
+        assertTrue(delegate.entered.await(5, TimeUnit.SECONDS));
+
+        // fill the buffer
+        for (int i = 1; i <= 4; i++) {
+            appender.doAppend(createEvent(Level.DEBUG, i));
+        }
+        // dropped
+        appender.doAppend(createEvent(Level.DEBUG, 5));
+        appender.doAppend(createEvent(Level.INFO, 6));
+        // evicts event 1
+        appender.doAppend(createEvent(Level.WARN, 7));
+
+        assertEquals(3, appender.getDroppedCount());
+        assertEquals(2, appender.getDroppedCount(Level.DEBUG));
+        assertEquals(1, appender.getDroppedCount(Level.INFO));
+        assertEquals(0, appender.getDroppedCount(Level.WARN));
+
+        delegate.release.countDown();
+        assertTrue(appender.flush(5000));
+
+        assertEquals(
+                Arrays.asList("event 0", "event 2", "event 3", "event 4", "event 7", "Log buffer full, dropped 3 events"),
+                delegate.messages
+        );
+
+        appender.stop();
+    }
+
+    @Test
+    public void testStopWritesPendingEvents() {
+        final BlockingListAppender delegate = new BlockingListAppender();
+        delegate.release.countDown();
+        final AsyncRingBufferAppender appender = createAppender(delegate, 64);
+
+        for (int i = 0; i < 50; i++) {
+            appender.doAppend(createEvent(Level.INFO, i));
+        }
+        appender.stop();
+
+        assertEquals(50, delegate.messages.size());
+        assertFalse(delegate.isStarted());
+    }
+
+    private AsyncRingBufferAppender createAppender(final BlockingListAppender delegate, final int capacity) {
+        delegate.setContext(context);
+        final AsyncRingBufferAppender appender = new AsyncRingBufferAppender(delegate, capacity);
+        appender.setContext(context);
+        appender.start();
+        return appender;
+    }
+
+    private ILoggingEvent createEvent(final Level level, final int i) {
+        return new LoggingEvent(getClass().getName(), logger, level, "event {}", null, new Object[]{i});
+    }
+
+    private static class BlockingListAppender extends AppenderBase<ILoggingEvent> {
+        private final List<String> messages = new ArrayList<>();
+        private final CountDownLatch entered = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+
+        @Override
+        protected void append(final ILoggingEvent event) {
+            entered.countDown();
+            try {
+                release.await();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            messages.add(event.getFormattedMessage());
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package nodomain.freeyourgadget.gadgetbridge.util.logging;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.UUID;
+
+public class PacketTraceTest {
+    private static final UUID UUID_CHARACTERISTIC = UUID.fromString("00000001-0000-3512-2118-0009af100700");
+
+    private File file;
+
+    @Before
+    public void setUp() throws IOException {
+        file = File.createTempFile("packets", ".bin");
+        assertTrue(file.delete());
+    }
+
+    @After
+    public void tearDown() {
+        //noinspection ResultOfMethodCallIgnored
+        file.delete();
+        //noinspection ResultOfMethodCallIgnored
+        PacketTrace.getPreviousFile(file).delete();
+    }
+
+    @Test
+    public void testRecordAndDecode() throws IOException {
+        // small buffer, so that records wrap around
+        final PacketTrace trace = new PacketTrace(file, 64);
+        trace.start();
+
+        for (int i = 0; i < 20; i++) {
+            trace.record(PacketTrace.TYPE_CHARACTERISTIC_CHANGED, UUID_CHARACTERISTIC, new byte[]{(byte) i, 0x01, (byte) 0xff});
+            assertTrue(trace.flush(5000));
+        }
+        trace.record(PacketTrace.TYPE_SOCKET_WRITE, null, new byte[]{0x0a, 0x0b}, 1, 1);
+        trace.stop();
+
+        assertEquals(21, trace.getRecordedCount());
+        assertEquals(0, trace.getDroppedCount());
+
+        final String[] lines = decode().split("\n");
+        assertEquals(21, lines.length);
+        for (int i = 0; i < 20; i++) {
+            assertTrue(lines[i], lines[i].endsWith(String.format(" changed %s: %02X01FF", UUID_CHARACTERISTIC, i)));
+        }
+        assertTrue(lines[20], lines[20].endsWith(" socket_write: 0B"));
+    }
+
+    @Test
+    public void testDropsWhenFull() throws IOException {
+        final PacketTrace trace = new PacketTrace(file, 64);
+        trace.start();
+
+        // does not fit in the buffer
+        trace.record(PacketTrace.TYPE_CHARACTERISTIC_WRITE, UUID_CHARACTERISTIC, new byte[64]);
+        trace.record(PacketTrace.TYPE_CHARACTERISTIC_WRITE, UUID_CHARACTERISTIC, new byte[4]);
+        trace.stop();
+
+        assertEquals(1, trace.getRecordedCount());
+        assertEquals(1, trace.getDroppedCount());
+        assertEquals(64, trace.getDroppedBytes());
+        assertEquals(1, decode().split("\n").length);
+    }
+
+    @Test
+    public void testDropsTooLargePackets() {
+        final PacketTrace trace = new PacketTrace(file, 2 * PacketTrace.MAX_PACKET_SIZE);
+        trace.start();
+
+        trace.record(PacketTrace.TYPE_SOCKET_READ, null, new byte[PacketTrace.MAX_PACKET_SIZE + 1]);
+        trace.record(PacketTrace.TYPE_SOCKET_READ, null, new byte[PacketTrace.MAX_PACKET_SIZE]);
+        trace.stop();
+
+        assertEquals(1, trace.getRecordedCount());
+        assertEquals(1, trace.getDroppedCount());
+    }
+
+    @Test
+    public void testRotatesOnRecordBoundaries() throws IOException {
+        // 8 bytes of file header and 49 bytes per record, so the file is rotated after 2 records
+        final PacketTrace trace = new PacketTrace(file, 1024, 100);
+        trace.start();
+
+        for (int i = 0; i < 10; i++) {
+            final byte[] data = new byte[20];
+            Arrays.fill(data, (byte) i);
+            trace.record(PacketTrace.TYPE_CHARACTERISTIC_WRITE, UUID_CHARACTERISTIC, data);
+        }
+        trace.stop();
+
+        final File previousFile = PacketTrace.getPreviousFile(file);
+        assertEquals(8 + 2 * 49, previousFile.length());
+        assertEquals(8 + 2 * 49, file.length());
+
+        final String[] previousLines = decode(previousFile).split("\n");
+        assertEquals(2, previousLines.length);
+        assertTrue(previousLines[0], previousLines[0].endsWith(": " + repeatHex(0x06, 20)));
+        assertTrue(previousLines[1], previousLines[1].endsWith(": " + repeatHex(0x07, 20)));
+
+        final String[] lines = decode().split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0], lines[0].endsWith(": " + repeatHex(0x08, 20)));
+        assertTrue(lines[1], lines[1].endsWith(": " + repeatHex(0x09, 20)));
+    }
+
+    @Test
+    public void testDecodeIgnoresTruncatedRecord() throws IOException {
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        final DataOutputStream out = new DataOutputStream(baos);
+        out.writeInt(PacketTrace.MAGIC);
+        out.writeInt(PacketTrace.VERSION);
+        writeRecordHeader(out, 2);
+        out.write(new byte[]{0x01, 0x02});
+        writeRecordHeader(out, 4);
+        out.write(new byte[]{0x03});
+
+        final StringWriter writer = new StringWriter();
+        PacketTrace.decode(new ByteArrayInputStream(baos.toByteArray()), writer);
+
+        final String[] lines = writer.toString().split("\n");
+        assertEquals(1, lines.length);
+        assertTrue(lines[0], lines[0].endsWith(" socket_read: 0102"));
+    }
+
+    @Test
+    public void testDecodeRejectsInvalidLength() throws IOException {
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        final DataOutputStream out = new DataOutputStream(baos);
+        out.writeInt(PacketTrace.MAGIC);
+        out.writeInt(PacketTrace.VERSION);
+        writeRecordHeader(out, PacketTrace.MAX_PACKET_SIZE + 1);
+        out.write(new byte[16]);
+
+        try {
+            PacketTrace.decode(new ByteArrayInputStream(baos.toByteArray()), new StringWriter());
+            fail("Expected an invalid packet length");
+        } catch (final IOException e) {
+            assertEquals("Invalid packet length " + (PacketTrace.MAX_PACKET_SIZE + 1), e.getMessage());
+        }
+    }
+
+    private static String repeatHex(final int value, final int count) {
+        final StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            sb.append(String.format("%02X", value));
+        }
+        return sb.toString();
+    }
+
+    private static void writeRecordHeader(final DataOutputStream out, final int length) throws IOException {
+        out.writeLong(1700000000000L);
+        out.writeByte(PacketTrace.TYPE_SOCKET_READ);
+        out.writeLong(0);
+        out.writeLong(0);
+        out.writeInt(length);
+    }
+
+    private String decode() throws IOException {
+        return decode(file);
+    }
+
+    private static String decode(final File traceFile) throws IOException {
+        final StringWriter writer = new StringWriter();
+        try (InputStream in = new FileInputStream(traceFile)) {
+            PacketTrace.decode(in, writer);
+        }
+        return writer.toString();
+    }
+}